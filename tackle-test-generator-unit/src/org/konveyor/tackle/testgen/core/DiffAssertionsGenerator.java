@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -39,6 +40,8 @@ import org.apache.commons.cli.ParseException;
 import org.konveyor.tackle.testgen.core.executor.SequenceExecutor;
 import org.konveyor.tackle.testgen.core.executor.SequenceExecutor.SequenceInfo;
 import org.konveyor.tackle.testgen.core.executor.SequenceExecutor.SequenceResults;
+import org.konveyor.tackle.testgen.core.executor.SequenceResultsBinaryFormat;
+import org.konveyor.tackle.testgen.core.executor.SequenceResultsShards;
 import org.konveyor.tackle.testgen.util.Constants;
 import org.konveyor.tackle.testgen.util.TackleTestJson;
 import org.konveyor.tackle.testgen.util.TackleTestLogger;
@@ -52,6 +55,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.javaparser.ParseProblemException;
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.ExpressionStmt;
 import com.github.javaparser.utils.ClassUtils;
 
 /**
@@ -79,12 +83,29 @@ public class DiffAssertionsGenerator {
 	
 	private final static ObjectMapper mapper = TackleTestJson.getObjectMapper();
 
+	/**
+	 * Adds assertions to the sequences in the given file, based on their execution results
+	 *
+	 * @param appName the name of the application under test. Will be used as part of output file names.
+	 * @param seqFile file containing the sequences
+	 * @param resFile file containing the execution results of the sequences (in JSON or in the binary
+	 * format of {@link SequenceResultsBinaryFormat}), or directory containing the results in shards
+	 * (written by the parallel batch mode of {@link SequenceExecutor}), which are processed one shard at a time
+	 */
+
 	public DiffAssertionsGenerator(String appName, File seqFile, File resFile) throws ClassNotFoundException, IllegalArgumentException, SecurityException, IOException {
 
 		this(appName);
 		SequenceExecutor.readSequences(seqFile, id2Sequences);
-		readResults(resFile);
-		createAssertions(new File(applicationName+"_"+ Constants.DIFF_ASSERTIONS_OUTFILE_SUFFIX));
+		File outputFile = new File(applicationName+"_"+ Constants.DIFF_ASSERTIONS_OUTFILE_SUFFIX);
+		if (resFile.isDirectory()) {
+			createAssertionsFromShards(resFile, outputFile);
+		} else if (SequenceResultsBinaryFormat.isBinaryResultsFile(resFile)) {
+			createAssertionsFromBinaryResults(resFile, outputFile);
+		} else {
+			readResults(resFile);
+			createAssertions(outputFile);
+		}
 	}
 
 	/**
@@ -104,41 +125,97 @@ public class DiffAssertionsGenerator {
 
 		ObjectNode mainObject = (ObjectNode) mapper.readTree(resFile);
 		
-		mainObject.fieldNames().forEachRemaining(seqId -> {
+		mainObject.fieldNames().forEachRemaining(seqId -> addResults(seqId, (ObjectNode) mainObject.get(seqId)));
 
-			ObjectNode content = (ObjectNode) mainObject.get(seqId);
+	}
 
-			ArrayNode originalIndices = (ArrayNode) content.get("original_sequence_indices");
+	private void addResults(String seqId, ObjectNode content) {
 
-			Set<Integer> indices = new HashSet<Integer>();
+		ArrayNode originalIndices = (ArrayNode) content.get("original_sequence_indices");
 
-			for (int i = 0; i < originalIndices.size(); i++) {
-				indices.add(originalIndices.get(i).asInt());
-			}
+		Set<Integer> indices = new HashSet<Integer>();
 
-			SequenceResults results;
-			try {
-				results = new SequenceResults(content, indices);
-				id2Results.put(seqId, results);
-			} catch (ClassNotFoundException e) {
-				logger.warning("ClassNotFoundException: "+e.getMessage());
-			}
-		});
+		for (int i = 0; i < originalIndices.size(); i++) {
+			indices.add(originalIndices.get(i).asInt());
+		}
 
+		SequenceResults results;
+		try {
+			results = new SequenceResults(content, indices);
+			id2Results.put(seqId, results);
+		} catch (ClassNotFoundException e) {
+			logger.warning("ClassNotFoundException: "+e.getMessage());
+		}
 	}
 
     private void createAssertions(File outputFile) throws IOException, IllegalArgumentException, SecurityException {
 
 		Map<String, SequenceInfo> id2AssertSequences = new HashMap<String, SequenceInfo>();
 
-		for (Map.Entry<String, SequenceInfo> entry : id2Sequences.entrySet()) {
+		addAssertionsForSequences(id2Sequences.keySet(), id2AssertSequences);
 
-			String seqId = entry.getKey();
+		logger.info("Added " + assertCounter + " assertions");
+
+		exportSequences(id2AssertSequences, outputFile);
+	}
+
+	/**
+	 * Creates assertions for the results in each shard in turn, so that the results of only one shard
+	 * are held in memory at a time
+	 */
+    private void createAssertionsFromShards(File shardsDir, File outputFile) throws IOException,
+		IllegalArgumentException, SecurityException {
+
+		Map<String, SequenceInfo> id2AssertSequences = new HashMap<String, SequenceInfo>();
+
+		for (File shard : SequenceResultsShards.getShardFiles(shardsDir)) {
+			id2Results.clear();
+			SequenceResultsShards.readShard(shard, this::addResults);
+			addAssertionsForSequences(id2Results.keySet(), id2AssertSequences);
+		}
+		id2Results.clear();
+
+		logger.info("Added " + assertCounter + " assertions");
+
+		exportSequences(id2AssertSequences, outputFile);
+	}
+
+	/**
+	 * Creates assertions for the results in a binary results file, reading the results of one sequence
+	 * at a time
+	 */
+    private void createAssertionsFromBinaryResults(File resFile, File outputFile) throws IOException,
+		IllegalArgumentException, SecurityException {
+
+		Map<String, SequenceInfo> id2AssertSequences = new HashMap<String, SequenceInfo>();
+
+		try (SequenceResultsBinaryFormat.Reader reader = new SequenceResultsBinaryFormat.Reader(resFile)) {
+			for (String seqId : reader.getSequenceIds()) {
+				id2Results.clear();
+				try {
+					id2Results.put(seqId, reader.read(seqId));
+				} catch (ClassNotFoundException e) {
+					logger.warning("ClassNotFoundException: "+e.getMessage());
+				}
+				addAssertionsForSequences(Collections.singleton(seqId), id2AssertSequences);
+			}
+		}
+		id2Results.clear();
+
+		logger.info("Added " + assertCounter + " assertions");
+
+		exportSequences(id2AssertSequences, outputFile);
+	}
+
+	private void addAssertionsForSequences(Set<String> seqIds, Map<String, SequenceInfo> id2AssertSequences) {
+
+		for (String seqId : seqIds) {
 
 			SequenceResults results = id2Results.get(seqId);
 
 			if (results == null) {
 				logger.warning("Skipping sequence " + seqId + " with no runtime results");
+				continue;
 			}
 
 			if (!results.passed) {
@@ -146,7 +223,12 @@ public class DiffAssertionsGenerator {
 				continue;
 			}
 
-			SequenceInfo infoNoAssertions = entry.getValue();
+			SequenceInfo infoNoAssertions = id2Sequences.get(seqId);
+
+			if (infoNoAssertions == null) {
+				logger.warning("Skipping results of unknown sequence " + seqId);
+				continue;
+			}
 
 			List<String> newImports = new ArrayList<String>();
 			newImports.addAll(infoNoAssertions.imports);
@@ -157,10 +239,36 @@ public class DiffAssertionsGenerator {
 
 			id2AssertSequences.put(seqId, infoWithAssertions);
 		}
+	}
 
-		logger.info("Added " + assertCounter + " assertions");
+    /**
+     * Returns the variables of the given code on whose recorded objects diff assertions can be added:
+     * the variables declared in the code (objects assigned to other variables, e.g., of statements
+     * added by Randoop, are skipped by {@link #addAssertions(String, SequenceResults)})
+     * @param code The sequence without the assertions
+     * @return names of the declared variables
+     * @throws RuntimeException if the code cannot be parsed
+     */
 
-		exportSequences(id2AssertSequences, outputFile);
+	public static Set<String> getAssertableVariables(String code) {
+
+		BlockStmt block;
+
+		try {
+			block = StaticJavaParser.parseBlock("{"+code+"}");
+		} catch (ParseProblemException e) {
+			throw new RuntimeException("Failed to parse sequence: "+code+"\n"+e.getMessage());
+		}
+
+		Set<String> variables = new HashSet<String>();
+
+		for (ExpressionStmt exprStmt : block.findAll(ExpressionStmt.class)) {
+			if (exprStmt.getExpression().isVariableDeclarationExpr()) {
+				variables.add(exprStmt.getExpression().asVariableDeclarationExpr().getVariable(0).getNameAsString());
+			}
+		}
+
+		return variables;
 	}
 
     /**
@@ -519,7 +627,8 @@ public class DiffAssertionsGenerator {
         options.addOption(Option.builder("seqr")
             .longOpt("sequences-results")
             .hasArg()
-            .desc("Name of JSON file containing the extended sequences results")
+            .desc("Name of JSON or binary file containing the extended sequences results, or of directory "
+            		+ "containing the results in shards")
             .type(String.class)
             .build()
         );
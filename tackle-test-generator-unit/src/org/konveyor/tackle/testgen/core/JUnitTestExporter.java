@@ -20,6 +20,8 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -39,6 +41,7 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
+import org.apache.commons.io.FileUtils;
 import org.konveyor.tackle.testgen.core.extender.SequenceUtil;
 import org.konveyor.tackle.testgen.util.Constants;
 import org.konveyor.tackle.testgen.util.TackleTestJson;
@@ -147,7 +150,7 @@ public class JUnitTestExporter {
 		return junitTests;
 	}
 
-	public void writeUnitTest(String className, Map<String, List<String>> testSequences, Set<String> testImports, boolean isBadPath) throws IOException {
+	public File writeUnitTest(String className, Map<String, List<String>> testSequences, Set<String> testImports, boolean isBadPath) throws IOException {
 
 		String unitTestClassName = className.replaceAll("\\.", "_")+(isBadPath? "_BadPath" : "")+"_Test";
 		
@@ -247,90 +250,127 @@ public class JUnitTestExporter {
 		} finally {
 			writer.close();
 		}
+
+		return outputFile;
 	}
 
 	public File writeJEEUnitTest(String className, List<String> testSequences, List<String> testImports, Set<String> beforeAfterMethods) throws IOException {
-		String unitTestClassName = className.replaceAll("\\.", "_")+"_JEE_Test";
 
-		File junitFile = new File(testOutDir, unitTestClassName+".java");
+		File junitFile = new File(testOutDir, getJEEUnitTestClassName(className)+".java");
 
 		BufferedWriter writer = new BufferedWriter(new FileWriter(junitFile));
 
 		try {
+			writeJEEUnitTest(writer, className, testSequences, testImports, beforeAfterMethods);
+			unitFileCounter++;
+		} finally {
+			writer.close();
+		}
 
-			for (String imp : testImports) {
-				writer.write("import "+imp+";");
-				writer.newLine();
-			}
+		return junitFile;
+	}
 
-			writer.write("import org.junit.BeforeClass;");
-			writer.newLine();
-			writer.write("import org.junit.Before;");
-			writer.newLine();
-			writer.write("import org.junit.After;");
-			writer.newLine();
-			writer.write("import org.junit.AfterClass;");
-			writer.newLine();
-			String[] imports = new String[] {"org.junit.runner.RunWith",
-					"org.evosuite.runtime.EvoRunner",
-					"org.evosuite.runtime.EvoRunnerParameters",
-					"org.evosuite.runtime.annotation.EvoSuiteExclude"};
-			for (String imp : imports) {
-				if ( ! testImports.contains(imp)) {
-					writer.write("import "+imp+";");
-					writer.newLine();
-				}
-			}
-			writer.newLine();
-			writer.write("@RunWith(EvoRunner.class) @EvoRunnerParameters(mockJVMNonDeterminism = true, useVFS = true, useVNET = true, resetStaticState = true, "
-					+ "separateClassLoader = true, useJEE = true)");
-			writer.newLine();
-			writer.write("public class "+unitTestClassName+" {");
-			writer.newLine();
-			writer.newLine();
+	/**
+	 * Creates the source of a JEE unit test in memory, without writing it to the output directory
+	 * @return source of the unit test, whose class is named by {@link #getJEEUnitTestClassName(String)}
+	 */
+	public String createJEEUnitTest(String className, List<String> testSequences, List<String> testImports, Set<String> beforeAfterMethods) throws IOException {
 
-			String scaffoldingClassName = className + Constants.EVOSUITE_HELP_CLASS_SUFFIX;
+		StringWriter source = new StringWriter();
 
-			writer.write("\tprivate "+scaffoldingClassName+" scaffolding = new "+scaffoldingClassName+"();");
-			writer.newLine();
-			writer.newLine();
-			writeBAClassMethod(writer, scaffoldingClassName, beforeAfterMethods, "BeforeClass", Constants.EVOSUITE_BEFORE_CLASS_METHOD);
-			writeBAClassMethod(writer, scaffoldingClassName, beforeAfterMethods, "AfterClass", Constants.EVOSUITE_AFTER_CLASS_METHOD);
-			writeBATestMethod(writer, beforeAfterMethods, "Before", Constants.EVOSUITE_BEFORE_TEST_METHOD);
-			writeBATestMethod(writer, beforeAfterMethods, "After", Constants.EVOSUITE_AFTER_TEST_METHOD);
+		try (BufferedWriter writer = new BufferedWriter(source)) {
+			writeJEEUnitTest(writer, className, testSequences, testImports, beforeAfterMethods);
+		}
 
-			int testCounter = 0;
+		return source.toString();
+	}
 
-			for (String sequence : testSequences) {
-				writer.write("\t@Test");
-				writer.newLine();
-				writer.write("\tpublic void test"+(testCounter++)+"() throws Throwable {");
-				writer.newLine();
-				String[] lines = sequence.split("\\r\\n");
-				for (String line : lines) {
-					writer.write("\t\t"+line);
-					writer.newLine();
-				}
-				writer.write("\t}");
-				writer.newLine();
-				writer.newLine();
-			}
+	/**
+	 * Writes a JEE unit test source, created by {@link #createJEEUnitTest(String, List, List, Set)}, to the output directory
+	 */
+	public File writeJEEUnitTest(String className, String source) throws IOException {
 
-			if (addAssertUtilMethods) {
+		File junitFile = new File(testOutDir, getJEEUnitTestClassName(className)+".java");
 
-				writer.write(addFieldAccessMethod());
-			}
+		FileUtils.writeStringToFile(junitFile, source, StandardCharsets.UTF_8);
+		unitFileCounter++;
 
-			writer.write("}");
+		return junitFile;
+	}
+
+	public static String getJEEUnitTestClassName(String className) {
+		return className.replaceAll("\\.", "_")+"_JEE_Test";
+	}
+
+	private void writeJEEUnitTest(BufferedWriter writer, String className, List<String> testSequences, List<String> testImports, Set<String> beforeAfterMethods) throws IOException {
+
+		String unitTestClassName = getJEEUnitTestClassName(className);
+
+		for (String imp : testImports) {
+			writer.write("import "+imp+";");
 			writer.newLine();
-			unitFileCounter++;
+		}
 
-		} finally {
-			writer.close();
+		writer.write("import org.junit.BeforeClass;");
+		writer.newLine();
+		writer.write("import org.junit.Before;");
+		writer.newLine();
+		writer.write("import org.junit.After;");
+		writer.newLine();
+		writer.write("import org.junit.AfterClass;");
+		writer.newLine();
+		String[] imports = new String[] {"org.junit.runner.RunWith",
+				"org.evosuite.runtime.EvoRunner",
+				"org.evosuite.runtime.EvoRunnerParameters",
+				"org.evosuite.runtime.annotation.EvoSuiteExclude"};
+		for (String imp : imports) {
+			if ( ! testImports.contains(imp)) {
+				writer.write("import "+imp+";");
+				writer.newLine();
+			}
+		}
+		writer.newLine();
+		writer.write("@RunWith(EvoRunner.class) @EvoRunnerParameters(mockJVMNonDeterminism = true, useVFS = true, useVNET = true, resetStaticState = true, "
+				+ "separateClassLoader = true, useJEE = true)");
+		writer.newLine();
+		writer.write("public class "+unitTestClassName+" {");
+		writer.newLine();
+		writer.newLine();
+
+		String scaffoldingClassName = className + Constants.EVOSUITE_HELP_CLASS_SUFFIX;
+
+		writer.write("\tprivate "+scaffoldingClassName+" scaffolding = new "+scaffoldingClassName+"();");
+		writer.newLine();
+		writer.newLine();
+		writeBAClassMethod(writer, scaffoldingClassName, beforeAfterMethods, "BeforeClass", Constants.EVOSUITE_BEFORE_CLASS_METHOD);
+		writeBAClassMethod(writer, scaffoldingClassName, beforeAfterMethods, "AfterClass", Constants.EVOSUITE_AFTER_CLASS_METHOD);
+		writeBATestMethod(writer, beforeAfterMethods, "Before", Constants.EVOSUITE_BEFORE_TEST_METHOD);
+		writeBATestMethod(writer, beforeAfterMethods, "After", Constants.EVOSUITE_AFTER_TEST_METHOD);
+
+		int testCounter = 0;
+
+		for (String sequence : testSequences) {
+			writer.write("\t@Test");
+			writer.newLine();
+			writer.write("\tpublic void test"+(testCounter++)+"() throws Throwable {");
+			writer.newLine();
+			String[] lines = sequence.split("\\r\\n");
+			for (String line : lines) {
+				writer.write("\t\t"+line);
+				writer.newLine();
+			}
+			writer.write("\t}");
+			writer.newLine();
+			writer.newLine();
 		}
 
-		return junitFile;
+		if (addAssertUtilMethods) {
+
+			writer.write(addFieldAccessMethod());
+		}
 
+		writer.write("}");
+		writer.newLine();
 	}
 
 	private void writeBAClassMethod(BufferedWriter writer, String scaffoldingClassName, Set<String> beforeAfterMethods, String beforeAfterTag, String methodName)
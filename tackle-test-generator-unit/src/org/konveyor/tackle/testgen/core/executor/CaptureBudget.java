@@ -0,0 +1,87 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+/**
+ * Bounds on the cost of recording the state of runtime objects while executing a sequence: the
+ * maximum number of fields (public fields and getters) read per object, the maximum size of the
+ * recorded state of an object (names and values of its fields), and the total time spent recording
+ * object state per sequence execution. An object over budget is recorded by type only, without its
+ * state. A limit of 0 means no limit.
+ */
+public class CaptureBudget {
+
+    /** Budget without limits, under which the complete state of every object is recorded */
+    public static final CaptureBudget UNLIMITED = new CaptureBudget(0, 0, 0);
+
+    private final int maxFieldsPerObject;
+
+    private final int maxStateBytes;
+
+    private final long sequenceTimeMillis;
+
+    /**
+     * Creates a capture budget
+     *
+     * @param maxFieldsPerObject maximum number of fields read per object (0 for no limit)
+     * @param maxStateBytes maximum size of the recorded state of an object, in bytes, approximated by
+     * the number of characters of the recorded values (0 for no limit)
+     * @param sequenceTimeMillis maximum time spent recording object state per sequence execution, in
+     * milliseconds (0 for no limit)
+     */
+    public CaptureBudget(int maxFieldsPerObject, int maxStateBytes, long sequenceTimeMillis) {
+        if (maxFieldsPerObject < 0 || maxStateBytes < 0 || sequenceTimeMillis < 0) {
+            throw new IllegalArgumentException("Capture budget limits must not be negative: " + maxFieldsPerObject +
+                ", " + maxStateBytes + ", " + sequenceTimeMillis);
+        }
+        this.maxFieldsPerObject = maxFieldsPerObject;
+        this.maxStateBytes = maxStateBytes;
+        this.sequenceTimeMillis = sequenceTimeMillis;
+    }
+
+    public int getMaxFieldsPerObject() {
+        return this.maxFieldsPerObject;
+    }
+
+    public int getMaxStateBytes() {
+        return this.maxStateBytes;
+    }
+
+    public long getSequenceTimeMillis() {
+        return this.sequenceTimeMillis;
+    }
+
+    /**
+     * Returns whether the given number of fields exceeds the budget
+     */
+    boolean exceedsFields(int numFields) {
+        return this.maxFieldsPerObject > 0 && numFields > this.maxFieldsPerObject;
+    }
+
+    /**
+     * Returns whether the given state size exceeds the budget
+     */
+    boolean exceedsStateBytes(long stateBytes) {
+        return this.maxStateBytes > 0 && stateBytes > this.maxStateBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "fields=" + this.maxFieldsPerObject + ",bytes=" + this.maxStateBytes + ",timeMillis=" +
+            this.sequenceTimeMillis;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+
+import org.konveyor.tackle.testgen.util.TackleTestLogger;
+
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.NormalExecution;
+import randoop.NotExecutedExecution;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.Statement;
+import randoop.sequence.Variable;
+
+/**
+ * Execution backend that compiles sequences into classes, so that repeated executions of a sequence
+ * run as compiled (and, eventually, JIT-compiled) code, instead of being interpreted reflectively
+ * statement by statement. Sequences are compiled in batches, one nested class per sequence, with an
+ * in-memory compiler. The compiled code reports the outcome of each statement, and the receiver of the
+ * last statement, to {@link Outcomes}, from which the same results are recorded as for reflective
+ * execution (see {@link SequenceExecutor#setCompiledBackend(CompiledSequenceBackend)}).
+ * <p>
+ * Compiled classes are in a package of their own, hence sequences that access non-public members of
+ * the application do not compile; such sequences, as well as any other sequence that does not compile,
+ * are executed reflectively.
+ */
+public class CompiledSequenceBackend {
+
+    private static final Logger logger = TackleTestLogger.getLogger(CompiledSequenceBackend.class);
+
+    private static final String COMPILED_PACKAGE = "org.konveyor.tackle.testgen.compiled";
+
+    private static final AtomicInteger batchCounter = new AtomicInteger();
+
+    /**
+     * Compiled body of a sequence
+     */
+    public interface SequenceBody {
+
+        /**
+         * Executes the statements of the sequence, up to the first statement that throws, reporting
+         * their outcomes to the given outcomes
+         */
+        void execute(Outcomes outcomes);
+    }
+
+    /**
+     * Outcomes of the statements of an execution of a compiled sequence, reported by the compiled code
+     */
+    public static final class Outcomes {
+
+        private final ExecutionOutcome[] outcomes;
+
+        private Object receiver;
+
+        private long startNanos;
+
+        Outcomes(int size) {
+            this.outcomes = new ExecutionOutcome[size];
+            Arrays.fill(this.outcomes, NotExecutedExecution.create());
+        }
+
+        /** Marks the start of the execution of a statement */
+        public void start() {
+            this.startNanos = System.nanoTime();
+        }
+
+        /** Reports the normal termination of the statement at the given index, with the given value */
+        public void normal(int index, Object value) {
+            this.outcomes[index] = new NormalExecution(value, System.nanoTime() - this.startNanos);
+        }
+
+        /** Reports the exception thrown by the statement at the given index */
+        public void exceptional(int index, Throwable exception) {
+            this.outcomes[index] = new ExceptionalExecution(exception, System.nanoTime() - this.startNanos);
+        }
+
+        /** Reports the receiver of the last statement, before it is executed */
+        public void receiver(Object receiver) {
+            this.receiver = receiver;
+        }
+
+        ExecutionOutcome get(int index) {
+            return this.outcomes[index];
+        }
+
+        Object getReceiver() {
+            return this.receiver;
+        }
+    }
+
+    private final InMemoryJavaCompiler compiler;
+
+    private final ClassLoader parentLoader;
+
+    // compiled bodies of sequences, keyed by sequence (sequences are compared structurally)
+    private final Map<Sequence, SequenceBody> bodies = new ConcurrentHashMap<>();
+
+    // sequences that did not compile, and are executed reflectively
+    private final Set<Sequence> uncompilable = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a backend that compiles sequences with the given compiler, and loads compiled classes in
+     * children of the context class loader of the current thread
+     *
+     * @param compiler compiler of sequences, which may be shared among backends
+     */
+    public CompiledSequenceBackend(InMemoryJavaCompiler compiler) {
+        this.compiler = compiler;
+        this.parentLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    /**
+     * Compiles the given sequences in a single batch, excluding sequences already compiled or known not
+     * to compile
+     *
+     * @param sequences sequences to compile
+     */
+    public synchronized void compile(Collection<Sequence> sequences) {
+
+        List<Sequence> batch = new ArrayList<>();
+        for (Sequence sequence : new LinkedHashSet<>(sequences)) {
+            if ( ! this.bodies.containsKey(sequence) && ! this.uncompilable.contains(sequence)) {
+                batch.add(sequence);
+            }
+        }
+
+        // sequences that fail to compile are removed from the batch, and the rest of the batch recompiled
+        while ( ! batch.isEmpty()) {
+
+            String className = COMPILED_PACKAGE + ".Sequences" + batchCounter.incrementAndGet();
+            int[] firstLines = new int[batch.size() + 1];
+            String source = toSource(className, batch, firstLines);
+
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            Map<String, byte[]> classBytes = this.compiler.compile(Collections.singletonMap(className, source),
+                diagnostics);
+
+            if (classBytes != null) {
+                load(className, batch, classBytes);
+                return;
+            }
+
+            Set<Integer> failed = new HashSet<>();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    int batchIndex = getBatchIndex(firstLines, diagnostic.getLineNumber());
+                    if (batchIndex == -1) {
+                        // error outside the code of sequences: give up on the whole batch
+                        failed.clear();
+                        break;
+                    }
+                    failed.add(batchIndex);
+                }
+            }
+            if (failed.isEmpty()) {
+                logger.warning("Failed to compile batch of " + batch.size() + " sequences; executing them reflectively");
+                this.uncompilable.addAll(batch);
+                return;
+            }
+
+            List<Sequence> remaining = new ArrayList<>(batch.size() - failed.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (failed.contains(i)) {
+                    this.uncompilable.add(batch.get(i));
+                } else {
+                    remaining.add(batch.get(i));
+                }
+            }
+            logger.fine(failed.size() + " of " + batch.size() + " sequences do not compile; executing them reflectively");
+            batch = remaining;
+        }
+    }
+
+    /**
+     * Returns the compiled body of the given sequence, compiling it if it was not compiled in a batch
+     *
+     * @param sequence sequence
+     * @return compiled body, or null if the sequence does not compile
+     */
+    public SequenceBody getBody(Sequence sequence) {
+        SequenceBody body = this.bodies.get(sequence);
+        if (body == null && ! this.uncompilable.contains(sequence)) {
+            compile(Collections.singletonList(sequence));
+            body = this.bodies.get(sequence);
+        }
+        return body;
+    }
+
+    /**
+     * Returns the number of compiled sequences
+     */
+    public int getCompiledCount() {
+        return this.bodies.size();
+    }
+
+    /**
+     * Returns the number of sequences that do not compile, and are executed reflectively
+     */
+    public int getUncompilableCount() {
+        return this.uncompilable.size();
+    }
+
+    private void load(String className, List<Sequence> batch, Map<String, byte[]> classBytes) {
+        // classes of each batch are loaded by a loader of their own, released with the backend
+        ClassLoader loader = new InMemoryJavaCompiler.InMemoryClassLoader(classBytes, this.parentLoader);
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                Class<?> bodyClass = Class.forName(className + "$S" + i, true, loader);
+                this.bodies.put(batch.get(i), (SequenceBody) bodyClass.getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.fine("Failed to load compiled sequence: " + e);
+                this.uncompilable.add(batch.get(i));
+            }
+        }
+    }
+
+    /*
+     * Returns the index in the batch of the sequence whose code includes the given line, or -1
+     */
+
+    private static int getBatchIndex(int[] firstLines, long lineNumber) {
+        for (int i = 0; i < firstLines.length - 1; i++) {
+            if (lineNumber >= firstLines[i] && lineNumber < firstLines[i + 1]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Creates the source of a class with a nested body class per sequence, recording in the given array
+     * the first line of the code of each sequence, followed by the line after the last sequence
+     */
+
+    private static String toSource(String className, List<Sequence> batch, int[] firstLines) {
+
+        String bodyInterface = SequenceBody.class.getCanonicalName();
+        String outcomesClass = Outcomes.class.getCanonicalName();
+
+        StringBuilder source = new StringBuilder();
+        int[] line = {1};
+        appendLine(source, line, "package " + COMPILED_PACKAGE + ";");
+        appendLine(source, line, "public final class " + className.substring(className.lastIndexOf('.') + 1) + " {");
+
+        for (int i = 0; i < batch.size(); i++) {
+            firstLines[i] = line[0];
+            Sequence sequence = batch.get(i);
+            ExecutableSequence es = new ExecutableSequence(sequence);
+            appendLine(source, line, "public static final class S" + i + " implements " + bodyInterface + " {");
+            appendLine(source, line, "public void execute(" + outcomesClass + " outcomes) {");
+            appendLine(source, line, "int index = 0;");
+            appendLine(source, line, "try {");
+            for (int j = 0; j < sequence.size(); j++) {
+                Statement statement = sequence.getStatement(j);
+                appendLine(source, line, "index = " + j + ";");
+                if (j == sequence.size() - 1 && ! statement.getOperation().isStatic() &&
+                    ! sequence.getInputs(j).isEmpty()) {
+                    // the receiver of the last statement is recorded when it returns no value
+                    appendLine(source, line, "outcomes.receiver(" + sequence.getInputs(j).get(0).getName() + ");");
+                }
+                appendLine(source, line, "outcomes.start();");
+                // as for JEE unit tests, captured wildcard types are not valid in source code
+                for (String codeLine : es.statementToCodeString(j).replaceAll("<Capture\\d+>", "").split("\\R")) {
+                    appendLine(source, line, codeLine);
+                }
+                Variable variable = sequence.getVariable(j);
+                appendLine(source, line, "outcomes.normal(" + j + ", " +
+                    (statement.getOutputType().isVoid() ? "null" : variable.getName()) + ");");
+            }
+            appendLine(source, line, "} catch (Throwable e) {");
+            appendLine(source, line, "outcomes.exceptional(index, e);");
+            appendLine(source, line, "}");
+            appendLine(source, line, "}");
+            appendLine(source, line, "}");
+        }
+        firstLines[batch.size()] = line[0];
+
+        appendLine(source, line, "}");
+        return source.toString();
+    }
+
+    private static void appendLine(StringBuilder source, int[] line, String code) {
+        source.append(code).append('\n');
+        line[0]++;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the distribution of execution times of sequences per target class and per target method,
+ * and derives adaptive time limits for executing sequences from it: a high percentile of the recent
+ * execution times of the target method (or, if the method has too few samples yet, of the target
+ * class), multiplied by a safety factor and bounded by a minimum and maximum limit. Until enough
+ * samples are available, the maximum limit applies.
+ */
+public class ExecutionLatencyTracker {
+
+    /** Default percentile of recent execution times from which time limits are derived */
+    public static final double DEFAULT_PERCENTILE = 0.99;
+
+    /** Default factor by which the percentile is multiplied */
+    public static final double DEFAULT_SAFETY_FACTOR = 10;
+
+    /** Default minimum time limit, in seconds */
+    public static final long DEFAULT_MIN_LIMIT_SEC = 2;
+
+    /** Default number of samples required before an adaptive limit is derived */
+    public static final int DEFAULT_MIN_SAMPLES = 10;
+
+    // number of recent execution times kept per class and method
+    private static final int WINDOW_SIZE = 128;
+
+    private final double percentile;
+
+    private final double safetyFactor;
+
+    private final long minLimitNanos;
+
+    private final long maxLimitNanos;
+
+    private final int minSamples;
+
+    private final Map<String, Window> classWindows = new ConcurrentHashMap<>();
+
+    private final Map<String, Window> methodWindows = new ConcurrentHashMap<>();
+
+    /**
+     * Recent execution times, kept in a ring buffer, with the time limit derived from them
+     */
+    private class Window {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+
+        private int count = 0;
+
+        private int next = 0;
+
+        // time limit derived from the current samples; recomputed when samples are added
+        private long limitNanos = -1;
+
+        synchronized void add(long nanos) {
+            this.samples[this.next] = nanos;
+            this.next = (this.next + 1) % WINDOW_SIZE;
+            this.count = Math.min(this.count + 1, WINDOW_SIZE);
+            this.limitNanos = -1;
+        }
+
+        synchronized boolean hasEnoughSamples() {
+            return this.count >= minSamples;
+        }
+
+        synchronized long getLimitNanos() {
+            if (this.limitNanos < 0) {
+                long[] sorted = Arrays.copyOf(this.samples, this.count);
+                Arrays.sort(sorted);
+                int index = Math.min(this.count - 1, (int) Math.ceil(percentile * this.count) - 1);
+                long limit = (long) (sorted[Math.max(index, 0)] * safetyFactor);
+                this.limitNanos = Math.max(minLimitNanos, Math.min(maxLimitNanos, limit));
+            }
+            return this.limitNanos;
+        }
+    }
+
+    /**
+     * Creates a tracker with the default percentile, safety factor, minimum limit, and number of
+     * samples, and the given maximum limit
+     *
+     * @param maxLimitSec maximum time limit, in seconds, which also applies until enough samples are available
+     */
+    public ExecutionLatencyTracker(long maxLimitSec) {
+        this(DEFAULT_PERCENTILE, DEFAULT_SAFETY_FACTOR, DEFAULT_MIN_LIMIT_SEC, maxLimitSec, DEFAULT_MIN_SAMPLES);
+    }
+
+    /**
+     * Creates a tracker
+     *
+     * @param percentile percentile (between 0 and 1) of recent execution times from which time limits are derived
+     * @param safetyFactor factor by which the percentile is multiplied
+     * @param minLimitSec minimum time limit, in seconds
+     * @param maxLimitSec maximum time limit, in seconds, which also applies until enough samples are available
+     * @param minSamples number of samples required before an adaptive limit is derived
+     */
+    public ExecutionLatencyTracker(double percentile, double safetyFactor, long minLimitSec, long maxLimitSec,
+                                   int minSamples) {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be in (0, 1]: " + percentile);
+        }
+        if (minLimitSec > maxLimitSec) {
+            throw new IllegalArgumentException("Minimum time limit exceeds maximum time limit: " + minLimitSec +
+                " > " + maxLimitSec);
+        }
+        this.percentile = percentile;
+        this.safetyFactor = safetyFactor;
+        this.minLimitNanos = TimeUnit.SECONDS.toNanos(minLimitSec);
+        this.maxLimitNanos = TimeUnit.SECONDS.toNanos(maxLimitSec);
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    /**
+     * Records the execution time of a sequence that completed
+     *
+     * @param className target class of the sequence
+     * @param methodSig target method of the sequence
+     * @param nanos execution time, in nanoseconds
+     */
+    public void record(String className, String methodSig, long nanos) {
+        this.classWindows.computeIfAbsent(className, key -> new Window()).add(nanos);
+        this.methodWindows.computeIfAbsent(className + "::" + methodSig, key -> new Window()).add(nanos);
+    }
+
+    /**
+     * Returns the time limit for executing a sequence of the given target class and method
+     *
+     * @param className target class of the sequence
+     * @param methodSig target method of the sequence
+     * @return time limit, in nanoseconds
+     */
+    public long getLimitNanos(String className, String methodSig) {
+        Window window = this.methodWindows.get(className + "::" + methodSig);
+        if (window == null || !window.hasEnoughSamples()) {
+            window = this.classWindows.get(className);
+        }
+        if (window == null || !window.hasEnoughSamples()) {
+            return this.maxLimitNanos;
+        }
+        return window.getLimitNanos();
+    }
+
+    /**
+     * Returns the maximum time limit, in nanoseconds
+     */
+    public long getMaxLimitNanos() {
+        return this.maxLimitNanos;
+    }
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+import org.konveyor.tackle.testgen.util.TackleTestLogger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import randoop.sequence.Sequence;
+
+/**
+ * Pool of pre-started worker JVMs ({@link SequenceExecutionWorker}) in which sequences are executed,
+ * isolated from the JVM of the caller: static state of the application, threads started by it, and
+ * its output do not affect the caller or other workers. Workers are started with the given classpath
+ * (which includes the application classes) when the pool is created, and take batches of sequences
+ * over their stdin, streaming back the results over their stdout.
+ * <p>
+ * A worker that crashes, or does not return the result of a sequence in time, is destroyed and
+ * replaced; the sequence it was executing is reported as failing, and the remaining sequences of the
+ * batch are executed on another worker. Workers are also restarted after a given number of sequence
+ * executions, and when application code leaves threads behind, to shed state leaked by the
+ * application.
+ */
+public class ForkedSequenceExecutionPool implements AutoCloseable {
+
+    private static final Logger logger = TackleTestLogger.getLogger(ForkedSequenceExecutionPool.class);
+
+    private static final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    // requests and responses are exchanged one per line
+    private static final ObjectWriter lineWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+    /** Default number of sequences executed by a worker before it is restarted */
+    public static final int DEFAULT_RESTART_INTERVAL = 500;
+
+    // time limit for a worker to start up
+    private static final long STARTUP_SEC_LIMIT = 60;
+
+    // time allowed, in addition to the execution time limits, for a worker to return a result
+    private static final long RESPONSE_SEC_SLACK = 30;
+
+    // marks the end of a worker's output
+    private static final String EOF = new String("EOF");
+
+    private final String classpath;
+
+    private final int restartInterval;
+
+    private final BlockingQueue<WorkerProcess> idleWorkers = new LinkedBlockingQueue<>();
+
+    private final List<WorkerProcess> allWorkers = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger liveWorkerCount = new AtomicInteger();
+
+    private final AtomicInteger workerCounter = new AtomicInteger();
+
+    private volatile boolean closed = false;
+
+    // budget for recording object state, applied by the workers
+    private volatile CaptureBudget captureBudget = CaptureBudget.UNLIMITED;
+
+    // execution statistics
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicInteger timedOutWorkers = new AtomicInteger();
+    private final AtomicInteger crashedWorkers = new AtomicInteger();
+    private final AtomicInteger restartedWorkers = new AtomicInteger();
+
+    /**
+     * Statistics about the executions and workers of the pool
+     */
+    public static class Statistics {
+        /** Number of sequences executed */
+        public final long executions;
+        /** Number of batches of sequences executed */
+        public final long batches;
+        /** Number of workers destroyed because they did not return a result in time */
+        public final int timedOutWorkers;
+        /** Number of workers that terminated unexpectedly */
+        public final int crashedWorkers;
+        /** Number of workers restarted after their restart interval or because of leaked threads */
+        public final int restartedWorkers;
+
+        Statistics(long executions, long batches, int timedOutWorkers, int crashedWorkers, int restartedWorkers) {
+            this.executions = executions;
+            this.batches = batches;
+            this.timedOutWorkers = timedOutWorkers;
+            this.crashedWorkers = crashedWorkers;
+            this.restartedWorkers = restartedWorkers;
+        }
+
+        @Override
+        public String toString() {
+            return executions + " executions in " + batches + " batches, " + timedOutWorkers +
+                " workers timed out, " + crashedWorkers + " crashed, " + restartedWorkers + " restarted";
+        }
+    }
+
+    /**
+     * Creates a pool with the given number of worker JVMs and waits for the workers to start
+     *
+     * @param poolSize number of worker JVMs
+     * @param restartInterval number of sequences executed by a worker before it is restarted
+     * @param classpath classpath of the worker JVMs, including the application classes
+     * @throws IOException if a worker could not be started
+     */
+    public ForkedSequenceExecutionPool(int poolSize, int restartInterval, String classpath) throws IOException {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Number of worker JVMs must be positive: " + poolSize);
+        }
+        if (restartInterval < 1) {
+            throw new IllegalArgumentException("Worker restart interval must be positive: " + restartInterval);
+        }
+        this.classpath = classpath;
+        this.restartInterval = restartInterval;
+
+        // start all workers before waiting for them, so that they start up concurrently
+        List<WorkerProcess> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                workers.add(new WorkerProcess());
+            }
+            for (WorkerProcess worker : workers) {
+                worker.awaitReady();
+                this.idleWorkers.add(worker);
+            }
+        } catch (IOException ioe) {
+            close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Executes the given sequence in a worker JVM
+     *
+     * @param seqId ID of the sequence
+     * @param sequence sequence to execute
+     * @param numExecutions number of executions of the sequence
+     * @param stableExecutions number of stable executions for adaptive repetition (0 to disable)
+     * @param escalatedExecutions number of executions for sequences with changing state (adaptive repetition)
+     * @return results of the sequence
+     */
+    public SequenceExecutor.SequenceResults execute(String seqId, Sequence sequence, int numExecutions,
+                                                    int stableExecutions, int escalatedExecutions) {
+        Map<String, String> errors = new HashMap<>();
+        SequenceExecutor.SequenceResults results = executeBatch(Collections.singletonMap(seqId, sequence),
+            numExecutions, stableExecutions, escalatedExecutions, errors).get(seqId);
+        if (results == null) {
+            // as with in-process execution, a sequence that could not be executed is reported as an exception
+            throw new RuntimeException(errors.get(seqId));
+        }
+        return results;
+    }
+
+    /**
+     * Executes the given batch of sequences in worker JVMs. Sequences that could not be executed
+     * because their worker crashed or timed out are reported as failing.
+     *
+     * @param sequences map from sequence ID to sequence
+     * @param numExecutions number of executions of each sequence
+     * @param stableExecutions number of stable executions for adaptive repetition (0 to disable)
+     * @param escalatedExecutions number of executions for sequences with changing state (adaptive repetition)
+     * @param errors map to which the errors of sequences that could not be executed in the worker
+     * (e.g., could not be parsed) are added; these sequences have no results
+     * @return map from sequence ID to results
+     */
+    public Map<String, SequenceExecutor.SequenceResults> executeBatch(Map<String, Sequence> sequences,
+                                                                      int numExecutions, int stableExecutions,
+                                                                      int escalatedExecutions,
+                                                                      Map<String, String> errors) {
+        if (this.closed) {
+            throw new IllegalStateException("Forked sequence execution pool is closed");
+        }
+        this.batches.incrementAndGet();
+        long responseTimeoutSec = (long) Math.max(numExecutions, escalatedExecutions) *
+            SequenceExecutor.SINGLE_EXECUTION_SEC_LIMIT + RESPONSE_SEC_SLACK;
+
+        Map<String, SequenceExecutor.SequenceResults> results = new LinkedHashMap<>();
+        List<String> pendingIds = new ArrayList<>(sequences.keySet());
+        while (!pendingIds.isEmpty()) {
+            WorkerProcess worker = borrowWorker();
+            // whether the worker completed the batch, and whether it left threads behind
+            boolean completed = false;
+            boolean leaked = false;
+            try {
+                worker.send(pendingIds, sequences, numExecutions, stableExecutions, escalatedExecutions);
+                while (true) {
+                    String line = worker.lines.poll(responseTimeoutSec, TimeUnit.SECONDS);
+                    if (line == null || line == EOF) {
+                        // the worker is executing the first pending sequence: report it as failing
+                        String seqId = pendingIds.remove(0);
+                        if (line == null) {
+                            logger.warning("Worker " + worker.name + " timed out executing sequence " + seqId);
+                            this.timedOutWorkers.incrementAndGet();
+                        } else {
+                            logger.warning("Worker " + worker.name + " terminated executing sequence " + seqId);
+                            this.crashedWorkers.incrementAndGet();
+                        }
+                        SequenceExecutor.SequenceResults failedResults =
+                            new SequenceExecutor.SequenceResults(sequences.get(seqId).size());
+                        failedResults.passed = false;
+                        results.put(seqId, failedResults);
+                        break;
+                    }
+                    JsonNode response = mapper.readTree(line);
+                    String type = response.get("type").asText();
+                    if (type.equals(SequenceExecutionWorker.TYPE_DONE)) {
+                        completed = true;
+                        leaked = response.get("leaked").asBoolean();
+                        break;
+                    }
+                    String seqId = response.get("id").asText();
+                    pendingIds.remove(seqId);
+                    worker.executions++;
+                    this.executions.incrementAndGet();
+                    if (response.has("error")) {
+                        String error = response.get("error").asText();
+                        logger.warning("Error executing sequence " + seqId + " in worker " + worker.name + ": " + error);
+                        errors.put(seqId, error);
+                        continue;
+                    }
+                    results.put(seqId, SequenceExecutor.SequenceResults.fromTransferJson(
+                        (ObjectNode) response.get("results")));
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                logger.warning("Error communicating with worker " + worker.name + ": " + e);
+                // the worker state is unknown; report the first pending sequence as failing
+                if (!pendingIds.isEmpty()) {
+                    String seqId = pendingIds.remove(0);
+                    SequenceExecutor.SequenceResults failedResults =
+                        new SequenceExecutor.SequenceResults(sequences.get(seqId).size());
+                    failedResults.passed = false;
+                    results.put(seqId, failedResults);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                recycleWorker(worker);
+                throw new RuntimeException("Interrupted while executing sequences", ie);
+            }
+            if (completed && !leaked && worker.executions < this.restartInterval) {
+                this.idleWorkers.add(worker);
+            } else {
+                if (completed) {
+                    this.restartedWorkers.incrementAndGet();
+                }
+                recycleWorker(worker);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Sets the budget for recording the state of runtime objects in the workers (see
+     * {@link SequenceExecutor#setCaptureBudget(CaptureBudget)})
+     *
+     * @param captureBudget capture budget
+     */
+    public void setCaptureBudget(CaptureBudget captureBudget) {
+        this.captureBudget = captureBudget;
+    }
+
+    /**
+     * Returns statistics about the executions and workers of the pool
+     */
+    public Statistics getStatistics() {
+        return new Statistics(this.executions.get(), this.batches.get(), this.timedOutWorkers.get(),
+            this.crashedWorkers.get(), this.restartedWorkers.get());
+    }
+
+    /**
+     * Stops all workers of the pool
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        synchronized (this.allWorkers) {
+            for (WorkerProcess worker : this.allWorkers) {
+                worker.destroy();
+            }
+            this.allWorkers.clear();
+        }
+        this.idleWorkers.clear();
+    }
+
+    private WorkerProcess borrowWorker() {
+        try {
+            while (true) {
+                WorkerProcess worker = this.idleWorkers.poll(1, TimeUnit.SECONDS);
+                if (worker != null) {
+                    return worker;
+                }
+                if (this.liveWorkerCount.get() == 0 || this.closed) {
+                    throw new IllegalStateException("No sequence execution worker available");
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for sequence execution worker", ie);
+        }
+    }
+
+    /**
+     * Destroys the given worker and starts a replacement worker
+     */
+    private void recycleWorker(WorkerProcess worker) {
+        worker.destroy();
+        if (this.closed) {
+            return;
+        }
+        try {
+            WorkerProcess replacement = new WorkerProcess();
+            replacement.awaitReady();
+            this.idleWorkers.add(replacement);
+        } catch (IOException ioe) {
+            logger.warning("Error starting replacement sequence execution worker: " + ioe);
+            if (this.liveWorkerCount.get() == 0) {
+                throw new UncheckedIOException("Error starting sequence execution worker", ioe);
+            }
+        }
+    }
+
+    /**
+     * Worker JVM, with a thread that reads its responses into a queue
+     */
+    private class WorkerProcess {
+
+        final String name = "tkltest-seq-exec-jvm-" + workerCounter.incrementAndGet();
+
+        private final Process process;
+
+        private final BufferedWriter requests;
+
+        final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+        // number of sequences executed by the worker
+        int executions = 0;
+
+        private boolean destroyed = false;
+
+        WorkerProcess() throws IOException {
+            List<String> processArgs = new ArrayList<>();
+            processArgs.add("java");
+            processArgs.add("-cp");
+            processArgs.add(classpath);
+            processArgs.add(SequenceExecutionWorker.class.getName());
+            ProcessBuilder processBuilder = new ProcessBuilder(processArgs);
+            processBuilder.redirectError(Redirect.INHERIT);
+            this.process = processBuilder.start();
+            liveWorkerCount.incrementAndGet();
+            allWorkers.add(this);
+            this.requests = new BufferedWriter(new OutputStreamWriter(this.process.getOutputStream(),
+                StandardCharsets.UTF_8));
+
+            Thread reader = new Thread(() -> {
+                try (BufferedReader responses = new BufferedReader(new InputStreamReader(
+                    this.process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = responses.readLine()) != null) {
+                        this.lines.add(line);
+                    }
+                } catch (IOException e) {
+                    // worker terminated
+                }
+                this.lines.add(EOF);
+            }, this.name + "-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        void awaitReady() throws IOException {
+            try {
+                String line = this.lines.poll(STARTUP_SEC_LIMIT, TimeUnit.SECONDS);
+                if (line == null || line == EOF ||
+                    !mapper.readTree(line).get("type").asText().equals(SequenceExecutionWorker.TYPE_READY)) {
+                    destroy();
+                    throw new IOException("Sequence execution worker " + this.name + " failed to start");
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                destroy();
+                throw new IOException("Interrupted while starting sequence execution worker " + this.name, ie);
+            }
+        }
+
+        void send(List<String> seqIds, Map<String, Sequence> sequences, int numExecutions, int stableExecutions,
+                  int escalatedExecutions) throws IOException {
+            ObjectNode request = mapper.createObjectNode();
+            request.put("executions", numExecutions);
+            request.put("stable_executions", stableExecutions);
+            request.put("escalated_executions", escalatedExecutions);
+            CaptureBudget budget = captureBudget;
+            request.put("capture_max_fields", budget.getMaxFieldsPerObject());
+            request.put("capture_max_bytes", budget.getMaxStateBytes());
+            request.put("capture_time_millis", budget.getSequenceTimeMillis());
+            ArrayNode seqArray = request.putArray("sequences");
+            for (String seqId : seqIds) {
+                seqArray.addObject()
+                    .put("id", seqId)
+                    .put("sequence", sequences.get(seqId).toParsableString());
+            }
+            this.requests.write(lineWriter.writeValueAsString(request));
+            this.requests.newLine();
+            this.requests.flush();
+        }
+
+        synchronized void destroy() {
+            if (this.destroyed) {
+                return;
+            }
+            this.destroyed = true;
+            this.process.destroyForcibly();
+            liveWorkerCount.decrementAndGet();
+            allWorkers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiler of Java sources held in memory into class bytes held in memory. The compiler keeps a
+ * single file manager for all compilations, so that the classpath against which sources are compiled
+ * is opened and indexed once, rather than for each compilation.
+ */
+public class InMemoryJavaCompiler implements AutoCloseable {
+
+    /**
+     * Source of a class, given as a string
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return this.source;
+        }
+    }
+
+    /**
+     * Class file written by the compiler into memory
+     */
+    private static class ClassFile extends SimpleJavaFileObject {
+
+        private final String className;
+
+        private final Map<String, byte[]> classBytes;
+
+        ClassFile(String className, Map<String, byte[]> classBytes) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.className = className;
+            this.classBytes = classBytes;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    classBytes.put(className, toByteArray());
+                }
+            };
+        }
+    }
+
+    /**
+     * File manager that reads classes from the classpath and writes compiled classes to the map of
+     * the current compilation
+     */
+    private static class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private Map<String, byte[]> classBytes;
+
+        InMemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) throws IOException {
+            if (kind != JavaFileObject.Kind.CLASS) {
+                return super.getJavaFileForOutput(location, className, kind, sibling);
+            }
+            return new ClassFile(className, this.classBytes);
+        }
+    }
+
+    /**
+     * Class loader that defines classes from class bytes held in memory, delegating to its parent
+     * for all other classes. The class bytes are also served as resources, for code (e.g., test
+     * runners) that reloads classes from their class files.
+     */
+    public static class InMemoryClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classBytes;
+
+        public InMemoryClassLoader(Map<String, byte[]> classBytes, ClassLoader parent) {
+            super(parent);
+            this.classBytes = classBytes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = this.classBytes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+        @Override
+        public InputStream getResourceAsStream(String name) {
+            if (name.endsWith(JavaFileObject.Kind.CLASS.extension)) {
+                byte[] bytes = this.classBytes.get(name.substring(0, name.length() -
+                    JavaFileObject.Kind.CLASS.extension.length()).replace('/', '.'));
+                if (bytes != null) {
+                    return new ByteArrayInputStream(bytes);
+                }
+            }
+            return super.getResourceAsStream(name);
+        }
+    }
+
+    private final JavaCompiler compiler;
+
+    private final InMemoryFileManager fileManager;
+
+    private final List<String> options;
+
+    /**
+     * Returns whether a Java compiler is available in the current JVM (i.e., it runs on a JDK)
+     */
+    public static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    /**
+     * Creates a compiler of sources against the given classpath
+     *
+     * @param classPath classpath against which sources are compiled
+     * @throws IllegalStateException if no Java compiler is available
+     */
+    public InMemoryJavaCompiler(String classPath) {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if (this.compiler == null) {
+            throw new IllegalStateException("No Java compiler available; a JDK is required");
+        }
+        this.fileManager = new InMemoryFileManager(this.compiler.getStandardFileManager(null, null, null));
+        // annotation processors on the classpath of the application are not run
+        this.options = new ArrayList<>(Arrays.asList("-classpath", classPath, "-proc:none", "-nowarn"));
+    }
+
+    /**
+     * Compiles the given sources
+     *
+     * @param sources sources to compile, keyed by the qualified names of their classes
+     * @param diagnostics collector of compilation diagnostics, or null
+     * @return bytes of the compiled classes (including nested classes), keyed by their binary names,
+     * or null if compilation failed
+     */
+    public synchronized Map<String, byte[]> compile(Map<String, String> sources,
+                                                    DiagnosticCollector<JavaFileObject> diagnostics) {
+        List<JavaFileObject> sourceFiles = new ArrayList<>(sources.size());
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            sourceFiles.add(new SourceFile(source.getKey(), source.getValue()));
+        }
+        Map<String, byte[]> classBytes = new HashMap<>();
+        this.fileManager.classBytes = classBytes;
+        try {
+            Boolean result = this.compiler.getTask(null, this.fileManager, diagnostics, this.options, null,
+                sourceFiles).call();
+            return result != null && result ? classBytes : null;
+        } finally {
+            this.fileManager.classBytes = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.fileManager.close();
+    }
+}
@@ -21,18 +21,26 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
@@ -46,10 +54,14 @@ import org.konveyor.tackle.testgen.util.TackleTestLogger;
 
 import randoop.sequence.Sequence;
 
-public class JUnitExecutor {
+public class JUnitExecutor implements AutoCloseable {
 
     private static final Logger logger = TackleTestLogger.getLogger(JUnitExecutor.class);
 
+    // '@Test' annotation and declaration of a test method of a JEE unit test
+    private static final Pattern TEST_DECLARATION_PATTERN = Pattern.compile(
+        "\t@Test(\\R\tpublic void test(\\d+)\\(\\) throws Throwable \\{)");
+
     // imports for the initial test sequence classes
     private HashMap<String, List<String>> classImports;
 
@@ -60,6 +72,68 @@ public class JUnitExecutor {
 
     private final String outputDir;
 
+    // whether JEE unit tests are compiled in memory, and their compiler, created on first use and
+    // shared by all classes, so that the application and EvoSuite runtime classpath is indexed once
+    private boolean inMemoryCompilation = false;
+    private InMemoryJavaCompiler compiler;
+
+    // restart interval of the persistent JVMs in which JEE unit tests are run (0 to run each test class in
+    // a JVM of its own), and the runners not in use
+    private int runnerRestartInterval = 0;
+    private final BlockingQueue<PersistentJUnitRunner> idleRunners = new LinkedBlockingQueue<>();
+    private final List<PersistentJUnitRunner> allRunners = Collections.synchronizedList(new ArrayList<>());
+
+    // batches of JEE unit tests compiled and run together, and their test classes
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicInteger batchTestClasses = new AtomicInteger();
+
+    // compiler invocations for JEE unit tests, those of them that compiled in memory, and those that
+    // compiled a batch again after leaving out test classes that failed to compile
+    private final AtomicInteger compilations = new AtomicInteger();
+    private final AtomicInteger inMemoryCompilations = new AtomicInteger();
+    private final AtomicInteger recompilations = new AtomicInteger();
+
+    /**
+     * Statistics about the compilation and runs of JEE unit tests
+     */
+    public static class Statistics {
+        /** Number of batches of JEE unit tests compiled and run together, one per partition batch */
+        public final int batches;
+        /** Number of JEE unit test classes in the batches */
+        public final int testClasses;
+        /** Number of compiler invocations for JEE unit tests */
+        public final int compilations;
+        /** Number of compiler invocations that compiled JEE unit tests in memory */
+        public final int inMemoryCompilations;
+        /** Number of compiler invocations that compiled a batch again, without test classes that failed to compile */
+        public final int recompilations;
+        /** Number of persistent runners started */
+        public final int runners;
+        /** Number of test classes run by the persistent runners */
+        public final int runnerRuns;
+        /** Number of times the persistent runner JVMs were restarted */
+        public final int runnerRestarts;
+
+        Statistics(int batches, int testClasses, int compilations, int inMemoryCompilations, int recompilations,
+                   int runners, int runnerRuns, int runnerRestarts) {
+            this.batches = batches;
+            this.testClasses = testClasses;
+            this.compilations = compilations;
+            this.inMemoryCompilations = inMemoryCompilations;
+            this.recompilations = recompilations;
+            this.runners = runners;
+            this.runnerRuns = runnerRuns;
+            this.runnerRestarts = runnerRestarts;
+        }
+
+        @Override
+        public String toString() {
+            return testClasses + " test classes in " + batches + " batches; " + compilations + " compilations, " +
+                inMemoryCompilations + " in memory, " + recompilations + " recompilations; " + runnerRuns +
+                " test classes run in " + runners + " persistent runners, restarted " + runnerRestarts + " times";
+        }
+    }
+
     public JUnitExecutor(String appName, String outDir, HashMap<String, List<String>> classImports,
                          Map<String, Set<String>> classBeforeAfterMethods) {
         this.applicationName = appName;
@@ -68,253 +142,549 @@ public class JUnitExecutor {
         this.classBeforeAfterMethods = classBeforeAfterMethods;
     }
 
+    /**
+     * Sets whether JEE unit tests are compiled in memory, with a compiler whose file manager is shared
+     * by all test classes, instead of being written to the output directory and compiled from there.
+     * The source of a test class is then written to the output directory only if some of its tests
+     * pass. Requires a JDK; JEE unit tests are compiled from the output directory otherwise.
+     *
+     * @param inMemoryCompilation whether to compile JEE unit tests in memory
+     */
+    public void setInMemoryCompilation(boolean inMemoryCompilation) {
+        this.inMemoryCompilation = inMemoryCompilation;
+    }
+
+    /**
+     * Sets whether JEE unit tests are run in persistent runner JVMs, which receive compiled test classes
+     * and run them in isolated class loaders, instead of in a JVM of their own per test class. A runner
+     * JVM is started for each thread running JEE unit tests, and is restarted after the given number of
+     * test classes, or when it runs out of resources. Test classes that a runner fails to run are run in a
+     * JVM of their own.
+     *
+     * @param restartInterval number of test classes run by a runner JVM before it is restarted, or 0 to run
+     * each test class in a JVM of its own
+     */
+    public void setPersistentRunner(int restartInterval) {
+        this.runnerRestartInterval = restartInterval;
+    }
+
+    /**
+     * Failed sequences of a class to rerun as a JEE unit test, with the coverage information to update
+     * for the sequences that pass
+     */
+    public static class JEERerun {
+
+        final List<String> failedSeqIds;
+        final String partition;
+        final String clsName;
+        final Map<String, Boolean> seqIdToPartial;
+        final Map<String, String> seqIdToRowId;
+        final Map<String, Map<String, Constants.TestPlanRowCoverage>> seqIdToCovInfo;
+        final HashMap<String, Sequence> seqIdMap;
+        final ExtenderSummary extSummary;
+
+        public JEERerun(List<String> failedSeqIds, String partition, String clsName,
+                        Map<String, Boolean> seqIdToPartial,
+                        Map<String, String> seqIdToRowId,
+                        Map<String, Map<String, Constants.TestPlanRowCoverage>> seqIdToCovInfo,
+                        HashMap<String, Sequence> seqIdMap,
+                        ExtenderSummary extSummary) {
+            this.failedSeqIds = failedSeqIds;
+            this.partition = partition;
+            this.clsName = clsName;
+            this.seqIdToPartial = seqIdToPartial;
+            this.seqIdToRowId = seqIdToRowId;
+            this.seqIdToCovInfo = seqIdToCovInfo;
+            this.seqIdMap = seqIdMap;
+            this.extSummary = extSummary;
+        }
+    }
+
     public void runFailedwithJEESupport(List<String> failedSeqIds, String partition, String clsName,
                                         Map<String, Boolean> seqIdToPartial,
                                         Map<String, String> seqIdToRowId,
                                         Map<String, Map<String, Constants.TestPlanRowCoverage>> seqIdToCovInfo,
                                         HashMap<String, Sequence> seqIdMap,
                                         ExtenderSummary extSummary) {
-        Set<String> passedIDs;
-        if ( ! failedSeqIds.isEmpty()) {
-
-            try {
+        runFailedwithJEESupport(Collections.singletonList(new JEERerun(failedSeqIds, partition, clsName,
+            seqIdToPartial, seqIdToRowId, seqIdToCovInfo, seqIdMap, extSummary)));
+    }
 
-                List<String> seqList = new ArrayList<String>(failedSeqIds.size());
+    /**
+     * Reruns the failed sequences of the given classes as junit tests with EvoRunner to provide JEE
+     * support, and updates the coverage information and summaries of the classes for the sequences that
+     * pass. The junit tests of classes of the same partition are compiled together, in one compiler
+     * invocation, and run together, in one JVM or one request to a persistent runner.
+     *
+     * @param reruns failed sequences of the classes
+     * @return seq ids of the sequences that passed, for each class whose failed sequences were run
+     */
+    public Map<JEERerun, Set<String>> runFailedwithJEESupport(List<JEERerun> reruns) {
 
-                for (String seqId : failedSeqIds) {
-                    seqList.add(seqIdMap.get(seqId).toCodeString().replaceAll("<Capture\\d+>", ""));
-                }
+        Map<String, List<JEERerun>> partitionReruns = new LinkedHashMap<>();
+        for (JEERerun rerun : reruns) {
+            if ( ! rerun.failedSeqIds.isEmpty() && this.classBeforeAfterMethods.get(rerun.clsName) != null) {
+                partitionReruns.computeIfAbsent(rerun.partition, k -> new ArrayList<>()).add(rerun);
+            }
+        }
 
-                passedIDs = runFailedSequencesAsJUnit(partition, clsName, seqList, failedSeqIds);
-                for (String seqId : passedIDs) {
-                    String testPlanRowId = seqIdToRowId.get(seqId);
-                    Map<String, Constants.TestPlanRowCoverage> methodCovInfo = seqIdToCovInfo.get(seqId);
-                    if (seqIdToPartial.get(seqId).equals(Boolean.TRUE)) {
+        Map<JEERerun, Set<String>> rerunOutcomes = new LinkedHashMap<>();
+        for (Map.Entry<String, List<JEERerun>> partitionEntry : partitionReruns.entrySet()) {
+            Map<JEERerun, Set<String>> passedIDs;
+            try {
+                passedIDs = runFailedSequencesAsJUnit(partitionEntry.getKey(), partitionEntry.getValue());
+            } catch (IOException e) {
+                logger.warning("Failed to write JEE unit tests for partition: " + partitionEntry.getKey() +
+                    ", classes: " + partitionEntry.getValue().stream().map(rerun -> rerun.clsName)
+                    .collect(Collectors.toList()));
+                // Basically ignore, we will not try EvoSuite JEE support in this case
+                continue;
+            }
+            passedIDs.forEach((rerun, seqIds) -> {
+                for (String seqId : seqIds) {
+                    String testPlanRowId = rerun.seqIdToRowId.get(seqId);
+                    Map<String, Constants.TestPlanRowCoverage> methodCovInfo = rerun.seqIdToCovInfo.get(seqId);
+                    if (rerun.seqIdToPartial.get(seqId).equals(Boolean.TRUE)) {
                         methodCovInfo.put(testPlanRowId, Constants.TestPlanRowCoverage.PARTIAL_JEE);
-                        extSummary.covTestPlanRows__partial_jee++;
+                        rerun.extSummary.covTestPlanRows__partial_jee++;
                     } else {
                         methodCovInfo.put(testPlanRowId, Constants.TestPlanRowCoverage.COVERED_JEE);
-                        extSummary.covTestPlanRows__full_jee++;
+                        rerun.extSummary.covTestPlanRows__full_jee++;
                     }
-                    extSummary.uncovTestPlanRows__execFail--;
+                    rerun.extSummary.uncovTestPlanRows__execFail--;
                 }
-            } catch (IOException e) {
-                logger.warning(
-                    "Failed to write JEE unit test for partition: " + partition + ", class: " + clsName);
-                // Basically ignore, we will not try EvoSuite JEE support in this case
-            }
+            });
+            rerunOutcomes.putAll(passedIDs);
         }
+        return rerunOutcomes;
     }
 
     /**
-     * Compiles and runs the originally failed sequences as junit tests with EvoRunner to provide
-     * JEE support. Returns the seq ids of sequences that passed
+     * Compiles and runs the originally failed sequences of the given classes of a partition as junit
+     * tests with EvoRunner to provide JEE support. Returns the seq ids of sequences that passed, for each
+     * class whose junit test was compiled and run
      * @param partition
-     * @param clsName
-     * @param testSequences
-     * @param seqId
+     * @param reruns
      * @return
      * @throws IOException
      */
-    private Set<String> runFailedSequencesAsJUnit(String partition, String clsName, List<String> testSequences,
-                                                  List<String> seqId)
+    private Map<JEERerun, Set<String>> runFailedSequencesAsJUnit(String partition, List<JEERerun> reruns)
         throws IOException {
 
-        if (this.classBeforeAfterMethods.get(clsName) == null ||
-            this.classBeforeAfterMethods.isEmpty()) {
-            return Collections.emptySet();
-        }
-
         String outDirName = this.outputDir;
         if (outDirName == null) {
             // if output dir not specified, use default output dir name
             outDirName = applicationName + "-" + Constants.AMPLIFIED_TEST_CLASSES_OUTDIR;
         }
-        File junitFile = new JUnitTestExporter(new File(outDirName + File.separator + partition), false).
-            writeJEEUnitTest(clsName, testSequences, this.classImports.get(clsName),
-                this.classBeforeAfterMethods.get(clsName));
+        JUnitTestExporter exporter = new JUnitTestExporter(new File(outDirName + File.separator + partition), false);
+
+        // failed sequences of the classes, keyed by junit test class name
+        Map<String, JEERerun> testClassReruns = new LinkedHashMap<>();
+        Map<String, List<String>> testClassSequences = new LinkedHashMap<>();
+        for (JEERerun rerun : reruns) {
+            List<String> seqList = new ArrayList<String>(rerun.failedSeqIds.size());
+            for (String seqId : rerun.failedSeqIds) {
+                seqList.add(rerun.seqIdMap.get(seqId).toCodeString().replaceAll("<Capture\\d+>", ""));
+            }
+            String testClassName = JUnitTestExporter.getJEEUnitTestClassName(rerun.clsName);
+            testClassReruns.put(testClassName, rerun);
+            testClassSequences.put(testClassName, seqList);
+        }
+        this.batches.incrementAndGet();
+        this.batchTestClasses.addAndGet(testClassReruns.size());
 
-        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        InMemoryJavaCompiler inMemoryCompiler = getCompiler();
+        if (inMemoryCompiler != null) {
+            return runFailedSequencesInMemory(inMemoryCompiler, exporter, testClassReruns, testClassSequences);
+        }
 
-        List<String> optionList = new ArrayList<>();
-        optionList.addAll(Arrays.asList("-classpath", System.getProperty("java.class.path")));
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
-        Iterable<? extends JavaFileObject> fileObjects = fileManager.getJavaFileObjects(junitFile);
-        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, optionList, null, fileObjects);
-        File junitClassFile = new File(junitFile.getParentFile(), junitFile.getName().replace(".java", ".class"));
-        Boolean result = task.call();
-        if (result == null || ! result) {
-            logger.warning("Failed to compile JEE unit test "+junitFile.getAbsolutePath());
-            FileUtils.deleteQuietly(junitFile);
-            FileUtils.deleteQuietly(junitClassFile);
-            return Collections.emptySet();
+        Map<String, File> junitFiles = new LinkedHashMap<>();
+        for (Map.Entry<String, JEERerun> testClassRerun : testClassReruns.entrySet()) {
+            String clsName = testClassRerun.getValue().clsName;
+            junitFiles.put(testClassRerun.getKey(), exporter.writeJEEUnitTest(clsName,
+                testClassSequences.get(testClassRerun.getKey()), this.classImports.get(clsName),
+                this.classBeforeAfterMethods.get(clsName)));
         }
+        File classDir = junitFiles.values().iterator().next().getParentFile();
 
-        List<String> args = new ArrayList<String>();
-        args.add("java");
-        args.add("-classpath");
-        args.add(System.getProperty("java.class.path")+File.pathSeparator+junitFile.getParent());
-        args.add("org.junit.runner.JUnitCore");
-        args.add(junitFile.getName().substring(0, junitFile.getName().indexOf(".java")));
-        ProcessBuilder junitPB = new ProcessBuilder(args);
-        //File JEEOutputFile = new File(junitFile.getParentFile(), junitFile.getName().replace(".java", ".junit.out")); // for debugging
-        //File JEEErrorFile = new File(junitFile.getParentFile(), junitFile.getName().replace(".java", ".junit.err")); // for debugging
-        //junitPB.redirectOutput(JEEOutputFile);
-        //junitPB.redirectError(JEEErrorFile);
-        junitPB.redirectOutput(ProcessBuilder.Redirect.PIPE);
-        junitPB.redirectErrorStream(true);
-        Process junitP = junitPB.start();
-        BufferedReader outReader = new BufferedReader(new InputStreamReader(junitP.getInputStream(), StandardCharsets.UTF_8));
-        Set<String> passedIds = new HashSet<String>();
+        Map<JEERerun, Set<String>> passedIds = new LinkedHashMap<>();
         try {
-            List<String> outputLines = new ArrayList<String>();
-            String line;
-            while ((line = outReader.readLine()) != null) {
-                outputLines.add(line);
+            Map<String, Integer> compiledTests = new LinkedHashMap<>();
+            Set<String> compiled = compileOnDisk(junitFiles);
+            for (Map.Entry<String, File> junitFile : junitFiles.entrySet()) {
+                if (compiled.contains(junitFile.getKey())) {
+                    compiledTests.put(junitFile.getKey(), testClassSequences.get(junitFile.getKey()).size());
+                } else {
+                    logger.warning("Failed to compile JEE unit test "+junitFile.getValue().getAbsolutePath());
+                    FileUtils.deleteQuietly(junitFile.getValue());
+                }
+            }
+
+            Map<String, byte[]> classBytes = new HashMap<>();
+            if (this.runnerRestartInterval > 0) {
+                // the test classes and their nested classes
+                for (File classFile : getClassFiles(classDir, compiledTests.keySet())) {
+                    classBytes.put(classFile.getName().substring(0, classFile.getName().length() - ".class".length()),
+                        Files.readAllBytes(classFile.toPath()));
+                }
             }
-            junitP.waitFor();
-            String[] output = new String[outputLines.size()];
-            Set<Integer> passedTestsIndices = new JUnitOutputParser(outputLines.toArray(output), testSequences.size(), junitFile).parseJUnitOutput();
-            for (int ind : passedTestsIndices) {
-                passedIds.add(seqId.get(ind));
+            Map<String, JUnitTestRecorder.RunResults> results = runTests(compiledTests, classBytes, classDir);
+
+            for (Map.Entry<String, Integer> compiledTest : compiledTests.entrySet()) {
+                File junitFile = junitFiles.get(compiledTest.getKey());
+                Set<Integer> failingTests = new HashSet<>();
+                Set<Integer> passedTestsIndices = getPassedTests(results, compiledTest.getKey(),
+                    compiledTest.getValue(), failingTests);
+                JEERerun rerun = testClassReruns.get(compiledTest.getKey());
+                passedIds.put(rerun, getPassedSeqIds(rerun, passedTestsIndices));
+                if (passedTestsIndices.isEmpty()) {
+                    FileUtils.deleteQuietly(junitFile);
+                    continue;
+                }
+                if ( ! failingTests.isEmpty()) {
+                    try {
+                        FileUtils.writeStringToFile(junitFile, annotateFailingTests(
+                            FileUtils.readFileToString(junitFile, StandardCharsets.UTF_8), failingTests), StandardCharsets.UTF_8);
+                    } catch (IOException e) {
+                        logger.warning("Failed to annotate failing tests in "+junitFile.getAbsolutePath()+" : "+e.getMessage());
+                    }
+                }
             }
         } catch (InterruptedException e) {
-            logger.warning("Failed to run JEE unit test "+junitFile.getAbsolutePath());
-            FileUtils.deleteQuietly(junitFile);
-            return Collections.emptySet();
+            logger.warning("Failed to run JEE unit tests "+junitFiles.keySet()+" in "+classDir.getAbsolutePath());
+            junitFiles.values().forEach(FileUtils::deleteQuietly);
+            return Collections.emptyMap();
         } finally {
-            FileUtils.deleteQuietly(junitClassFile);
-            outReader.close();
+            getClassFiles(classDir, junitFiles.keySet()).forEach(FileUtils::deleteQuietly);
         }
 
         return passedIds;
     }
 
     /**
-     * Parses junit output to extract from test case names the ids of tests that have failed.
-     * Also deletes the junit test in case all tests failed, otherwise changes the failing tests annotations
-     * from '@Test' to '@EvoSuiteExclude' so they are skipped in the final junit tests
-     * @author RACHELBRILL
-     *
+     * Compiles the originally failed sequences of the given classes as junit tests in memory, and runs
+     * them with EvoRunner. The source of a test is written to the output directory, with failing tests
+     * excluded, only if some of its tests pass. Returns the seq ids of sequences that passed, for each
+     * class whose junit test was compiled and run
      */
-    private static class JUnitOutputParser {
-
-        private final File junitTestFile;
-        private int totalNumTests;
-        String[] lines;
+    private Map<JEERerun, Set<String>> runFailedSequencesInMemory(InMemoryJavaCompiler inMemoryCompiler,
+                                                                  JUnitTestExporter exporter,
+                                                                  Map<String, JEERerun> testClassReruns,
+                                                                  Map<String, List<String>> testClassSequences)
+        throws IOException {
 
-        private JUnitOutputParser(String[] lines, int numTests, File file) {
-            this.junitTestFile = file;
-            totalNumTests = numTests;
-            //this.lines = Files.readLines(junitOutputFile, StandardCharsets.UTF_8);
-            this.lines = lines;
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (Map.Entry<String, JEERerun> testClassRerun : testClassReruns.entrySet()) {
+            String clsName = testClassRerun.getValue().clsName;
+            sources.put(testClassRerun.getKey(), exporter.createJEEUnitTest(clsName,
+                testClassSequences.get(testClassRerun.getKey()), this.classImports.get(clsName),
+                this.classBeforeAfterMethods.get(clsName)));
         }
 
-        private Set<Integer> parseJUnitOutput() {
+        Map<String, byte[]> classBytes = compileInMemory(inMemoryCompiler, sources);
+        Map<String, Integer> compiledTests = new LinkedHashMap<>();
+        for (String testClassName : sources.keySet()) {
+            if (classBytes.containsKey(testClassName)) {
+                compiledTests.put(testClassName, testClassSequences.get(testClassName).size());
+            } else {
+                logger.warning("Failed to compile JEE unit test "+testClassName);
+            }
+        }
 
-            Set<Integer> passedTests = new HashSet<Integer>();
-            for (int j = 0; j < totalNumTests; j++) {
-                passedTests.add(j);
+        Map<JEERerun, Set<String>> passedIds = new LinkedHashMap<>();
+        try {
+            Map<String, JUnitTestRecorder.RunResults> results = runTests(compiledTests, classBytes, null);
+
+            for (Map.Entry<String, Integer> compiledTest : compiledTests.entrySet()) {
+                Set<Integer> failingTests = new HashSet<>();
+                Set<Integer> passedTestsIndices = getPassedTests(results, compiledTest.getKey(),
+                    compiledTest.getValue(), failingTests);
+                JEERerun rerun = testClassReruns.get(compiledTest.getKey());
+                passedIds.put(rerun, getPassedSeqIds(rerun, passedTestsIndices));
+                if (passedTestsIndices.isEmpty()) {
+                    continue;
+                }
+                String source = sources.get(compiledTest.getKey());
+                if ( ! failingTests.isEmpty()) {
+                    source = annotateFailingTests(source, failingTests);
+                }
+                exporter.writeJEEUnitTest(rerun.clsName, source);
             }
+        } catch (InterruptedException e) {
+            logger.warning("Failed to run JEE unit tests "+compiledTests.keySet());
+            return Collections.emptyMap();
+        }
 
-            Pattern failurePattern = Pattern.compile("Tests run: " + totalNumTests + ",  Failures: (\\d+)");
+        return passedIds;
+    }
 
-            for (int i = lines.length - 1; i >= 0; i--) {
-                if (lines[i].equals(String.format("OK (%d test"+(totalNumTests==1? "" : "s")+")", totalNumTests))) {
-                    return passedTests;
-                } else {
-                    Matcher failureMatcher = failurePattern.matcher(lines[i]);
-
-                    if (failureMatcher.matches()) {
-                        int numFailures = Integer.parseInt(failureMatcher.group(1));
-
-                        if (numFailures == totalNumTests) {
-                            FileUtils.deleteQuietly(junitTestFile);
-                            return Collections.emptySet(); // return empty list - all tests failed
-                        } else {
-                            try {
-                                Set<Integer> failedTests = getFailingTests(numFailures);
-                                passedTests.removeAll(failedTests);
-                                try {
-                                    annotateFailingTests(failedTests);
-                                } catch (IOException e) {
-                                    logger.warning("Failed to annotate failing tests in "+junitTestFile.getAbsolutePath()+" : "+e.getMessage());
-                                }
-                                return passedTests;
-                            } catch (IllegalArgumentException e) {
-                                logger.warning(e.getMessage());
-                                FileUtils.deleteQuietly(junitTestFile);
-                                return Collections.emptySet();
-                            }
-                        }
-                    }
+    /**
+     * Compiles the given junit test files in one compiler invocation; test classes that fail to compile
+     * are left out, and the remaining ones compiled again. Returns the names of the compiled test classes
+     */
+    private Set<String> compileOnDisk(Map<String, File> junitFiles) throws IOException {
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        List<String> optionList = new ArrayList<>();
+        optionList.addAll(Arrays.asList("-classpath", System.getProperty("java.class.path")));
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            Map<String, File> batch = new LinkedHashMap<>(junitFiles);
+            while ( ! batch.isEmpty()) {
+                this.compilations.incrementAndGet();
+                if (batch.size() < junitFiles.size()) {
+                    this.recompilations.incrementAndGet();
+                }
+                DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+                Iterable<? extends JavaFileObject> fileObjects = fileManager.getJavaFileObjectsFromFiles(batch.values());
+                Boolean result = compiler.getTask(null, fileManager, diagnostics, optionList, null, fileObjects).call();
+                if (result != null && result) {
+                    return batch.keySet();
+                }
+                if ( ! batch.keySet().removeAll(getUncompilableTestClasses(diagnostics))) {
+                    // errors outside the test classes: give up on the batch
+                    break;
                 }
             }
-
-            logger.warning(
-                "No indication of failure of success was found in junit test " + junitTestFile.getAbsolutePath());
-            FileUtils.deleteQuietly(junitTestFile);
-            return Collections.emptySet(); // returns empty list when no indications of failure not passing were found
         }
+        return Collections.emptySet();
+    }
 
-        private Set<Integer> getFailingTests(int numFailures) {
+    /**
+     * Compiles the given junit test sources in memory in one compiler invocation; test classes that fail
+     * to compile are left out, and the remaining ones compiled again. Returns the bytes of the compiled
+     * classes
+     */
+    private Map<String, byte[]> compileInMemory(InMemoryJavaCompiler inMemoryCompiler, Map<String, String> sources) {
+
+        Map<String, String> batch = new LinkedHashMap<>(sources);
+        while ( ! batch.isEmpty()) {
+            this.compilations.incrementAndGet();
+            this.inMemoryCompilations.incrementAndGet();
+            if (batch.size() < sources.size()) {
+                this.recompilations.incrementAndGet();
+            }
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            Map<String, byte[]> classBytes = inMemoryCompiler.compile(batch, diagnostics);
+            if (classBytes != null) {
+                return classBytes;
+            }
+            if ( ! batch.keySet().removeAll(getUncompilableTestClasses(diagnostics))) {
+                // errors outside the test classes: give up on the batch
+                break;
+            }
+        }
+        return Collections.emptyMap();
+    }
 
-            Set<Integer> failingTests = new HashSet<Integer>();
+    /**
+     * Returns the names of the test classes in whose sources the given diagnostics report errors
+     */
+    private static Set<String> getUncompilableTestClasses(DiagnosticCollector<JavaFileObject> diagnostics) {
+        Set<String> testClassNames = new HashSet<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getSource() != null) {
+                String fileName = new File(diagnostic.getSource().toUri().getPath()).getName();
+                testClassNames.add(fileName.substring(0, fileName.length() - JavaFileObject.Kind.SOURCE.extension.length()));
+            }
+        }
+        return testClassNames;
+    }
 
-            for (int i=0; i<lines.length; i++) {
-                if (lines[i].equals("There "+(numFailures ==1? "was " : "were ") + numFailures + " failure"+(numFailures == 1? "" : "s")+":")) {
+    /**
+     * Returns the class files of the given test classes and their nested classes in the given directory
+     */
+    private static List<File> getClassFiles(File classDir, Set<String> testClassNames) {
+        File[] classFiles = classDir.listFiles((dir, name) -> {
+            if ( ! name.endsWith(".class")) {
+                return false;
+            }
+            String className = name.substring(0, name.length() - ".class".length());
+            int nestedIndex = className.indexOf('$');
+            return testClassNames.contains(nestedIndex == -1 ? className : className.substring(0, nestedIndex));
+        });
+        return classFiles == null ? Collections.emptyList() : Arrays.asList(classFiles);
+    }
 
-                    int locatedTests=0;
-                    i++;
-                    while (locatedTests < numFailures && i<lines.length) {
-                        String line = lines[i];
-                        if (line.startsWith((locatedTests+1)+") test")) {
+    private static Set<Integer> getPassedTests(Map<String, JUnitTestRecorder.RunResults> results, String testClassName,
+                                               int numTests, Set<Integer> failingTests) {
+        JUnitTestRecorder.RunResults classResults = results.get(testClassName);
+        if (classResults == null || ! classResults.completed) {
+            logger.warning("No results were recorded for junit test " + testClassName);
+            return Collections.emptySet();
+        }
+        return classResults.getPassedTests(numTests, failingTests);
+    }
 
-                            Pattern failingTestPattern = Pattern.compile((locatedTests+1)+"\\) test(\\d+)\\("+
-                                junitTestFile.getName().substring(0,junitTestFile.getName().indexOf(".java"))+"\\)");
+    private static Set<String> getPassedSeqIds(JEERerun rerun, Set<Integer> passedTestsIndices) {
+        Set<String> passedIds = new HashSet<String>();
+        for (int ind : passedTestsIndices) {
+            passedIds.add(rerun.failedSeqIds.get(ind));
+        }
+        return passedIds;
+    }
 
-                            Matcher matcher = failingTestPattern.matcher(line);
+    /**
+     * Runs the given compiled test classes together, in a persistent runner JVM if enabled, or otherwise
+     * in a JVM of their own, with the test classes loaded from the given class directory, or from a
+     * temporary class directory if none is given. Test classes that the persistent runner fails to run
+     * are run in a JVM of their own.
+     * @param testClasses names of the test classes, with their numbers of tests
+     * @return results of the runs, keyed by test class name
+     */
+    private Map<String, JUnitTestRecorder.RunResults> runTests(Map<String, Integer> testClasses,
+                                                               Map<String, byte[]> classBytes, File classDir)
+        throws IOException, InterruptedException {
+
+        Map<String, JUnitTestRecorder.RunResults> results = new HashMap<>();
+        List<String> testClassNames = new ArrayList<>(testClasses.keySet());
+        if (testClassNames.isEmpty()) {
+            return results;
+        }
 
-                            if (matcher.matches()) {
-                                locatedTests++;
-                                failingTests.add(Integer.parseInt(matcher.group(1)));
-                            }
-                        }
-                        i++;
-                    }
+        if (this.runnerRestartInterval > 0) {
+            PersistentJUnitRunner runner = borrowRunner();
+            try {
+                results.putAll(runner.run(testClassNames, classBytes,
+                    testClasses.values().stream().mapToInt(Integer::intValue).sum()));
+            } catch (IOException e) {
+                logger.warning("Failed to run JEE unit tests "+testClassNames+" in persistent runner, running them "+
+                    "in a JVM of their own: "+e.getMessage());
+            } finally {
+                this.idleRunners.add(runner);
+            }
+            testClassNames.removeAll(results.keySet());
+            if (testClassNames.isEmpty()) {
+                return results;
+            }
+        }
 
-                    if (locatedTests == numFailures) {
-                        return failingTests;
-                    } else {
-                        throw new IllegalArgumentException("failed to locate failing tests for "+junitTestFile.getAbsolutePath());
-                    }
-                }
+        File runClassDir = classDir;
+        if (runClassDir == null) {
+            // the junit process loads the compiled tests from a temporary class directory
+            runClassDir = Files.createTempDirectory("tkltest-jee-").toFile();
+            for (Map.Entry<String, byte[]> classFile : classBytes.entrySet()) {
+                FileUtils.writeByteArrayToFile(new File(runClassDir,
+                    classFile.getKey().replace('.', File.separatorChar) + ".class"), classFile.getValue());
             }
+        }
+        try {
+            results.putAll(JUnitTestRecorder.readRunRecords(runJUnit(runClassDir.getAbsolutePath(), testClassNames)));
+            return results;
+        } finally {
+            if (classDir == null) {
+                FileUtils.deleteQuietly(runClassDir);
+            }
+        }
+    }
 
-            throw new IllegalArgumentException("failed to locate failing tests for "+junitTestFile.getAbsolutePath());
+    private PersistentJUnitRunner borrowRunner() {
+        PersistentJUnitRunner runner = this.idleRunners.poll();
+        if (runner == null) {
+            runner = new PersistentJUnitRunner(this.runnerRestartInterval, System.getProperty("java.class.path"));
+            this.allRunners.add(runner);
         }
+        return runner;
+    }
 
-        private void annotateFailingTests(Set<Integer> failingTests) throws IOException {
+    /**
+     * Runs the given junit test classes with a {@link JUnitTestRecorder}, in a JVM whose classpath is
+     * extended with the given class directory, and returns the records of the runs
+     */
+    private List<String> runJUnit(String classDir, List<String> testClassNames) throws IOException, InterruptedException {
 
-            List<String> lines = FileUtils.readLines(junitTestFile, StandardCharsets.UTF_8);
-            List<String> newLines = new ArrayList<String>(lines.size());
+        List<String> args = new ArrayList<String>();
+        args.add("java");
+        args.add("-classpath");
+        args.add(System.getProperty("java.class.path")+File.pathSeparator+classDir);
+        args.add(JUnitTestRecorder.class.getName());
+        args.addAll(testClassNames);
+        ProcessBuilder junitPB = new ProcessBuilder(args);
+        junitPB.redirectOutput(ProcessBuilder.Redirect.PIPE);
+        junitPB.redirectErrorStream(true);
+        Process junitP = junitPB.start();
+        List<String> outputLines = new ArrayList<String>();
+        try (BufferedReader outReader = new BufferedReader(new InputStreamReader(junitP.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = outReader.readLine()) != null) {
+                outputLines.add(line);
+            }
+        }
+        junitP.waitFor();
+        return outputLines;
+    }
 
-            Pattern testPattern = Pattern.compile("\tpublic void test(\\d+)\\(\\) throws Throwable \\{");
+    private synchronized InMemoryJavaCompiler getCompiler() {
+        if (this.inMemoryCompilation && this.compiler == null) {
+            if (InMemoryJavaCompiler.isAvailable()) {
+                this.compiler = new InMemoryJavaCompiler(System.getProperty("java.class.path"));
+            } else {
+                logger.warning("No Java compiler available; compiling JEE unit tests from the output directory");
+                this.inMemoryCompilation = false;
+            }
+        }
+        return this.compiler;
+    }
 
-            for (String line : lines) {
-                Matcher testMatcher = testPattern.matcher(line);
+    /**
+     * Returns statistics about the compilation and runs of JEE unit tests
+     */
+    public Statistics getStatistics() {
+        synchronized (this.allRunners) {
+            int runs = 0;
+            int restarts = 0;
+            for (PersistentJUnitRunner runner : this.allRunners) {
+                runs += runner.getRunCount();
+                restarts += runner.getRestartCount();
+            }
+            return new Statistics(this.batches.get(), this.batchTestClasses.get(), this.compilations.get(),
+                this.inMemoryCompilations.get(), this.recompilations.get(), this.allRunners.size(), runs, restarts);
+        }
+    }
 
-                if (testMatcher.matches()) {
-                    Integer testId = Integer.parseInt(testMatcher.group(1));
-                    if (failingTests.contains(testId)) {
-                        newLines.set(newLines.size() - 1, "\t@EvoSuiteExclude");
-                    }
-                }
-                newLines.add(line);
+    /**
+     * Stops the persistent runner JVMs, and releases the in-memory compiler of JEE unit tests, if any
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        synchronized (this.allRunners) {
+            int runs = 0;
+            int restarts = 0;
+            for (PersistentJUnitRunner runner : this.allRunners) {
+                runs += runner.getRunCount();
+                restarts += runner.getRestartCount();
+                runner.close();
+            }
+            if ( ! this.allRunners.isEmpty()) {
+                logger.info("Ran " + runs + " JEE unit tests in " + this.allRunners.size() +
+                    " persistent runners, restarted " + restarts + " times");
             }
+            this.allRunners.clear();
+        }
+        this.idleRunners.clear();
+        if (this.compiler != null) {
+            this.compiler.close();
+            this.compiler = null;
+        }
+    }
 
-            FileUtils.writeLines(junitTestFile, newLines);
+    /**
+     * Changes the annotations of the given failing tests from '@Test' to '@EvoSuiteExclude', so they
+     * are skipped in the final junit tests, in a single pass over the source of the junit test
+     */
+    private static String annotateFailingTests(String source, Set<Integer> failingTests) {
+
+        Matcher testMatcher = TEST_DECLARATION_PATTERN.matcher(source);
+        StringBuffer annotatedSource = new StringBuffer(source.length() + 16 * failingTests.size());
+
+        while (testMatcher.find()) {
+            if (failingTests.contains(Integer.parseInt(testMatcher.group(2)))) {
+                testMatcher.appendReplacement(annotatedSource, "\t@EvoSuiteExclude$1");
+            }
         }
+        testMatcher.appendTail(annotatedSource);
+
+        return annotatedSource.toString();
     }
 
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.runner.JUnitCore;
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import randoop.org.apache.commons.io.output.NullPrintStream;
+
+/**
+ * Entry point of a long-lived JVM of a {@link PersistentJUnitRunner}, in which JEE unit tests are
+ * run. The worker reads requests from stdin, one JSON request per line, each carrying the bytes of a
+ * batch of compiled test classes; it defines the classes of a batch in a class loader of their own, so
+ * that test classes of different batches are isolated from each other, runs each test class with JUnit
+ * (under the EvoSuite scaffolding set up by the test class runner), and writes back the records of the
+ * runs ({@link JUnitTestRecorder}) on stdout, one JSON response per request. The worker also reports
+ * when it is running out of resources, so that it can be restarted. Output of application code and
+ * tests is discarded, so that it cannot interfere with the responses.
+ */
+public class JUnitRunnerWorker {
+
+    static final String TYPE_READY = "ready";
+    static final String TYPE_DONE = "done";
+
+    // fraction of the maximum heap in use beyond which the worker asks to be restarted
+    private static final double MAX_HEAP_USE = 0.8;
+
+    // number of threads left behind by tests beyond which the worker asks to be restarted
+    private static final int MAX_LEAKED_THREADS = 50;
+
+    private static final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    // requests and responses are exchanged one per line
+    private static final ObjectWriter lineWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws IOException {
+
+        // responses are written to the original stdout; test output is discarded
+        PrintStream channel = new PrintStream(new FileOutputStream(FileDescriptor.out), false,
+            StandardCharsets.UTF_8.name());
+        System.setOut(NullPrintStream.NULL_PRINT_STREAM);
+        System.setErr(NullPrintStream.NULL_PRINT_STREAM);
+
+        BufferedReader requests = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+        int initialThreads = Thread.activeCount();
+        ClassLoader parentLoader = JUnitRunnerWorker.class.getClassLoader();
+        writeResponse(channel, mapper.createObjectNode().put("type", TYPE_READY));
+
+        String line;
+        while ((line = requests.readLine()) != null) {
+            JsonNode request = mapper.readTree(line);
+            Map<String, byte[]> classBytes = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> classes = request.get("classes").fields();
+            while (classes.hasNext()) {
+                Map.Entry<String, JsonNode> classEntry = classes.next();
+                classBytes.put(classEntry.getKey(), Base64.getDecoder().decode(classEntry.getValue().asText()));
+            }
+
+            ObjectNode response = mapper.createObjectNode();
+            response.put("type", TYPE_DONE);
+            boolean exhausted = false;
+            ClassLoader testLoader = new InMemoryJavaCompiler.InMemoryClassLoader(classBytes, parentLoader);
+            Thread.currentThread().setContextClassLoader(testLoader);
+            ObjectNode records = response.putObject("records");
+            ObjectNode errors = response.putObject("errors");
+            try {
+                for (JsonNode testClassName : request.get("test_classes")) {
+                    try {
+                        JUnitTestRecorder recorder = new JUnitTestRecorder();
+                        JUnitCore junit = new JUnitCore();
+                        junit.addListener(recorder);
+                        junit.run(Class.forName(testClassName.asText(), false, testLoader));
+                        exhausted |= recorder.hasVirtualMachineError();
+                        ArrayNode classRecords = records.putArray(testClassName.asText());
+                        for (String record : recorder.getRecords()) {
+                            classRecords.add(record);
+                        }
+                    } catch (Throwable t) {
+                        exhausted |= t instanceof VirtualMachineError;
+                        errors.put(testClassName.asText(), t.toString());
+                    }
+                }
+            } finally {
+                Thread.currentThread().setContextClassLoader(parentLoader);
+            }
+
+            Runtime runtime = Runtime.getRuntime();
+            exhausted |= runtime.totalMemory() - runtime.freeMemory() > MAX_HEAP_USE * runtime.maxMemory();
+            exhausted |= Thread.activeCount() > initialThreads + MAX_LEAKED_THREADS;
+            response.put("exhausted", exhausted);
+            writeResponse(channel, response);
+        }
+
+        // terminate threads started by tests
+        System.exit(0);
+    }
+
+    private static void writeResponse(PrintStream channel, ObjectNode response) throws IOException {
+        channel.println(lineWriter.writeValueAsString(response));
+        channel.flush();
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+import randoop.org.apache.commons.io.output.NullPrintStream;
+
+/**
+ * JUnit listener that records a compact result per test of a JEE unit test class (the index of the
+ * test, whether it passed, the type of exception with which it failed, and its duration), so that the
+ * results of a run are read directly, rather than parsed from the console output of the run. Records
+ * are exchanged one per line: a record per test, followed by a record of the failure of the test class
+ * itself (e.g., of its scaffolding), if any, and by a record marking the end of the run.
+ * <p>
+ * The main method runs the given test classes with the recorder and writes their records to stdout,
+ * each preceded by a record naming the test class; output of application code and tests is discarded.
+ */
+public class JUnitTestRecorder extends RunListener {
+
+    private static final Pattern TEST_METHOD_PATTERN = Pattern.compile("test(\\d+)");
+
+    private static final String RUN_RECORD = "run";
+    private static final String CLASS_RECORD = "class";
+    private static final String END_RECORD = "end";
+    private static final String NO_EXCEPTION = "-";
+
+    /**
+     * Result of a test
+     */
+    public static final class TestRecord {
+
+        /** Index of the test in its test class */
+        public final int index;
+
+        /** Whether the test passed */
+        public final boolean passed;
+
+        /** Type of the exception with which the test failed, or null if it passed */
+        public final String exceptionType;
+
+        /** Duration of the test in milliseconds */
+        public final long durationMillis;
+
+        TestRecord(int index, boolean passed, String exceptionType, long durationMillis) {
+            this.index = index;
+            this.passed = passed;
+            this.exceptionType = exceptionType;
+            this.durationMillis = durationMillis;
+        }
+
+        @Override
+        public String toString() {
+            return this.index + " " + (this.passed ? "P" : "F") + " " +
+                (this.exceptionType == null ? NO_EXCEPTION : this.exceptionType) + " " + this.durationMillis;
+        }
+    }
+
+    /**
+     * Results of a run of a test class, read from the records of the run
+     */
+    public static final class RunResults {
+
+        /** Results of the tests, in order of completion */
+        public final List<TestRecord> tests = new ArrayList<>();
+
+        /** Type of the exception with which the test class itself failed, or null */
+        public String classFailure;
+
+        /** Whether the run completed, i.e., its end record was read */
+        public boolean completed = false;
+
+        /**
+         * Returns the indices of passing tests, adding the indices of failing tests to the given set. No
+         * test passes if the run did not complete, if the test class itself failed, or if the number of
+         * tests run differs from the number of tests of the test class.
+         *
+         * @param numTests number of tests of the test class
+         * @param failingTests set to which the indices of failing tests are added
+         * @return indices of passing tests
+         */
+        public Set<Integer> getPassedTests(int numTests, Set<Integer> failingTests) {
+            if ( ! this.completed || this.classFailure != null || this.tests.size() != numTests) {
+                return Collections.emptySet();
+            }
+            Set<Integer> passedTests = new HashSet<>();
+            for (TestRecord test : this.tests) {
+                if (test.passed) {
+                    passedTests.add(test.index);
+                } else {
+                    failingTests.add(test.index);
+                }
+            }
+            return passedTests;
+        }
+    }
+
+    // start times and failures of running tests
+    private final Map<Description, Long> startMillis = new HashMap<>();
+    private final Map<Description, Throwable> failures = new HashMap<>();
+
+    private final List<String> records = new ArrayList<>();
+
+    private Throwable classFailure;
+
+    private boolean virtualMachineError = false;
+
+    @Override
+    public void testStarted(Description description) {
+        this.startMillis.put(description, System.currentTimeMillis());
+    }
+
+    @Override
+    public void testFailure(Failure failure) {
+        this.virtualMachineError |= failure.getException() instanceof VirtualMachineError;
+        if (getTestIndex(failure.getDescription()) == -1) {
+            if (this.classFailure == null) {
+                this.classFailure = failure.getException();
+            }
+        } else {
+            this.failures.put(failure.getDescription(), failure.getException());
+        }
+    }
+
+    @Override
+    public void testFinished(Description description) {
+        int index = getTestIndex(description);
+        if (index == -1) {
+            return;
+        }
+        Long start = this.startMillis.remove(description);
+        Throwable failure = this.failures.remove(description);
+        this.records.add(new TestRecord(index, failure == null, failure == null ? null :
+            failure.getClass().getName(), start == null ? 0 : System.currentTimeMillis() - start).toString());
+    }
+
+    @Override
+    public void testRunFinished(Result result) {
+        if (this.classFailure != null) {
+            this.records.add(CLASS_RECORD + " " + this.classFailure.getClass().getName());
+        }
+        this.records.add(END_RECORD);
+    }
+
+    /**
+     * Returns the records of the run, one per line
+     */
+    public List<String> getRecords() {
+        return this.records;
+    }
+
+    /**
+     * Returns whether a test, or the test class, failed with a virtual machine error (e.g., ran out of
+     * memory), after which the JVM may be unusable
+     */
+    public boolean hasVirtualMachineError() {
+        return this.virtualMachineError || this.classFailure instanceof VirtualMachineError;
+    }
+
+    /**
+     * Reads the results of a run from its records; lines that are not records are ignored
+     *
+     * @param records records of the run, one per line
+     * @return results of the run
+     */
+    public static RunResults readRecords(Iterable<String> records) {
+        RunResults results = new RunResults();
+        for (String record : records) {
+            String[] fields = record.split(" ");
+            if (fields[0].equals(END_RECORD)) {
+                results.completed = true;
+            } else if (fields[0].equals(CLASS_RECORD) && fields.length == 2) {
+                results.classFailure = fields[1];
+            } else if (fields.length == 4 && fields[0].matches("\\d+")) {
+                results.tests.add(new TestRecord(Integer.parseInt(fields[0]), fields[1].equals("P"),
+                    fields[2].equals(NO_EXCEPTION) ? null : fields[2], Long.parseLong(fields[3])));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Reads the results of the runs of several test classes from their records, each preceded by a
+     * record naming the test class, as written by the main method; lines that are not records are
+     * ignored
+     *
+     * @param records records of the runs, one per line
+     * @return results of the runs, keyed by test class name
+     */
+    public static Map<String, RunResults> readRunRecords(Iterable<String> records) {
+        Map<String, List<String>> classRecords = new LinkedHashMap<>();
+        List<String> currentRecords = null;
+        for (String record : records) {
+            if (record.startsWith(RUN_RECORD + " ")) {
+                currentRecords = classRecords.computeIfAbsent(record.substring(RUN_RECORD.length() + 1),
+                    k -> new ArrayList<>());
+            } else if (currentRecords != null) {
+                currentRecords.add(record);
+            }
+        }
+        Map<String, RunResults> results = new LinkedHashMap<>();
+        classRecords.forEach((testClassName, runRecords) -> results.put(testClassName, readRecords(runRecords)));
+        return results;
+    }
+
+    private static int getTestIndex(Description description) {
+        String methodName = description.getMethodName();
+        if (methodName == null) {
+            return -1;
+        }
+        Matcher matcher = TEST_METHOD_PATTERN.matcher(methodName);
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        // records are written to the original stdout; test output is discarded
+        PrintStream channel = new PrintStream(new FileOutputStream(FileDescriptor.out), false,
+            StandardCharsets.UTF_8.name());
+        System.setOut(NullPrintStream.NULL_PRINT_STREAM);
+        System.setErr(NullPrintStream.NULL_PRINT_STREAM);
+
+        for (String testClassName : args) {
+            channel.println(RUN_RECORD + " " + testClassName);
+            try {
+                JUnitTestRecorder recorder = new JUnitTestRecorder();
+                JUnitCore junit = new JUnitCore();
+                junit.addListener(recorder);
+                junit.run(Class.forName(testClassName));
+                for (String record : recorder.getRecords()) {
+                    channel.println(record);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                // no end record: the run of the test class is incomplete
+            }
+            channel.flush();
+        }
+
+        // terminate threads started by tests
+        System.exit(0);
+    }
+}
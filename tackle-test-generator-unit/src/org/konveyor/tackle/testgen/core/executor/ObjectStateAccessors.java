@@ -0,0 +1,157 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accessors used for recording the state of objects of a class: the public fields of the class
+ * and the public getters of its other declared fields. The accessors of a class are computed once,
+ * on first use, and cached with the class, so that recording object state does no reflective
+ * lookups. Accessors are invoked via method handles where the members are accessible via public
+ * lookup, and reflectively otherwise.
+ */
+class ObjectStateAccessors {
+
+    private static final ClassValue<ObjectStateAccessors> accessorCache = new ClassValue<ObjectStateAccessors>() {
+        @Override
+        protected ObjectStateAccessors computeValue(Class<?> type) {
+            return new ObjectStateAccessors(type);
+        }
+    };
+
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Accessor for a public field or a getter
+     */
+    static class Accessor {
+
+        // name under which the accessed value is recorded
+        final String name;
+
+        // method handle of type (Object)Object, or null if the member is not accessible via public lookup
+        private final MethodHandle handle;
+
+        private final Field field;
+
+        private final Method getter;
+
+        private Accessor(String name, Field field, Method getter) {
+            this.name = name;
+            this.field = field;
+            this.getter = getter;
+            MethodHandle handle;
+            try {
+                handle = field != null ? MethodHandles.publicLookup().unreflectGetter(field) :
+                    MethodHandles.publicLookup().unreflect(getter);
+                boolean isStatic = Modifier.isStatic(field != null ? field.getModifiers() : getter.getModifiers());
+                if (isStatic) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                handle = handle.asType(ACCESSOR_TYPE);
+            } catch (IllegalAccessException e) {
+                handle = null;
+            }
+            this.handle = handle;
+        }
+
+        /**
+         * Returns the value of the field, or the value returned by the getter, for the given object
+         *
+         * @param object object whose value is read
+         * @return accessed value
+         * @throws InvocationTargetException if the getter threw an exception
+         * @throws IllegalAccessException if the member is not accessible
+         */
+        Object get(Object object) throws InvocationTargetException, IllegalAccessException {
+            if (this.handle == null) {
+                return this.field != null ? this.field.get(object) : this.getter.invoke(object);
+            }
+            try {
+                return this.handle.invokeExact(object);
+            } catch (Throwable t) {
+                // a field read does not throw; a getter throwing is reported as a reflective call would be
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    /** Public fields whose values are recorded as public state */
+    final List<Accessor> publicFields;
+
+    /** Getters of non-public declared fields, whose values are recorded as private state */
+    final List<Accessor> getters;
+
+    /**
+     * Returns the accessors for the given class, computing them on first use
+     */
+    static ObjectStateAccessors forClass(Class<?> type) {
+        return accessorCache.get(type);
+    }
+
+    private ObjectStateAccessors(Class<?> type) {
+
+        // public fields, other than fields of the class type (to avoid endless recursion)
+        List<Accessor> publicFields = new ArrayList<>();
+        Set<String> publicFieldNames = new HashSet<>();
+        for (Field field : type.getFields()) {
+            publicFieldNames.add(field.getName());
+            if (!field.getType().equals(type)) {
+                publicFields.add(new Accessor(field.getName(), field, null));
+            }
+        }
+
+        // potential getters - public methods that start with "get" and have no parameters
+        Map<String, Method> allPublicGetters = new HashMap<>();
+        for (Method publicMethod : type.getMethods()) {
+            if (publicMethod.getName().startsWith("get") && publicMethod.getParameterCount() == 0 &&
+                !publicMethod.getReturnType().equals(Void.TYPE)) {
+                allPublicGetters.put(publicMethod.getName().toLowerCase(), publicMethod);
+            }
+        }
+
+        // getters of other declared fields; a getter matching several fields is invoked once
+        Map<String, Accessor> getters = new LinkedHashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (publicFieldNames.contains(field.getName())) {
+                continue;
+            }
+            Method getterMethod = allPublicGetters.get("get" + field.getName().toLowerCase());
+            if (getterMethod != null) {
+                getters.computeIfAbsent(getterMethod.getName(), name -> new Accessor(name, null, getterMethod));
+            }
+        }
+
+        this.publicFields = Collections.unmodifiableList(publicFields);
+        this.getters = Collections.unmodifiableList(new ArrayList<>(getters.values()));
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+import org.konveyor.tackle.testgen.util.TackleTestLogger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Long-lived JVM ({@link JUnitRunnerWorker}) in which JEE unit tests are run, so that JVM startup and
+ * initialization of the EvoSuite runtime are paid once for many test classes, rather than once per
+ * test class. Compiled test classes are sent to the runner as class bytes over its stdin, and the
+ * records of their runs ({@link JUnitTestRecorder}) are read back from its stdout.
+ * <p>
+ * The runner JVM is started on first use, and restarted after a given number of test class runs, when
+ * it reports that it is running out of resources (memory or threads left behind by tests), and when it
+ * does not return the result of a run in time. A runner that terminates unexpectedly, or that cannot
+ * run a test class, reports an error to the caller, which can run the test class in a JVM of its own.
+ * Test classes are sent one batch per request, and count individually towards the restart interval. A
+ * runner is used by one thread at a time.
+ */
+public class PersistentJUnitRunner implements AutoCloseable {
+
+    private static final Logger logger = TackleTestLogger.getLogger(PersistentJUnitRunner.class);
+
+    private static final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    // requests and responses are exchanged one per line
+    private static final ObjectWriter lineWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+    /** Default number of test classes run by a runner JVM before it is restarted */
+    public static final int DEFAULT_RESTART_INTERVAL = 50;
+
+    // time limit for a runner to start up
+    private static final long STARTUP_SEC_LIMIT = 60;
+
+    // time allowed, in addition to the execution time limits of the tests, for a runner to return a result
+    private static final long RESPONSE_SEC_SLACK = 60;
+
+    // marks the end of a runner's output
+    private static final String EOF = new String("EOF");
+
+    private static final AtomicInteger runnerCounter = new AtomicInteger();
+
+    private final String classpath;
+
+    private final int restartInterval;
+
+    private RunnerProcess process;
+
+    // statistics
+    private int runs = 0;
+    private int restarts = 0;
+
+    /**
+     * Creates a runner whose JVM is started with the given classpath on first use
+     *
+     * @param restartInterval number of test classes run by the runner JVM before it is restarted
+     * @param classpath classpath of the runner JVM, including the application classes, JUnit, and the
+     * EvoSuite runtime
+     */
+    public PersistentJUnitRunner(int restartInterval, String classpath) {
+        if (restartInterval < 1) {
+            throw new IllegalArgumentException("Runner restart interval must be positive: " + restartInterval);
+        }
+        this.restartInterval = restartInterval;
+        this.classpath = classpath;
+    }
+
+    /**
+     * Runs the given compiled test classes in the runner JVM, in a single request
+     *
+     * @param testClassNames names of the test classes
+     * @param classBytes bytes of the test classes and their nested classes, keyed by their binary names
+     * @param numTests total number of tests of the test classes
+     * @return results of the runs, keyed by test class name; test classes that the runner could not run
+     * (e.g., could not load) have no results, and the runs of all test classes are incomplete if the
+     * runner does not return their results in time
+     * @throws IOException if the runner terminated unexpectedly
+     */
+    public Map<String, JUnitTestRecorder.RunResults> run(List<String> testClassNames, Map<String, byte[]> classBytes,
+                                                         int numTests) throws IOException {
+
+        if (this.process == null) {
+            RunnerProcess started = new RunnerProcess();
+            started.awaitReady();
+            this.process = started;
+        }
+
+        ObjectNode request = mapper.createObjectNode();
+        ArrayNode testClasses = request.putArray("test_classes");
+        for (String testClassName : testClassNames) {
+            testClasses.add(testClassName);
+        }
+        ObjectNode classes = request.putObject("classes");
+        for (Map.Entry<String, byte[]> classEntry : classBytes.entrySet()) {
+            classes.put(classEntry.getKey(), Base64.getEncoder().encodeToString(classEntry.getValue()));
+        }
+
+        Map<String, JUnitTestRecorder.RunResults> results = new LinkedHashMap<>();
+        JsonNode response;
+        try {
+            this.process.send(request);
+            String line = this.process.lines.poll((long) numTests * SequenceExecutor.SINGLE_EXECUTION_SEC_LIMIT +
+                RESPONSE_SEC_SLACK, TimeUnit.SECONDS);
+            if (line == null) {
+                logger.warning("JUnit runner " + this.process.name + " timed out running " + testClassNames);
+                recycle();
+                for (String testClassName : testClassNames) {
+                    results.put(testClassName, new JUnitTestRecorder.RunResults());
+                }
+                return results;
+            }
+            if (line == EOF) {
+                throw new IOException("JUnit runner terminated running " + testClassNames);
+            }
+            response = mapper.readTree(line);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            recycle();
+            throw new IOException("Interrupted while running " + testClassNames, ie);
+        } catch (IOException ioe) {
+            recycle();
+            throw ioe;
+        }
+
+        this.runs += testClassNames.size();
+        this.process.runs += testClassNames.size();
+        if (response.get("exhausted").asBoolean() || this.process.runs >= this.restartInterval) {
+            recycle();
+        }
+
+        response.get("errors").fields().forEachRemaining(error ->
+            logger.warning("JUnit runner failed to run " + error.getKey() + ": " + error.getValue().asText()));
+        response.get("records").fields().forEachRemaining(classRecords -> {
+            List<String> records = new ArrayList<>();
+            for (JsonNode record : classRecords.getValue()) {
+                records.add(record.asText());
+            }
+            results.put(classRecords.getKey(), JUnitTestRecorder.readRecords(records));
+        });
+        return results;
+    }
+
+    /**
+     * Returns the number of test classes run
+     */
+    public int getRunCount() {
+        return this.runs;
+    }
+
+    /**
+     * Returns the number of times the runner JVM was restarted
+     */
+    public int getRestartCount() {
+        return this.restarts;
+    }
+
+    /**
+     * Stops the runner JVM
+     */
+    @Override
+    public void close() {
+        if (this.process != null) {
+            this.process.destroy();
+            this.process = null;
+        }
+    }
+
+    /**
+     * Destroys the runner JVM; a new one is started on the next run
+     */
+    private void recycle() {
+        close();
+        this.restarts++;
+    }
+
+    /**
+     * Runner JVM, with a thread that reads its responses into a queue
+     */
+    private class RunnerProcess {
+
+        final String name = "tkltest-junit-runner-jvm-" + runnerCounter.incrementAndGet();
+
+        private final Process process;
+
+        private final BufferedWriter requests;
+
+        final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+        // number of test classes run by the runner
+        int runs = 0;
+
+        RunnerProcess() throws IOException {
+            List<String> processArgs = new ArrayList<>();
+            processArgs.add("java");
+            processArgs.add("-cp");
+            processArgs.add(classpath);
+            processArgs.add(JUnitRunnerWorker.class.getName());
+            ProcessBuilder processBuilder = new ProcessBuilder(processArgs);
+            processBuilder.redirectError(Redirect.INHERIT);
+            this.process = processBuilder.start();
+            this.requests = new BufferedWriter(new OutputStreamWriter(this.process.getOutputStream(),
+                StandardCharsets.UTF_8));
+
+            Thread reader = new Thread(() -> {
+                try (BufferedReader responses = new BufferedReader(new InputStreamReader(
+                    this.process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = responses.readLine()) != null) {
+                        this.lines.add(line);
+                    }
+                } catch (IOException e) {
+                    // runner terminated
+                }
+                this.lines.add(EOF);
+            }, this.name + "-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        void awaitReady() throws IOException {
+            try {
+                String line = this.lines.poll(STARTUP_SEC_LIMIT, TimeUnit.SECONDS);
+                if (line == null || line == EOF ||
+                    !mapper.readTree(line).get("type").asText().equals(JUnitRunnerWorker.TYPE_READY)) {
+                    destroy();
+                    throw new IOException("JUnit runner " + this.name + " failed to start");
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                destroy();
+                throw new IOException("Interrupted while starting JUnit runner " + this.name, ie);
+            }
+        }
+
+        void send(ObjectNode request) throws IOException {
+            this.requests.write(lineWriter.writeValueAsString(request));
+            this.requests.newLine();
+            this.requests.flush();
+        }
+
+        void destroy() {
+            this.process.destroyForcibly();
+        }
+    }
+}
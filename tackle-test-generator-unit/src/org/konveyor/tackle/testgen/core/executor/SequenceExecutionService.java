@@ -0,0 +1,366 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.konveyor.tackle.testgen.util.TackleTestLogger;
+import org.konveyor.tackle.testgen.util.ThreadOutputRouter;
+
+/**
+ * Long-lived pool of worker threads for executing sequences, shared by all sequence executions of
+ * a run. Application code run by a sequence may not terminate, and may not respond to interrupts;
+ * a worker running such code cannot be reclaimed. When an execution times out, the worker running
+ * it is interrupted and retired, and a new worker is started in its place, so that the pool keeps
+ * its capacity. The time limit of an execution starts when a worker starts running it; a watchdog
+ * thread cancels executions that exceed their time limit, retires the workers running them, and
+ * keeps track of retired workers that are still alive (leaked) and of threads started by
+ * application code that are still alive.
+ */
+
+public class SequenceExecutionService implements AutoCloseable {
+
+	private static final Logger logger = TackleTestLogger.getLogger(SequenceExecutionService.class);
+
+	private static final long WATCHDOG_PERIOD_MS = 100;
+
+	private static final AtomicInteger serviceCounter = new AtomicInteger();
+
+	private static SequenceExecutionService defaultService = null;
+
+	private final String name;
+
+	// threads started by sequences executed in the service belong to this group (unless the
+	// application code specifies a different group)
+	private final ThreadGroup threadGroup;
+
+	private final BlockingQueue<ExecutionTask> taskQueue = new LinkedBlockingQueue<>();
+
+	private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
+
+	private final Set<Worker> retiredWorkers = ConcurrentHashMap.newKeySet();
+
+	private final ScheduledExecutorService watchdog;
+
+	private final AtomicInteger workerCounter = new AtomicInteger();
+
+	private volatile boolean closed = false;
+
+	// execution statistics
+	private final AtomicLong executions = new AtomicLong();
+	private final AtomicLong timedOutExecutions = new AtomicLong();
+	private final AtomicInteger retiredWorkerCount = new AtomicInteger();
+	private final AtomicInteger recoveredWorkerCount = new AtomicInteger();
+
+	/**
+	 * Statistics about the executions and threads of the service
+	 */
+	public static class Statistics {
+		/** Number of executions run */
+		public final long executions;
+		/** Number of executions that exceeded their time limit */
+		public final long timedOutExecutions;
+		/** Number of workers retired because their execution exceeded its time limit */
+		public final int retiredWorkers;
+		/** Number of retired workers that terminated after being retired */
+		public final int recoveredWorkers;
+		/** Number of retired workers that are still alive */
+		public final int leakedWorkers;
+		/** Number of threads started by executed application code that are still alive */
+		public final int leakedAppThreads;
+
+		Statistics(long executions, long timedOutExecutions, int retiredWorkers, int recoveredWorkers,
+				   int leakedWorkers, int leakedAppThreads) {
+			this.executions = executions;
+			this.timedOutExecutions = timedOutExecutions;
+			this.retiredWorkers = retiredWorkers;
+			this.recoveredWorkers = recoveredWorkers;
+			this.leakedWorkers = leakedWorkers;
+			this.leakedAppThreads = leakedAppThreads;
+		}
+
+		@Override
+		public String toString() {
+			return executions + " executions, " + timedOutExecutions + " timed out, " + retiredWorkers +
+				" workers retired (" + recoveredWorkers + " recovered, " + leakedWorkers + " leaked), " +
+				leakedAppThreads + " leaked application threads";
+		}
+	}
+
+	/**
+	 * Creates an execution service with the given number of worker threads
+	 *
+	 * @param numWorkers number of worker threads
+	 */
+	public SequenceExecutionService(int numWorkers) {
+		if (numWorkers < 1) {
+			throw new IllegalArgumentException("Number of workers must be positive: " + numWorkers);
+		}
+		this.name = "tkltest-seq-exec-" + serviceCounter.incrementAndGet();
+		this.threadGroup = new ThreadGroup(this.name);
+		for (int i = 0; i < numWorkers; i++) {
+			startWorker();
+		}
+		this.watchdog = Executors.newSingleThreadScheduledExecutor(ThreadOutputRouter.withoutRedirection(runnable -> {
+			Thread thread = new Thread(runnable, this.name + "-watchdog");
+			thread.setDaemon(true);
+			return thread;
+		}));
+		this.watchdog.scheduleWithFixedDelay(this::checkWorkers, WATCHDOG_PERIOD_MS, WATCHDOG_PERIOD_MS,
+			TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the service used by sequence executors that were not given a service; the service is
+	 * created on first use, with one worker per available processor
+	 */
+	static synchronized SequenceExecutionService getDefault() {
+		if (defaultService == null) {
+			defaultService = new SequenceExecutionService(Runtime.getRuntime().availableProcessors());
+		}
+		return defaultService;
+	}
+
+	/**
+	 * Runs the given task on a worker thread and waits for it to complete within the given time limit,
+	 * measured from the time a worker starts running the task. If the task does not complete in time,
+	 * the worker running it is interrupted and replaced. The task runs with the output redirection
+	 * of the calling thread (see {@link ThreadOutputRouter}).
+	 *
+	 * @param task task to run
+	 * @param timeout time limit for the task
+	 * @param unit unit of the time limit
+	 * @return CPU time (in nanoseconds) used by the task on the worker thread, or 0 if thread CPU time
+	 * measurement is not supported
+	 * @throws TimeoutException if the task did not complete within the time limit
+	 * @throws ExecutionException if the task threw an exception
+	 * @throws InterruptedException if interrupted while waiting for the task
+	 */
+	public long execute(Runnable task, long timeout, TimeUnit unit)
+		throws TimeoutException, ExecutionException, InterruptedException {
+		if (this.closed) {
+			throw new IllegalStateException("Execution service " + this.name + " is closed");
+		}
+		ExecutionTask executionTask = new ExecutionTask(ThreadOutputRouter.withCurrentRedirection(task),
+			unit.toNanos(timeout));
+		this.executions.incrementAndGet();
+		this.taskQueue.add(executionTask);
+		try {
+			executionTask.get();
+			return executionTask.cpuNanos;
+		} catch (CancellationException ce) {
+			// cancelled by the watchdog
+			throw new TimeoutException("Execution exceeded time limit of " + timeout + " " + unit);
+		} catch (InterruptedException ie) {
+			abandon(executionTask);
+			throw ie;
+		}
+	}
+
+	/**
+	 * Returns statistics about the executions and threads of the service
+	 */
+	public Statistics getStatistics() {
+		pruneRetiredWorkers();
+		int leakedWorkers = this.retiredWorkers.size();
+		// threads in the group other than live workers were started by application code
+		int liveWorkers = (int) this.workers.stream().filter(worker -> worker.isAlive()).count();
+		int leakedAppThreads = Math.max(0, this.threadGroup.activeCount() - liveWorkers - leakedWorkers);
+		return new Statistics(this.executions.get(), this.timedOutExecutions.get(), this.retiredWorkerCount.get(),
+			this.recoveredWorkerCount.get(), leakedWorkers, leakedAppThreads);
+	}
+
+	/**
+	 * Stops the workers of the service; workers running an execution are interrupted
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		this.watchdog.shutdownNow();
+		for (Worker worker : this.workers) {
+			worker.interrupt();
+		}
+		ExecutionTask task;
+		while ((task = this.taskQueue.poll()) != null) {
+			task.cancel(false);
+		}
+	}
+
+	private void startWorker() {
+		Worker worker = new Worker();
+		this.workers.add(worker);
+		worker.start();
+	}
+
+	/**
+	 * Cancels the given task and, if it is running, retires the worker running it
+	 */
+	private void abandon(ExecutionTask task) {
+		task.cancel(true);
+		Worker worker = task.worker;
+		if (worker != null) {
+			retire(worker, task);
+		}
+	}
+
+	/**
+	 * Retires the given worker if it is still running the given task, and starts a replacement worker
+	 */
+	private void retire(Worker worker, ExecutionTask task) {
+		synchronized (worker) {
+			// the worker may have completed the task in the meantime
+			if (worker.currentTask != task || !this.workers.remove(worker)) {
+				return;
+			}
+			worker.retired = true;
+			worker.interrupt();
+			this.retiredWorkers.add(worker);
+			this.retiredWorkerCount.incrementAndGet();
+			logger.warning("Retired sequence execution worker " + worker.getName() + " running beyond time limit");
+		}
+		if (!this.closed) {
+			startWorker();
+		}
+	}
+
+	/**
+	 * Retires workers whose execution exceeded its time limit and updates leaked-worker information
+	 */
+	private void checkWorkers() {
+		long now = System.nanoTime();
+		for (Worker worker : this.workers) {
+			ExecutionTask task = worker.currentTask;
+			// the task may complete before it is cancelled, in which case it did not time out
+			if (task != null && now - task.startTime > task.timeoutNanos && task.cancel(true)) {
+				this.timedOutExecutions.incrementAndGet();
+				retire(worker, task);
+			}
+		}
+		pruneRetiredWorkers();
+	}
+
+	private void pruneRetiredWorkers() {
+		for (Worker worker : this.retiredWorkers) {
+			if (!worker.isAlive()) {
+				this.retiredWorkers.remove(worker);
+				this.recoveredWorkerCount.incrementAndGet();
+			}
+		}
+	}
+
+	private static long getCurrentThreadCpuTime() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (!threadBean.isCurrentThreadCpuTimeSupported()) {
+			return 0;
+		}
+		return Math.max(0, threadBean.getCurrentThreadCpuTime());
+	}
+
+	private static class ExecutionTask extends FutureTask<Void> {
+
+		// time limit for the task
+		final long timeoutNanos;
+
+		// time (System.nanoTime) at which a worker started running the task
+		volatile long startTime;
+
+		// worker running the task
+		volatile Worker worker = null;
+
+		// CPU time of the worker thread when it started running the task, and CPU time used by the task
+		volatile long startCpuNanos;
+		volatile long cpuNanos = 0;
+
+		ExecutionTask(Runnable task, long timeoutNanos) {
+			super(task, null);
+			this.timeoutNanos = timeoutNanos;
+		}
+
+		@Override
+		protected void set(Void result) {
+			// called on the worker thread before waiting threads are released
+			this.cpuNanos = getCurrentThreadCpuTime() - this.startCpuNanos;
+			super.set(result);
+		}
+	}
+
+	private class Worker extends Thread {
+
+		volatile ExecutionTask currentTask = null;
+
+		volatile boolean retired = false;
+
+		Worker() {
+			super(threadGroup, name + "-worker-" + workerCounter.incrementAndGet());
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			// workers may be created under an output redirection (e.g., replacement workers), which they do
+			// not keep: each task runs with the redirection of its caller
+			ThreadOutputRouter.withoutRedirection(this::runTasks).run();
+		}
+
+		private void runTasks() {
+			while (!this.retired && !closed) {
+				ExecutionTask task;
+				try {
+					task = taskQueue.take();
+				} catch (InterruptedException e) {
+					if (this.retired || closed) {
+						break;
+					}
+					continue;
+				}
+				synchronized (this) {
+					task.worker = this;
+					task.startTime = System.nanoTime();
+					task.startCpuNanos = getCurrentThreadCpuTime();
+					this.currentTask = task;
+				}
+				try {
+					task.run();
+				} finally {
+					synchronized (this) {
+						this.currentTask = null;
+						task.worker = null;
+						// clear interrupt status set by cancellation of the task
+						if (!this.retired && !closed) {
+							Thread.interrupted();
+						}
+					}
+				}
+			}
+		}
+	}
+}
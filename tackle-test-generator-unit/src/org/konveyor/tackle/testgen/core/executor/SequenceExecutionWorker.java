@@ -0,0 +1,112 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import randoop.org.apache.commons.io.output.NullPrintStream;
+import randoop.sequence.Sequence;
+
+/**
+ * Entry point of a worker JVM of a {@link ForkedSequenceExecutionPool}. The worker reads batches of
+ * sequences (in parsable form) from stdin, one JSON request per line, executes them with a
+ * {@link SequenceExecutor}, and streams the results back on stdout, one JSON response per sequence,
+ * followed by a response marking the end of the batch. Output of application code is discarded, so
+ * that it cannot interfere with the responses.
+ */
+public class SequenceExecutionWorker {
+
+    static final String TYPE_READY = "ready";
+    static final String TYPE_RESULT = "result";
+    static final String TYPE_DONE = "done";
+
+    private static final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    // requests and responses are exchanged one per line
+    private static final ObjectWriter lineWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws IOException {
+
+        // responses are written to the original stdout; app output is discarded
+        PrintStream channel = new PrintStream(new FileOutputStream(FileDescriptor.out), false,
+            StandardCharsets.UTF_8.name());
+        System.setOut(NullPrintStream.NULL_PRINT_STREAM);
+        System.setErr(NullPrintStream.NULL_PRINT_STREAM);
+
+        BufferedReader requests = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+        try (SequenceExecutionService executionService = new SequenceExecutionService(1)) {
+            SequenceExecutor executor = new SequenceExecutor(true, executionService);
+            writeResponse(channel, mapper.createObjectNode().put("type", TYPE_READY));
+
+            String line;
+            while ((line = requests.readLine()) != null) {
+                JsonNode request = mapper.readTree(line);
+                int numExecutions = request.get("executions").asInt();
+                executor.setAdaptiveRepetition(request.get("stable_executions").asInt(),
+                    request.get("escalated_executions").asInt());
+                executor.setCaptureBudget(new CaptureBudget(request.get("capture_max_fields").asInt(),
+                    request.get("capture_max_bytes").asInt(), request.get("capture_time_millis").asLong()));
+
+                for (JsonNode seqRequest : request.get("sequences")) {
+                    String seqId = seqRequest.get("id").asText();
+                    ObjectNode response = mapper.createObjectNode();
+                    response.put("type", TYPE_RESULT);
+                    response.put("id", seqId);
+                    try {
+                        Sequence sequence = Sequence.parse(seqRequest.get("sequence").asText());
+                        SequenceExecutor.SequenceResults results = executor.executeSequence(seqId, sequence,
+                            numExecutions);
+                        response.set("results", results.toTransferJson());
+                    } catch (Exception e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        response.put("error", cause.toString());
+                    }
+                    writeResponse(channel, response);
+                }
+
+                // report threads left behind by the batch, so that the worker can be restarted
+                SequenceExecutionService.Statistics stats = executionService.getStatistics();
+                writeResponse(channel, mapper.createObjectNode()
+                    .put("type", TYPE_DONE)
+                    .put("leaked", stats.leakedWorkers > 0 || stats.leakedAppThreads > 0));
+            }
+        }
+
+        // terminate threads started by application code
+        System.exit(0);
+    }
+
+    private static void writeResponse(PrintStream channel, ObjectNode response) throws IOException {
+        channel.println(lineWriter.writeValueAsString(response));
+        channel.flush();
+    }
+}
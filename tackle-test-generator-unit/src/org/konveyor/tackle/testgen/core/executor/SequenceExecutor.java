@@ -24,25 +24,29 @@ import java.io.NotSerializableException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -59,9 +63,11 @@ import org.konveyor.tackle.testgen.core.SequenceParser;
 import org.konveyor.tackle.testgen.util.Constants;
 import org.konveyor.tackle.testgen.util.TackleTestJson;
 import org.konveyor.tackle.testgen.util.TackleTestLogger;
+import org.konveyor.tackle.testgen.util.ThreadOutputRouter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -77,6 +83,7 @@ import randoop.org.checkerframework.checker.signature.qual.SignatureBottom;
 import randoop.sequence.ExecutableSequence;
 import randoop.sequence.Sequence;
 import randoop.sequence.SequenceParseException;
+import randoop.sequence.Statement;
 import randoop.test.TestChecks;
 
 /**
@@ -90,13 +97,47 @@ public class SequenceExecutor {
 
 	private Map<String, SequenceInfo> id2Sequences = new HashMap<String, SequenceInfo>();
 
-	private Map<String, SequenceResults> id2ExecutionResults = new HashMap<String, SequenceResults>();
+	// concurrent, as workers that exceeded the execution time limit may still record results
+	private Map<String, SequenceResults> id2ExecutionResults = new ConcurrentHashMap<String, SequenceResults>();
 
 	// Maps sequence id to its original indices (without Randoop-added statements)
 	private Map<String, List<Integer>> id2Indices = new HashMap<String, List<Integer>>();
 
 	boolean allResults = false; // when set to true, runtime object state is also returned
 
+	// service on which sequences are executed by executeSequence
+	private final SequenceExecutionService executionService;
+
+	// adaptive repetition: stop repeating executions of a sequence once the recorded state has been
+	// identical for this many consecutive executions (0 disables adaptive repetition)
+	private int stableExecutionsToStop = 0;
+
+	// adaptive repetition: number of executions to which a sequence whose recorded state changed
+	// between executions is escalated
+	private int escalatedExecutions = 0;
+
+	// pool of worker JVMs to which executeSequence delegates, or null for in-process execution
+	private ForkedSequenceExecutionPool forkedExecutionPool = null;
+
+	// results, and errors, of sequences executed ahead in the last batch sent to the worker JVMs and not
+	// yet returned by executeSequence
+	private Map<String, SequenceResults> forkedBatchResults = new HashMap<String, SequenceResults>();
+	private Map<String, String> forkedBatchErrors = new HashMap<String, String>();
+
+	// execution times per target class and method, from which adaptive time limits are derived;
+	// null applies the fixed time limit to all executions
+	private ExecutionLatencyTracker latencyTracker = null;
+
+	// bounds on the cost of recording the state of runtime objects
+	private CaptureBudget captureBudget = CaptureBudget.UNLIMITED;
+
+	// recorded results of the statements of executed sequences, reused by sequences with the same
+	// prefix; null records the results of all statements of every sequence
+	private SequencePrefixTrie prefixTrie = null;
+
+	// backend that executes sequences as compiled code, or null to execute sequences reflectively
+	private CompiledSequenceBackend compiledBackend = null;
+
 	private static boolean VERBOSE = true;
 
 	public static final String TKLTEST_NULL_STRING = "__tkltest_null";
@@ -132,11 +173,27 @@ public class SequenceExecutor {
         public String[] causeMessage;
 		public boolean passed;
 		public int failingIndex = -1;
+		// number of executions of the sequence from which the results were obtained
+		public int executions = 1;
+		// CPU time (in nanoseconds) used by the executions of the sequence
+		public long executionCpuNanos = 0;
+		// whether an execution of the sequence was cut off by an adaptive time limit
+		public boolean cutOffByAdaptiveLimit = false;
+		// whether an execution of the sequence exceeded its time limit
+		public boolean timedOut = false;
+		// number of runtime objects recorded by type only, because their state exceeded the capture budget
+		public int truncatedCaptures = 0;
+		// whether the runtime object of each statement was recorded by type only, without its state
+		public boolean[] typeOnly;
+		// number of object-state captures skipped by reusing the recorded state of an executed sequence with the
+		// same prefix (the statements of the prefix are still executed)
+		public int skippedPrefixCaptures = 0;
 
 		public SequenceResults(int size) {
 			normalTermination = new Boolean[size];
 			runtimeObjectName = new String[size];
 			runtimeObjectType = new Class<?>[size];
+			typeOnly = new boolean[size];
 			runtimePublicObjectState = new ArrayList<Map<String, String>>(size);
 			for (int i=0;i<size;i++) {
 				runtimePublicObjectState.add(null);
@@ -155,8 +212,9 @@ public class SequenceExecutor {
 		public SequenceResults(SequenceResults other) {
 			runtimeObjectName = Arrays.copyOf(other.runtimeObjectName, other.runtimeObjectName.length);
 			runtimeObjectType = Arrays.copyOf(other.runtimeObjectType, other.runtimeObjectType.length);
-			runtimePublicObjectState = new ArrayList<Map<String, String>>(other.runtimePublicObjectState);
-			runtimePrivateObjectState = new ArrayList<Map<String, String>>(other.runtimePrivateObjectState);
+			typeOnly = Arrays.copyOf(other.typeOnly, other.typeOnly.length);
+			runtimePublicObjectState = copyObjectStates(other.runtimePublicObjectState);
+			runtimePrivateObjectState = copyObjectStates(other.runtimePrivateObjectState);
 			normalTermination = Arrays.copyOf(other.normalTermination, other.normalTermination.length);
 			output = Arrays.copyOf(other.output, other.output.length);
 			exception = Arrays.copyOf(other.exception, other.exception.length);
@@ -165,6 +223,31 @@ public class SequenceExecutor {
 			causeMessage = Arrays.copyOf(other.causeMessage, other.causeMessage.length);
 			passed = other.passed;
 			failingIndex = other.failingIndex;
+			executions = other.executions;
+			executionCpuNanos = other.executionCpuNanos;
+			cutOffByAdaptiveLimit = other.cutOffByAdaptiveLimit;
+			timedOut = other.timedOut;
+			truncatedCaptures = other.truncatedCaptures;
+			skippedPrefixCaptures = other.skippedPrefixCaptures;
+		}
+
+		// object states are copied along with their list, so that the copy can be updated on its own
+		private static List<Map<String, String>> copyObjectStates(List<Map<String, String>> states) {
+			List<Map<String, String>> copy = new ArrayList<Map<String, String>>(states.size());
+			for (Map<String, String> state : states) {
+				copy.add(state != null ? new LinkedHashMap<String, String>(state) : null);
+			}
+			return copy;
+		}
+
+		/**
+		 * Checks whether the executions of the sequence ran to completion: none of them exceeded its
+		 * time limit, and the sequence either passed or failed at one of its statements
+		 *
+		 * @return true if the results are those of completed executions
+		 */
+		public boolean isComplete() {
+			return ! timedOut && ! cutOffByAdaptiveLimit && (passed || failingIndex >= 0);
 		}
 
 		public SequenceResults(ObjectNode content, Set<Integer> indices) throws ClassNotFoundException {
@@ -252,17 +335,102 @@ public class SequenceExecutor {
 			return sequenceObject;
 		}
 
-		/* Retain in results only recorded values that agree with given results */
+		/**
+		 * Returns the complete results as JSON, for transfer between JVMs; unlike {@link #toJson(List)},
+		 * the JSON includes the results of all statements and all execution information
+		 */
+		public ObjectNode toTransferJson() {
+			ObjectNode resultsObject = mapper.createObjectNode();
+			resultsObject.put("passed", passed);
+			resultsObject.put("failing_index", failingIndex);
+			resultsObject.put("executions", executions);
+			resultsObject.put("cpu_nanos", executionCpuNanos);
+			resultsObject.put("cut_off", cutOffByAdaptiveLimit);
+			resultsObject.put("truncated_captures", truncatedCaptures);
+			ArrayNode statementArray = mapper.createArrayNode();
+			for (int i=0; i<normalTermination.length; i++) {
+				ObjectNode statementObject = mapper.createObjectNode();
+				statementObject.put("normal_termination", normalTermination[i]);
+				statementObject.put("output", output[i]);
+				statementObject.put("runtime_object_name", runtimeObjectName[i]);
+				statementObject.put("runtime_object_type", runtimeObjectType[i] == null ? null : runtimeObjectType[i].getName());
+				statementObject.put("type_only", typeOnly[i]);
+				statementObject.set("runtime_object_state", mapper.valueToTree(runtimePublicObjectState.get(i)));
+				statementObject.set("runtime_private_object_state", mapper.valueToTree(runtimePrivateObjectState.get(i)));
+				statementObject.put("exception", exception[i]);
+				statementObject.put("exception_message", exceptionMessage[i]);
+				statementObject.put("cause", cause[i]);
+				statementObject.put("cause_message", causeMessage[i]);
+				statementArray.add(statementObject);
+			}
+			resultsObject.set("statements", statementArray);
+			return resultsObject;
+		}
+
+		/**
+		 * Creates results from JSON written by {@link #toTransferJson()}
+		 *
+		 * @param resultsObject complete results as JSON
+		 * @return results
+		 * @throws ClassNotFoundException if the type of a recorded runtime object cannot be loaded
+		 */
+		public static SequenceResults fromTransferJson(ObjectNode resultsObject) throws ClassNotFoundException {
+			ArrayNode statementArray = (ArrayNode) resultsObject.get("statements");
+			SequenceResults results = new SequenceResults(statementArray.size());
+			results.passed = resultsObject.get("passed").asBoolean();
+			results.failingIndex = resultsObject.get("failing_index").asInt();
+			results.executions = resultsObject.get("executions").asInt();
+			results.executionCpuNanos = resultsObject.get("cpu_nanos").asLong();
+			results.cutOffByAdaptiveLimit = resultsObject.get("cut_off").asBoolean();
+			results.truncatedCaptures = resultsObject.get("truncated_captures").asInt();
+			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+			for (int i=0; i<statementArray.size(); i++) {
+				JsonNode statementObject = statementArray.get(i);
+				JsonNode normalTermination = statementObject.get("normal_termination");
+				results.normalTermination[i] = normalTermination.isNull() ? null : normalTermination.asBoolean();
+				results.output[i] = textOrNull(statementObject.get("output"));
+				results.runtimeObjectName[i] = textOrNull(statementObject.get("runtime_object_name"));
+				String runtimeObjectType = textOrNull(statementObject.get("runtime_object_type"));
+				if (runtimeObjectType != null) {
+					results.runtimeObjectType[i] = Class.forName(runtimeObjectType, false, classLoader);
+				}
+				results.typeOnly[i] = statementObject.get("type_only").asBoolean();
+				results.runtimePublicObjectState.set(i, mapper.convertValue(statementObject.get("runtime_object_state"),
+					new TypeReference<Map<String, String>>(){}));
+				results.runtimePrivateObjectState.set(i, mapper.convertValue(statementObject.get("runtime_private_object_state"),
+					new TypeReference<Map<String, String>>(){}));
+				results.exception[i] = textOrNull(statementObject.get("exception"));
+				results.exceptionMessage[i] = textOrNull(statementObject.get("exception_message"));
+				results.cause[i] = textOrNull(statementObject.get("cause"));
+				results.causeMessage[i] = textOrNull(statementObject.get("cause_message"));
+			}
+			return results;
+		}
+
+		private static String textOrNull(JsonNode node) {
+			return node == null || node.isNull() ? null : node.asText();
+		}
+
+		/* Retain in results only recorded values that agree with given results; returns whether any
+		 * recorded value was removed, or, if none was, whether the state of some recorded object could
+		 * not be compared because it was recorded by type only in either results */
+
+		private Agreement retain(SequenceResults other) {
 
-		private void retain(SequenceResults other) {
+			boolean changed = false;
+			boolean unverified = false;
 
 			for (int i=0; i< runtimeObjectName.length; i++) {
 
+				if (runtimeObjectName[i] != null && (typeOnly[i] || other.typeOnly[i])) {
 
-				if (runtimeObjectName[i] != null) {
+					// objects recorded by type only have no state to compare
+					unverified = true;
 
-					runtimePublicObjectState.get(i).entrySet().retainAll(other.runtimePublicObjectState.get(i).entrySet());
-					runtimePrivateObjectState.get(i).entrySet().retainAll(other.runtimePrivateObjectState.get(i).entrySet());
+				} else if (runtimeObjectName[i] != null) {
+
+					changed |= runtimePublicObjectState.get(i).entrySet().retainAll(other.runtimePublicObjectState.get(i).entrySet());
+					changed |= runtimePrivateObjectState.get(i).entrySet().retainAll(other.runtimePrivateObjectState.get(i).entrySet());
 
 					if (runtimePublicObjectState.get(i).isEmpty() && runtimePrivateObjectState.get(i).isEmpty()) {
 
@@ -274,19 +442,193 @@ public class SequenceExecutor {
 				}
 			}
 
+			return changed ? Agreement.CHANGED : unverified ? Agreement.UNVERIFIED : Agreement.AGREED;
 		}
 	}
 
+	/* Outcome of comparing the results of an execution of a sequence with those of earlier executions */
+
+	private enum Agreement { AGREED, CHANGED, UNVERIFIED }
+
+
+	/**
+	 * Format of the results file written by the executor
+	 */
+	public enum ResultsFormat {
+		/** JSON results file {@code <appName>_}{@value Constants#EXECUTOR_OUTFILE_SUFFIX} */
+		JSON,
+		/** Binary results file {@code <appName>_}{@value Constants#EXECUTOR_BINARY_OUTFILE_SUFFIX} (see {@link SequenceResultsBinaryFormat}) */
+		BINARY
+	}
+
+	/**
+	 * Backend on which sequences are executed
+	 */
+	public enum ExecutionBackend {
+		/** Statements of sequences are interpreted reflectively by Randoop */
+		REFLECTIVE,
+		/** Sequences are compiled into classes, whose code is executed (see {@link CompiledSequenceBackend}) */
+		COMPILED
+	}
+
+	// writer of the results of a single sequence, in batch mode
+	private interface ResultsWriter {
+		void write(String seqId, SequenceResults results, List<Integer> originalSeqIndices) throws IOException;
+	}
 
 	public SequenceExecutor(String appName, String seqFile, boolean allResults) throws IOException, SequenceParseException {
+		this(appName, seqFile, allResults, ResultsFormat.JSON);
+	}
+
+	/**
+	 * Executes the sequences in the given file and writes their results in the given format
+	 *
+	 * @param appName name of the application under test
+	 * @param seqFile file containing the sequences
+	 * @param allResults When set to true, records all results (including runtime generated objects).
+	 * Otherwise, records only fail/pass results.
+	 * @param format format of the results file
+	 */
+
+	public SequenceExecutor(String appName, String seqFile, boolean allResults, ResultsFormat format)
+		throws IOException, SequenceParseException {
+		this(appName, seqFile, allResults, format, ExecutionBackend.REFLECTIVE);
+	}
+
+	/**
+	 * Executes the sequences in the given file on the given backend and writes their results in the
+	 * given format; with the compiled backend, all sequences are compiled in one batch before they are
+	 * executed
+	 *
+	 * @param appName name of the application under test
+	 * @param seqFile file containing the sequences
+	 * @param allResults When set to true, records all results (including runtime generated objects).
+	 * Otherwise, records only fail/pass results.
+	 * @param format format of the results file
+	 * @param backend backend on which sequences are executed
+	 */
+
+	public SequenceExecutor(String appName, String seqFile, boolean allResults, ResultsFormat format,
+							ExecutionBackend backend) throws IOException, SequenceParseException {
 
 		this(allResults);
 
 		boolean addPackageDeclaration = readSequences(new File(seqFile), id2Sequences);
 
-		executeSequences(addPackageDeclaration);
+		try (InMemoryJavaCompiler compiler = createCompiler(backend)) {
+			if (compiler != null) {
+				setCompiledBackend(new CompiledSequenceBackend(compiler));
+			}
+			executeSequences(addPackageDeclaration);
+		}
+
+		if (format == ResultsFormat.BINARY) {
+			toBinary(appName);
+		} else {
+			toJson(appName);
+		}
+	}
+
+	/**
+	 * Executes the sequences in the given file in parallel batch mode: sequences are parsed and executed
+	 * on the given number of threads, and their results are written, as they complete, to shards in the
+	 * directory {@code <appName>_}{@value Constants#EXECUTOR_OUTDIR_SUFFIX} (see {@link SequenceResultsShards}).
+	 *
+	 * @param appName name of the application under test
+	 * @param seqFile file containing the sequences
+	 * @param allResults When set to true, records all results (including runtime generated objects).
+	 * Otherwise, records only fail/pass results.
+	 * @param numThreads number of threads on which sequences are parsed and executed
+	 * @param shardSize number of sequence results per shard
+	 */
+
+	public SequenceExecutor(String appName, String seqFile, boolean allResults, int numThreads, int shardSize)
+		throws IOException, SequenceParseException {
+		this(appName, seqFile, allResults, numThreads, shardSize, ResultsFormat.JSON);
+	}
 
-		toJson(appName);
+	/**
+	 * Executes the sequences in the given file in parallel batch mode, writing their results in the
+	 * given format: JSON results are written in shards (see {@link #SequenceExecutor(String, String, boolean, int, int)}),
+	 * while binary results are written, as sequences complete, to the single file
+	 * {@code <appName>_}{@value Constants#EXECUTOR_BINARY_OUTFILE_SUFFIX}, whose index gives readers
+	 * random access to the results of each sequence.
+	 *
+	 * @param appName name of the application under test
+	 * @param seqFile file containing the sequences
+	 * @param allResults When set to true, records all results (including runtime generated objects).
+	 * Otherwise, records only fail/pass results.
+	 * @param numThreads number of threads on which sequences are parsed and executed
+	 * @param shardSize number of sequence results per shard, for JSON results
+	 * @param format format of the results
+	 */
+
+	public SequenceExecutor(String appName, String seqFile, boolean allResults, int numThreads, int shardSize,
+							ResultsFormat format) throws IOException, SequenceParseException {
+		this(appName, seqFile, allResults, numThreads, shardSize, format, ExecutionBackend.REFLECTIVE);
+	}
+
+	/**
+	 * Executes the sequences in the given file in parallel batch mode on the given backend (see
+	 * {@link #SequenceExecutor(String, String, boolean, int, int, ResultsFormat)}); with the compiled
+	 * backend, each sequence is compiled by the thread that executes it
+	 *
+	 * @param appName name of the application under test
+	 * @param seqFile file containing the sequences
+	 * @param allResults When set to true, records all results (including runtime generated objects).
+	 * Otherwise, records only fail/pass results.
+	 * @param numThreads number of threads on which sequences are parsed and executed
+	 * @param shardSize number of sequence results per shard, for JSON results
+	 * @param format format of the results
+	 * @param backend backend on which sequences are executed
+	 */
+
+	public SequenceExecutor(String appName, String seqFile, boolean allResults, int numThreads, int shardSize,
+							ResultsFormat format, ExecutionBackend backend) throws IOException, SequenceParseException {
+
+		this(allResults);
+
+		boolean addPackageDeclaration = readSequences(new File(seqFile), id2Sequences);
+
+		try (InMemoryJavaCompiler compiler = createCompiler(backend)) {
+			if (compiler != null) {
+				setCompiledBackend(new CompiledSequenceBackend(compiler));
+			}
+			executeAndWriteSequencesInBatch(addPackageDeclaration, numThreads, format, shardSize, appName);
+		}
+	}
+
+	private void executeAndWriteSequencesInBatch(boolean addPackageDeclaration, int numThreads, ResultsFormat format,
+												 int shardSize, String appName) throws IOException, SequenceParseException {
+
+		if (format == ResultsFormat.BINARY) {
+			try (SequenceResultsBinaryFormat.Writer binaryWriter = new SequenceResultsBinaryFormat.Writer(
+				new File(appName+"_"+Constants.EXECUTOR_BINARY_OUTFILE_SUFFIX))) {
+				executeSequencesInBatch(addPackageDeclaration, numThreads, binaryWriter::write);
+			}
+		} else {
+			try (SequenceResultsShards.Writer shardWriter = new SequenceResultsShards.Writer(
+				new File(appName+"_"+Constants.EXECUTOR_OUTDIR_SUFFIX), shardSize)) {
+				executeSequencesInBatch(addPackageDeclaration, numThreads,
+					(seqId, results, originalSeqIndices) -> shardWriter.write(seqId, results.toJson(originalSeqIndices)));
+			}
+		}
+	}
+
+	/*
+	 * Returns a compiler for the compiled backend, against the classpath of the current JVM, or null for
+	 * the reflective backend or if no compiler is available
+	 */
+
+	private static InMemoryJavaCompiler createCompiler(ExecutionBackend backend) {
+		if (backend != ExecutionBackend.COMPILED) {
+			return null;
+		}
+		if ( ! InMemoryJavaCompiler.isAvailable()) {
+			logger.warning("No Java compiler available; executing sequences reflectively");
+			return null;
+		}
+		return new InMemoryJavaCompiler(System.getProperty("java.class.path"));
 	}
 
 	/**
@@ -296,7 +638,145 @@ public class SequenceExecutor {
 	 */
 
 	public SequenceExecutor(boolean allResults) {
+		this(allResults, null);
+	}
+
+	/**
+	 *
+	 * @param allResults When set to true, records all results (including runtime generated objects).
+	 * Otherwise, records only fail/pass results.
+	 * @param executionService Service on which sequences are executed; if null, a service shared by
+	 * all executors is used
+	 */
+
+	public SequenceExecutor(boolean allResults, SequenceExecutionService executionService) {
 		this.allResults = allResults;
+		this.executionService = executionService;
+	}
+
+	/**
+	 * Enables adaptive repetition of sequence executions in {@link #executeSequence(String, Sequence, int)}:
+	 * executions of a passing sequence stop early once its recorded state has been identical for the
+	 * given number of consecutive executions; a sequence whose recorded state changed between executions
+	 * (i.e., has suspected random values) is executed up to the given escalated number of times.
+	 *
+	 * @param stableExecutions number of consecutive executions with identical recorded state after
+	 * which executions stop; 0 disables adaptive repetition
+	 * @param escalatedExecutions number of executions for sequences whose recorded state changed
+	 * between executions
+	 */
+
+	public void setAdaptiveRepetition(int stableExecutions, int escalatedExecutions) {
+		this.stableExecutionsToStop = stableExecutions;
+		this.escalatedExecutions = escalatedExecutions;
+	}
+
+	/**
+	 * Sets a pool of worker JVMs in which {@link #executeSequence(String, Sequence, int)} executes
+	 * sequences, isolated from the current JVM
+	 *
+	 * @param forkedExecutionPool pool of worker JVMs; if null, sequences are executed in-process
+	 */
+
+	public void setForkedExecutionPool(ForkedSequenceExecutionPool forkedExecutionPool) {
+		this.forkedExecutionPool = forkedExecutionPool;
+	}
+
+	/**
+	 * Executes the given sequences in a single batch in the worker JVMs ahead of their execution, if a
+	 * pool of worker JVMs is set: {@link #executeSequence(String, Sequence, int)} then returns the results
+	 * of the batch for these sequences instead of sending each of them to a worker on its own. Results of
+	 * an earlier batch that were not returned are discarded.
+	 *
+	 * @param sequences map from sequence ID to sequence
+	 * @param numExecutions number of executions of each sequence (see {@link #executeSequence(String, Sequence, int)})
+	 */
+
+	public void executeForkedBatch(Map<String, Sequence> sequences, int numExecutions) {
+		if (forkedExecutionPool == null || sequences.isEmpty()) {
+			return;
+		}
+		forkedBatchErrors = new HashMap<String, String>();
+		forkedBatchResults = forkedExecutionPool.executeBatch(sequences, numExecutions, stableExecutionsToStop,
+			escalatedExecutions, forkedBatchErrors);
+	}
+
+	/**
+	 * Sets the tracker of execution times from which time limits for executions of sequences with a
+	 * given target class and method are derived, instead of the fixed {@link #SINGLE_EXECUTION_SEC_LIMIT}
+	 *
+	 * @param latencyTracker tracker of execution times, which may be shared among executors; if null,
+	 * the fixed time limit applies
+	 */
+
+	public void setLatencyTracker(ExecutionLatencyTracker latencyTracker) {
+		this.latencyTracker = latencyTracker;
+	}
+
+	/**
+	 * Sets the budget for recording the state of runtime objects; objects whose state exceeds the
+	 * budget are recorded by type only, and counted in {@link SequenceResults#truncatedCaptures}
+	 *
+	 * @param captureBudget capture budget; {@link CaptureBudget#UNLIMITED} records the complete state of every object
+	 */
+
+	public void setCaptureBudget(CaptureBudget captureBudget) {
+		this.captureBudget = captureBudget;
+	}
+
+	/**
+	 * Sets a trie of executed sequences through which sequences executed by
+	 * {@link #executeSequence(String, Sequence, int, String, String)} share the results of common
+	 * prefixes: the prefix of a sequence is still executed (to create the objects used by the rest of
+	 * the sequence), but for statements whose object state was recorded by an earlier sequence with the
+	 * same prefix, and is demanded by the sequence (see {@link StateCaptureDemand}), that state is reused
+	 * instead of being captured again. Results of executed sequences are added to the trie unless an
+	 * execution was cut off. The trie does not apply to sequences executed in forked worker JVMs.
+	 *
+	 * @param prefixTrie trie of executed sequences, or null to record the results of all statements
+	 */
+
+	public void setPrefixTrie(SequencePrefixTrie prefixTrie) {
+		this.prefixTrie = prefixTrie;
+	}
+
+	/**
+	 * Sets a backend through which sequences are executed as compiled code instead of reflectively:
+	 * each sequence is compiled once, either in a batch given to {@link #compileSequences(Collection)} or
+	 * when it is first executed, and the same results are recorded from its compiled body. Sequences that
+	 * do not compile are executed reflectively. The backend does not apply to sequences executed in
+	 * forked worker JVMs.
+	 *
+	 * @param compiledBackend backend for compiled execution, or null to execute sequences reflectively
+	 */
+
+	public void setCompiledBackend(CompiledSequenceBackend compiledBackend) {
+		this.compiledBackend = compiledBackend;
+	}
+
+	/**
+	 * Returns the backend through which sequences are executed as compiled code, or null if sequences
+	 * are executed reflectively
+	 */
+
+	public CompiledSequenceBackend getCompiledBackend() {
+		return compiledBackend;
+	}
+
+	/**
+	 * Compiles the given sequences in a single batch ahead of their execution, if a compiled backend is set
+	 *
+	 * @param sequences sequences to compile
+	 */
+
+	public void compileSequences(Collection<Sequence> sequences) {
+		if (compiledBackend != null && forkedExecutionPool == null) {
+			compiledBackend.compile(sequences);
+		}
+	}
+
+	private SequenceExecutionService getExecutionService() {
+		return executionService != null ? executionService : SequenceExecutionService.getDefault();
 	}
 
 	/**
@@ -337,6 +817,8 @@ public class SequenceExecutor {
 
 	private void executeSequences(boolean addPackageDeclaration) throws SequenceParseException {
 
+		Map<String, Sequence> id2RandoopSequences = new HashMap<String, Sequence>();
+
 		for (Map.Entry<String, SequenceInfo> entry : id2Sequences.entrySet()) {
 
 			String id = entry.getKey();
@@ -349,93 +831,296 @@ public class SequenceExecutor {
                 info.className, addPackageDeclaration, originalSeqIndices).a;
 
 			id2Indices.put(id,  originalSeqIndices);
-			String[] origStatements = id2Sequences.get(id).sequence.split(System.lineSeparator());
+			id2RandoopSequences.put(id, randoopSequence);
+		}
+
+		// all sequences are compiled in one batch before they are executed
+		compileSequences(id2RandoopSequences.values());
 
+		for (Map.Entry<String, Sequence> entry : id2RandoopSequences.entrySet()) {
+
+			String id = entry.getKey();
+
+			executeParsedSequence(id, entry.getValue(), id2Sequences.get(id).sequence.split(System.lineSeparator()),
+				id2Indices.get(id));
+		}
+	}
+
+	private void executeParsedSequence(String id, Sequence randoopSequence, String[] origStatements,
+									   List<Integer> originalSeqIndices) {
+
+		SequenceExecutionVisitor visitor = new SequenceExecutionVisitor(id,
+			randoopSequence.toParsableString().split(System.lineSeparator()), origStatements,
+			new HashSet<Integer>(originalSeqIndices));
+
+		CompiledSequenceBackend.SequenceBody compiledBody = compiledBackend != null ?
+			compiledBackend.getBody(randoopSequence) : null;
+
+		if (compiledBody != null) {
+			visitor.visitCompiled(randoopSequence, compiledBody);
+		} else {
 			ExecutableSequence es = new ExecutableSequence(randoopSequence);
-			es.execute(new SequenceExecutionVisitor(id, randoopSequence.toParsableString().split(System.lineSeparator()),
-					origStatements, new HashSet<Integer>(originalSeqIndices)), new SequenceTestCheckGenerator());
+			es.execute(visitor, new SequenceTestCheckGenerator());
+		}
+	}
+
+	private void executeSequencesInBatch(boolean addPackageDeclaration, int numThreads, ResultsWriter resultsWriter)
+		throws IOException, SequenceParseException {
+
+		AtomicInteger threadCounter = new AtomicInteger();
+		ExecutorService threadPool = Executors.newFixedThreadPool(numThreads,
+			ThreadOutputRouter.withoutRedirection(runnable -> {
+				Thread thread = new Thread(runnable, "tkltest-seq-batch-" + threadCounter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}));
+
+		try {
+			List<Future<?>> executions = new ArrayList<Future<?>>();
+			for (Map.Entry<String, SequenceInfo> entry : id2Sequences.entrySet()) {
+				executions.add(threadPool.submit(() -> {
+					executeAndWriteSequence(entry.getKey(), entry.getValue(), addPackageDeclaration, resultsWriter);
+					return null;
+				}));
+			}
+			for (Future<?> execution : executions) {
+				try {
+					execution.get();
+				} catch (ExecutionException e) {
+					// as in sequential execution, a sequence that cannot be parsed fails the run
+					Throwable cause = e.getCause();
+					if (cause instanceof SequenceParseException) {
+						throw (SequenceParseException) cause;
+					}
+					if (cause instanceof IOException) {
+						throw (IOException) cause;
+					}
+					throw new RuntimeException(cause);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException("Interrupted while executing sequences", e);
+				}
+			}
+		} finally {
+			threadPool.shutdownNow();
 		}
 	}
 
+	private void executeAndWriteSequence(String id, SequenceInfo info, boolean addPackageDeclaration,
+										 ResultsWriter resultsWriter) throws SequenceParseException, IOException {
+
+		List<Integer> originalSeqIndices = new ArrayList<Integer>();
+
+		// the parser keeps parsing state in static fields, hence sequences are parsed one at a time,
+		// while other threads execute sequences
+		Sequence randoopSequence;
+		synchronized (SequenceParser.class) {
+			randoopSequence = SequenceParser.codeToSequence(info.sequence, info.imports,
+				info.className, addPackageDeclaration, originalSeqIndices).a;
+		}
+
+		executeParsedSequence(id, randoopSequence, info.sequence.split(System.lineSeparator()), originalSeqIndices);
+
+		// results are written and released as soon as the sequence completes
+		SequenceResults results = id2ExecutionResults.remove(id);
+		if (results == null) {
+			logger.warning("No results recorded for sequence " + id);
+			return;
+		}
+		resultsWriter.write(id, results, originalSeqIndices);
+	}
+
 	/**
 	 * Executes a given sequence and return results
 	 * @param seqId The id of the sequence
 	 * @param randoopSequence the sequence
 	 * @param numExecutions of executions to perform. Recorded values that are different between different executions, hence suspected to be random, will be erased.
+	 * With adaptive repetition, this is the number of executions performed unless the recorded state stabilizes earlier or changes.
 	 * @return the results of the sequence - global pass/fail and per statement results
 	 * @throws IOException
 	 */
 
 	public SequenceResults executeSequence(String seqId, Sequence randoopSequence, int numExecutions) {
+		return executeSequence(seqId, randoopSequence, numExecutions, null, null);
+	}
+
+	/**
+	 * Executes a given sequence and return results. If a latency tracker is set, executions are subject
+	 * to the adaptive time limit for the given target class and method, and the execution times of
+	 * completed executions are recorded with the tracker.
+	 * @param seqId The id of the sequence
+	 * @param randoopSequence the sequence
+	 * @param numExecutions of executions to perform (see {@link #executeSequence(String, Sequence, int)})
+	 * @param className target class of the sequence, or null to apply the fixed time limit
+	 * @param methodSig target method of the sequence
+	 * @return the results of the sequence - global pass/fail and per statement results
+	 */
+
+	public SequenceResults executeSequence(String seqId, Sequence randoopSequence, int numExecutions,
+										   String className, String methodSig) {
+		return executeSequence(seqId, randoopSequence, numExecutions, className, methodSig, StateCaptureDemand.ALL);
+	}
+
+	/**
+	 * Executes a given sequence and return results, recording the object state of the given statements
+	 * only (see {@link #executeSequence(String, Sequence, int, String, String)}). Recorded values of
+	 * statements that are not demanded are neither recorded nor compared across executions. Sequences
+	 * executed in forked worker JVMs record the state of all statements.
+	 * @param seqId The id of the sequence
+	 * @param randoopSequence the sequence
+	 * @param numExecutions of executions to perform (see {@link #executeSequence(String, Sequence, int)})
+	 * @param className target class of the sequence, or null to apply the fixed time limit
+	 * @param methodSig target method of the sequence
+	 * @param captureDemand statements whose object state is recorded
+	 * @return the results of the sequence - global pass/fail and per statement results
+	 */
+
+	public SequenceResults executeSequence(String seqId, Sequence randoopSequence, int numExecutions,
+										   String className, String methodSig, StateCaptureDemand captureDemand) {
+
+		if (forkedExecutionPool != null) {
+			SequenceResults batchResults = forkedBatchResults.remove(seqId);
+			if (batchResults != null) {
+				return batchResults;
+			}
+			String batchError = forkedBatchErrors.remove(seqId);
+			if (batchError != null) {
+				// as with a sequence executed on its own, a sequence that could not be executed is reported as an exception
+				throw new RuntimeException(batchError);
+			}
+			return forkedExecutionPool.execute(seqId, randoopSequence, numExecutions, stableExecutionsToStop,
+				escalatedExecutions);
+		}
 
 		String[] statements = randoopSequence.toParsableString().split(System.lineSeparator());
 
+		SequencePrefixTrie.RecordedPrefix prefix = prefixTrie != null ? prefixTrie.getRecordedPrefix(statements) : null;
+
+		SequenceResults results = executeSequence(seqId, randoopSequence, statements, prefix, numExecutions,
+			className, methodSig, captureDemand);
+
+		if (prefixTrie != null && ! results.cutOffByAdaptiveLimit) {
+			prefixTrie.record(statements, results);
+		}
+
+		return results;
+	}
+
+	private SequenceResults executeSequence(String seqId, Sequence randoopSequence, String[] statements,
+											SequencePrefixTrie.RecordedPrefix prefix, int numExecutions,
+											String className, String methodSig, StateCaptureDemand captureDemand) {
+
+		// wall-clock time of the last execution, measured on the worker thread
+		long[] executionNanos = new long[1];
+
+		// sequences are compiled once, and their compiled body run in each execution
+		CompiledSequenceBackend.SequenceBody compiledBody = compiledBackend != null ?
+			compiledBackend.getBody(randoopSequence) : null;
+
 		Runnable executionTask = new Runnable() {
 		    @Override
 		    public void run() {
-		    	ExecutableSequence es = new ExecutableSequence(randoopSequence);
-				es.execute(new SequenceExecutionVisitor(seqId, statements, null, null), new SequenceTestCheckGenerator());
+		    	long startNanos = System.nanoTime();
+		    	SequenceExecutionVisitor visitor = new SequenceExecutionVisitor(seqId, statements, null, null, prefix,
+		    		captureDemand);
+		    	if (compiledBody != null) {
+		    		visitor.visitCompiled(randoopSequence, compiledBody);
+		    	} else {
+		    		ExecutableSequence es = new ExecutableSequence(randoopSequence);
+		    		es.execute(visitor, new SequenceTestCheckGenerator());
+		    	}
+				executionNanos[0] = System.nanoTime() - startNanos;
 		    }
 		};
 
-		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		SequenceExecutionService executionService = getExecutionService();
 
-		Future<?> future = executorService.submit(executionTask);
+		boolean trackLatency = latencyTracker != null && className != null;
+		long timeLimitNanos = trackLatency ? latencyTracker.getLimitNanos(className, methodSig) :
+			TimeUnit.SECONDS.toNanos(SINGLE_EXECUTION_SEC_LIMIT);
+		boolean adaptiveLimit = timeLimitNanos < TimeUnit.SECONDS.toNanos(SINGLE_EXECUTION_SEC_LIMIT);
+
+		long cpuNanos;
 
 		try {
-			future.get(SINGLE_EXECUTION_SEC_LIMIT, TimeUnit.SECONDS);
+			cpuNanos = executionService.execute(executionTask, timeLimitNanos, TimeUnit.NANOSECONDS);
 		} catch (InterruptedException | ExecutionException | TimeoutException e) {
-			future.cancel(true);
-			executorService.shutdownNow();
 			if (e instanceof TimeoutException) {
 				SequenceResults results = new SequenceResults(randoopSequence.size());
 				results.passed = false;
+				results.timedOut = true;
+				results.cutOffByAdaptiveLimit = adaptiveLimit;
 				return results;
 			}
 			// Identify the cause of the ExecutionException
 			Throwable cause = e.getCause() != null? e.getCause() : e;
 			throw new RuntimeException(cause);
 		}
+		if (trackLatency) {
+			latencyTracker.record(className, methodSig, executionNanos[0]);
+		}
 
-		SequenceResults results = id2ExecutionResults.get(seqId);
+		// results are removed once read, so that an executor can be reused for many sequences
+		SequenceResults results = id2ExecutionResults.remove(seqId);
+		results.executionCpuNanos = cpuNanos;
 
 		if (numExecutions == 1 || ! results.passed) {
-			executorService.shutdownNow();
 			return results;
 		}
 
 		SequenceResults updatedResults = new SequenceResults(results);
 
-		for (int i=1; i<numExecutions;i++) {
+		int maxExecutions = numExecutions;
+		int stableExecutions = 0;
+
+		for (int i=1; i<maxExecutions;i++) {
 
-			future = executorService.submit(executionTask);
 			try {
-				future.get(SINGLE_EXECUTION_SEC_LIMIT, TimeUnit.SECONDS);
+				cpuNanos += executionService.execute(executionTask, timeLimitNanos, TimeUnit.NANOSECONDS);
 			} catch (java.util.concurrent.TimeoutException e) {
 				// timeout - return results we have been able to collect so far
-				future.cancel(true);
-				executorService.shutdownNow();
+				updatedResults.executions = i;
+				updatedResults.executionCpuNanos = cpuNanos;
+				updatedResults.timedOut = true;
+				updatedResults.cutOffByAdaptiveLimit = adaptiveLimit;
 				return updatedResults;
 			} catch (InterruptedException | ExecutionException e) {
-				future.cancel(true);
-				executorService.shutdownNow();
 				// Identify the cause of the ExecutionException
 				Throwable cause = e.getCause() != null? e.getCause() : e;
 				throw new RuntimeException(cause);
 			}
+			if (trackLatency) {
+				latencyTracker.record(className, methodSig, executionNanos[0]);
+			}
 
-			results = id2ExecutionResults.get(seqId);
+			results = id2ExecutionResults.remove(seqId);
 
 			if (!results.passed) {
-				executorService.shutdownNow();
+				results.executions = i+1;
+				results.executionCpuNanos = cpuNanos;
 				return results;
 			}
 
-			updatedResults.retain(results);
+			Agreement agreement = updatedResults.retain(results);
+
+			if (stableExecutionsToStop > 0) {
+				if (agreement == Agreement.CHANGED) {
+					// suspected random values: require a new run of stable executions, within an escalated budget
+					stableExecutions = 0;
+					maxExecutions = Math.max(maxExecutions, escalatedExecutions);
+				} else if (agreement == Agreement.UNVERIFIED) {
+					// state recorded by type only cannot show the execution to be stable
+					stableExecutions = 0;
+				} else if (++stableExecutions >= stableExecutionsToStop) {
+					updatedResults.executions = i+1;
+					updatedResults.executionCpuNanos = cpuNanos;
+					return updatedResults;
+				}
+			}
 		}
 
-		executorService.shutdownNow();
-
+		updatedResults.executions = maxExecutions;
+		updatedResults.executionCpuNanos = cpuNanos;
 		return updatedResults;
 	}
 
@@ -448,12 +1133,28 @@ public class SequenceExecutor {
 		private String[] origStatements;
 		private Set<Integer> origSeqIndices;
 		private int origSeqCounter = -1;
+		// time spent recording object state in this execution, which is bounded by the capture budget
+		private long captureNanos = 0;
+
+		// recorded results of the leading statements of the sequence, which are reused instead of
+		// recording object state again, or null
+		private final SequencePrefixTrie.RecordedPrefix prefix;
+
+		// statements whose object state is recorded
+		private final StateCaptureDemand captureDemand;
 
 		SequenceExecutionVisitor(String id, String[] execStmts, String[] origStmts, Set<Integer> origIndices) {
+			this(id, execStmts, origStmts, origIndices, null, StateCaptureDemand.ALL);
+		}
+
+		SequenceExecutionVisitor(String id, String[] execStmts, String[] origStmts, Set<Integer> origIndices,
+								 SequencePrefixTrie.RecordedPrefix prefix, StateCaptureDemand captureDemand) {
 			seqID = id;
 			executedStatements = execStmts;
 			origStatements = origStmts;
 			origSeqIndices = origIndices;
+			this.prefix = prefix;
+			this.captureDemand = captureDemand;
 		}
 
 		@Override
@@ -465,16 +1166,51 @@ public class SequenceExecutor {
 		@Override
 		public void visitAfterSequence(ExecutableSequence es) {
 
+			completeResults(es.sequence, es::getResult, () -> getLastReceiver(es));
+		}
+
+		@Override
+		public void visitAfterStatement(ExecutableSequence es, int index) {
+
+			recordResults(es.sequence, index, es.getResult(index), () -> getLastReceiver(es));
+		}
+
+		/*
+		 * Executes the given compiled body of the given sequence, recording the same results as
+		 * reflective execution of the sequence
+		 */
+
+		void visitCompiled(Sequence sequence, CompiledSequenceBackend.SequenceBody body) {
+
+			results = new SequenceResults(sequence.size());
+
+			CompiledSequenceBackend.Outcomes outcomes = new CompiledSequenceBackend.Outcomes(sequence.size());
+			body.execute(outcomes);
+
+			for (int i = 0; i < sequence.size(); i++) {
+				ExecutionOutcome result = outcomes.get(i);
+				if ( ! (result instanceof NormalExecution) && ! (result instanceof ExceptionalExecution)) {
+					break;
+				}
+				recordResults(sequence, i, result, outcomes::getReceiver);
+			}
+
+			completeResults(sequence, outcomes::get, outcomes::getReceiver);
+		}
+
+		private void completeResults(Sequence sequence, IntFunction<ExecutionOutcome> outcomes,
+									 Supplier<Object> lastReceiver) {
+
 			// Check if execution terminated normally - if not need to record
 			// last executed statement
 
-			results.passed = (Boolean.TRUE.equals(results.normalTermination[es.size() - 1]));
+			results.passed = (Boolean.TRUE.equals(results.normalTermination[sequence.size() - 1]));
 
-			if (results.normalTermination[es.size() - 1] == null) {
+			if (results.normalTermination[sequence.size() - 1] == null) {
 				// find first statement that didn't terminate normally
-				for (int i = 0; i < es.size(); i++) {
+				for (int i = 0; i < sequence.size(); i++) {
 					if (results.normalTermination[i] == null) {
-						recordResults(es, i);
+						recordResults(sequence, i, outcomes.apply(i), lastReceiver);
 						break;
 					}
 				}
@@ -483,15 +1219,11 @@ public class SequenceExecutor {
 			id2ExecutionResults.put(seqID, results);
 		}
 
-		@Override
-		public void visitAfterStatement(ExecutableSequence es, int index) {
-
-			recordResults(es, index);
+		private Object getLastReceiver(ExecutableSequence es) {
+			return es.getLastStatementValues().isEmpty() ? null : es.getLastStatementValues().get(0).getObjectValue();
 		}
 
-		private void recordResults(ExecutableSequence es, int index) {
-			
-			ExecutionOutcome result = es.getResult(index);
+		private void recordResults(Sequence sequence, int index, ExecutionOutcome result, Supplier<Object> lastReceiver) {
 			
 			results.normalTermination[index] = (result instanceof NormalExecution);
 
@@ -522,7 +1254,7 @@ public class SequenceExecutor {
 			}
 
 
-			if (allResults) {
+			if (allResults && ! captureDemand.isNone() && ! copyPrefixResults(index, sequence.size(), result)) {
 
 				Object runtimeObject = result instanceof NormalExecution
 						? ((NormalExecution) result).getRuntimeValue()
@@ -532,19 +1264,18 @@ public class SequenceExecutor {
 				
 				// Skip field value recording if this is an argument-less or primitive wrapper constructor
 				
-				TypedOperation op = es.sequence.getStatement(index).getOperation();
+				Statement statement = sequence.getStatement(index);
+				TypedOperation op = statement.getOperation();
 				
 				if (op.getOperation() instanceof ConstructorCall) {
 					
 					if (op.getInputTypes().size() == 0) {
 						skippedOperation = true;
-						logger.info("skipping argument-less constructor "+
-						es.statementToCodeString(index));
+						logger.info("skipping argument-less constructor "+statement);
 					} else if (ClassUtils.isPrimitiveOrWrapper(((Constructor<?> ) op.getOperation().
 							getReflectionObject()).getDeclaringClass())) {
 							skippedOperation = true;
-							logger.info("skipping primitive wrapper constructor "+
-							es.statementToCodeString(index));
+							logger.info("skipping primitive wrapper constructor "+statement);
 					}
 				} 
 				
@@ -554,12 +1285,10 @@ public class SequenceExecutor {
 				
 				boolean isReceiver = false;
 				
-				if (runtimeObject == null && index == es.size()-1 && result instanceof NormalExecution &&
+				if (runtimeObject == null && index == sequence.size()-1 && result instanceof NormalExecution &&
 						 ! op.isStatic()) {
-					if ( ! es.getLastStatementValues().isEmpty()) {
-						runtimeObject = es.getLastStatementValues().get(0).getObjectValue();
-						isReceiver = true;
-					}
+					runtimeObject = lastReceiver.get();
+					isReceiver = runtimeObject != null;
 				}
 
 				if (runtimeObject != null && ! skippedOperation) {
@@ -567,15 +1296,34 @@ public class SequenceExecutor {
 					String assignedVarName = getAssignedVarName(isOrigStatement, isReceiver, index);
 					
 					if (assignedVarName == null) {
-						logger.warning("Skipping recording of object in statement "+es.sequence.getStatement(index)+" because assigned variable could not be located");
+						logger.warning("Skipping recording of object in statement "+statement+" because assigned variable could not be located");
+					} else if ( ! captureDemand.demands(index, sequence.size(), assignedVarName)) {
+						// the state of this object is not used by the consumer of the results
+						logger.fine("Skipping recording of object " + assignedVarName + " in sequence " + seqID +
+							" because its state is not demanded");
 					} else {
 
 						Map<String, String> objPublicState = new HashMap<>();
 						Map<String, String> objPrivateState = new HashMap<>();
 
-						getObjectState(runtimeObject, assignedVarName, objPublicState, objPrivateState);
+						long captureStartNanos = System.nanoTime();
+						boolean captured = getObjectState(runtimeObject, assignedVarName, objPublicState,
+							objPrivateState, getRemainingCaptureNanos());
+						captureNanos += System.nanoTime() - captureStartNanos;
 
-						if (!objPublicState.isEmpty() || !objPrivateState.isEmpty()) {
+						if ( ! captured) {
+
+							// over budget: record the object by type only
+							results.runtimeObjectName[index] = assignedVarName;
+							results.runtimeObjectType[index] = runtimeObject.getClass();
+							results.runtimePublicObjectState.set(index, new HashMap<>());
+							results.runtimePrivateObjectState.set(index, new HashMap<>());
+							results.typeOnly[index] = true;
+							results.truncatedCaptures++;
+							logger.fine("Recording object " + assignedVarName + " in sequence " + seqID +
+								" by type only because its state exceeds the capture budget");
+
+						} else if (!objPublicState.isEmpty() || !objPrivateState.isEmpty()) {
 
 							results.runtimeObjectName[index] = assignedVarName;
 							results.runtimeObjectType[index] = runtimeObject.getClass();
@@ -598,7 +1346,7 @@ public class SequenceExecutor {
 
 				StringBuilder resultsStr = new StringBuilder();
 
-				resultsStr.append(es.sequence.getStatement(index).toString());
+				resultsStr.append(sequence.getStatement(index).toString());
 				resultsStr.append(" Normal termination: " + results.normalTermination[index]);
 				if (results.output[index] != null) {
 					resultsStr.append(" Output: " + results.output[index]);
@@ -623,6 +1371,43 @@ public class SequenceExecutor {
 			
 		}
 
+		/*
+		 * Copies the recorded results of the statement at the given index from the recorded prefix, if
+		 * the statement is in the prefix, terminated normally, and its object was recorded in the prefix
+		 * and is demanded by this sequence; returns whether results were copied. Otherwise, the results
+		 * of the statement are recorded as for a statement outside the prefix.
+		 */
+
+		private boolean copyPrefixResults(int index, int size, ExecutionOutcome result) {
+
+			if (prefix == null || index >= prefix.length() || ! (result instanceof NormalExecution)) {
+				return false;
+			}
+
+			SequenceResults source = prefix.getSource(index);
+
+			if (source.runtimeObjectName[index] == null ||
+				! captureDemand.demands(index, size, source.runtimeObjectName[index])) {
+				return false;
+			}
+
+			results.runtimeObjectName[index] = source.runtimeObjectName[index];
+			results.runtimeObjectType[index] = source.runtimeObjectType[index];
+			results.typeOnly[index] = source.typeOnly[index];
+			// maps are copied, as recorded state is updated in place across executions
+			results.runtimePublicObjectState.set(index, new HashMap<>(source.runtimePublicObjectState.get(index)));
+			results.runtimePrivateObjectState.set(index, new HashMap<>(source.runtimePrivateObjectState.get(index)));
+			results.skippedPrefixCaptures++;
+			return true;
+		}
+
+		private long getRemainingCaptureNanos() {
+			if (captureBudget.getSequenceTimeMillis() == 0) {
+				return Long.MAX_VALUE;
+			}
+			return TimeUnit.MILLISECONDS.toNanos(captureBudget.getSequenceTimeMillis()) - captureNanos;
+		}
+
 		private String getAssignedVarName(boolean isOrigStatement, boolean isReceiver, int index) {
 			
 			String assignedVarName;
@@ -715,89 +1500,105 @@ public class SequenceExecutor {
 		mapper.writeValue(new File(appName+"_"+ Constants.EXECUTOR_OUTFILE_SUFFIX), resultsObject);
 	}
 
-	private void getObjectState(Object object, String name, Map<String, String> objPublicState,  Map<String, String> objPrivateState) {
+	private void toBinary(String appName) throws IOException {
+
+		try (SequenceResultsBinaryFormat.Writer writer = new SequenceResultsBinaryFormat.Writer(
+			new File(appName+"_"+ Constants.EXECUTOR_BINARY_OUTFILE_SUFFIX))) {
+			for (Map.Entry<String, SequenceResults> entry : id2ExecutionResults.entrySet()) {
+				writer.write(entry.getKey(), entry.getValue(), id2Indices.get(entry.getKey()));
+			}
+		}
+	}
+
+	/*
+	 * Records the state of the given object in the given maps; returns false, leaving the maps
+	 * incomplete, if the state exceeds the capture budget (the number of fields, the size of the
+	 * recorded values, or the given remaining capture time)
+	 */
+
+	private boolean getObjectState(Object object, String name, Map<String, String> objPublicState,
+								   Map<String, String> objPrivateState, long remainingNanos) {
+
+		if (remainingNanos <= 0) {
+			return false;
+		}
 
 		String  objVal = getPrimitiveVal(object);
 
 		if (objVal != null) {
+			if (captureBudget.exceedsStateBytes(objVal.length())) {
+				return false;
+			}
 			objPublicState.put(name,  objVal);
-			return;
+			return true;
 		}
 
 
-		// First go over all public fields
+		// accessors for the object class are computed once and cached with the class
 
-		Field[] fields = object.getClass().getFields();
+		ObjectStateAccessors accessors = ObjectStateAccessors.forClass(object.getClass());
 
-		Set<String> publicFields = new HashSet<String>();
+		if (captureBudget.exceedsFields(accessors.publicFields.size() + accessors.getters.size())) {
+			return false;
+		}
 
-		for (Field field : fields) {
+		long startNanos = System.nanoTime();
+		long stateBytes = 0;
 
-			publicFields.add(field.getName());
+		// First go over all public fields
 
-			if (field.getType().equals(object.getClass())) {
-				continue; // avoid endless recursive call
-			}
+		for (ObjectStateAccessors.Accessor field : accessors.publicFields) {
 
 			Object value;
 
 			try {
 				value = field.get(object);
-			} catch (IllegalAccessException e) {
+			} catch (IllegalAccessException | InvocationTargetException e) {
 				throw new RuntimeException(e);
 			}
 
 			String fieldVal = getPrimitiveVal(value);
 
 			if (fieldVal != null) {
-				objPublicState.put(field.getName(), fieldVal);
+				stateBytes += field.name.length() + fieldVal.length();
+				if (captureBudget.exceedsStateBytes(stateBytes)) {
+					return false;
+				}
+				objPublicState.put(field.name, fieldVal);
 			}
 		}
 
-		// Collect all potential getters - public methods that start with "get" and have no parameters
+		// Now go over other declared fields that have a public getter
 
-		Map<String, Method> allPublicGetters = new HashMap<String, Method>();
+		for (ObjectStateAccessors.Accessor getter : accessors.getters) {
 
-		for (Method publicMethod : object.getClass().getMethods()) {
-
-			if (publicMethod.getName().startsWith("get") && publicMethod.getParameterCount() == 0 &&
-					! publicMethod.getReturnType().equals(Void.TYPE)) {
-				allPublicGetters.put(publicMethod.getName().toLowerCase(), publicMethod);
+			// getters run application code, hence the remaining time is checked before each call
+			if (System.nanoTime() - startNanos > remainingNanos) {
+				return false;
 			}
-		}
-
-		// Now go over other declared fields and check if they have a public getter
 
-		fields = object.getClass().getDeclaredFields();
-
-		for (Field field : fields) {
+			Object value;
 
-			if (publicFields.contains(field.getName())) {
-				continue;
+			try {
+				value = getter.get(object);
+			} catch (InvocationTargetException e) {
+				continue; // Some other field values are probably missing in order to initialize this field
+			} catch (IllegalAccessException | IllegalArgumentException e) {
+				throw new RuntimeException(e);
 			}
 
-			Method getterMethod = allPublicGetters.get("get"+field.getName().toLowerCase());
-
-			if (getterMethod != null) {
-
-				Object value;
-
-				try {
-					value = getterMethod.invoke(object);
-				} catch (InvocationTargetException e) {
-					continue; // Some other field values are probably missing in order to initialize this field
-				} catch (IllegalAccessException | IllegalArgumentException e) {
-					throw new RuntimeException(e);
-				}
-
-				String fieldVal = getPrimitiveVal(value);
+			String fieldVal = getPrimitiveVal(value);
 
-				if (fieldVal != null) {
-					objPrivateState.put(getterMethod.getName(), fieldVal);
+			if (fieldVal != null) {
+				stateBytes += getter.name.length() + fieldVal.length();
+				if (captureBudget.exceedsStateBytes(stateBytes)) {
+					return false;
 				}
+				objPrivateState.put(getter.name, fieldVal);
 			}
-
 		}
+
+		return System.nanoTime() - startNanos <= remainingNanos;
 	}
 
 	private String getPrimitiveVal(Object obj) {
@@ -871,6 +1672,45 @@ public class SequenceExecutor {
             .build()
         );
 
+        // options for parallel batch mode
+        options.addOption(Option.builder("nt")
+            .longOpt("num-threads")
+            .hasArg()
+            .desc("Execute sequences in parallel batch mode on the given number of threads, writing results "
+            		+ "in shards to the directory <app>_"+Constants.EXECUTOR_OUTDIR_SUFFIX)
+            .type(Integer.class)
+            .build()
+        );
+
+        options.addOption(Option.builder("ss")
+            .longOpt("shard-size")
+            .hasArg()
+            .desc("Number of sequence results per shard in parallel batch mode. Default is "
+            		+ SequenceResultsShards.DEFAULT_SHARD_SIZE)
+            .type(Integer.class)
+            .build()
+        );
+
+        // option for results format
+        options.addOption(Option.builder("rf")
+            .longOpt("results-format")
+            .hasArg()
+            .desc("Format of the sequences results: json (default) or binary. Binary results are written "
+            		+ "to the file <app>_"+Constants.EXECUTOR_BINARY_OUTFILE_SUFFIX)
+            .type(String.class)
+            .build()
+        );
+
+        // option for execution backend
+        options.addOption(Option.builder("eb")
+            .longOpt("execution-backend")
+            .hasArg()
+            .desc("Backend on which sequences are executed: reflective (default), or compiled, which compiles "
+            		+ "sequences into classes and executes them as compiled code")
+            .type(String.class)
+            .build()
+        );
+
         // help option
         options.addOption(Option.builder("h")
             .longOpt("help")
@@ -921,7 +1761,19 @@ public class SequenceExecutor {
         logger.info("Application name: "+appName);
         logger.info("Sequences file: "+seqFilename);
         logger.info("Record all results: "+recAll);
-
-		new SequenceExecutor(appName, seqFilename, recAll);
+        ResultsFormat format = ResultsFormat.valueOf(cmd.getOptionValue("rf", "json").toUpperCase());
+        logger.info("Results format: "+format);
+        ExecutionBackend backend = ExecutionBackend.valueOf(cmd.getOptionValue("eb", "reflective").toUpperCase());
+        logger.info("Execution backend: "+backend);
+
+		if (cmd.hasOption("nt")) {
+			int numThreads = Integer.parseInt(cmd.getOptionValue("nt"));
+			int shardSize = cmd.hasOption("ss") ? Integer.parseInt(cmd.getOptionValue("ss")) :
+				SequenceResultsShards.DEFAULT_SHARD_SIZE;
+			logger.info("Parallel batch mode: "+numThreads+" threads, shard size "+shardSize);
+			new SequenceExecutor(appName, seqFilename, recAll, numThreads, shardSize, format, backend);
+		} else {
+			new SequenceExecutor(appName, seqFilename, recAll, format, backend);
+		}
 	}
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie of executed sequences, keyed by their statements (in parsable form), holding the recorded
+ * results of the statements of executed sequences. Extended sequences of a class typically share a
+ * prefix that constructs the receiver object and the arguments; once a sequence has been executed,
+ * the results recorded for its statements are available to later sequences with the same prefix,
+ * so that the state of the objects created by the prefix need not be recorded again (see
+ * {@link SequenceExecutor#setPrefixTrie(SequencePrefixTrie)}).
+ * <p>
+ * Results are recorded only for statements that terminated normally, and not for the last statement
+ * of a sequence, for which the state of the receiver object may be recorded instead of the state
+ * of the returned object.
+ */
+public class SequencePrefixTrie {
+
+    private static class Node {
+
+        final Map<String, Node> children = new HashMap<>();
+
+        // results of the sequence from which the results of the statement were recorded, or null
+        SequenceExecutor.SequenceResults source;
+    }
+
+    /**
+     * Recorded results of the leading statements of a sequence
+     */
+    public static class RecordedPrefix {
+
+        private final List<SequenceExecutor.SequenceResults> sources;
+
+        private RecordedPrefix(List<SequenceExecutor.SequenceResults> sources) {
+            this.sources = sources;
+        }
+
+        /**
+         * Returns the number of leading statements with recorded results
+         */
+        public int length() {
+            return this.sources.size();
+        }
+
+        /**
+         * Returns the results of a sequence in which the statement at the given index (less than
+         * {@link #length()}) was recorded; the statement has the same index in those results
+         */
+        public SequenceExecutor.SequenceResults getSource(int index) {
+            return this.sources.get(index);
+        }
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Returns the recorded results of the longest prefix of the given statements for which results
+     * are recorded, excluding the last statement
+     *
+     * @param statements statements of a sequence, in parsable form
+     * @return recorded prefix, which may be empty
+     */
+    public synchronized RecordedPrefix getRecordedPrefix(String[] statements) {
+        List<SequenceExecutor.SequenceResults> sources = new ArrayList<>();
+        Node node = this.root;
+        for (int i = 0; i < statements.length - 1; i++) {
+            node = node.children.get(statements[i]);
+            if (node == null || node.source == null) {
+                break;
+            }
+            sources.add(node.source);
+        }
+        return new RecordedPrefix(sources);
+    }
+
+    /**
+     * Records the results of the statements of an executed sequence that terminated normally, up to
+     * and excluding the last statement, for statements whose results are not yet recorded or whose
+     * object is recorded only in the given results
+     *
+     * @param statements statements of the sequence, in parsable form
+     * @param results results of the sequence
+     */
+    public synchronized void record(String[] statements, SequenceExecutor.SequenceResults results) {
+        // recorded results are kept in a copy, as the given results may be updated by the caller
+        SequenceExecutor.SequenceResults snapshot = null;
+        Node node = this.root;
+        for (int i = 0; i < statements.length - 1 && Boolean.TRUE.equals(results.normalTermination[i]); i++) {
+            Node child = node.children.computeIfAbsent(statements[i], key -> new Node());
+            // results of a statement whose object was not recorded (e.g., as its state was not demanded)
+            // are replaced by results in which it was recorded
+            if (child.source == null ||
+                (child.source.runtimeObjectName[i] == null && results.runtimeObjectName[i] != null)) {
+                if (snapshot == null) {
+                    snapshot = new SequenceExecutor.SequenceResults(results);
+                }
+                child.source = snapshot;
+            }
+            node = child;
+        }
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary encoding of sequence execution results, an alternative to the JSON results file
+ * written by {@link SequenceExecutor} and read by the diff assertions generator. The file holds
+ * the same information as the JSON file:
+ * <ul>
+ * <li>a header with a magic number and format version;</li>
+ * <li>one length-prefixed record per sequence, written as sequences complete, holding the sequence
+ * outcome, its original statement indices, and the per-statement results; class names and field
+ * names are encoded as references into a dictionary, and numbers as variable-length integers;
+ * objects recorded by type only, without their state, are flagged as such;</li>
+ * <li>a footer with the dictionary and an index from sequence ID to record offset, followed by the
+ * offset of the footer, which gives readers random access to the results of each sequence.</li>
+ * </ul>
+ */
+public class SequenceResultsBinaryFormat {
+
+    private static final int MAGIC = 0x544b4c52; // "TKLR"
+
+    private static final int VERSION = 2;
+
+    // earliest format version that readers accept; version 2 added the type-only flag
+    private static final int MIN_VERSION = 1;
+
+    // per-statement flags
+    private static final int NORMAL_TERMINATION = 1;
+    private static final int HAS_OUTPUT = 2;
+    private static final int HAS_OBJECT = 4;
+    private static final int HAS_CAUSE = 8;
+    private static final int TYPE_ONLY = 16;
+
+    private SequenceResultsBinaryFormat() {
+    }
+
+    /**
+     * Returns whether the given file is a binary results file
+     */
+    public static boolean isBinaryResultsFile(File file) {
+        if (!file.isFile() || file.length() < 4) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writer of a binary results file; results of several threads can be written concurrently
+     */
+    public static class Writer implements AutoCloseable {
+
+        private final DataOutputStream out;
+
+        // offset at which the next record is written
+        private long position;
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        private final List<String> dictionaryEntries = new ArrayList<>();
+
+        private final Map<String, Long> index = new LinkedHashMap<>();
+
+        /**
+         * Creates a writer of the given file, overwriting it if it exists
+         *
+         * @param file binary results file
+         * @throws IOException if the file could not be created
+         */
+        public Writer(File file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(VERSION);
+            this.position = 8;
+        }
+
+        /**
+         * Writes the results of a sequence
+         *
+         * @param seqId ID of the sequence
+         * @param results results of the sequence
+         * @param origSeqIndices indices of the statements of the original sequence (see {@link
+         * SequenceExecutor.SequenceResults#toJson(List)})
+         * @throws IOException if the results could not be written
+         */
+        public synchronized void write(String seqId, SequenceExecutor.SequenceResults results,
+                                       List<Integer> origSeqIndices) throws IOException {
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+            DataOutputStream record = new DataOutputStream(recordBytes);
+
+            writeString(record, seqId);
+            record.writeBoolean(results.passed);
+            writeVarInt(record, origSeqIndices.size());
+            for (int index : origSeqIndices) {
+                writeVarInt(record, index);
+            }
+
+            // as in the JSON results, statements are recorded up to the first statement not executed
+            int numStatements = 0;
+            while (numStatements < results.normalTermination.length &&
+                results.normalTermination[numStatements] != null) {
+                numStatements++;
+            }
+            writeVarInt(record, numStatements);
+            for (int i = 0; i < numStatements; i++) {
+                boolean normalTermination = results.normalTermination[i];
+                boolean hasObject = results.runtimeObjectName[i] != null;
+                boolean hasCause = !normalTermination && results.cause[i] != null;
+                int flags = (normalTermination ? NORMAL_TERMINATION : 0) |
+                    (results.output[i] != null ? HAS_OUTPUT : 0) |
+                    (hasObject ? HAS_OBJECT : 0) |
+                    (hasCause ? HAS_CAUSE : 0) |
+                    (hasObject && results.typeOnly[i] ? TYPE_ONLY : 0);
+                record.writeByte(flags);
+                if (results.output[i] != null) {
+                    writeString(record, results.output[i]);
+                }
+                if (hasObject) {
+                    writeString(record, results.runtimeObjectName[i]);
+                    writeVarInt(record, getDictionaryId(results.runtimeObjectType[i].getName()));
+                    writeState(record, results.runtimePublicObjectState.get(i));
+                    writeState(record, results.runtimePrivateObjectState.get(i));
+                }
+                if (!normalTermination) {
+                    writeString(record, results.exception[i]);
+                    writeString(record, results.exceptionMessage[i]);
+                    if (hasCause) {
+                        writeString(record, results.cause[i]);
+                        writeString(record, results.causeMessage[i]);
+                    }
+                }
+            }
+            record.flush();
+
+            this.index.put(seqId, this.position);
+            this.out.writeInt(recordBytes.size());
+            recordBytes.writeTo(this.out);
+            this.position += 4 + recordBytes.size();
+        }
+
+        private void writeState(DataOutput record, Map<String, String> state) throws IOException {
+            if (state == null) {
+                writeVarInt(record, 0);
+                return;
+            }
+            writeVarInt(record, state.size() + 1);
+            for (Map.Entry<String, String> entry : state.entrySet()) {
+                writeVarInt(record, getDictionaryId(entry.getKey()));
+                writeString(record, entry.getValue());
+            }
+        }
+
+        private int getDictionaryId(String name) {
+            Integer id = this.dictionary.get(name);
+            if (id == null) {
+                id = this.dictionaryEntries.size();
+                this.dictionary.put(name, id);
+                this.dictionaryEntries.add(name);
+            }
+            return id;
+        }
+
+        /**
+         * Writes the dictionary and the index, and closes the file
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            long footerPosition = this.position;
+            writeVarInt(this.out, this.dictionaryEntries.size());
+            for (String entry : this.dictionaryEntries) {
+                writeString(this.out, entry);
+            }
+            writeVarInt(this.out, this.index.size());
+            for (Map.Entry<String, Long> entry : this.index.entrySet()) {
+                writeString(this.out, entry.getKey());
+                this.out.writeLong(entry.getValue());
+            }
+            this.out.writeLong(footerPosition);
+            this.out.close();
+        }
+    }
+
+    /**
+     * Reader of a binary results file, with random access to the results of each sequence
+     */
+    public static class Reader implements AutoCloseable {
+
+        private final RandomAccessFile file;
+
+        private final String[] dictionary;
+
+        // classes for dictionary entries, resolved once on first use
+        private final Class<?>[] classes;
+
+        private final Map<String, Long> index = new LinkedHashMap<>();
+
+        /**
+         * Opens the given binary results file and reads its dictionary and index
+         *
+         * @param resultsFile binary results file
+         * @throws IOException if the file could not be read or is not a binary results file
+         */
+        public Reader(File resultsFile) throws IOException {
+            this.file = new RandomAccessFile(resultsFile, "r");
+            try {
+                if (this.file.readInt() != MAGIC) {
+                    throw new IOException(resultsFile + " is not a binary sequence results file");
+                }
+                int version = this.file.readInt();
+                if (version < MIN_VERSION || version > VERSION) {
+                    throw new IOException("Unsupported binary sequence results version " + version + " in " +
+                        resultsFile);
+                }
+                this.file.seek(this.file.length() - 8);
+                long footerPosition = this.file.readLong();
+                this.file.seek(footerPosition);
+                DataInputStream footer = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(this.file.getChannel())));
+                this.dictionary = new String[readVarInt(footer)];
+                for (int i = 0; i < this.dictionary.length; i++) {
+                    this.dictionary[i] = readString(footer);
+                }
+                this.classes = new Class<?>[this.dictionary.length];
+                int numSequences = readVarInt(footer);
+                for (int i = 0; i < numSequences; i++) {
+                    String seqId = readString(footer);
+                    this.index.put(seqId, footer.readLong());
+                }
+            } catch (IOException e) {
+                this.file.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the IDs of the sequences in the file, in the order in which their results were written
+         */
+        public Set<String> getSequenceIds() {
+            return Collections.unmodifiableSet(this.index.keySet());
+        }
+
+        /**
+         * Reads the results of the given sequence, restricted to the statements of the original
+         * sequence (as {@link SequenceExecutor.SequenceResults#SequenceResults(com.fasterxml.jackson.databind.node.ObjectNode, Set)}
+         * does for JSON results)
+         *
+         * @param seqId ID of the sequence
+         * @return results of the sequence, or null if the file has no results for the sequence
+         * @throws IOException if the results could not be read
+         * @throws ClassNotFoundException if the class of a runtime object could not be loaded
+         */
+        public synchronized SequenceExecutor.SequenceResults read(String seqId) throws IOException,
+            ClassNotFoundException {
+            Long offset = this.index.get(seqId);
+            if (offset == null) {
+                return null;
+            }
+            this.file.seek(offset);
+            byte[] recordBytes = new byte[this.file.readInt()];
+            this.file.readFully(recordBytes);
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(recordBytes));
+
+            readString(record);
+            boolean passed = record.readBoolean();
+            int numIndices = readVarInt(record);
+            Set<Integer> indices = new HashSet<>();
+            for (int i = 0; i < numIndices; i++) {
+                indices.add(readVarInt(record));
+            }
+
+            SequenceExecutor.SequenceResults results = new SequenceExecutor.SequenceResults(indices.size());
+            results.passed = passed;
+            int numStatements = readVarInt(record);
+            int k = 0;
+            for (int i = 0; i < numStatements; i++) {
+                int flags = record.readUnsignedByte();
+                boolean normalTermination = (flags & NORMAL_TERMINATION) != 0;
+                boolean original = indices.contains(i);
+                if ((flags & HAS_OUTPUT) != 0) {
+                    readString(record);
+                }
+                String objectName = null;
+                Class<?> objectType = null;
+                Map<String, String> publicState = null;
+                Map<String, String> privateState = null;
+                if ((flags & HAS_OBJECT) != 0) {
+                    objectName = readString(record);
+                    int typeId = readVarInt(record);
+                    publicState = readState(record);
+                    privateState = readState(record);
+                    if (original && normalTermination) {
+                        objectType = getClass(typeId);
+                    }
+                }
+                if (!normalTermination) {
+                    readString(record);
+                    readString(record);
+                    if ((flags & HAS_CAUSE) != 0) {
+                        readString(record);
+                        readString(record);
+                    }
+                }
+                if (!original) {
+                    continue;
+                }
+                results.normalTermination[k] = normalTermination;
+                if (normalTermination) {
+                    if (objectName != null) {
+                        results.runtimeObjectName[k] = objectName;
+                        results.runtimeObjectType[k] = objectType;
+                        results.runtimePublicObjectState.set(k, publicState);
+                        results.runtimePrivateObjectState.set(k, privateState);
+                        results.typeOnly[k] = (flags & TYPE_ONLY) != 0;
+                    }
+                } else if (results.failingIndex == -1) {
+                    results.failingIndex = i;
+                }
+                k++;
+            }
+            return results;
+        }
+
+        private Map<String, String> readState(DataInput record) throws IOException {
+            int size = readVarInt(record) - 1;
+            if (size < 0) {
+                return null;
+            }
+            Map<String, String> state = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                String name = this.dictionary[readVarInt(record)];
+                state.put(name, readString(record));
+            }
+            return state;
+        }
+
+        private Class<?> getClass(int typeId) throws ClassNotFoundException {
+            if (this.classes[typeId] == null) {
+                this.classes[typeId] = Class.forName(this.dictionary[typeId]);
+            }
+            return this.classes[typeId];
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.file.close();
+        }
+    }
+
+    /**
+     * Writes a non-negative integer in a variable number of bytes (7 bits per byte)
+     */
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Writes a string, which may be null, as its UTF-8 length (plus one, with zero for null) followed by its bytes
+     */
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
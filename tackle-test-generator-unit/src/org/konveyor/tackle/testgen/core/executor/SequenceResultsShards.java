@@ -0,0 +1,188 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Sharded, streamable store of sequence execution results, written by the parallel batch mode of
+ * {@link SequenceExecutor}. Results are written to a directory of shard files as sequences complete,
+ * one JSON object per line holding the sequence ID and its results (in the same format as the
+ * per-sequence entries of the single results file). A shard is written under a temporary name and
+ * renamed once it is complete, so that only complete shards are visible to readers, which can
+ * consume the results one shard at a time.
+ */
+public class SequenceResultsShards {
+
+    /** Default number of sequence results per shard */
+    public static final int DEFAULT_SHARD_SIZE = 500;
+
+    private static final String SHARD_FILE_PREFIX = "results-";
+
+    private static final String SHARD_FILE_SUFFIX = ".jsonl";
+
+    private static final String INCOMPLETE_SHARD_SUFFIX = ".tmp";
+
+    private static final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    // results are written one sequence per line
+    private static final ObjectWriter lineWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+    private SequenceResultsShards() {
+    }
+
+    /**
+     * Writer of shards, which can be shared by threads writing results as they complete
+     */
+    public static class Writer implements AutoCloseable {
+
+        private final File shardsDir;
+
+        private final int shardSize;
+
+        private int shardCount = 0;
+
+        private int shardResultCount = 0;
+
+        private File currentShard = null;
+
+        private BufferedWriter currentWriter = null;
+
+        /**
+         * Creates a writer of shards in the given directory, removing shards of earlier runs
+         *
+         * @param shardsDir directory to which shards are written
+         * @param shardSize number of sequence results per shard
+         * @throws IOException if the directory could not be created or cleared
+         */
+        public Writer(File shardsDir, int shardSize) throws IOException {
+            if (shardSize < 1) {
+                throw new IllegalArgumentException("Shard size must be positive: " + shardSize);
+            }
+            this.shardsDir = shardsDir;
+            this.shardSize = shardSize;
+            Files.createDirectories(shardsDir.toPath());
+            try (Stream<Path> files = Files.list(shardsDir.toPath())) {
+                for (Path file : files.filter(path -> path.getFileName().toString().startsWith(SHARD_FILE_PREFIX))
+                    .collect(Collectors.toList())) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        /**
+         * Writes the results of a sequence to the current shard, starting a new shard if the current
+         * one is full
+         *
+         * @param seqId ID of the sequence
+         * @param results results of the sequence, as JSON
+         * @throws IOException if the results could not be written
+         */
+        public synchronized void write(String seqId, ObjectNode results) throws IOException {
+            if (this.currentWriter == null) {
+                this.currentShard = new File(this.shardsDir, String.format("%s%05d%s%s", SHARD_FILE_PREFIX,
+                    this.shardCount++, SHARD_FILE_SUFFIX, INCOMPLETE_SHARD_SUFFIX));
+                this.currentWriter = Files.newBufferedWriter(this.currentShard.toPath(), StandardCharsets.UTF_8);
+            }
+            ObjectNode line = mapper.createObjectNode();
+            line.put("id", seqId);
+            line.set("results", results);
+            this.currentWriter.write(lineWriter.writeValueAsString(line));
+            this.currentWriter.newLine();
+            if (++this.shardResultCount >= this.shardSize) {
+                completeShard();
+            }
+        }
+
+        private void completeShard() throws IOException {
+            this.currentWriter.close();
+            String name = this.currentShard.getName();
+            Files.move(this.currentShard.toPath(), new File(this.shardsDir,
+                name.substring(0, name.length() - INCOMPLETE_SHARD_SUFFIX.length())).toPath(),
+                StandardCopyOption.ATOMIC_MOVE);
+            this.currentWriter = null;
+            this.currentShard = null;
+            this.shardResultCount = 0;
+        }
+
+        /**
+         * Completes the current shard
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            if (this.currentWriter != null) {
+                completeShard();
+            }
+        }
+    }
+
+    /**
+     * Returns the complete shards in the given directory, in the order in which they were written
+     *
+     * @param shardsDir directory of shards
+     * @return shard files
+     */
+    public static List<File> getShardFiles(File shardsDir) {
+        File[] shards = shardsDir.listFiles((dir, name) -> name.startsWith(SHARD_FILE_PREFIX) &&
+            name.endsWith(SHARD_FILE_SUFFIX));
+        if (shards == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(shards);
+        return Arrays.asList(shards);
+    }
+
+    /**
+     * Reads the results in the given shard, passing the ID and results of each sequence to the given consumer
+     *
+     * @param shard shard file
+     * @param consumer consumer of sequence IDs and results
+     * @throws IOException if the shard could not be read
+     */
+    public static void readShard(File shard, BiConsumer<String, ObjectNode> consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(shard.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                ObjectNode entry = (ObjectNode) mapper.readTree(line);
+                consumer.accept(entry.get("id").asText(), (ObjectNode) entry.get("results"));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Statements of a sequence whose runtime object state is recorded when the sequence is executed, given
+ * by the consumer of the results (e.g., the statements on which diff assertions are generated). A
+ * statement is demanded if its index is demanded, if it is the last statement of the sequence and the
+ * last statement is demanded, or if the variable to which its object is assigned is demanded. The
+ * state of statements that are not demanded is not recorded, and is therefore not compared across
+ * repeated executions of the sequence.
+ */
+public class StateCaptureDemand {
+
+    /** Demand for the state of all statements */
+    public static final StateCaptureDemand ALL = new StateCaptureDemand(true, false, Collections.emptySet(),
+        Collections.emptySet());
+
+    /** Demand for no state, under which only pass/fail results and exceptions are recorded */
+    public static final StateCaptureDemand NONE = new StateCaptureDemand(false, false, Collections.emptySet(),
+        Collections.emptySet());
+
+    private final boolean allStatements;
+
+    private final boolean lastStatement;
+
+    private final Set<Integer> indices;
+
+    private final Set<String> variables;
+
+    private StateCaptureDemand(boolean allStatements, boolean lastStatement, Set<Integer> indices,
+                               Set<String> variables) {
+        this.allStatements = allStatements;
+        this.lastStatement = lastStatement;
+        this.indices = indices;
+        this.variables = variables;
+    }
+
+    /**
+     * Creates a demand for the state of the given statements
+     *
+     * @param lastStatement whether the state of the last statement (its returned object, or its receiver
+     * if it returns no object) is demanded
+     * @param indices indices of demanded statements
+     * @param variables names of variables whose assigned objects are demanded
+     * @return demand
+     */
+    public static StateCaptureDemand of(boolean lastStatement, Set<Integer> indices, Set<String> variables) {
+        return new StateCaptureDemand(false, lastStatement, indices, variables);
+    }
+
+    /**
+     * Returns whether no state is demanded
+     */
+    public boolean isNone() {
+        return ! this.allStatements && ! this.lastStatement && this.indices.isEmpty() && this.variables.isEmpty();
+    }
+
+    /**
+     * Returns whether the state of the given statement, whose object is assigned to the given variable,
+     * is demanded
+     *
+     * @param index index of the statement
+     * @param size number of statements in the sequence
+     * @param variable name of the variable to which the object of the statement is assigned
+     * @return whether the state of the statement is demanded
+     */
+    boolean demands(int index, int size, String variable) {
+        return this.allStatements || (this.lastStatement && index == size - 1) || this.indices.contains(index) ||
+            this.variables.contains(variable);
+    }
+
+    @Override
+    public String toString() {
+        if (this.allStatements) {
+            return "all";
+        }
+        return "last=" + this.lastStatement + ",indices=" + this.indices + ",variables=" + this.variables;
+    }
+}
@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -44,6 +45,9 @@ public class CTDCoverageComputer {
 	
 	private static final Logger logger = TackleTestLogger.getLogger(CTDCoverageComputer.class);
 	
+	// counter for making names of coverage files unique, as coverage can be computed for
+	// methods of different classes concurrently
+	private static final AtomicInteger covFileCtr = new AtomicInteger();
 	
 	public static Pair<Double,Double> calcCombinatorialCoverage(String methodSig, ArrayNode[] testPlanRows, 
 			boolean[] execSuccess, boolean[] usedExisting, int tWay) {
@@ -68,7 +72,7 @@ public class CTDCoverageComputer {
 		BufferedWriter modelWriter = null;
 		
 		String methodNameForFile = methodSig.replaceAll("\\(", "__").replaceAll("\\)", "__").replaceAll("\\.", "_").replaceAll(",", "_").
-				replaceAll("<", "_").replaceAll(">", "_");
+				replaceAll("<", "_").replaceAll(">", "_")+"_"+covFileCtr.incrementAndGet();
 		
 		File covFile = new File(methodNameForFile+".csv");
 		File covExistingFile = new File(methodNameForFile+"_existing.csv");
@@ -0,0 +1,241 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.konveyor.tackle.testgen.util.Constants;
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+import org.konveyor.tackle.testgen.util.TackleTestLogger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.javaparser.utils.Pair;
+
+/**
+ * Stores a checkpoint for each class whose extended sequences have been generated, executed, and
+ * written to test classes, so that an interrupted run of the extender can be resumed without
+ * processing the completed classes again, and so that a later run can reuse the results for classes
+ * whose inputs are unchanged. A checkpoint records the fingerprint of the class inputs (see
+ * {@link ClassFingerprinter}), the coverage of the class's test plan rows, its sequence IDs, its
+ * summary counters, and the test class files written for it; restoring
+ * the checkpoint fills in a class extension context as if the class had been processed in the
+ * current run. Each checkpoint is written to a temporary file that is then moved into place, so that
+ * a run interrupted while writing a checkpoint does not leave a partial checkpoint behind.
+ */
+class ClassCheckpointStore {
+
+    private static final Logger logger = TackleTestLogger.getLogger(ClassCheckpointStore.class);
+
+    private static final String CHECKPOINT_FILE_SUFFIX = ".json";
+
+    private final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    private final File checkpointDir;
+
+    // number of existing checkpoints that could not be restored
+    private int rejectedCheckpoints = 0;
+
+    /**
+     * Creates a checkpoint store for the given application
+     *
+     * @param appName name of the application under test
+     */
+    ClassCheckpointStore(String appName) {
+        this.checkpointDir = new File(appName + Constants.EXTENDER_CHECKPOINT_DIR_SUFFIX);
+    }
+
+    /**
+     * Removes the checkpoints of an earlier run
+     *
+     * @throws IOException if the checkpoint directory could not be removed
+     */
+    void clear() throws IOException {
+        if (!this.checkpointDir.exists()) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(this.checkpointDir.toPath())) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Writes a checkpoint for the class in the given extension context, which must have completed
+     * all processing stages. Sequence IDs are written as class-local IDs.
+     *
+     * @param ctx extension context for the class
+     * @throws IOException if the checkpoint could not be written
+     */
+    void write(ClassExtensionContext ctx) throws IOException {
+        ObjectNode checkpoint = this.mapper.createObjectNode();
+        checkpoint.put("partition", ctx.partition);
+        checkpoint.put("class", ctx.className);
+        checkpoint.put("fingerprint", ctx.fingerprint);
+        checkpoint.put("test_plan_rows", ctx.classTestPlanRows);
+        checkpoint.put("generated_sequences", ctx.seqIds.size());
+        checkpoint.put("executed_sequences", ctx.executedSeqCount);
+        checkpoint.put("passing_sequences", ctx.classSeqCount);
+        checkpoint.put("bad_path_sequences", ctx.classBadPathSeqCount);
+        checkpoint.put("diff_assertions", ctx.assertionCount);
+        checkpoint.put("test_classes", ctx.testClassCount);
+        checkpoint.put("test_methods", ctx.testMethodCount);
+
+        ObjectNode seqJson = this.mapper.createObjectNode();
+        ctx.extTestSeq.forEach((qualMethodSig, seqIds) -> seqJson.set(qualMethodSig, this.mapper.valueToTree(seqIds)));
+        checkpoint.set("sequences", seqJson);
+
+        ObjectNode covJson = this.mapper.createObjectNode();
+        ctx.coverageInfo.forEach((method, rowCovInfo) -> {
+            ObjectNode rowCovJson = this.mapper.createObjectNode();
+            rowCovInfo.forEach((row, cov) -> rowCovJson.put(row, cov.name()));
+            covJson.set(method, rowCovJson);
+        });
+        checkpoint.set("coverage", covJson);
+
+        ObjectNode ctdCovJson = this.mapper.createObjectNode();
+        ctx.methodCTDCovInfo.forEach((method, ctdCov) -> {
+            ObjectNode methodCtdCovJson = this.mapper.createObjectNode();
+            methodCtdCovJson.put("ctd_coverage", ctdCov.a);
+            methodCtdCovJson.put("ctd_coverage_bb_sequences", ctdCov.b);
+            ctdCovJson.set(method, methodCtdCovJson);
+        });
+        checkpoint.set("ctd_coverage", ctdCovJson);
+
+        checkpoint.set("summary", ctx.summary.toJson());
+        checkpoint.set("test_files", this.mapper.valueToTree(ctx.testFiles));
+
+        this.checkpointDir.mkdirs();
+        File checkpointFile = getCheckpointFile(ctx);
+        File tmpFile = new File(this.checkpointDir, checkpointFile.getName() + ".tmp");
+        this.mapper.writeValue(tmpFile, checkpoint);
+        Files.move(tmpFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the results for the class in the given extension context from its checkpoint, if a
+     * checkpoint exists for the class, was written for the same class inputs (i.e., has the same
+     * fingerprint as the context), and the test files written for the class are still on disk. The
+     * restored sequence IDs are class-local IDs, which are renumbered when the class results are
+     * merged.
+     *
+     * @param ctx extension context for the class
+     * @return true if the class results were restored, false otherwise
+     */
+    boolean restore(ClassExtensionContext ctx) {
+        File checkpointFile = getCheckpointFile(ctx);
+        if (!checkpointFile.isFile()) {
+            return false;
+        }
+        if (!restore(ctx, checkpointFile)) {
+            this.rejectedCheckpoints++;
+            return false;
+        }
+        return true;
+    }
+
+    private boolean restore(ClassExtensionContext ctx, File checkpointFile) {
+        ObjectNode checkpoint;
+        try {
+            checkpoint = (ObjectNode) this.mapper.readTree(checkpointFile);
+        } catch (IOException | ClassCastException e) {
+            logger.warning("Error reading checkpoint for class " + ctx.className + ": " + e);
+            return false;
+        }
+        if (!ctx.partition.equals(checkpoint.get("partition").asText()) ||
+            !ctx.className.equals(checkpoint.get("class").asText())) {
+            logger.warning("Checkpoint for class " + ctx.className + " is for a different class; ignoring it");
+            return false;
+        }
+
+        // the checkpoint must be for the same class inputs
+        if (ctx.fingerprint == null || !ctx.fingerprint.equals(checkpoint.path("fingerprint").asText())) {
+            logger.info("Inputs for class " + ctx.className + " changed since checkpoint; ignoring it");
+            return false;
+        }
+
+        // the test files written for the class must still exist
+        for (JsonNode testFile : checkpoint.get("test_files")) {
+            if (!new File(testFile.asText()).isFile()) {
+                logger.warning("Test file " + testFile.asText() + " of checkpoint for class " + ctx.className +
+                    " is missing; ignoring checkpoint");
+                return false;
+            }
+        }
+
+        ctx.classTestPlanRows = checkpoint.get("test_plan_rows").asInt();
+        for (int i = 0; i < checkpoint.get("generated_sequences").asInt(); i++) {
+            ctx.getSequenceID();
+        }
+        ctx.executedSeqCount = checkpoint.get("executed_sequences").asInt();
+        ctx.classSeqCount = checkpoint.get("passing_sequences").asInt();
+        ctx.classBadPathSeqCount = checkpoint.get("bad_path_sequences").asInt();
+        ctx.assertionCount = checkpoint.get("diff_assertions").asInt();
+        ctx.testClassCount = checkpoint.get("test_classes").asInt();
+        ctx.testMethodCount = checkpoint.get("test_methods").asInt();
+
+        checkpoint.get("sequences").fields().forEachRemaining(entry -> {
+            LinkedHashSet<String> seqIds = new LinkedHashSet<>();
+            entry.getValue().forEach(seqId -> seqIds.add(seqId.asText()));
+            ctx.extTestSeq.put(entry.getKey(), seqIds);
+        });
+
+        checkpoint.get("coverage").fields().forEachRemaining(entry -> {
+            Map<String, Constants.TestPlanRowCoverage> rowCovInfo = new HashMap<>();
+            entry.getValue().fields().forEachRemaining(rowCov -> rowCovInfo.put(rowCov.getKey(),
+                Constants.TestPlanRowCoverage.valueOf(rowCov.getValue().asText())));
+            ctx.coverageInfo.put(entry.getKey(), rowCovInfo);
+        });
+
+        checkpoint.get("ctd_coverage").fields().forEachRemaining(entry -> ctx.methodCTDCovInfo.put(entry.getKey(),
+            new Pair<>(entry.getValue().get("ctd_coverage").asDouble(),
+                entry.getValue().get("ctd_coverage_bb_sequences").asDouble())));
+
+        ctx.summary.add(ExtenderSummary.fromJson((ObjectNode) checkpoint.get("summary")));
+        ((ArrayNode) checkpoint.get("test_files")).forEach(testFile -> ctx.testFiles.add(testFile.asText()));
+        ctx.restored = true;
+        return true;
+    }
+
+    /**
+     * Returns the number of checkpoints that existed but were not restored, because they could not be
+     * read, were written for other class inputs, or their test files are missing
+     */
+    int getRejectedCheckpoints() {
+        return this.rejectedCheckpoints;
+    }
+
+    private File getCheckpointFile(ClassExtensionContext ctx) {
+        String fileName = (ctx.partition + "__" + ctx.className).replaceAll("[^A-Za-z0-9._$-]", "_");
+        return new File(this.checkpointDir, fileName + CHECKPOINT_FILE_SUFFIX);
+    }
+}
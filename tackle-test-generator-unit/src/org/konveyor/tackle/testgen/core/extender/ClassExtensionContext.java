@@ -0,0 +1,227 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.konveyor.tackle.testgen.core.executor.SequenceExecutor;
+import org.konveyor.tackle.testgen.util.Constants;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.javaparser.utils.Pair;
+
+import randoop.sequence.Sequence;
+
+/**
+ * Holds the state for extending the test sequences of a single class of the CTD test plan.
+ * Each class is extended against its own context, so that classes can be processed
+ * concurrently; the results collected in the context are merged into the extender's
+ * run-wide results, in test-plan order, once the class is done.
+ */
+class ClassExtensionContext {
+
+    final String partition;
+
+    final String className;
+
+    // CTD test plan for the class
+    final ObjectNode classTestPlan;
+
+    // test plan rows and model attributes of the method currently being processed
+    ArrayNode[] currTestPlanRows = null;
+    ArrayNode currModelDef = null;
+
+    // boolean flag to keep track of whether a test plan row is partially covered
+    boolean rowPartiallyCovered = false;
+
+    int currTestPlanRowIndex = -1;
+    int currTestPlanRowParamIndex = -1;
+
+    // list to store variable indices while extending sequences
+    final List<Integer> tgtMethodInputs = new ArrayList<>();
+
+    // methods of the class for which extended sequences were created, awaiting execution
+    final List<MethodExtension> methodExtensions = new ArrayList<>();
+
+    // executor for the extended sequences of the class
+    SequenceExecutor seqExecutor = null;
+
+    // information for JEE trial execution of failing extended sequences
+    final JEEExecutionInfo jeeExecInfo = new JEEExecutionInfo();
+
+    // map from method signatures to IDs of passing sequences for methods in the class
+    final Map<String, List<String>> methodSeqIds = new HashMap<>();
+
+    // map from method signatures to IDs of bad path sequences for methods in the class
+    final Map<String, List<String>> badPathSeqIds = new HashMap<>();
+
+    // summary counters for the class
+    final ExtenderSummary summary = new ExtenderSummary();
+
+    // time spent in each phase of processing the class
+    final PhaseTimings timings = new PhaseTimings();
+
+    // wall-clock time (in nanoseconds) spent extending and executing sequences, per qualified method signature
+    final Map<String, Long> methodWallNanos = new HashMap<>();
+
+    // IDs of extended sequences in the order in which they were created; the IDs are local to
+    // the class and are renumbered when the class results are merged
+    final List<String> seqIds = new ArrayList<>();
+
+    // map from sequence ID to extended sequence
+    final HashMap<String, Sequence> seqIdMap = new HashMap<>();
+
+    // map from sequence ID to target method or constructor
+    final HashMap<String, Object> seqTargetMap = new HashMap<>();
+
+    // extended sequences with execution results
+    final HashMap<String, SequenceExecutor.SequenceResults> execExtSeq = new HashMap<>();
+
+    // map from sequence ID to code string representation of extended sequence
+    final HashMap<String, String> extSeqStr = new HashMap<>();
+
+    // map from class_name::method_signature to extended test sequence ids created for the method
+    final Map<String, Set<String>> extTestSeq = new LinkedHashMap<>();
+
+    // coverage information for the class: target method --> test plan row --> coverage
+    final Map<String, Map<String, Constants.TestPlanRowCoverage>> coverageInfo = new HashMap<>();
+
+    // ctd coverage information for the class: target method --> ctd coverage percentage
+    final Map<String, Pair<Double, Double>> methodCTDCovInfo = new HashMap<>();
+
+    // test class files written for the class
+    final List<String> testFiles = new ArrayList<>();
+
+    // fingerprint of the inputs for the class
+    String fingerprint = null;
+
+    // whether the results for the class were restored from a checkpoint of an earlier run, in which
+    // case the class is not processed again
+    boolean restored = false;
+
+    // failure of a processing stage for the class, if any; the results of a failed class are
+    // incomplete, and are never checkpointed
+    Throwable stageFailure = null;
+
+    int classTestPlanRows = 0;
+    int executedSeqCount = 0;
+    int classSeqCount = 0;
+    int classBadPathSeqCount = 0;
+    int assertionCount = 0;
+    int testClassCount = 0;
+    int testMethodCount = 0;
+
+    // progress messages for the class; buffered when classes are extended concurrently so that
+    // the messages for a class are printed together
+    private final ByteArrayOutputStream outBuffer;
+    final PrintStream out;
+
+    private int seqIdCtr = 1;
+
+    ClassExtensionContext(String partition, String className, ObjectNode classTestPlan, boolean bufferOutput) {
+        this.partition = partition;
+        this.className = className;
+        this.classTestPlan = classTestPlan;
+        if (bufferOutput) {
+            this.outBuffer = new ByteArrayOutputStream();
+            this.out = new PrintStream(this.outBuffer, true);
+        } else {
+            this.outBuffer = null;
+            this.out = System.out;
+        }
+    }
+
+    /**
+     * Returns a new class-local sequence ID
+     */
+    String getSequenceID() {
+        String seqId = "ext_seq_" + seqIdCtr++;
+        seqIds.add(seqId);
+        return seqId;
+    }
+
+    /**
+     * Extended sequences created for a target method, along with the information needed for
+     * executing the sequences and updating coverage once they have been executed
+     */
+    static class MethodExtension {
+
+        final String methodSig;
+
+        final String qualMethodSig;
+
+        final String parseableMethodSig;
+
+        // test plan rows for the method
+        final ArrayNode[] testPlanRows;
+
+        final boolean hasCompoundTypes;
+
+        // coverage information for the method: test plan row --> coverage
+        final Map<String, Constants.TestPlanRowCoverage> methodCovInfo;
+
+        // flags indicating which test plan rows are covered by building-block sequences
+        final boolean[] usedExistingSeq;
+
+        // map from ID of extended sequence to index of the test plan row covered by it
+        final Map<String, Integer> seqIdToRowIndex = new LinkedHashMap<>();
+
+        MethodExtension(String methodSig, String qualMethodSig, String parseableMethodSig,
+                        ArrayNode[] testPlanRows, boolean hasCompoundTypes,
+                        Map<String, Constants.TestPlanRowCoverage> methodCovInfo) {
+            this.methodSig = methodSig;
+            this.qualMethodSig = qualMethodSig;
+            this.parseableMethodSig = parseableMethodSig;
+            this.testPlanRows = testPlanRows;
+            this.hasCompoundTypes = hasCompoundTypes;
+            this.methodCovInfo = methodCovInfo;
+            this.usedExistingSeq = new boolean[testPlanRows.length];
+        }
+    }
+
+    /**
+     * Information needed for execution with JEE support for failing  test sequences generated
+     * for a class
+     */
+    static class JEEExecutionInfo {
+        List<String> failedSeqIds = new ArrayList<String>(); // we'll later try to run these via Junit
+        Map<String, Boolean> seqIdToPartial = new HashMap<String, Boolean>();
+        Map<String, String> seqIdToRowId = new HashMap<String, String>();
+        Map<String, Map<String, Constants.TestPlanRowCoverage>> seqIdToCovInfo =
+            new HashMap<String, Map<String, Constants.TestPlanRowCoverage>>();
+        // failure category of each failed sequence, for recording the outcomes of JEE reruns
+        Map<String, String> seqIdToFailureCategory = new HashMap<String, String>();
+    }
+
+    /**
+     * Writes the buffered progress messages for the class (if any) to the given stream
+     */
+    void flushOutput(PrintStream stream) {
+        if (this.outBuffer != null) {
+            stream.print(this.outBuffer.toString());
+            this.outBuffer.reset();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import org.konveyor.tackle.testgen.util.TackleTestLogger;
+import org.konveyor.tackle.testgen.util.ThreadOutputRouter;
+
+import com.github.javaparser.utils.Pair;
+
+/**
+ * Runs the classes of a test plan through a sequence of processing stages (e.g., sequence
+ * extension, sequence execution, assertion generation, and test class export), so that different
+ * stages for different classes overlap. Each stage has its own pool of worker threads fed by a
+ * bounded queue. The number of classes in flight is bounded by the pipeline capacity, which keeps
+ * memory bounded: a class is admitted to the first stage only after an earlier class has left the
+ * pipeline. Classes leave the pipeline (i.e., are passed to the merge function) in the order in
+ * which they are given, on the calling thread.
+ */
+class ClassExtensionPipeline {
+
+    private static final Logger logger = TackleTestLogger.getLogger(ClassExtensionPipeline.class);
+
+    private final List<Consumer<ClassExtensionContext>> stages = new ArrayList<>();
+
+    private final List<ExecutorService> stageExecutors = new ArrayList<>();
+
+    private final int capacity;
+
+    /**
+     * Creates a pipeline that holds at most the given number of classes in flight
+     *
+     * @param capacity maximum number of classes in the pipeline
+     */
+    ClassExtensionPipeline(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Pipeline capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a stage, to be run after the previously added stages, with the given number of worker threads
+     *
+     * @param stage function processing a class in the stage
+     * @param numWorkers number of worker threads for the stage
+     * @return this pipeline
+     */
+    ClassExtensionPipeline addStage(Consumer<ClassExtensionContext> stage, int numWorkers) {
+        if (numWorkers < 1) {
+            throw new IllegalArgumentException("Number of stage workers must be positive: " + numWorkers);
+        }
+        this.stages.add(stage);
+        // the queue never fills up, as at most capacity classes are in the pipeline
+        this.stageExecutors.add(new ThreadPoolExecutor(numWorkers, numWorkers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(this.capacity),
+            ThreadOutputRouter.withoutRedirection(Executors.defaultThreadFactory())));
+        return this;
+    }
+
+    /**
+     * Runs the given classes through all stages of the pipeline and passes each class, in the given
+     * order, to the merge function once it has completed all stages. If a stage fails for a class,
+     * the failure is recorded in the class context, the classes before it are merged, and the run
+     * fails with the exception of the stage, as a serial run does; the failed class and the classes
+     * after it are not merged.
+     *
+     * @param classContexts classes to process; classes are taken from the iterator only as they are
+     *                      admitted to the pipeline
+     * @param merge function merging the results for a completed class
+     * @throws InterruptedException if interrupted while waiting for a class to complete
+     * @throws RuntimeException if a stage fails for a class (the exception thrown by the stage, or a
+     * RuntimeException wrapping it if it is a checked exception)
+     */
+    void run(Iterator<ClassExtensionContext> classContexts, Consumer<ClassExtensionContext> merge)
+        throws InterruptedException {
+        Deque<Pair<ClassExtensionContext, CompletableFuture<Void>>> inFlight = new ArrayDeque<>();
+        try {
+            while (true) {
+                // admit classes to the pipeline while there is capacity
+                while (classContexts.hasNext() && inFlight.size() < this.capacity) {
+                    ClassExtensionContext classContext = classContexts.next();
+                    inFlight.add(new Pair<>(classContext, submit(classContext)));
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+                Pair<ClassExtensionContext, CompletableFuture<Void>> classInFlight = inFlight.remove();
+                ClassExtensionContext classContext = classInFlight.a;
+                try {
+                    classInFlight.b.get();
+                } catch (ExecutionException ee) {
+                    // the future of a class fails with the exception of the failed stage
+                    Throwable failure = ee.getCause();
+                    classContext.stageFailure = failure;
+                    logger.warning("Error processing class " + classContext.className + ": " + failure);
+                    if (failure instanceof RuntimeException) {
+                        throw (RuntimeException) failure;
+                    }
+                    if (failure instanceof Error) {
+                        throw (Error) failure;
+                    }
+                    throw new RuntimeException("Error processing class " + classContext.className, failure);
+                }
+                merge.accept(classContext);
+            }
+        } finally {
+            for (ExecutorService stageExecutor : this.stageExecutors) {
+                stageExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private CompletableFuture<Void> submit(ClassExtensionContext classContext) {
+        CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+        if (classContext.restored) {
+            // results restored from a checkpoint; the class only needs to be merged
+            return future;
+        }
+        for (int i = 0; i < this.stages.size(); i++) {
+            Consumer<ClassExtensionContext> stage = this.stages.get(i);
+            future = future.thenRunAsync(() -> stage.accept(classContext), this.stageExecutors.get(i));
+        }
+        return future;
+    }
+
+}
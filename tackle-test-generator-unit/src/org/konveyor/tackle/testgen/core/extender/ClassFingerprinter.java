@@ -0,0 +1,152 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+import org.konveyor.tackle.testgen.util.TackleTestLogger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import randoop.sequence.Sequence;
+
+/**
+ * Computes fingerprints of the inputs from which the extended sequences for a class are created:
+ * the CTD test plan for the class, the building-block sequences and imports for the class, its
+ * methods, and the types referenced in its test plan, the bytecode of the class, and the extender
+ * options. Classes whose fingerprint is unchanged since an earlier run need not be extended again.
+ * <p>
+ * The sequence pool is updated while classes are extended, so digests of the building-block
+ * sequences are computed when the fingerprinter is created, before any class is extended; this
+ * makes the fingerprint of a class independent of the order in which classes are processed.
+ */
+class ClassFingerprinter {
+
+    private static final Logger logger = TackleTestLogger.getLogger(ClassFingerprinter.class);
+
+    private static final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    // digests of building-block sequences, per class and per qualified method signature
+    private final Map<String, String> classSeqDigests = new HashMap<>();
+    private final Map<String, String> methodSeqDigests = new HashMap<>();
+
+    // digests of imports and before/after methods of building-block test classes, per class
+    private final Map<String, String> classImportDigests = new HashMap<>();
+
+    // extender options that affect the results for a class
+    private final String configuration;
+
+    /**
+     * Creates a fingerprinter for the current contents of the given sequence pool
+     *
+     * @param sequencePool pool of building-block sequences, before any class is extended
+     * @param configuration extender options that affect the results for a class
+     */
+    ClassFingerprinter(SequencePool sequencePool, String configuration) {
+        this.configuration = configuration;
+        sequencePool.classTestSeqPool.forEach((cls, seqs) -> this.classSeqDigests.put(cls, digestSequences(seqs)));
+        sequencePool.methodTestSeqPool.forEach((method, seqs) ->
+            this.methodSeqDigests.put(method, digestSequences(seqs)));
+        sequencePool.classImports.forEach((cls, imports) ->
+            this.classImportDigests.put(cls, Digests.digest(String.join("\n", new TreeSet<>(imports)))));
+        sequencePool.classBeforeAfterMethods.forEach((cls, methods) ->
+            this.classImportDigests.merge(cls, Digests.digest(String.join("\n", new TreeSet<>(methods))),
+                (importDigest, methodDigest) -> Digests.digest(importDigest + methodDigest)));
+    }
+
+    /**
+     * Returns the fingerprint of the inputs for the class in the given extension context
+     *
+     * @param ctx extension context for the class
+     * @return fingerprint of the class inputs
+     */
+    String fingerprint(ClassExtensionContext ctx) {
+        MessageDigest md = Digests.newMessageDigest();
+        update(md, "configuration", this.configuration);
+        try {
+            md.update(mapper.writeValueAsBytes(ctx.classTestPlan));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error serializing test plan for class " + ctx.className, e);
+        }
+
+        // building-block sequences and imports for the class and its methods
+        update(md, "class", this.classSeqDigests.get(ctx.className));
+        update(md, "imports", this.classImportDigests.get(ctx.className));
+        ctx.classTestPlan.fieldNames().forEachRemaining(methodSig ->
+            update(md, methodSig, this.methodSeqDigests.get(ctx.className + "::" + methodSig)));
+
+        // building-block sequences for types referenced in the test plan
+        SortedSet<String> planTypes = new TreeSet<>();
+        collectTypeNames(ctx.classTestPlan, planTypes);
+        for (String type : planTypes) {
+            update(md, type, this.classSeqDigests.get(type));
+        }
+
+        // bytecode of the class
+        String classFile = ctx.className.replace('.', '/') + ".class";
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try (InputStream classBytes = classLoader.getResourceAsStream(classFile)) {
+            if (classBytes != null) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = classBytes.read(buffer)) != -1) {
+                    md.update(buffer, 0, read);
+                }
+            } else {
+                update(md, "bytecode", null);
+            }
+        } catch (IOException e) {
+            logger.warning("Error reading bytecode of class " + ctx.className + ": " + e);
+            update(md, "bytecode", null);
+        }
+        return Digests.toHex(md.digest());
+    }
+
+    private void collectTypeNames(JsonNode node, SortedSet<String> typeNames) {
+        if (node.isTextual()) {
+            if (this.classSeqDigests.containsKey(node.asText())) {
+                typeNames.add(node.asText());
+            }
+        } else {
+            node.forEach(child -> collectTypeNames(child, typeNames));
+        }
+    }
+
+    private static String digestSequences(Collection<Sequence> seqs) {
+        return Digests.digest(seqs.stream()
+            .map(Sequence::toCodeString)
+            .sorted()
+            .collect(Collectors.joining("\n")));
+    }
+
+    private static void update(MessageDigest md, String key, String value) {
+        md.update((key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
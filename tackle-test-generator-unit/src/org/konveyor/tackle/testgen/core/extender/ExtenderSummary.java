@@ -18,18 +18,30 @@ package org.konveyor.tackle.testgen.core.extender;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.logging.Logger;
 
+import org.konveyor.tackle.testgen.core.executor.ForkedSequenceExecutionPool;
+import org.konveyor.tackle.testgen.core.executor.JUnitExecutor;
+import org.konveyor.tackle.testgen.core.executor.SequenceExecutionService;
 import org.konveyor.tackle.testgen.core.executor.SequenceExecutor;
 import org.konveyor.tackle.testgen.util.Constants;
 import org.konveyor.tackle.testgen.util.TackleTestJson;
 import org.konveyor.tackle.testgen.util.TackleTestLogger;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -50,6 +62,25 @@ public class ExtenderSummary {
     int uncovTestPlanRows__noInitSeq = 0;
     public int uncovTestPlanRows__execFail = 0;
     public int uncovTestPlanRows__execFailBadPath = 0;
+    int reusedSeqExecutionResults = 0;
+
+    // number of executed sequences cut off by the adaptive execution time limit
+    int adaptiveTimeoutCutOffs = 0;
+
+    // number of runtime objects recorded by type only because their state exceeded the capture budget
+    int stateCaptureTruncations = 0;
+
+    // number of object-state captures skipped by reusing state recorded for executed sequences with the same
+    // prefix; the statements of the prefix are still executed
+    int prefixSkippedCaptures = 0;
+
+    // number of sequences executed as compiled code, and of sequences that did not compile and were
+    // executed reflectively
+    int compiledSequences = 0;
+    int uncompilableSequences = 0;
+
+    // number of executed sequences per number of executions used for the sequence
+    Map<Integer, Integer> seqExecutionRuns = new TreeMap<>();
     int uncovTestPlanRows__excp = 0;
     int uncovTestPlanRows__excp__OperationParse = 0;
     int uncovTestPlanRows__excp__randoop__IllegalArgument = 0;
@@ -70,6 +101,14 @@ public class ExtenderSummary {
     Set<String> seqExecExcpOther = new HashSet<>();
     
     Map<String, Integer> seqFailExcp = new HashMap<String, Integer>();
+
+    // failed sequences rerun under JEE support, rerun and passing, and not rerun because the JEE rerun
+    // classifier predicted that they would not pass, per failure category; and the sequences not rerun
+    // per classifier rule
+    Map<String, Integer> jeeReruns = new TreeMap<>();
+    Map<String, Integer> jeeRerunsRecovered = new TreeMap<>();
+    Map<String, Integer> jeeRerunsAvoided = new TreeMap<>();
+    Map<String, Integer> jeeRerunsAvoidedByRule = new TreeMap<>();
     
     int tway = -1;
     int totalMethodsOverOneRow = 0;
@@ -77,26 +116,344 @@ public class ExtenderSummary {
     double totalExistingCTDCov = 0;
 
     private SequencePool sequencePool;
-    private ObjectNode testPlan;
-
-    ExtenderSummary(ObjectNode testPlan) {
-        this.testPlan = testPlan;
-        this.testPlan.fieldNames().forEachRemaining(partitionName -> {
-        	ObjectNode partitionTestPlan = (ObjectNode) this.testPlan.get(partitionName);
-        	partitionTestPlan.fieldNames().forEachRemaining(className -> {
-        		ObjectNode classTestPlan = (ObjectNode) partitionTestPlan.get(className);
-        		classTestPlan.fieldNames().forEachRemaining(methodSig -> {
-        			ObjectNode methodTestPlan = (ObjectNode) classTestPlan.get(methodSig);
-                    this.totalTestPlanRows += methodTestPlan.get("test_plan").size();
-                });
-            });
-        });
+
+    // statistics about threads used for sequence execution
+    private SequenceExecutionService.Statistics execStats = null;
+
+    // statistics about worker JVMs used for sequence execution (if sequences are executed in forked JVMs)
+    private ForkedSequenceExecutionPool.Statistics forkedExecStats = null;
+
+    // statistics of the compilation and runs of JEE unit tests, if JEE support is enabled
+    private JUnitExecutor.Statistics jeeExecStats = null;
+
+    // numbers of classes restored from checkpoints and of checkpoints rejected; -1 if checkpoints
+    // were not restored
+    private int restoredClasses = -1;
+    private int rejectedCheckpoints = -1;
+
+    // classes, sequences, and compressed bytes spilled to disk in memory-bounded mode (-1 if not enabled)
+    private int spilledClasses = -1;
+    private int spilledSequences = -1;
+    private long spilledBytes = -1;
+
+    // outcomes of JEE reruns in earlier runs, and the JEE rerun classifier (if JEE support is enabled)
+    private JEERerunHistory jeeRerunHistory = null;
+    private JEERerunClassifier jeeRerunClassifier = null;
+
+    // number of slowest classes and methods reported
+    private static final int NUM_SLOWEST = 10;
+
+    // time spent in each phase for the entire run, per partition, and per class (partition --> class --> timings)
+    private final PhaseTimings timings = new PhaseTimings();
+    private final Map<String, PhaseTimings> partitionTimings = new LinkedHashMap<>();
+    private final Map<String, Map<String, PhaseTimings>> classTimings = new LinkedHashMap<>();
+
+    // slowest methods (qualified method signature and wall-clock time), with the fastest of them at the head
+    private final PriorityQueue<Map.Entry<String, Long>> slowestMethods =
+        new PriorityQueue<>(Map.Entry.comparingByValue());
+
+    // wall-clock time of test generation for the entire run
+    private long runWallNanos = 0;
+
+    // number of top-level (partition) entries in the test plan
+    private int testPlanSize = 0;
+
+    ExtenderSummary(TestPlanReader testPlanReader) {
+        this.testPlanSize = testPlanReader.getNumPartitions();
+        this.totalTestPlanRows = testPlanReader.getNumTestPlanRows();
+    }
+
+    /**
+     * Creates a summary for collecting counters for a part of the test plan (e.g., a single class);
+     * such summaries are added to the summary for the whole test plan via {@link #add(ExtenderSummary)}
+     */
+    ExtenderSummary() {
+    }
+
+    /**
+     * Adds the counters and type information collected in the given summary to this summary
+     *
+     * @param other summary to be added
+     */
+    void add(ExtenderSummary other) {
+        this.covTestPlanRows__full += other.covTestPlanRows__full;
+        this.covTestPlanRows__partial += other.covTestPlanRows__partial;
+        this.covTestPlanRows__full_jee += other.covTestPlanRows__full_jee;
+        this.covTestPlanRows__partial_jee += other.covTestPlanRows__partial_jee;
+        this.covTestPlanRows__initSeq += other.covTestPlanRows__initSeq;
+        this.uncovTestPlanRows__noInitSeq += other.uncovTestPlanRows__noInitSeq;
+        this.uncovTestPlanRows__execFail += other.uncovTestPlanRows__execFail;
+        this.uncovTestPlanRows__execFailBadPath += other.uncovTestPlanRows__execFailBadPath;
+        this.reusedSeqExecutionResults += other.reusedSeqExecutionResults;
+        this.adaptiveTimeoutCutOffs += other.adaptiveTimeoutCutOffs;
+        this.stateCaptureTruncations += other.stateCaptureTruncations;
+        this.prefixSkippedCaptures += other.prefixSkippedCaptures;
+        this.compiledSequences += other.compiledSequences;
+        this.uncompilableSequences += other.uncompilableSequences;
+        other.seqExecutionRuns.forEach((runs, count) -> this.seqExecutionRuns.merge(runs, count, Integer::sum));
+        this.uncovTestPlanRows__excp += other.uncovTestPlanRows__excp;
+        this.uncovTestPlanRows__excp__OperationParse += other.uncovTestPlanRows__excp__OperationParse;
+        this.uncovTestPlanRows__excp__randoop__IllegalArgument += other.uncovTestPlanRows__excp__randoop__IllegalArgument;
+        this.uncovTestPlanRows__excp__ClassNotFound += other.uncovTestPlanRows__excp__ClassNotFound;
+        this.uncovTestPlanRows__excp__NoSuchMethod += other.uncovTestPlanRows__excp__NoSuchMethod;
+        this.uncovTestPlanRows__excp__NoArrayElementType += other.uncovTestPlanRows__excp__NoArrayElementType;
+        this.uncovTestPlanRows__excp__NonInstantiableType += other.uncovTestPlanRows__excp__NonInstantiableType;
+        this.uncovTestPlanRows__excp__UnsupportedCollectionType += other.uncovTestPlanRows__excp__UnsupportedCollectionType;
+        this.uncovTestPlanRows__excp__UnsupportedMapType += other.uncovTestPlanRows__excp__UnsupportedMapType;
+        this.uncovTestPlanRows__excp__exec__InvocationTarget += other.uncovTestPlanRows__excp__exec__InvocationTarget;
+        this.uncovTestPlanRows__excp__exec__IllegalAccess += other.uncovTestPlanRows__excp__exec__IllegalAccess;
+        this.uncovTestPlanRows__excp__exec__IllegalArgument += other.uncovTestPlanRows__excp__exec__IllegalArgument;
+        this.uncovTestPlanRows__excp__exec__Error += other.uncovTestPlanRows__excp__exec__Error;
+        this.uncovTestPlanRows__excp__exec__Other += other.uncovTestPlanRows__excp__exec__Other;
+        this.nonInstantiableTypes.addAll(other.nonInstantiableTypes);
+        this.classNotFoundTypes.addAll(other.classNotFoundTypes);
+        this.seqExecExcpOther.addAll(other.seqExecExcpOther);
+        other.seqFailExcp.forEach((excp, count) -> this.seqFailExcp.merge(excp, count, Integer::sum));
+        other.jeeReruns.forEach((category, count) -> this.jeeReruns.merge(category, count, Integer::sum));
+        other.jeeRerunsRecovered.forEach((category, count) ->
+            this.jeeRerunsRecovered.merge(category, count, Integer::sum));
+        other.jeeRerunsAvoided.forEach((category, count) ->
+            this.jeeRerunsAvoided.merge(category, count, Integer::sum));
+        other.jeeRerunsAvoidedByRule.forEach((rule, count) ->
+            this.jeeRerunsAvoidedByRule.merge(rule, count, Integer::sum));
+        this.totalMethodsOverOneRow += other.totalMethodsOverOneRow;
+        this.totalCTDCov += other.totalCTDCov;
+        this.totalExistingCTDCov += other.totalExistingCTDCov;
+    }
+
+    /**
+     * Returns the counters and type information collected in this summary as JSON, for storing the
+     * summary of a part of the test plan in a checkpoint
+     */
+    ObjectNode toJson() {
+        ObjectMapper mapper = TackleTestJson.getObjectMapper();
+        ObjectNode summaryJson = mapper.createObjectNode();
+        summaryJson.put("covTestPlanRows__full", this.covTestPlanRows__full);
+        summaryJson.put("covTestPlanRows__partial", this.covTestPlanRows__partial);
+        summaryJson.put("covTestPlanRows__full_jee", this.covTestPlanRows__full_jee);
+        summaryJson.put("covTestPlanRows__partial_jee", this.covTestPlanRows__partial_jee);
+        summaryJson.put("covTestPlanRows__initSeq", this.covTestPlanRows__initSeq);
+        summaryJson.put("uncovTestPlanRows__noInitSeq", this.uncovTestPlanRows__noInitSeq);
+        summaryJson.put("uncovTestPlanRows__execFail", this.uncovTestPlanRows__execFail);
+        summaryJson.put("uncovTestPlanRows__execFailBadPath", this.uncovTestPlanRows__execFailBadPath);
+        summaryJson.put("reusedSeqExecutionResults", this.reusedSeqExecutionResults);
+        summaryJson.put("adaptiveTimeoutCutOffs", this.adaptiveTimeoutCutOffs);
+        summaryJson.put("stateCaptureTruncations", this.stateCaptureTruncations);
+        summaryJson.put("prefixSkippedCaptures", this.prefixSkippedCaptures);
+        summaryJson.put("compiledSequences", this.compiledSequences);
+        summaryJson.put("uncompilableSequences", this.uncompilableSequences);
+        summaryJson.set("seqExecutionRuns", mapper.valueToTree(this.seqExecutionRuns));
+        summaryJson.put("uncovTestPlanRows__excp", this.uncovTestPlanRows__excp);
+        summaryJson.put("uncovTestPlanRows__excp__OperationParse", this.uncovTestPlanRows__excp__OperationParse);
+        summaryJson.put("uncovTestPlanRows__excp__randoop__IllegalArgument", this.uncovTestPlanRows__excp__randoop__IllegalArgument);
+        summaryJson.put("uncovTestPlanRows__excp__ClassNotFound", this.uncovTestPlanRows__excp__ClassNotFound);
+        summaryJson.put("uncovTestPlanRows__excp__NoSuchMethod", this.uncovTestPlanRows__excp__NoSuchMethod);
+        summaryJson.put("uncovTestPlanRows__excp__NoArrayElementType", this.uncovTestPlanRows__excp__NoArrayElementType);
+        summaryJson.put("uncovTestPlanRows__excp__NonInstantiableType", this.uncovTestPlanRows__excp__NonInstantiableType);
+        summaryJson.put("uncovTestPlanRows__excp__UnsupportedCollectionType", this.uncovTestPlanRows__excp__UnsupportedCollectionType);
+        summaryJson.put("uncovTestPlanRows__excp__UnsupportedMapType", this.uncovTestPlanRows__excp__UnsupportedMapType);
+        summaryJson.put("uncovTestPlanRows__excp__exec__InvocationTarget", this.uncovTestPlanRows__excp__exec__InvocationTarget);
+        summaryJson.put("uncovTestPlanRows__excp__exec__IllegalAccess", this.uncovTestPlanRows__excp__exec__IllegalAccess);
+        summaryJson.put("uncovTestPlanRows__excp__exec__IllegalArgument", this.uncovTestPlanRows__excp__exec__IllegalArgument);
+        summaryJson.put("uncovTestPlanRows__excp__exec__Error", this.uncovTestPlanRows__excp__exec__Error);
+        summaryJson.put("uncovTestPlanRows__excp__exec__Other", this.uncovTestPlanRows__excp__exec__Other);
+        summaryJson.set("nonInstantiableTypes", mapper.valueToTree(this.nonInstantiableTypes));
+        summaryJson.set("classNotFoundTypes", mapper.valueToTree(this.classNotFoundTypes));
+        summaryJson.set("seqExecExcpOther", mapper.valueToTree(this.seqExecExcpOther));
+        summaryJson.set("seqFailExcp", mapper.valueToTree(this.seqFailExcp));
+        summaryJson.set("jeeReruns", mapper.valueToTree(this.jeeReruns));
+        summaryJson.set("jeeRerunsRecovered", mapper.valueToTree(this.jeeRerunsRecovered));
+        summaryJson.set("jeeRerunsAvoided", mapper.valueToTree(this.jeeRerunsAvoided));
+        summaryJson.set("jeeRerunsAvoidedByRule", mapper.valueToTree(this.jeeRerunsAvoidedByRule));
+        summaryJson.put("totalMethodsOverOneRow", this.totalMethodsOverOneRow);
+        summaryJson.put("totalCTDCov", this.totalCTDCov);
+        summaryJson.put("totalExistingCTDCov", this.totalExistingCTDCov);
+        return summaryJson;
+    }
+
+    /**
+     * Creates a summary for a part of the test plan from JSON written by {@link #toJson()}
+     *
+     * @param summaryJson counters and type information of the summary
+     * @return summary with the given counters and type information
+     */
+    static ExtenderSummary fromJson(ObjectNode summaryJson) {
+        ObjectMapper mapper = TackleTestJson.getObjectMapper();
+        ExtenderSummary summary = new ExtenderSummary();
+        summary.covTestPlanRows__full = summaryJson.get("covTestPlanRows__full").asInt();
+        summary.covTestPlanRows__partial = summaryJson.get("covTestPlanRows__partial").asInt();
+        summary.covTestPlanRows__full_jee = summaryJson.get("covTestPlanRows__full_jee").asInt();
+        summary.covTestPlanRows__partial_jee = summaryJson.get("covTestPlanRows__partial_jee").asInt();
+        summary.covTestPlanRows__initSeq = summaryJson.get("covTestPlanRows__initSeq").asInt();
+        summary.uncovTestPlanRows__noInitSeq = summaryJson.get("uncovTestPlanRows__noInitSeq").asInt();
+        summary.uncovTestPlanRows__execFail = summaryJson.get("uncovTestPlanRows__execFail").asInt();
+        summary.uncovTestPlanRows__execFailBadPath = summaryJson.get("uncovTestPlanRows__execFailBadPath").asInt();
+        // not present in checkpoints written by earlier versions
+        summary.reusedSeqExecutionResults = summaryJson.path("reusedSeqExecutionResults").asInt();
+        summary.adaptiveTimeoutCutOffs = summaryJson.path("adaptiveTimeoutCutOffs").asInt();
+        summary.stateCaptureTruncations = summaryJson.path("stateCaptureTruncations").asInt();
+        summary.prefixSkippedCaptures = summaryJson.path("prefixSkippedCaptures").asInt();
+        summary.compiledSequences = summaryJson.path("compiledSequences").asInt();
+        summary.uncompilableSequences = summaryJson.path("uncompilableSequences").asInt();
+        if (summaryJson.has("seqExecutionRuns")) {
+            summary.seqExecutionRuns = mapper.convertValue(summaryJson.get("seqExecutionRuns"),
+                new TypeReference<TreeMap<Integer, Integer>>() {});
+        }
+        summary.uncovTestPlanRows__excp = summaryJson.get("uncovTestPlanRows__excp").asInt();
+        summary.uncovTestPlanRows__excp__OperationParse = summaryJson.get("uncovTestPlanRows__excp__OperationParse").asInt();
+        summary.uncovTestPlanRows__excp__randoop__IllegalArgument = summaryJson.get("uncovTestPlanRows__excp__randoop__IllegalArgument").asInt();
+        summary.uncovTestPlanRows__excp__ClassNotFound = summaryJson.get("uncovTestPlanRows__excp__ClassNotFound").asInt();
+        summary.uncovTestPlanRows__excp__NoSuchMethod = summaryJson.get("uncovTestPlanRows__excp__NoSuchMethod").asInt();
+        summary.uncovTestPlanRows__excp__NoArrayElementType = summaryJson.get("uncovTestPlanRows__excp__NoArrayElementType").asInt();
+        summary.uncovTestPlanRows__excp__NonInstantiableType = summaryJson.get("uncovTestPlanRows__excp__NonInstantiableType").asInt();
+        summary.uncovTestPlanRows__excp__UnsupportedCollectionType = summaryJson.get("uncovTestPlanRows__excp__UnsupportedCollectionType").asInt();
+        summary.uncovTestPlanRows__excp__UnsupportedMapType = summaryJson.get("uncovTestPlanRows__excp__UnsupportedMapType").asInt();
+        summary.uncovTestPlanRows__excp__exec__InvocationTarget = summaryJson.get("uncovTestPlanRows__excp__exec__InvocationTarget").asInt();
+        summary.uncovTestPlanRows__excp__exec__IllegalAccess = summaryJson.get("uncovTestPlanRows__excp__exec__IllegalAccess").asInt();
+        summary.uncovTestPlanRows__excp__exec__IllegalArgument = summaryJson.get("uncovTestPlanRows__excp__exec__IllegalArgument").asInt();
+        summary.uncovTestPlanRows__excp__exec__Error = summaryJson.get("uncovTestPlanRows__excp__exec__Error").asInt();
+        summary.uncovTestPlanRows__excp__exec__Other = summaryJson.get("uncovTestPlanRows__excp__exec__Other").asInt();
+        summary.nonInstantiableTypes = mapper.convertValue(summaryJson.get("nonInstantiableTypes"),
+            new TypeReference<HashSet<String>>() {});
+        summary.classNotFoundTypes = mapper.convertValue(summaryJson.get("classNotFoundTypes"),
+            new TypeReference<HashSet<String>>() {});
+        summary.seqExecExcpOther = mapper.convertValue(summaryJson.get("seqExecExcpOther"),
+            new TypeReference<HashSet<String>>() {});
+        summary.seqFailExcp = mapper.convertValue(summaryJson.get("seqFailExcp"),
+            new TypeReference<HashMap<String, Integer>>() {});
+        if (summaryJson.has("jeeReruns")) {
+            summary.jeeReruns = mapper.convertValue(summaryJson.get("jeeReruns"),
+                new TypeReference<TreeMap<String, Integer>>() {});
+            summary.jeeRerunsRecovered = mapper.convertValue(summaryJson.get("jeeRerunsRecovered"),
+                new TypeReference<TreeMap<String, Integer>>() {});
+            summary.jeeRerunsAvoided = mapper.convertValue(summaryJson.get("jeeRerunsAvoided"),
+                new TypeReference<TreeMap<String, Integer>>() {});
+            summary.jeeRerunsAvoidedByRule = mapper.convertValue(summaryJson.get("jeeRerunsAvoidedByRule"),
+                new TypeReference<TreeMap<String, Integer>>() {});
+        }
+        summary.totalMethodsOverOneRow = summaryJson.get("totalMethodsOverOneRow").asInt();
+        summary.totalCTDCov = summaryJson.get("totalCTDCov").asDouble();
+        summary.totalExistingCTDCov = summaryJson.get("totalExistingCTDCov").asDouble();
+        return summary;
     }
 
     public void setSequencePool(SequencePool sequencePool) {
         this.sequencePool = sequencePool;
     }
 
+    void setExecutionStatistics(SequenceExecutionService.Statistics execStats) {
+        this.execStats = execStats;
+    }
+
+    void setForkedExecutionStatistics(ForkedSequenceExecutionPool.Statistics forkedExecStats) {
+        this.forkedExecStats = forkedExecStats;
+    }
+
+    void setJEEExecutionStatistics(JUnitExecutor.Statistics jeeExecStats) {
+        this.jeeExecStats = jeeExecStats;
+    }
+
+    /**
+     * Sets the number of classes restored from checkpoints, and the number of checkpoints that could
+     * not be restored (see {@link ClassCheckpointStore#getRejectedCheckpoints()})
+     */
+    void setCheckpointInfo(int restoredClasses, int rejectedCheckpoints) {
+        this.restoredClasses = restoredClasses;
+        this.rejectedCheckpoints = rejectedCheckpoints;
+    }
+
+    /**
+     * Sets the number of classes, sequences, and compressed bytes spilled to disk in memory-bounded mode
+     * (see {@link SequenceSpillStore})
+     */
+    void setSpillInfo(int spilledClasses, int spilledSequences, long spilledBytes) {
+        this.spilledClasses = spilledClasses;
+        this.spilledSequences = spilledSequences;
+        this.spilledBytes = spilledBytes;
+    }
+
+    /**
+     * Sets the outcomes of JEE reruns in earlier runs, and the JEE rerun classifier (null if failed
+     * sequences are rerun without classification), for reporting reruns and their hit rates
+     */
+    void setJEERerunInfo(JEERerunHistory jeeRerunHistory, JEERerunClassifier jeeRerunClassifier) {
+        this.jeeRerunHistory = jeeRerunHistory;
+        this.jeeRerunClassifier = jeeRerunClassifier;
+    }
+
+    /**
+     * Returns the timings for the entire run, to which run-level phases (e.g., pool initialization) are added
+     */
+    PhaseTimings getTimings() {
+        return this.timings;
+    }
+
+    void setRunWallNanos(long runWallNanos) {
+        this.runWallNanos = runWallNanos;
+    }
+
+    /**
+     * Adds the timings for a processed class to the run, partition, and class timings
+     *
+     * @param partition partition of the class
+     * @param className name of the class
+     * @param classTimings time spent in each phase of processing the class
+     * @param methodWallNanos wall-clock time spent on each method of the class
+     */
+    void addClassTimings(String partition, String className, PhaseTimings classTimings,
+                         Map<String, Long> methodWallNanos) {
+        this.timings.add(classTimings);
+        this.partitionTimings.computeIfAbsent(partition, k -> new PhaseTimings()).add(classTimings);
+        this.classTimings.computeIfAbsent(partition, k -> new LinkedHashMap<>()).put(className, classTimings);
+        for (Map.Entry<String, Long> methodTime : methodWallNanos.entrySet()) {
+            this.slowestMethods.add(new AbstractMap.SimpleEntry<>(methodTime));
+            if (this.slowestMethods.size() > NUM_SLOWEST) {
+                this.slowestMethods.poll();
+            }
+        }
+    }
+
+    /**
+     * Returns per-phase timing and throughput information for the run, its partitions, and its
+     * classes, along with the slowest classes and methods
+     */
+    private ObjectNode getTimingInfo(ObjectMapper mapper) {
+        ObjectNode timingInfo = this.timings.toJson();
+        timingInfo.put("run_wall_ms", PhaseTimings.toMillis(this.runWallNanos));
+
+        ObjectNode partitionsJson = mapper.createObjectNode();
+        this.partitionTimings.forEach((partition, partTimings) -> {
+            ObjectNode partitionJson = partTimings.toJson();
+            ObjectNode classesJson = mapper.createObjectNode();
+            this.classTimings.get(partition).forEach((cls, clsTimings) -> classesJson.set(cls, clsTimings.toJson()));
+            partitionJson.set("classes", classesJson);
+            partitionsJson.set(partition, partitionJson);
+        });
+        timingInfo.set("partitions", partitionsJson);
+
+        List<ObjectNode> classEntries = new ArrayList<>();
+        this.classTimings.forEach((partition, partClassTimings) -> partClassTimings.forEach((cls, clsTimings) ->
+            classEntries.add(mapper.createObjectNode()
+                .put("partition", partition)
+                .put("class", cls)
+                .put("wall_ms", PhaseTimings.toMillis(clsTimings.getTotalWallNanos())))));
+        ArrayNode slowestClassesJson = mapper.createArrayNode();
+        classEntries.stream()
+            .sorted(Comparator.comparingLong((ObjectNode clsEntry) -> clsEntry.get("wall_ms").asLong()).reversed())
+            .limit(NUM_SLOWEST)
+            .forEach(slowestClassesJson::add);
+        timingInfo.set("slowest_classes", slowestClassesJson);
+
+        ArrayNode slowestMethodsJson = mapper.createArrayNode();
+        this.slowestMethods.stream()
+            .sorted(Comparator.comparing(Map.Entry<String, Long>::getValue).reversed())
+            .forEach(methodEntry -> slowestMethodsJson.add(mapper.createObjectNode()
+                .put("method", methodEntry.getKey())
+                .put("wall_ms", PhaseTimings.toMillis(methodEntry.getValue()))));
+        timingInfo.set("slowest_methods", slowestMethodsJson);
+        return timingInfo;
+    }
+
     /**
      * Prints summary information about test generation to stdout
      *
@@ -164,13 +521,18 @@ public class ExtenderSummary {
 
     /**
      * Writes summary information about test generation to a JSON file
+     *
+     * @param appName name of the application under test
+     * @param generatedSeqCount number of extended sequences generated
+     * @param executedSeqCount number of extended sequences executed
+     * @param extTestSeq final extended sequences per partition and target method
+     * @param assertionCount number of diff assertions added
      * @throws IOException 
      * @throws JsonMappingException 
      * @throws JsonGenerationException 
      */
-    void writeSummaryFile(String appName, HashMap<String, Sequence> seqIdMap,
+    void writeSummaryFile(String appName, int generatedSeqCount, int executedSeqCount,
                           Map<String, Map<String, Set<String>>> extTestSeq,
-                          HashMap<String, SequenceExecutor.SequenceResults> execExtSeq,
                           int assertionCount)
         throws JsonGenerationException, JsonMappingException, IOException {
     	
@@ -191,8 +553,18 @@ public class ExtenderSummary {
 
         // add information about generated sequences
         ObjectNode extSeqInfo = mapper.createObjectNode();
-        extSeqInfo.put("generated_sequences", seqIdMap.keySet().size());
-        extSeqInfo.put("executed_sequences", execExtSeq.keySet().size());
+        extSeqInfo.put("generated_sequences", generatedSeqCount);
+        extSeqInfo.put("executed_sequences", executedSeqCount);
+        extSeqInfo.put("reused_execution_results", this.reusedSeqExecutionResults);
+        extSeqInfo.put("adaptive_timeout_cutoffs", this.adaptiveTimeoutCutOffs);
+        extSeqInfo.put("state_capture_truncations", this.stateCaptureTruncations);
+        extSeqInfo.put("prefix_skipped_captures", this.prefixSkippedCaptures);
+        extSeqInfo.put("compiled_sequences", this.compiledSequences);
+        extSeqInfo.put("uncompilable_sequences", this.uncompilableSequences);
+        extSeqInfo.put("sequence_executions", this.seqExecutionRuns.entrySet().stream()
+            .mapToInt(entry -> entry.getKey() * entry.getValue())
+            .sum());
+        extSeqInfo.set("executions_per_sequence", mapper.valueToTree(this.seqExecutionRuns));
         extSeqInfo.put("failing_sequences", this.uncovTestPlanRows__execFail);
         extSeqInfo.put("failing_sequences_bad_path", this.uncovTestPlanRows__execFailBadPath);
         extSeqInfo.put("final_sequences", extTestSeq.values().stream()
@@ -202,9 +574,63 @@ public class ExtenderSummary {
         extSeqInfo.put("diff_assertions", assertionCount);
         summaryJson.set("extended_sequences_info", extSeqInfo);
 
+        // add information about threads used for sequence execution
+        if (this.execStats != null) {
+            ObjectNode execInfo = mapper.createObjectNode();
+            execInfo.put("executions", this.execStats.executions);
+            execInfo.put("timed_out_executions", this.execStats.timedOutExecutions);
+            execInfo.put("retired_workers", this.execStats.retiredWorkers);
+            execInfo.put("recovered_workers", this.execStats.recoveredWorkers);
+            execInfo.put("leaked_workers", this.execStats.leakedWorkers);
+            execInfo.put("leaked_app_threads", this.execStats.leakedAppThreads);
+            summaryJson.set("sequence_execution_info", execInfo);
+        }
+
+        if (this.forkedExecStats != null) {
+            ObjectNode forkedExecInfo = mapper.createObjectNode();
+            forkedExecInfo.put("executions", this.forkedExecStats.executions);
+            forkedExecInfo.put("batches", this.forkedExecStats.batches);
+            forkedExecInfo.put("timed_out_workers", this.forkedExecStats.timedOutWorkers);
+            forkedExecInfo.put("crashed_workers", this.forkedExecStats.crashedWorkers);
+            forkedExecInfo.put("restarted_workers", this.forkedExecStats.restartedWorkers);
+            summaryJson.set("forked_execution_info", forkedExecInfo);
+        }
+
+        if (this.jeeExecStats != null) {
+            ObjectNode jeeExecInfo = mapper.createObjectNode();
+            jeeExecInfo.put("batches", this.jeeExecStats.batches);
+            jeeExecInfo.put("test_classes", this.jeeExecStats.testClasses);
+            jeeExecInfo.put("compilations", this.jeeExecStats.compilations);
+            jeeExecInfo.put("in_memory_compilations", this.jeeExecStats.inMemoryCompilations);
+            jeeExecInfo.put("recompilations", this.jeeExecStats.recompilations);
+            jeeExecInfo.put("runners", this.jeeExecStats.runners);
+            jeeExecInfo.put("runner_runs", this.jeeExecStats.runnerRuns);
+            jeeExecInfo.put("runner_restarts", this.jeeExecStats.runnerRestarts);
+            summaryJson.set("jee_execution_info", jeeExecInfo);
+        }
+
+        if (this.restoredClasses >= 0) {
+            ObjectNode checkpointInfo = mapper.createObjectNode();
+            checkpointInfo.put("restored_classes", this.restoredClasses);
+            checkpointInfo.put("rejected_checkpoints", this.rejectedCheckpoints);
+            summaryJson.set("checkpoint_info", checkpointInfo);
+        }
+
+        if (this.spilledClasses >= 0) {
+            ObjectNode spillInfo = mapper.createObjectNode();
+            spillInfo.put("spilled_classes", this.spilledClasses);
+            spillInfo.put("spilled_sequences", this.spilledSequences);
+            spillInfo.put("spilled_bytes", this.spilledBytes);
+            summaryJson.set("spill_info", spillInfo);
+        }
+
+        if (this.jeeRerunHistory != null) {
+            summaryJson.set("jee_rerun_info", getJEERerunInfo(mapper));
+        }
+
         // add information about coverage of test plan rows
         ObjectNode covInfo = mapper.createObjectNode();
-        covInfo.put("test_plan_target_methods", this.testPlan.size());
+        covInfo.put("test_plan_target_methods", this.testPlanSize);
         covInfo.put("test_plan_rows", this.totalTestPlanRows);
         covInfo.put("rows_covered_full", this.covTestPlanRows__full);
         covInfo.put("rows_covered_partial", this.covTestPlanRows__partial);
@@ -223,6 +649,9 @@ public class ExtenderSummary {
         	summaryJson.set("ctd_coverage_info", ctdCovInfo);
         }
 
+        // add information about time spent in each phase of test generation
+        summaryJson.set("timing_info", getTimingInfo(mapper));
+
         // add information about uncovered test plan rows
         ObjectNode uncovInfo = mapper.createObjectNode();
         uncovInfo.put("no_bb_sequence_for_target_method", this.uncovTestPlanRows__noInitSeq);
@@ -274,4 +703,39 @@ public class ExtenderSummary {
         mapper.writeValue(new File(outFileName), summaryJson);
     }
 
+    /**
+     * Returns information about JEE reruns of failed sequences: reruns and reruns avoided by the JEE
+     * rerun classifier (per rule and per failure category), with the hit rates of reruns of each
+     * failure category in this run and in earlier runs
+     */
+    private ObjectNode getJEERerunInfo(ObjectMapper mapper) {
+        ObjectNode jeeRerunInfo = mapper.createObjectNode();
+        jeeRerunInfo.put("reruns", this.jeeReruns.values().stream().mapToInt(Integer::intValue).sum());
+        jeeRerunInfo.put("recovered", this.jeeRerunsRecovered.values().stream().mapToInt(Integer::intValue).sum());
+        jeeRerunInfo.put("reruns_avoided", this.jeeRerunsAvoided.values().stream().mapToInt(Integer::intValue).sum());
+        if (this.jeeRerunClassifier != null) {
+            ArrayNode rulesJson = jeeRerunInfo.putArray("rules");
+            this.jeeRerunClassifier.getRules().forEach(rule -> rulesJson.add(rule.toString()));
+            jeeRerunInfo.set("reruns_avoided_by_rule", mapper.valueToTree(this.jeeRerunsAvoidedByRule));
+        }
+        Set<String> categories = new TreeSet<>(this.jeeReruns.keySet());
+        categories.addAll(this.jeeRerunsAvoided.keySet());
+        ObjectNode categoriesJson = jeeRerunInfo.putObject("failure_categories");
+        for (String category : categories) {
+            int reruns = this.jeeReruns.getOrDefault(category, 0);
+            int recovered = this.jeeRerunsRecovered.getOrDefault(category, 0);
+            int earlierReruns = this.jeeRerunHistory.getEarlierReruns(category);
+            int earlierRecovered = this.jeeRerunHistory.getEarlierRecovered(category);
+            ObjectNode categoryJson = categoriesJson.putObject(category);
+            categoryJson.put("reruns", reruns);
+            categoryJson.put("recovered", recovered);
+            categoryJson.put("reruns_avoided", this.jeeRerunsAvoided.getOrDefault(category, 0));
+            categoryJson.put("historical_reruns", earlierReruns);
+            categoryJson.put("historical_recovered", earlierRecovered);
+            categoryJson.put("historical_hit_rate", earlierReruns == 0 ? "n/a" :
+                String.format("%.2f", (double) earlierRecovered * 100 / earlierReruns));
+        }
+        return jeeRerunInfo;
+    }
+
 }
@@ -0,0 +1,303 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.konveyor.tackle.testgen.core.executor.SequenceExecutor;
+
+import randoop.operation.Operation;
+import randoop.sequence.Sequence;
+import randoop.sequence.Variable;
+
+/**
+ * Predicts whether a failed sequence can be made to pass by rerunning it under EvoSuite JEE support,
+ * from the cause of its failure: the type of the exception with which it failed, the type of the
+ * cause of that exception, whether the failing statement is the call of the target method or a
+ * statement of its prefix, and whether the failing statement has a null input. Failures that JEE
+ * injection and scaffolding cannot fix (e.g., a ClassCastException, or an IllegalArgumentException
+ * thrown by the target method for the inputs created by the extender) need not be rerun.
+ * <p>
+ * The prediction is made by an ordered list of rules, of which the first that matches a failure
+ * decides whether the failed sequence is rerun; failed sequences that match no rule are rerun. A rule
+ * is given as a verdict ({@code skip} or {@code rerun}) followed by conditions on the failure, all of
+ * which must hold for the rule to match:
+ * <pre>
+ * skip exception=java.lang.IllegalArgumentException position=target
+ * skip exception=java.lang.NullPointerException position=target nullInput=true
+ * rerun exception=javax.ejb.EJBException cause=java.lang.NullPointerException
+ * </pre>
+ * Exception and cause types are given by their qualified or simple names ({@code none} for no cause);
+ * the position is {@code target} or {@code prefix}.
+ */
+public class JEERerunClassifier {
+
+    private static final String SKIP = "skip";
+    private static final String RERUN = "rerun";
+
+    private static final String NONE = "none";
+    private static final String TARGET = "target";
+    private static final String PREFIX = "prefix";
+
+    /** Rules applied by default: failures that JEE support cannot fix */
+    public static final List<String> DEFAULT_RULES = Collections.unmodifiableList(Arrays.asList(
+        "skip exception=java.lang.ClassCastException",
+        "skip exception=java.lang.ArithmeticException",
+        "skip exception=java.lang.ArrayIndexOutOfBoundsException",
+        "skip exception=java.lang.IllegalArgumentException position=target",
+        "skip exception=java.lang.NumberFormatException position=target",
+        "skip exception=java.lang.NullPointerException position=target nullInput=true"));
+
+    /**
+     * Cause of the failure of a sequence
+     */
+    public static final class Failure {
+
+        final String exception;
+
+        final String cause;
+
+        final boolean atTarget;
+
+        final boolean nullInput;
+
+        Failure(String exception, String cause, boolean atTarget, boolean nullInput) {
+            this.exception = exception == null ? NONE : exception;
+            this.cause = cause == null ? NONE : cause;
+            this.atTarget = atTarget;
+            this.nullInput = nullInput;
+        }
+
+        /**
+         * Returns the cause of the failure of the given sequence, from its execution results
+         *
+         * @param sequence failed sequence
+         * @param results execution results of the sequence
+         * @return cause of the failure
+         */
+        public static Failure of(Sequence sequence, SequenceExecutor.SequenceResults results) {
+            int index = results.failingIndex;
+            if (index < 0 || index >= sequence.size() || index >= results.size()) {
+                // failed without an exception of a statement (e.g., timed out)
+                return new Failure(null, null, false, false);
+            }
+            boolean nullInput = false;
+            for (Variable input : sequence.getInputs(index)) {
+                Operation inputOperation = sequence.getStatement(input.getDeclIndex()).getOperation();
+                nullInput |= inputOperation.isNonreceivingValue() && inputOperation.getValue() == null;
+            }
+            return new Failure(results.exception[index], results.cause[index], index == sequence.size() - 1,
+                nullInput);
+        }
+
+        /**
+         * Returns the category of the failure, under which the outcomes of reruns of failures with the
+         * same cause are counted
+         */
+        public String getCategory() {
+            return this.exception + " cause=" + this.cause + " position=" + (this.atTarget ? TARGET : PREFIX) +
+                " nullInput=" + this.nullInput;
+        }
+
+        @Override
+        public String toString() {
+            return getCategory();
+        }
+    }
+
+    /**
+     * Rule that decides whether failures that meet its conditions are rerun
+     */
+    public static final class Rule {
+
+        final boolean rerun;
+
+        // conditions on the failure; null if unconstrained
+        private final String exception;
+        private final String cause;
+        private final Boolean atTarget;
+        private final Boolean nullInput;
+
+        private final String text;
+
+        private Rule(boolean rerun, String exception, String cause, Boolean atTarget, Boolean nullInput,
+                     String text) {
+            this.rerun = rerun;
+            this.exception = exception;
+            this.cause = cause;
+            this.atTarget = atTarget;
+            this.nullInput = nullInput;
+            this.text = text;
+        }
+
+        /**
+         * Parses a rule from its textual form
+         *
+         * @param text rule
+         * @return parsed rule
+         * @throws IllegalArgumentException if the rule is malformed
+         */
+        public static Rule parse(String text) {
+            String[] tokens = text.trim().split("\\s+");
+            boolean rerun;
+            if (tokens[0].equals(SKIP)) {
+                rerun = false;
+            } else if (tokens[0].equals(RERUN)) {
+                rerun = true;
+            } else {
+                throw new IllegalArgumentException("JEE rerun rule must start with '" + SKIP + "' or '" + RERUN +
+                    "': " + text);
+            }
+            String exception = null;
+            String cause = null;
+            Boolean atTarget = null;
+            Boolean nullInput = null;
+            for (int i = 1; i < tokens.length; i++) {
+                int separator = tokens[i].indexOf('=');
+                if (separator <= 0 || separator == tokens[i].length() - 1) {
+                    throw new IllegalArgumentException("Malformed condition '" + tokens[i] + "' in JEE rerun rule: " +
+                        text);
+                }
+                String value = tokens[i].substring(separator + 1);
+                switch (tokens[i].substring(0, separator)) {
+                    case "exception":
+                        exception = value;
+                        break;
+                    case "cause":
+                        cause = value;
+                        break;
+                    case "position":
+                        if (!value.equals(TARGET) && !value.equals(PREFIX)) {
+                            throw new IllegalArgumentException("Position must be '" + TARGET + "' or '" + PREFIX +
+                                "' in JEE rerun rule: " + text);
+                        }
+                        atTarget = value.equals(TARGET);
+                        break;
+                    case "nullInput":
+                        if (!value.equals("true") && !value.equals("false")) {
+                            throw new IllegalArgumentException("Null input must be 'true' or 'false' in JEE rerun " +
+                                "rule: " + text);
+                        }
+                        nullInput = Boolean.valueOf(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown condition '" + tokens[i] + "' in JEE rerun rule: " +
+                            text);
+                }
+            }
+            return new Rule(rerun, exception, cause, atTarget, nullInput, String.join(" ", tokens));
+        }
+
+        /**
+         * Returns whether the given failure meets the conditions of the rule
+         */
+        boolean matches(Failure failure) {
+            return matchesType(this.exception, failure.exception) && matchesType(this.cause, failure.cause) &&
+                (this.atTarget == null || this.atTarget == failure.atTarget) &&
+                (this.nullInput == null || this.nullInput == failure.nullInput);
+        }
+
+        private static boolean matchesType(String ruleType, String type) {
+            return ruleType == null || ruleType.equals(type) || type.endsWith("." + ruleType);
+        }
+
+        @Override
+        public String toString() {
+            return this.text;
+        }
+    }
+
+    private final List<Rule> rules;
+
+    /**
+     * Creates a classifier that applies the given rules, in order
+     *
+     * @param rules rules in textual form
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public JEERerunClassifier(List<String> rules) {
+        this.rules = new ArrayList<>();
+        for (String rule : rules) {
+            this.rules.add(Rule.parse(rule));
+        }
+    }
+
+    /**
+     * Creates a classifier that applies the {@link #DEFAULT_RULES}
+     */
+    public JEERerunClassifier() {
+        this(DEFAULT_RULES);
+    }
+
+    /**
+     * Creates a classifier that applies the rules in the given file, one rule per line; empty lines and
+     * lines starting with '#' are ignored
+     *
+     * @param rulesFile file with the rules
+     * @return classifier
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a rule is malformed
+     */
+    public static JEERerunClassifier fromFile(File rulesFile) throws IOException {
+        List<String> rules = new ArrayList<>();
+        for (String line : Files.readAllLines(rulesFile.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                rules.add(line);
+            }
+        }
+        return new JEERerunClassifier(rules);
+    }
+
+    /**
+     * Returns the first rule that matches the given failure, or null if no rule matches it
+     *
+     * @param failure cause of the failure of a sequence
+     * @return matching rule, or null if the failed sequence is rerun by default
+     */
+    public Rule match(Failure failure) {
+        for (Rule rule : this.rules) {
+            if (rule.matches(failure)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether a sequence that failed with the given failure is predicted to pass under JEE
+     * support, and should therefore be rerun
+     */
+    public boolean isRecoverable(Failure failure) {
+        Rule rule = match(failure);
+        return rule == null || rule.rerun;
+    }
+
+    /**
+     * Returns the rules of the classifier, in order
+     */
+    public List<Rule> getRules() {
+        return Collections.unmodifiableList(this.rules);
+    }
+}
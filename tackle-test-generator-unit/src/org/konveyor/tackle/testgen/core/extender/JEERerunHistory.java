@@ -0,0 +1,118 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import org.konveyor.tackle.testgen.util.Constants;
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+import org.konveyor.tackle.testgen.util.TackleTestLogger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Outcomes of JEE reruns of failed sequences over the runs of the extender for an application, per
+ * category of failure (see {@link JEERerunClassifier.Failure#getCategory()}): the number of failed
+ * sequences rerun under JEE support, and the number of them that passed. The history gives the hit
+ * rate of reruns for each category of failure, against which the rules of a
+ * {@link JEERerunClassifier} can be checked. Outcomes of the current run are added to those of
+ * earlier runs when the history is written.
+ */
+class JEERerunHistory {
+
+    private static final Logger logger = TackleTestLogger.getLogger(JEERerunHistory.class);
+
+    private final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    private final File historyFile;
+
+    // numbers of reruns and of recovered sequences per failure category, in earlier runs and in the
+    // current run
+    private final Map<String, Integer> earlierReruns = new TreeMap<>();
+    private final Map<String, Integer> earlierRecovered = new TreeMap<>();
+    private final Map<String, Integer> currentReruns = new TreeMap<>();
+    private final Map<String, Integer> currentRecovered = new TreeMap<>();
+
+    /**
+     * Creates the history for the given application, reading the outcomes of earlier runs (if any)
+     *
+     * @param appName name of the application under test
+     */
+    JEERerunHistory(String appName) {
+        this.historyFile = new File(appName + Constants.JEE_RERUN_HISTORY_FILE_JSON_SUFFIX);
+        if (!this.historyFile.exists()) {
+            return;
+        }
+        try {
+            Iterator<Map.Entry<String, JsonNode>> categories = this.mapper.readTree(this.historyFile).fields();
+            while (categories.hasNext()) {
+                Map.Entry<String, JsonNode> category = categories.next();
+                this.earlierReruns.put(category.getKey(), category.getValue().path("reruns").asInt());
+                this.earlierRecovered.put(category.getKey(), category.getValue().path("recovered").asInt());
+            }
+        } catch (IOException e) {
+            logger.warning("Error reading JEE rerun history " + this.historyFile + ": " + e);
+        }
+    }
+
+    /**
+     * Adds the outcomes of JEE reruns recorded in the given summary to the outcomes of the current run
+     */
+    void add(ExtenderSummary summary) {
+        summary.jeeReruns.forEach((category, count) -> this.currentReruns.merge(category, count, Integer::sum));
+        summary.jeeRerunsRecovered.forEach((category, count) ->
+            this.currentRecovered.merge(category, count, Integer::sum));
+    }
+
+    /**
+     * Returns the number of failed sequences of the given category rerun in earlier runs
+     */
+    int getEarlierReruns(String category) {
+        return this.earlierReruns.getOrDefault(category, 0);
+    }
+
+    /**
+     * Returns the number of failed sequences of the given category that passed when rerun in earlier runs
+     */
+    int getEarlierRecovered(String category) {
+        return this.earlierRecovered.getOrDefault(category, 0);
+    }
+
+    /**
+     * Writes the outcomes of earlier runs and of the current run
+     *
+     * @throws IOException if the history file could not be written
+     */
+    void write() throws IOException {
+        Map<String, Integer> reruns = new TreeMap<>(this.earlierReruns);
+        this.currentReruns.forEach((category, count) -> reruns.merge(category, count, Integer::sum));
+        Map<String, Integer> recovered = new TreeMap<>(this.earlierRecovered);
+        this.currentRecovered.forEach((category, count) -> recovered.merge(category, count, Integer::sum));
+        ObjectNode historyJson = this.mapper.createObjectNode();
+        reruns.forEach((category, count) -> historyJson.putObject(category)
+            .put("reruns", count)
+            .put("recovered", recovered.getOrDefault(category, 0)));
+        this.mapper.writeValue(this.historyFile, historyJson);
+    }
+}
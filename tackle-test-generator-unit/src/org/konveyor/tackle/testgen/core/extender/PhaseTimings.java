@@ -0,0 +1,199 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Wall-clock and CPU time spent in each phase of test generation for a unit of work (a class, a
+ * partition, or the entire run), along with the number of sequences generated and executed in that
+ * unit. CPU time is the CPU time of the thread running a phase; for sequence execution, the CPU
+ * time of the worker threads running the sequences is added separately.
+ */
+class PhaseTimings {
+
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Phases of test generation
+     */
+    enum Phase {
+        POOL_INITIALIZATION("pool_initialization"),
+        SEQUENCE_EXTENSION("sequence_extension"),
+        SEQUENCE_EXECUTION("sequence_execution"),
+        JEE_RERUN("jee_rerun"),
+        DIFF_ASSERTIONS("diff_assertions"),
+        CTD_COVERAGE("ctd_coverage"),
+        TEST_CLASS_WRITING("test_class_writing");
+
+        final String jsonName;
+
+        Phase(String jsonName) {
+            this.jsonName = jsonName;
+        }
+    }
+
+    /**
+     * Start times of a measurement, taken on the thread that runs the measured code
+     */
+    static class Stopwatch {
+
+        final long startWallNanos = System.nanoTime();
+
+        final long startCpuNanos = getCurrentThreadCpuTime();
+
+        long getElapsedWallNanos() {
+            return System.nanoTime() - this.startWallNanos;
+        }
+    }
+
+    private final long[] wallNanos = new long[Phase.values().length];
+
+    private final long[] cpuNanos = new long[Phase.values().length];
+
+    int generatedSequences = 0;
+
+    int executedSequences = 0;
+
+    /**
+     * Starts a measurement on the current thread
+     */
+    static Stopwatch start() {
+        return new Stopwatch();
+    }
+
+    /**
+     * Adds the wall-clock and CPU time elapsed since the given measurement was started (on the
+     * current thread) to the given phase
+     *
+     * @param phase phase to which the time is added
+     * @param stopwatch measurement started on the current thread
+     */
+    void add(Phase phase, Stopwatch stopwatch) {
+        this.wallNanos[phase.ordinal()] += stopwatch.getElapsedWallNanos();
+        this.cpuNanos[phase.ordinal()] += getCurrentThreadCpuTime() - stopwatch.startCpuNanos;
+    }
+
+    /**
+     * Adds an equal share of the wall-clock and CPU time elapsed since the given measurement was
+     * started (on the current thread) to the given phase of each of the given timings, for work done
+     * for all of them at once (e.g., a batched JEE rerun for several classes)
+     *
+     * @param phase phase to which the time is added
+     * @param stopwatch measurement started on the current thread
+     * @param timings timings that share the time
+     */
+    static void addShared(Phase phase, Stopwatch stopwatch, List<PhaseTimings> timings) {
+        if (timings.isEmpty()) {
+            return;
+        }
+        long wallShare = stopwatch.getElapsedWallNanos() / timings.size();
+        long cpuShare = (getCurrentThreadCpuTime() - stopwatch.startCpuNanos) / timings.size();
+        for (PhaseTimings timing : timings) {
+            timing.wallNanos[phase.ordinal()] += wallShare;
+            timing.cpuNanos[phase.ordinal()] += cpuShare;
+        }
+    }
+
+    /**
+     * Adds CPU time spent on other threads (e.g., sequence execution workers) to the given phase
+     */
+    void addCpuNanos(Phase phase, long nanos) {
+        this.cpuNanos[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * Adds the times and sequence counts of the given timings to these timings
+     */
+    void add(PhaseTimings other) {
+        for (int i = 0; i < this.wallNanos.length; i++) {
+            this.wallNanos[i] += other.wallNanos[i];
+            this.cpuNanos[i] += other.cpuNanos[i];
+        }
+        this.generatedSequences += other.generatedSequences;
+        this.executedSequences += other.executedSequences;
+    }
+
+    long getWallNanos(Phase phase) {
+        return this.wallNanos[phase.ordinal()];
+    }
+
+    /**
+     * Returns the wall-clock time summed over all phases
+     */
+    long getTotalWallNanos() {
+        long total = 0;
+        for (long nanos : this.wallNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the per-phase times (in milliseconds), sequence counts, and sequence throughput as JSON
+     */
+    ObjectNode toJson() {
+        ObjectMapper mapper = TackleTestJson.getObjectMapper();
+        ObjectNode timingJson = mapper.createObjectNode();
+        ObjectNode phasesJson = mapper.createObjectNode();
+        for (Phase phase : Phase.values()) {
+            if (this.wallNanos[phase.ordinal()] == 0 && this.cpuNanos[phase.ordinal()] == 0) {
+                continue;
+            }
+            ObjectNode phaseJson = mapper.createObjectNode();
+            phaseJson.put("wall_ms", toMillis(this.wallNanos[phase.ordinal()]));
+            phaseJson.put("cpu_ms", toMillis(this.cpuNanos[phase.ordinal()]));
+            phasesJson.set(phase.jsonName, phaseJson);
+        }
+        timingJson.set("phases", phasesJson);
+        timingJson.put("wall_ms", toMillis(getTotalWallNanos()));
+        timingJson.put("generated_sequences", this.generatedSequences);
+        timingJson.put("executed_sequences", this.executedSequences);
+        timingJson.put("generated_sequences_per_sec", String.format("%.2f",
+            perSecond(this.generatedSequences, getTotalWallNanos())));
+        timingJson.put("executed_sequences_per_sec", String.format("%.2f",
+            perSecond(this.executedSequences, getWallNanos(Phase.SEQUENCE_EXECUTION))));
+        return timingJson;
+    }
+
+    static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static double perSecond(int count, long nanos) {
+        return nanos == 0 ? 0 : count / (nanos / 1e9);
+    }
+
+    /**
+     * Returns the CPU time of the current thread, or 0 if thread CPU time measurement is not
+     * supported or not enabled
+     */
+    static long getCurrentThreadCpuTime() {
+        if (!threadBean.isCurrentThreadCpuTimeSupported()) {
+            return 0;
+        }
+        long cpuTime = threadBean.getCurrentThreadCpuTime();
+        return cpuTime < 0 ? 0 : cpuTime;
+    }
+}
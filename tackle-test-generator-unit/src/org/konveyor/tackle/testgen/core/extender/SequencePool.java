@@ -18,7 +18,6 @@ package org.konveyor.tackle.testgen.core.extender;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -38,6 +37,7 @@ import org.konveyor.tackle.testgen.core.SequenceParser;
 import org.konveyor.tackle.testgen.util.Constants;
 import org.konveyor.tackle.testgen.util.TackleTestJson;
 import org.konveyor.tackle.testgen.util.TackleTestLogger;
+import org.konveyor.tackle.testgen.util.ThreadOutputRouter;
 import org.konveyor.tackle.testgen.util.Utils;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
@@ -54,7 +54,6 @@ import randoop.operation.MethodCall;
 import randoop.operation.Operation;
 import randoop.operation.TypedClassOperation;
 import randoop.operation.TypedOperation;
-import randoop.org.apache.commons.io.output.NullPrintStream;
 import randoop.org.apache.commons.lang3.RandomStringUtils;
 import randoop.org.apache.commons.lang3.RandomUtils;
 import randoop.sequence.Sequence;
@@ -166,22 +165,16 @@ class SequencePool {
                 
                     String testSeq = seq.asText();
                     logger.fine("- " + testSeq);
-                    PrintStream origSysOut = System.out;
-                    PrintStream origSysErr = System.err;
                     try {
-                        // disable stdout/stderr prints from sequence parsing
-                        System.setOut(NullPrintStream.NULL_PRINT_STREAM);
-                        System.setErr(NullPrintStream.NULL_PRINT_STREAM);
-
-                        // create randoop sequence object by parsing the string representation of sequence
-                        Pair<Sequence, Boolean> parsedSeqPair = SequenceParser.codeToSequence(testSeq, importList, cls, true,
-                            new ArrayList<Integer>());
+                        // create randoop sequence object by parsing the string representation of sequence,
+                        // discarding stdout/stderr prints from sequence parsing
+                        Pair<Sequence, Boolean> parsedSeqPair;
+                        try (ThreadOutputRouter.Redirection redirection = ThreadOutputRouter.discard()) {
+                            parsedSeqPair = SequenceParser.codeToSequence(testSeq, importList, cls, true,
+                                new ArrayList<Integer>());
+                        }
                         Sequence randoopSeq = parsedSeqPair.a;
 
-                        // restore stdout and stderr
-                        System.setOut(origSysOut);
-                        System.setErr(origSysErr);
-
                         logger.fine("Randoop test sequence: " + randoopSeq);
                         // update counters for fully/partially parsed sequences and skipped sequences
                         if (randoopSeq.size() > 0) {
@@ -215,10 +208,6 @@ class SequencePool {
                         // update value pool for primitive types
                         updatePrimitiveValuePool(randoopSeq);
                     } catch (Throwable e) {
-                        // restore stdout and stderr
-                        System.setOut(origSysOut);
-                        System.setErr(origSysErr);
-
                         // if exception occurs in creating randoop sequence, record exception information
                         // for debugging
                         logger.warning("Error parsing sequence for class " + cls + ":\n" + testSeq);
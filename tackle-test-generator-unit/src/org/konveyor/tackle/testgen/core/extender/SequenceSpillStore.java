@@ -0,0 +1,180 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.konveyor.tackle.testgen.core.executor.SequenceExecutor;
+import org.konveyor.tackle.testgen.util.Constants;
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+import org.konveyor.tackle.testgen.util.TackleTestLogger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceParseException;
+
+/**
+ * Compact on-disk store for the extended sequences of classes whose results have been merged, used
+ * in memory-bounded mode instead of keeping the sequences, their execution results, and their code
+ * in memory for the entire run. The sequences of each class are written to a compressed JSON file,
+ * with the parsable form and the code of each sequence, its target, and a summary of its execution
+ * results (the per-statement object states are not kept). An in-memory index maps each sequence ID
+ * to the file containing the sequence.
+ */
+class SequenceSpillStore {
+
+    private static final Logger logger = TackleTestLogger.getLogger(SequenceSpillStore.class);
+
+    private static final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    private final File spillDir;
+
+    // map from sequence ID to index of file containing the sequence
+    private final Map<String, Integer> seqIdToFile = new HashMap<>();
+
+    private int fileCounter = 0;
+
+    // number of compressed bytes written to the store
+    private long spilledBytes = 0;
+
+    /**
+     * Creates a spill store for the given application; sequences spilled in earlier runs are removed
+     *
+     * @param appName name of the application under test
+     * @throws IOException if the sequences of an earlier run could not be removed
+     */
+    SequenceSpillStore(String appName) throws IOException {
+        this.spillDir = new File(appName + Constants.EXTENDER_SPILL_DIR_SUFFIX);
+        delete();
+    }
+
+    /**
+     * Removes the store from disk; sequences written to the store can no longer be read
+     *
+     * @throws IOException if the store could not be removed
+     */
+    void delete() throws IOException {
+        if (this.spillDir.exists()) {
+            try (Stream<Path> paths = Files.walk(this.spillDir.toPath())) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(path);
+                }
+            }
+        }
+        this.seqIdToFile.clear();
+    }
+
+    /**
+     * Returns the number of classes whose sequences were written to the store
+     */
+    int getSpilledClasses() {
+        return this.fileCounter;
+    }
+
+    /**
+     * Returns the number of sequences written to the store
+     */
+    int getSpilledSequences() {
+        return this.seqIdToFile.size();
+    }
+
+    /**
+     * Returns the number of compressed bytes written to the store
+     */
+    long getSpilledBytes() {
+        return this.spilledBytes;
+    }
+
+    /**
+     * Writes the extended sequences of the class in the given extension context to the store
+     *
+     * @param ctx extension context for the class
+     * @param seqIdRenaming map from class-local sequence IDs to run-wide sequence IDs
+     * @throws IOException if the sequences could not be written
+     */
+    void write(ClassExtensionContext ctx, Map<String, String> seqIdRenaming) throws IOException {
+        if (ctx.seqIdMap.isEmpty()) {
+            return;
+        }
+        ObjectNode classSeqs = mapper.createObjectNode();
+        ctx.seqIdMap.forEach((seqId, seq) -> {
+            ObjectNode seqJson = mapper.createObjectNode();
+            seqJson.put("sequence", seq.toParsableString());
+            seqJson.put("code", ctx.extSeqStr.get(seqId));
+            Object target = ctx.seqTargetMap.get(seqId);
+            seqJson.put("target", target == null ? null : target.toString());
+            SequenceExecutor.SequenceResults results = ctx.execExtSeq.get(seqId);
+            if (results != null) {
+                seqJson.put("passed", results.passed);
+                seqJson.put("failing_index", results.failingIndex);
+                if (results.failingIndex >= 0) {
+                    seqJson.put("exception", results.exception[results.failingIndex]);
+                }
+            }
+            classSeqs.set(seqIdRenaming.get(seqId), seqJson);
+        });
+
+        this.spillDir.mkdirs();
+        int fileIndex = this.fileCounter++;
+        File file = getFile(fileIndex);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file.toPath()))) {
+            mapper.writeValue(out, classSeqs);
+        }
+        this.spilledBytes += file.length();
+        classSeqs.fieldNames().forEachRemaining(seqId -> this.seqIdToFile.put(seqId, fileIndex));
+    }
+
+    /**
+     * Reads the sequence with the given (run-wide) ID from the store
+     *
+     * @param seqId sequence ID
+     * @return the sequence, or null if the store does not contain the sequence or it could not be read
+     */
+    Sequence readSequence(String seqId) {
+        Integer fileIndex = this.seqIdToFile.get(seqId);
+        if (fileIndex == null) {
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(getFile(fileIndex).toPath()))) {
+            JsonNode seqJson = mapper.readTree(in).get(seqId);
+            return Sequence.parse(seqJson.get("sequence").asText());
+        } catch (IOException | SequenceParseException e) {
+            logger.warning("Error reading spilled sequence " + seqId + ": " + e);
+            return null;
+        }
+    }
+
+    private File getFile(int fileIndex) {
+        return new File(this.spillDir, fileIndex + ".json.gz");
+    }
+}
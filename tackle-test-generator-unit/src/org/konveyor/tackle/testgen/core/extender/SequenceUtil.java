@@ -388,6 +388,31 @@ public class SequenceUtil {
             "Construct call that assigns to receiver variable " + receiverVar + " not found in sequence: " + seq);
     }
 
+    /**
+     * Computes a canonical fingerprint of the given sequence. The fingerprint covers, for each
+     * statement, its operation (including the value of primitive, string, and enum assignments),
+     * its output type, and the indices of the statements defining its inputs; it does not depend on
+     * variable names or on how the sequence was constructed. Structurally identical sequences thus
+     * have the same fingerprint, and their executions are expected to produce the same results.
+     *
+     * @param seq sequence to be fingerprinted
+     * @return hex-encoded SHA-256 digest of the canonical form of the sequence
+     */
+    static String getCanonicalFingerprint(Sequence seq) {
+        StringBuilder canonicalForm = new StringBuilder();
+        for (int i = 0; i < seq.size(); i++) {
+            TypedOperation oper = seq.getStatement(i).getOperation();
+            canonicalForm.append(i).append(':')
+                .append(oper.toParsableString()).append(':')
+                .append(oper.getOutputType().getBinaryName()).append(':')
+                .append(seq.getInputs(i).stream()
+                    .map(var -> String.valueOf(var.getDeclIndex()))
+                    .collect(Collectors.joining(",")))
+                .append('\n');
+        }
+        return Digests.digest(canonicalForm.toString());
+    }
+
     /**
      * Selects a sequence randomly from the given set of sequences
      *
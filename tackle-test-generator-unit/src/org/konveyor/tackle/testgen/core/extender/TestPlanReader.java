@@ -0,0 +1,277 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads the CTD test plan (partition --> class --> method --> test plan) from the JSON file written
+ * by the CTD modeler, and provides the test plan one class at a time. By default, the entire test
+ * plan is read into memory. In streaming mode, the file is read with a streaming parser that
+ * materializes the test plan of a single class at a time, so that memory is bounded by the largest
+ * class rather than the entire test plan; the file is then read once for collecting information
+ * about the test plan and once more for each iteration over its classes.
+ */
+class TestPlanReader {
+
+    private static final ObjectMapper mapper = TackleTestJson.getObjectMapper();
+
+    private static final String TEST_PLAN_FIELD = "models_and_test_plans";
+
+    private final File testPlanFile;
+
+    // test plan read into memory (null in streaming mode)
+    private final ObjectNode testPlan;
+
+    private final Set<String> partitions = new HashSet<>();
+    private int numClasses = 0;
+    private int numMethods = 0;
+    private int numTestPlanRows = 0;
+
+    // qualified method signatures (class_name::method_signature) of methods in the test plan
+    private final Set<String> qualifiedMethodSignatures = new HashSet<>();
+
+    // map from qualified method signature to output-formatted method signature
+    private final Map<String, String> formattedMethodSignatures = new HashMap<>();
+
+    /**
+     * Test plan for a class in a partition
+     */
+    static class ClassTestPlan {
+
+        final String partition;
+
+        final String className;
+
+        final ObjectNode testPlan;
+
+        ClassTestPlan(String partition, String className, ObjectNode testPlan) {
+            this.partition = partition;
+            this.className = className;
+            this.testPlan = testPlan;
+        }
+    }
+
+    /**
+     * Creates a reader for the given test plan file and collects information about the test plan
+     *
+     * @param testPlanFile JSON file containing CTD test plans
+     * @param streaming whether to read the test plan one class at a time
+     * @throws IOException if the test plan file could not be read
+     */
+    TestPlanReader(File testPlanFile, boolean streaming) throws IOException {
+        if (!testPlanFile.isFile()) {
+            throw new IOException(testPlanFile.getAbsolutePath() + " is not a valid file");
+        }
+        this.testPlanFile = testPlanFile;
+        this.testPlan = streaming ? null : (ObjectNode) mapper.readTree(testPlanFile).get(TEST_PLAN_FIELD);
+        try {
+            Iterator<ClassTestPlan> classTestPlans = classIterator();
+            while (classTestPlans.hasNext()) {
+                ClassTestPlan classTestPlan = classTestPlans.next();
+                this.partitions.add(classTestPlan.partition);
+                this.numClasses++;
+                classTestPlan.testPlan.fields().forEachRemaining(methodEntry -> {
+                    String qualMethodSig = classTestPlan.className + "::" + methodEntry.getKey();
+                    this.qualifiedMethodSignatures.add(qualMethodSig);
+                    this.formattedMethodSignatures.put(qualMethodSig,
+                        methodEntry.getValue().get("formatted_signature").asText());
+                    this.numTestPlanRows += methodEntry.getValue().get("test_plan").size();
+                    this.numMethods++;
+                });
+            }
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        }
+    }
+
+    int getNumPartitions() {
+        return this.partitions.size();
+    }
+
+    int getNumClasses() {
+        return this.numClasses;
+    }
+
+    int getNumMethods() {
+        return this.numMethods;
+    }
+
+    int getNumTestPlanRows() {
+        return this.numTestPlanRows;
+    }
+
+    Set<String> getQualifiedMethodSignatures() {
+        return this.qualifiedMethodSignatures;
+    }
+
+    Map<String, String> getFormattedMethodSignatures() {
+        return this.formattedMethodSignatures;
+    }
+
+    /**
+     * Returns an iterator over the class test plans, in the order in which they appear in the test
+     * plan file. In streaming mode, errors reading the test plan file are thrown as
+     * {@link UncheckedIOException}.
+     *
+     * @return iterator over class test plans
+     * @throws IOException if the test plan file could not be opened
+     */
+    Iterator<ClassTestPlan> classIterator() throws IOException {
+        if (this.testPlan != null) {
+            return new TreeClassIterator();
+        }
+        return new StreamingClassIterator();
+    }
+
+    /**
+     * Iterates over the classes of the test plan read into memory
+     */
+    private class TreeClassIterator implements Iterator<ClassTestPlan> {
+
+        private final Iterator<String> partitionIter = testPlan.fieldNames();
+        private String partition = null;
+        private Iterator<String> classIter = null;
+
+        @Override
+        public boolean hasNext() {
+            while (this.classIter == null || !this.classIter.hasNext()) {
+                if (!this.partitionIter.hasNext()) {
+                    return false;
+                }
+                this.partition = this.partitionIter.next();
+                this.classIter = testPlan.get(this.partition).fieldNames();
+            }
+            return true;
+        }
+
+        @Override
+        public ClassTestPlan next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String className = this.classIter.next();
+            return new ClassTestPlan(this.partition, className,
+                (ObjectNode) testPlan.get(this.partition).get(className));
+        }
+    }
+
+    /**
+     * Iterates over the classes of the test plan file with a streaming parser, reading the test plan
+     * of one class at a time into memory
+     */
+    private class StreamingClassIterator implements Iterator<ClassTestPlan> {
+
+        private final JsonParser parser;
+        private String partition = null;
+        private ClassTestPlan nextClass = null;
+        private boolean done = false;
+
+        StreamingClassIterator() throws IOException {
+            this.parser = mapper.getFactory().createParser(testPlanFile);
+            try {
+                if (this.parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException(testPlanFile.getAbsolutePath() + " does not contain a JSON object");
+                }
+                // move to the start of the test plan object, skipping other fields
+                while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = this.parser.currentName();
+                    JsonToken valueToken = this.parser.nextToken();
+                    if (fieldName.equals(TEST_PLAN_FIELD) && valueToken == JsonToken.START_OBJECT) {
+                        return;
+                    }
+                    this.parser.skipChildren();
+                }
+                throw new IOException(testPlanFile.getAbsolutePath() + " does not contain a test plan");
+            } catch (IOException ioe) {
+                this.parser.close();
+                throw ioe;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.nextClass == null && !this.done) {
+                try {
+                    this.nextClass = readNextClass();
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            }
+            return this.nextClass != null;
+        }
+
+        @Override
+        public ClassTestPlan next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ClassTestPlan classTestPlan = this.nextClass;
+            this.nextClass = null;
+            return classTestPlan;
+        }
+
+        private ClassTestPlan readNextClass() throws IOException {
+            try {
+                while (true) {
+                    JsonToken token = this.parser.nextToken();
+                    if (token == JsonToken.END_OBJECT) {
+                        if (this.partition == null) {
+                            // end of test plan
+                            this.done = true;
+                            this.parser.close();
+                            return null;
+                        }
+                        // end of partition
+                        this.partition = null;
+                    } else if (token != JsonToken.FIELD_NAME) {
+                        throw new IOException("Unexpected token " + token + " in test plan at " +
+                            this.parser.getCurrentLocation());
+                    } else if (this.partition == null) {
+                        this.partition = this.parser.currentName();
+                        if (this.parser.nextToken() != JsonToken.START_OBJECT) {
+                            throw new IOException("Expected object for partition " + this.partition);
+                        }
+                    } else {
+                        String className = this.parser.currentName();
+                        this.parser.nextToken();
+                        return new ClassTestPlan(this.partition, className, mapper.readTree(this.parser));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                this.done = true;
+                this.parser.close();
+                throw e;
+            }
+        }
+    }
+}
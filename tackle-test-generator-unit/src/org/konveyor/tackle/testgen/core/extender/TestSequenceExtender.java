@@ -19,20 +19,25 @@ package org.konveyor.tackle.testgen.core.extender;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -47,11 +52,21 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.konveyor.tackle.testgen.core.DiffAssertionsGenerator;
 import org.konveyor.tackle.testgen.core.JUnitTestExporter;
+import org.konveyor.tackle.testgen.core.executor.CaptureBudget;
+import org.konveyor.tackle.testgen.core.executor.CompiledSequenceBackend;
+import org.konveyor.tackle.testgen.core.executor.ExecutionLatencyTracker;
+import org.konveyor.tackle.testgen.core.executor.ForkedSequenceExecutionPool;
+import org.konveyor.tackle.testgen.core.executor.InMemoryJavaCompiler;
 import org.konveyor.tackle.testgen.core.executor.JUnitExecutor;
+import org.konveyor.tackle.testgen.core.executor.PersistentJUnitRunner;
+import org.konveyor.tackle.testgen.core.executor.SequenceExecutionService;
 import org.konveyor.tackle.testgen.core.executor.SequenceExecutor;
+import org.konveyor.tackle.testgen.core.executor.SequencePrefixTrie;
+import org.konveyor.tackle.testgen.core.executor.StateCaptureDemand;
 import org.konveyor.tackle.testgen.util.Constants;
 import org.konveyor.tackle.testgen.util.TackleTestJson;
 import org.konveyor.tackle.testgen.util.TackleTestLogger;
+import org.konveyor.tackle.testgen.util.ThreadOutputRouter;
 import org.konveyor.tackle.testgen.util.Utils;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
@@ -67,7 +82,6 @@ import randoop.operation.MethodCall;
 import randoop.operation.OperationParseException;
 import randoop.operation.TypedClassOperation;
 import randoop.operation.TypedOperation;
-import randoop.org.apache.commons.io.output.NullPrintStream;
 import randoop.sequence.Sequence;
 import randoop.sequence.Variable;
 import randoop.types.ArrayType;
@@ -86,10 +100,13 @@ public class TestSequenceExtender {
 
 	private static final Logger logger = TackleTestLogger.getLogger(TestSequenceExtender.class);
 
+	// maximum number of execution results kept for reuse by structurally identical sequences
+	private static final int EXEC_RESULT_CACHE_SIZE = 1000;
+
 	private final static ObjectMapper mapper = TackleTestJson.getObjectMapper();
 
-	// CTD test plan read from the JSON input file
-	private ObjectNode testPlan;
+	// reader for the CTD test plan in the JSON input file
+	private TestPlanReader testPlanReader;
 
 	// initial test sequences read from the JSON input files
 	private List<ObjectNode> initialTestSeqs = new ArrayList<ObjectNode>();
@@ -149,14 +166,11 @@ public class TestSequenceExtender {
 
 	int totalInitSeqs = 0, testPlanMethods = 0, testPlanClasses = 0;
 
-	int classTestPlanRows = 0;
-
-	int classSeqCount = 0;
-	int classBadPathSeqCount = 0;
-
 	int totalSeqCount = 0;
 	int totalBadPathSeqCount = 0;
     int totalTestPlanRows = 0;
+    int totalGeneratedSeqCount = 0;
+    int totalExecutedSeqCount = 0;
 
 	private final boolean jeeSupport;
 
@@ -168,6 +182,99 @@ public class TestSequenceExtender {
 
 	private final int interactionLevel;
 
+	// number of worker threads for each stage of class processing: sequence extension, sequence
+	// execution, assertion generation, and test class export (1 in all stages for serial processing)
+	private int[] stageWorkers = {1, 1, 1, 1};
+
+	// maximum number of classes being processed concurrently (0 for default)
+	private int pipelineCapacity = 0;
+
+	// stdout stream for progress messages, which is not subject to redirection of app output
+	private PrintStream stdout = System.out;
+
+	// whether to skip classes completed in an earlier run, restoring their results from checkpoints
+	private boolean resume = false;
+
+	// whether to skip classes whose inputs are unchanged since the previous run, restoring their
+	// results from checkpoints
+	private boolean incremental = false;
+
+	// checkpoints for completed classes
+	private ClassCheckpointStore checkpointStore;
+
+	// fingerprints of class inputs, for detecting classes whose inputs changed since an earlier run
+	private ClassFingerprinter classFingerprinter;
+
+	// pool of worker threads on which extended sequences are executed
+	private SequenceExecutionService executionService;
+
+	// whether to spill the sequences of each class to disk once the class is written, instead of
+	// keeping sequences, execution results, and code strings in memory for the entire run
+	private boolean memoryBounded = false;
+
+	// adaptive repetition of sequence executions: number of consecutive executions with identical
+	// recorded state after which executions stop (0 disables adaptive repetition), and number of
+	// executions for sequences whose recorded state changes between executions
+	private int stableExecutions = 0;
+	private int escalatedExecutions = 0;
+
+	// number of worker JVMs in which sequences are executed (0 executes sequences in-process), and
+	// number of sequences executed by a worker JVM before it is restarted
+	private int forkedWorkers = 0;
+	private int workerRestartInterval = ForkedSequenceExecutionPool.DEFAULT_RESTART_INTERVAL;
+
+	// pool of worker JVMs in which sequences are executed (if forked execution is enabled)
+	private ForkedSequenceExecutionPool forkedExecutionPool;
+
+	// whether time limits for sequence executions are derived from the execution times observed for
+	// the target class and method, and the tracker of execution times (if enabled)
+	private boolean adaptiveTimeout = false;
+	private ExecutionLatencyTracker latencyTracker;
+
+	// bounds on the cost of recording the state of runtime objects during sequence execution
+	private CaptureBudget captureBudget = CaptureBudget.UNLIMITED;
+
+	// whether sequences of a class that share a prefix reuse the recorded results of the prefix
+	private boolean prefixTrieExecution = false;
+
+	// whether sequences are compiled into classes and executed as compiled code, and the compiler of
+	// sequences, shared by all classes (if enabled)
+	private boolean compiledExecution = false;
+	private InMemoryJavaCompiler sequenceCompiler;
+
+	// whether failing sequences of several classes are rerun under JEE support in one batch, and the
+	// number of classes per batch (0 for all classes of a partition)
+	private boolean jeeBatching = false;
+	private int jeeBatchSize = 0;
+
+	// classes whose JEE reruns, and the merge of their coverage and summaries, are deferred to the
+	// next batch; their sequences are merged, and released except for the failed ones, when they
+	// are added to the batch
+	private final List<ClassExtensionContext> jeeBatch = new ArrayList<>();
+
+	// classifier that predicts which failed sequences can pass under JEE support (null to rerun all
+	// failed sequences), and the outcomes of JEE reruns over the runs of the extender
+	private JEERerunClassifier jeeRerunClassifier = null;
+	private JEERerunHistory jeeRerunHistory;
+
+	// on-disk store for sequences of completed classes (in memory-bounded mode)
+	private SequenceSpillStore spillStore;
+
+	// execution results of recently executed sequences, keyed by canonical sequence fingerprint;
+	// structurally identical sequences (e.g., created for different test plan rows) reuse the results
+	// of the first execution instead of being executed again. Entries hold the pending results of an
+	// execution, so that a sequence being executed by one class worker is not executed again by another;
+	// results of executions that did not complete (e.g., timed out) are not kept
+	private final Map<String, CompletableFuture<SequenceExecutor.SequenceResults>> execResultCache =
+		Collections.synchronizedMap(
+			new LinkedHashMap<String, CompletableFuture<SequenceExecutor.SequenceResults>>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(
+					Map.Entry<String, CompletableFuture<SequenceExecutor.SequenceResults>> eldest) {
+					return size() > EXEC_RESULT_CACHE_SIZE;
+				}
+			});
+
 	public HashMap<String, SortedSet<Sequence>> getClassTestSequencePool() {
 		return sequencePool.classTestSeqPool;
 	}
@@ -185,9 +292,26 @@ public class TestSequenceExtender {
 	}
 
 	public Sequence getSequenceForID(String seqID) {
+		if (this.spillStore != null) {
+			return this.spillStore.readSequence(seqID);
+		}
 		return this.seqIdMap.get(seqID);
 	}
 
+	/**
+	 * Removes the sequences spilled to disk in memory-bounded mode, once they are no longer needed;
+	 * they can then no longer be retrieved via {@link #getSequenceForID(String)}
+	 */
+	public void deleteSpilledSequences() {
+		if (this.spillStore != null) {
+			try {
+				this.spillStore.delete();
+			} catch (IOException e) {
+				logger.warning("Error removing spilled sequences: " + e);
+			}
+		}
+	}
+
 	public HashMap<String, Integer> getParseExceptions() {
 		return sequencePool.parseExceptions;
 	}
@@ -207,6 +331,24 @@ public class TestSequenceExtender {
 	public TestSequenceExtender(String appName, String testPlanFilename, String testSeqFilename,
                                 boolean mineConstructorSequences, String outputDir, boolean jee, int numExecutions,
                                 boolean diffAssertions, int outputCoveredInteraction, boolean badPath) throws IOException {
+		this(appName, testPlanFilename, testSeqFilename, mineConstructorSequences, outputDir, jee, numExecutions,
+			diffAssertions, outputCoveredInteraction, badPath, false);
+	}
+
+	/**
+	 * Constructor for TestSequenceExtender
+	 *
+	 * @param appName          The name of the application under test
+	 * @param testPlanFilename JSON file containing CTD test plans
+	 * @param testSeqFilename  JSON file containing initial test sequences
+	 * @param streamTestPlan   Whether to read the test plan one class at a time instead of reading
+	 *                         the entire test plan into memory
+	 * @throws IOException
+	 */
+	public TestSequenceExtender(String appName, String testPlanFilename, String testSeqFilename,
+                                boolean mineConstructorSequences, String outputDir, boolean jee, int numExecutions,
+                                boolean diffAssertions, int outputCoveredInteraction, boolean badPath,
+                                boolean streamTestPlan) throws IOException {
 
 		this.applicationName = appName;
 		this.jeeSupport = jee;
@@ -224,25 +366,12 @@ public class TestSequenceExtender {
         }
 
 		// read test plan from JSON file
-		File testPlanFile = new File(testPlanFilename);
-		if (!testPlanFile.isFile()) {
-			throw new IOException(testPlanFile.getAbsolutePath() + " is not a valid file");
-		}
-		this.testPlan = (ObjectNode) mapper.readTree(testPlanFile).get("models_and_test_plans");
+		this.testPlanReader = new TestPlanReader(new File(testPlanFilename), streamTestPlan);
 
 		// create set of targeted proxy methods
-		this.tgtProxyMethodSignatures = new HashSet<>();
-		this.testPlan.fieldNames().forEachRemaining(partitionName -> {
-		    ObjectNode partitionTestPlan = (ObjectNode) this.testPlan.get(partitionName);
-		    partitionTestPlan.fieldNames().forEachRemaining(className -> {
-		        testPlanClasses++;
-		        ObjectNode classTestPlan = (ObjectNode) partitionTestPlan.get(className);
-		        classTestPlan.fieldNames().forEachRemaining(methodSig -> {
-		            this.tgtProxyMethodSignatures.add(className+"::"+methodSig);
-		            testPlanMethods++;
-                });
-            });
-        });
+		this.tgtProxyMethodSignatures = this.testPlanReader.getQualifiedMethodSignatures();
+		testPlanClasses = this.testPlanReader.getNumClasses();
+		testPlanMethods = this.testPlanReader.getNumMethods();
         System.out.println("* Read test plans for: " + testPlanClasses + " classes, "+
             testPlanMethods + " methods");
 
@@ -266,12 +395,14 @@ public class TestSequenceExtender {
         System.out.println("* Starting sequence parsing");
 
         // create extension summary object
-        this.extSummary = new ExtenderSummary(this.testPlan);
+        this.extSummary = new ExtenderSummary(this.testPlanReader);
         this.extSummary.tway = interactionLevel;
 
 		// create sequence pool for classes and targeted proxy methods
+        PhaseTimings.Stopwatch poolStopwatch = PhaseTimings.start();
         this.sequencePool = new SequencePool(this.initialTestSeqs, this.tgtProxyMethodSignatures, appName);
         augmentClassSequencePool();
+        this.extSummary.getTimings().add(PhaseTimings.Phase.POOL_INITIALIZATION, poolStopwatch);
         this.extSummary.setSequencePool(this.sequencePool);
 
         System.out.println("* Parsed initial test sequences for "+
@@ -289,29 +420,234 @@ public class TestSequenceExtender {
 
 	}
 
-	// boolean flag to keep track of whether a test plan row is partially covered
-	private boolean rowPartiallyCovered = false;
+	/**
+	 * Sets the number of worker threads used in each stage of class processing. With a single
+	 * worker (the default), classes are processed serially on the calling thread.
+	 *
+	 * @param numWorkers number of worker threads per stage
+	 */
+	public void setNumWorkers(int numWorkers) {
+		setStageWorkers(numWorkers, numWorkers, numWorkers, numWorkers);
+	}
+
+	/**
+	 * Sets the number of worker threads used in each stage of class processing. If any stage has
+	 * more than one worker, classes are processed in a pipeline, so that the stages for different
+	 * classes overlap (e.g., extension of a class overlaps execution of sequences of the previous class).
+	 *
+	 * @param extendWorkers number of worker threads for creating extended sequences
+	 * @param executeWorkers number of worker threads for executing extended sequences
+	 * @param assertWorkers number of worker threads for adding diff assertions
+	 * @param writeWorkers number of worker threads for writing test classes
+	 */
+	public void setStageWorkers(int extendWorkers, int executeWorkers, int assertWorkers, int writeWorkers) {
+		int[] workers = {extendWorkers, executeWorkers, assertWorkers, writeWorkers};
+		for (int numWorkers : workers) {
+			if (numWorkers < 1) {
+				throw new IllegalArgumentException("Number of workers must be positive: " + numWorkers);
+			}
+		}
+		this.stageWorkers = workers;
+	}
+
+	/**
+	 * Sets the maximum number of classes that are processed concurrently, which bounds the memory
+	 * held by classes in flight. By default, the capacity is twice the largest number of stage workers.
+	 *
+	 * @param pipelineCapacity maximum number of classes in flight
+	 */
+	public void setPipelineCapacity(int pipelineCapacity) {
+		if (pipelineCapacity < 1) {
+			throw new IllegalArgumentException("Pipeline capacity must be positive: " + pipelineCapacity);
+		}
+		this.pipelineCapacity = pipelineCapacity;
+	}
+
+	/**
+	 * Sets whether to resume an earlier, interrupted run: classes for which a checkpoint was written
+	 * in the earlier run are not processed again, and their results are restored from the checkpoints.
+	 * Unless resuming or running incrementally, the checkpoints of earlier runs are removed.
+	 *
+	 * @param resume whether to resume an earlier run
+	 */
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+
+	/**
+	 * Sets whether to run incrementally: classes whose inputs (CTD test plan, building-block
+	 * sequences and imports, bytecode, and extender options) are unchanged since the previous run
+	 * are not extended again, and their test files and coverage are reused from the previous run.
+	 * Resuming an interrupted run likewise restores only classes whose inputs are unchanged.
+	 *
+	 * @param incremental whether to run incrementally
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Enables adaptive repetition of sequence executions, which are otherwise repeated the number of
+	 * times given at construction for detecting random values: executions of a passing sequence stop
+	 * once its recorded state has been identical for the given number of consecutive executions, and
+	 * sequences whose recorded state changes between executions are executed up to the given
+	 * escalated number of times.
+	 *
+	 * @param stableExecutions number of consecutive executions with identical recorded state after
+	 * which executions stop; 0 disables adaptive repetition
+	 * @param escalatedExecutions number of executions for sequences whose recorded state changes
+	 */
+	public void setAdaptiveRepetition(int stableExecutions, int escalatedExecutions) {
+		if (stableExecutions < 0) {
+			throw new IllegalArgumentException("Number of stable executions must not be negative: " + stableExecutions);
+		}
+		this.stableExecutions = stableExecutions;
+		this.escalatedExecutions = escalatedExecutions;
+	}
+
+	/**
+	 * Enables execution of sequences in a pool of worker JVMs, which isolates the extender from
+	 * crashes, hangs, and static state of the application code. Worker JVMs are started with the
+	 * classpath of the extender, and are restarted after executing the given number of sequences.
+	 *
+	 * @param forkedWorkers number of worker JVMs; 0 executes sequences in-process
+	 * @param workerRestartInterval number of sequences executed by a worker JVM before it is restarted
+	 */
+	public void setForkedExecution(int forkedWorkers, int workerRestartInterval) {
+		if (forkedWorkers < 0) {
+			throw new IllegalArgumentException("Number of worker JVMs must not be negative: " + forkedWorkers);
+		}
+		if (workerRestartInterval < 1) {
+			throw new IllegalArgumentException("Worker restart interval must be positive: " + workerRestartInterval);
+		}
+		this.forkedWorkers = forkedWorkers;
+		this.workerRestartInterval = workerRestartInterval;
+	}
+
+	/**
+	 * Sets whether to derive time limits for sequence executions from the execution times observed
+	 * for the target class and method (a high percentile times a safety factor, within bounds), instead
+	 * of applying a fixed time limit of {@link SequenceExecutor#SINGLE_EXECUTION_SEC_LIMIT} seconds.
+	 * The number of sequences cut off by an adaptive limit is reported in the summary. Adaptive limits
+	 * do not apply to sequences executed in forked worker JVMs.
+	 *
+	 * @param adaptiveTimeout whether to apply adaptive time limits
+	 */
+	public void setAdaptiveTimeout(boolean adaptiveTimeout) {
+		this.adaptiveTimeout = adaptiveTimeout;
+	}
+
+	/**
+	 * Sets the budget for recording the state of runtime objects during sequence execution: the
+	 * maximum number of fields per object, the maximum size of the recorded state of an object, and
+	 * the time spent recording state per sequence execution. Objects over budget are recorded by type
+	 * only, so that no diff assertions are generated on their state; the number of such objects is
+	 * reported in the summary.
+	 *
+	 * @param captureBudget capture budget
+	 */
+	public void setCaptureBudget(CaptureBudget captureBudget) {
+		this.captureBudget = captureBudget;
+	}
+
+	/**
+	 * Sets whether the extended sequences of a class are executed through a prefix trie: sequences that
+	 * share a prefix (typically, the construction of the receiver object) reuse the results recorded for
+	 * the prefix by the first such sequence, instead of recording the state of the prefix objects again
+	 * in each of their executions. The number of reused statement results is reported in the summary.
+	 * Prefix reuse does not apply to sequences executed in forked worker JVMs.
+	 *
+	 * @param prefixTrieExecution whether to reuse the recorded results of shared prefixes
+	 */
+	public void setPrefixTrieExecution(boolean prefixTrieExecution) {
+		this.prefixTrieExecution = prefixTrieExecution;
+	}
+
+	/**
+	 * Sets whether extended sequences are compiled into classes and executed as compiled code, instead
+	 * of being interpreted reflectively: the sequences of each method are compiled in one batch before
+	 * they are executed, so that their repeated executions run at the speed of compiled code. Sequences
+	 * that do not compile (e.g., because they access non-public members) are executed reflectively.
+	 * Compiled execution does not apply to sequences executed in forked worker JVMs, and requires a JDK.
+	 *
+	 * @param compiledExecution whether to execute sequences as compiled code
+	 */
+	public void setCompiledExecution(boolean compiledExecution) {
+		this.compiledExecution = compiledExecution;
+	}
+
+	/**
+	 * Sets whether the JUnit tests with which failing sequences are rerun under EvoSuite JEE support are
+	 * compiled in memory, with a compiler shared by all classes, instead of being written to the output
+	 * directory and compiled from there; test classes are then written to the output directory only if
+	 * some of their tests pass. Requires a JDK.
+	 *
+	 * @param inMemoryCompilation whether to compile JEE unit tests in memory
+	 */
+	public void setJEEInMemoryCompilation(boolean inMemoryCompilation) {
+		this.junitExecutor.setInMemoryCompilation(inMemoryCompilation);
+	}
+
+	/**
+	 * Sets whether the JUnit tests with which failing sequences are rerun under EvoSuite JEE support are
+	 * run in persistent runner JVMs, instead of in a JVM of their own per class, so that JVM startup and
+	 * EvoSuite runtime initialization are not paid for each class. Runner JVMs are restarted after the
+	 * given number of test classes, or when they run out of resources.
+	 *
+	 * @param restartInterval number of test classes run by a runner JVM before it is restarted
+	 */
+	public void setJEEPersistentRunner(int restartInterval) {
+		this.junitExecutor.setPersistentRunner(restartInterval);
+	}
+
+	/**
+	 * Sets whether failing sequences are rerun under EvoSuite JEE support in batches of classes,
+	 * instead of class by class: the JUnit tests of all classes of a batch are compiled together, in
+	 * one compiler invocation, and run together, in one JVM or one persistent runner request, and
+	 * their results are mapped back to the coverage of each class. Batches consist of all classes of
+	 * a partition, or of the given number of consecutive classes of a partition. The sequences of a
+	 * class are merged when the class is added to a batch, and only its failed sequences are held
+	 * until the batch is run; the merge of its coverage and summary is deferred until then.
+	 *
+	 * @param batchSize number of classes per batch, or 0 for all classes of a partition
+	 */
+	public void setJEEBatching(int batchSize) {
+		if (batchSize < 0) {
+			throw new IllegalArgumentException("JEE batch size must not be negative: " + batchSize);
+		}
+		this.jeeBatching = true;
+		this.jeeBatchSize = batchSize;
+	}
+
+	/**
+	 * Sets the classifier that predicts, from the cause of the failure of a sequence, whether the
+	 * sequence can pass under EvoSuite JEE support: only failed sequences predicted to pass are rerun
+	 * with JEE support. The reruns avoided, and the hit rates of reruns of the same failure categories
+	 * in earlier runs, are reported in the summary.
+	 *
+	 * @param jeeRerunClassifier classifier of failed sequences, or null to rerun all failed sequences
+	 */
+	public void setJEERerunClassifier(JEERerunClassifier jeeRerunClassifier) {
+		this.jeeRerunClassifier = jeeRerunClassifier;
+	}
+
+	/**
+	 * Sets whether to bound memory use by the results of completed classes: once the test file and
+	 * coverage of a class are written, its extended sequences are spilled to a compact on-disk store,
+	 * and its execution results, code strings, and sequence targets are released, so that memory use
+	 * does not grow with the number of classes. Sequences are still available via
+	 * {@link #getSequenceForID(String)}, which reads them from the store.
+	 *
+	 * @param memoryBounded whether to spill the sequences of completed classes
+	 */
+	public void setMemoryBounded(boolean memoryBounded) {
+		this.memoryBounded = memoryBounded;
+	}
 
-	private ArrayNode[] currTestPlanRows = null;
-	private ArrayNode currModelDef = null;
-	private int currTestPlanRowIndex = -1;
-	private int currTestPlanRowParamIndex = -1;
     private int assertionCount = 0;
     private int testClassCount = 0;
     private int testMethodCount = 0;
 
-    /**
-     * Information needed for execution with JEE support for failing  test sequences generated
-     * for a class
-     */
-	private class JEEExecutionInfo {
-        List<String> failedSeqIds = new ArrayList<String>(); // we'll later try to run these via Junit
-        Map<String, Boolean> seqIdToPartial = new HashMap<String, Boolean>();
-        Map<String, String> seqIdToRowId = new HashMap<String, String>();
-        Map<String, Map<String, Constants.TestPlanRowCoverage>> seqIdToCovInfo =
-            new HashMap<String, Map<String, Constants.TestPlanRowCoverage>>();
-    }
-
 	/**
 	 * Creates test sequences for covering the CTD test plan for each target proxy
 	 * method. For a proxy method and test-plan row, selects an initial sequence
@@ -321,202 +657,161 @@ public class TestSequenceExtender {
 	 */
 	public Map<String, Map<String, Set<String>>> createExtendedSequences() {
 
-		// mapping from qualified method signatures to output-formatted method signature
-        Map<String, String> formattedMethodSigMap = getQualifiedToFormattedMethodSignatureMap();
-
-        // iterate over each partition
-        this.testPlan.fieldNames().forEachRemaining(partition -> {
+        long runStartNanos = System.nanoTime();
 
-            System.out.println("* Partition: " + partition);
+		// mapping from qualified method signatures to output-formatted method signature
+        Map<String, String> formattedMethodSigMap = this.testPlanReader.getFormattedMethodSignatures();
+
+        // restore results for classes completed in an earlier run, or start over; fingerprints of
+        // the class inputs are computed before any class is extended, as extension updates the
+        // sequence pool
+        this.classFingerprinter = new ClassFingerprinter(this.sequencePool, getConfiguration());
+        this.checkpointStore = new ClassCheckpointStore(this.applicationName);
+        boolean restoreClasses = this.resume || this.incremental;
+        if (this.memoryBounded) {
+            try {
+                this.spillStore = new SequenceSpillStore(this.applicationName);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error removing spilled sequences of earlier run", e);
+            }
+        }
+        if (this.jeeSupport) {
+            this.jeeRerunHistory = new JEERerunHistory(this.applicationName);
+            this.extSummary.setJEERerunInfo(this.jeeRerunHistory, this.jeeRerunClassifier);
+        }
+        if (this.resume) {
+            System.out.println("* Resuming from checkpoints of earlier run");
+        } else if (this.incremental) {
+            System.out.println("* Reusing results of previous run for classes with unchanged inputs");
+        } else {
+            try {
+                this.checkpointStore.clear();
+            } catch (IOException e) {
+                logger.warning("Error removing checkpoints of earlier run: " + e);
+            }
+        }
 
-            // initialize extended sequence info for partition
-            if (!this.extTestSeq.containsKey(partition)) {
-                this.extTestSeq.put(partition, new HashMap<>());
+        // create extension context for each class in each partition, in test plan order; the
+        // contexts are created as classes are read from the test plan
+        boolean concurrent = Arrays.stream(this.stageWorkers).anyMatch(numWorkers -> numWorkers > 1);
+        Iterator<TestPlanReader.ClassTestPlan> classTestPlans;
+        try {
+            classTestPlans = this.testPlanReader.classIterator();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading test plan", e);
+        }
+        Iterator<ClassExtensionContext> classContexts = new Iterator<ClassExtensionContext>() {
+            @Override
+            public boolean hasNext() {
+                return classTestPlans.hasNext();
             }
 
-            // get test plan info for partition
-            ObjectNode partitionTestPlan = (ObjectNode) this.testPlan.get(partition);
-
-            // Initialize data structure for collecting CTD coverage
-            Map<String, Map<String, Pair<Double, Double>>> classCTDCovInfo = new HashMap<>();
-
-            // iterate over each class in partition
-            partitionTestPlan.fieldNames().forEachRemaining(className -> {
-
-                System.out.println("* Processing class " + className);
-                
-                // get test plan info for class
-                ObjectNode classTestPlan = (ObjectNode) partitionTestPlan.get(className);
-
-                System.out.print("*   " + classTestPlan.size() + " methods ");
-                classSeqCount = 0;
-                classBadPathSeqCount = 0;
-                classTestPlanRows = 0;
-
-                // initialize data structures needed for JEE trial for failing extended sequences for class
-                JEEExecutionInfo classJEEExecInfo = new JEEExecutionInfo();
-
-                // Initialize data structure for collecting CTD coverage
-                Map<String, Pair<Double, Double>> methodCTDCovInfo = new HashMap<>();
-
-                // map from method signatures to sequence IDs for methods in the class
-                Map<String, List<String>> classSeqIdMap = new HashMap<>();
-
-               // Map from method signatures to bad path sequence IDs
-
-                Map<String, List<String>> badPathSeqIdMap = new HashMap<>();
-
-                // iterate over each method in class
-                classTestPlan.fieldNames().forEachRemaining(methodSig -> {
-                	
-                    System.out.print(".");
-                    
-                    // get test plan rows for method
-                    ObjectNode methodTestPlan = (ObjectNode) classTestPlan.get(methodSig);
-                    currTestPlanRows = mapper.convertValue(methodTestPlan.get("test_plan"), new TypeReference<ArrayNode[]>() {
-                    });
-                    currModelDef = mapper.convertValue(methodTestPlan.get("attributes"), new TypeReference<ArrayNode>() {
-                    });
-                    classTestPlanRows += currTestPlanRows.length;
-
-                    // method signature qualified with the class name
-                    String qualMethodSig = className + "::" + methodSig;
-
-                    // get initialized coverage info for proxy method
-                    String[] msigTokens = formattedMethodSigMap.get(qualMethodSig).split(" ");
-                    String methodSigCovFmt = (msigTokens.length == 1) ? msigTokens[0] : msigTokens[1];
-                    Map<String, Constants.TestPlanRowCoverage> methodCovInfo = getProxyMethodCovInfo(partition,
-                        className, methodSigCovFmt, currTestPlanRows);
-
-                    // get target method signature in format needed for creating Randoop statements
-                    // create randoop's MethodCall object for target method or constructor
-                    String parseableMethodSig = qualMethodSig;
-                    TypedClassOperation tgtMethodCall;
-                    try {
-                        Pair<String, TypedClassOperation> methodSigTgtCallPair =
-                            getTargetMethodCall(className, formattedMethodSigMap.get(qualMethodSig));
-                        parseableMethodSig = methodSigTgtCallPair.a;
-                        tgtMethodCall = methodSigTgtCallPair.b;
-                    } catch (OperationParseException ope) {
-                        logger.warning("Error parsing: " + parseableMethodSig);
-                        this.extSummary.uncovTestPlanRows__excp += currTestPlanRows.length;
-                        this.extSummary.uncovTestPlanRows__excp__OperationParse += currTestPlanRows.length;
-                        for (int rowCtr = 1; rowCtr <= currTestPlanRows.length; rowCtr++) {
-                            methodCovInfo.put(getTestPlanRowId(rowCtr), Constants.TestPlanRowCoverage.UNCOVERED_EXCP);
-                        }
-                        return;
-                    } catch (NoClassDefFoundError ncdf) {
-                        String errmsg = "Error parsing: " + parseableMethodSig + "\n" + ncdf;
-                        logger.warning(errmsg);
-                        this.extSummary.uncovTestPlanRows__excp += currTestPlanRows.length;
-                        this.extSummary.uncovTestPlanRows__excp__ClassNotFound += currTestPlanRows.length;
-                        this.extSummary.classNotFoundTypes.add(ncdf.getMessage());
-                        for (int rowCtr = 1; rowCtr <= currTestPlanRows.length; rowCtr++) {
-                            methodCovInfo.put(getTestPlanRowId(rowCtr), Constants.TestPlanRowCoverage.UNCOVERED_EXCP);
-                        }
-                        return;
-                    }
+            @Override
+            public ClassExtensionContext next() {
+                return createClassContext(classTestPlans.next(), concurrent, restoreClasses);
+            }
+        };
 
-                    // if method is non-static/constructor and no test sequence exists for it in the
-                    // sequence pool (i.e., a sequence that creates the receiver object), skip method
-                    if (!tgtMethodCall.isStatic() && !tgtMethodCall.isConstructorCall()) {
-                        if (!this.sequencePool.methodTestSeqPool.containsKey(qualMethodSig)
-                            && !this.sequencePool.classTestSeqPool.containsKey(className)) {
-                            logger.warning("No initial method/class sequence exists for target method " +
-                                qualMethodSig + " skipping");
-                            this.extSummary.uncovTestPlanRows__noInitSeq += currTestPlanRows.length;
-                            for (int rowCtr = 1; rowCtr <= currTestPlanRows.length; rowCtr++) {
-                                methodCovInfo.put(getTestPlanRowId(rowCtr),
-                                    Constants.TestPlanRowCoverage.UNCOVERED_NO_INIT_SEQ);
-                            }
-                            return;
-                        }
+        // sequences of all classes are executed on a shared pool of workers, one per execution stage worker
+        this.executionService = new SequenceExecutionService(this.stageWorkers[1]);
+        if (this.adaptiveTimeout) {
+            // execution times are shared by all classes, as classes can be targeted by sequences of other classes
+            this.latencyTracker = new ExecutionLatencyTracker(SequenceExecutor.SINGLE_EXECUTION_SEC_LIMIT);
+        }
+        if (this.forkedWorkers > 0) {
+            try {
+                this.forkedExecutionPool = new ForkedSequenceExecutionPool(this.forkedWorkers,
+                    this.workerRestartInterval, System.getProperty("java.class.path"));
+                this.forkedExecutionPool.setCaptureBudget(this.captureBudget);
+            } catch (IOException e) {
+                this.executionService.close();
+                throw new UncheckedIOException("Error starting sequence execution worker JVMs", e);
+            }
+        }
+        if (this.compiledExecution) {
+            if (InMemoryJavaCompiler.isAvailable()) {
+                // the classpath is indexed once, and shared by the compilations of all classes
+                this.sequenceCompiler = new InMemoryJavaCompiler(System.getProperty("java.class.path"));
+            } else {
+                logger.warning("No Java compiler available; executing sequences reflectively");
+            }
+        }
+        try {
+            this.stdout = ThreadOutputRouter.getStdout();
+            if (!concurrent) {
+                // process each class and merge its results before moving on to the next class
+                while (classContexts.hasNext()) {
+                    ClassExtensionContext classContext = classContexts.next();
+                    if (!classContext.restored) {
+                        extendClass(classContext, formattedMethodSigMap);
+                        executeClass(classContext);
+                        addClassAssertions(classContext);
+                        writeClass(classContext);
                     }
-
-                    // create extended test sequences for method
-                    List<String> methodSeqIds = createExtendedSequencesForMethod(partition, qualMethodSig,
-                        parseableMethodSig, tgtMethodCall, classJEEExecInfo, badPathSeqIdMap, methodCovInfo, methodCTDCovInfo);
-                    classSeqCount += methodSeqIds.size();
-                    classBadPathSeqCount += badPathSeqIdMap.containsKey(methodSig)? badPathSeqIdMap.get(methodSig).size() : 0;
-
-                    // create string representation of sequences and add to class sequence map
-//                    List<String> methodSeqStr = methodSeqIds.stream()
-//                        .map(seqid -> this.seqIdMap.get(seqid).toCodeString().replaceAll("<Capture\\d+(,Capture\\d+)*>", ""))
-//                        .collect(Collectors.toList());
-//                    classSeqIdMap.put(methodSig, methodSeqStr);
-
-                    classSeqIdMap.put(methodSig, methodSeqIds);
-                });
-
-                if (jeeSupport && !classJEEExecInfo.failedSeqIds.isEmpty()) {
-                    PrintStream origSysOut = System.out;
-                    PrintStream origSysErr = System.err;
-                    System.setOut(NullPrintStream.NULL_PRINT_STREAM);
-                    System.setErr(NullPrintStream.NULL_PRINT_STREAM);
-                    this.junitExecutor.runFailedwithJEESupport(classJEEExecInfo.failedSeqIds, partition,
-                        className, classJEEExecInfo.seqIdToPartial, classJEEExecInfo.seqIdToRowId,
-                        classJEEExecInfo.seqIdToCovInfo, this.seqIdMap, this.extSummary);
-                    System.setOut(origSysOut);
-                    System.setErr(origSysErr);
-                }
-
-                if (!methodCTDCovInfo.isEmpty()) {
-                    classCTDCovInfo.put(className, methodCTDCovInfo);
-                }
-
-                totalTestPlanRows += classTestPlanRows;
-                totalSeqCount += classSeqCount;
-                totalBadPathSeqCount += classBadPathSeqCount;
-
-                System.out.println("");
-                System.out.println("*   generated " + classSeqCount + " test sequences");
-                if (totalBadPathSeqCount > 0) {
-                	System.out.println("*   generated " + classBadPathSeqCount + " bad path test sequences");
-                }
-                System.out.print("*   -- class test-plan coverage rate: ");
-                if (classTestPlanRows > 0) {
-                    System.out.print(String.format("%.2f",
-                        ((double) classSeqCount * 100) / ((double) classTestPlanRows)) + "% ");
+                    mergeClassResults(classContext);
                 }
-                System.out.println("(" + classSeqCount + "/" + classTestPlanRows + ")");
-
-                // add diff assertions if option specified
-                if (this.diffAssertions) {
-                	List<String> seqIds = classSeqIdMap.values().stream()
-                            .flatMap(mseq -> mseq.stream())
-                            .collect(Collectors.toList());
-                	if (classBadPathSeqCount > 0) {
-                		logger.info("generating assertions for "+badPathSeqIdMap.size()+" bad path sequences");
-                		seqIds.addAll(badPathSeqIdMap.values().stream()
-                            .flatMap(mseq -> mseq.stream())
-                            .collect(Collectors.toList()));
-                	}
-                    assertionCount += addDiffAssertions(seqIds);
+                runJEEBatch();
+            } else {
+                // process classes in a pipeline and merge their results in test plan order; app output
+                // is discarded per thread, so that it does not interfere across pipeline stages
+                int capacity = this.pipelineCapacity > 0 ? this.pipelineCapacity :
+                    2 * Arrays.stream(this.stageWorkers).max().getAsInt();
+                ClassExtensionPipeline pipeline = new ClassExtensionPipeline(capacity)
+                    .addStage(classContext -> extendClass(classContext, formattedMethodSigMap), this.stageWorkers[0])
+                    .addStage(this::executeClass, this.stageWorkers[1])
+                    .addStage(this::addClassAssertions, this.stageWorkers[2])
+                    .addStage(this::writeClass, this.stageWorkers[3]);
+                try {
+                    pipeline.run(classContexts, this::mergeClassResults);
+                    runJEEBatch();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while extending sequences", ie);
                 }
-
-                // write test sequences to test class file
-				if (classSeqCount > 0) {
-					try {
-						writeTestClass(className, classSeqIdMap, partition, false);
-					} catch (IOException e) {
-						logger.warning("Error writing test class for " + className + ": " + e);
-					}
+            }
+            this.extSummary.setRunWallNanos(System.nanoTime() - runStartNanos);
+            SequenceExecutionService.Statistics execStats = this.executionService.getStatistics();
+            this.extSummary.setExecutionStatistics(execStats);
+            System.out.println("* sequence execution: " + execStats);
+            if (this.forkedExecutionPool != null) {
+                ForkedSequenceExecutionPool.Statistics forkedExecStats = this.forkedExecutionPool.getStatistics();
+                this.extSummary.setForkedExecutionStatistics(forkedExecStats);
+                System.out.println("* forked sequence execution: " + forkedExecStats);
+            }
+            if (this.jeeSupport) {
+                JUnitExecutor.Statistics jeeExecStats = this.junitExecutor.getStatistics();
+                this.extSummary.setJEEExecutionStatistics(jeeExecStats);
+                System.out.println("* JEE unit test execution: " + jeeExecStats);
+            }
+        } finally {
+            this.executionService.close();
+            if (this.forkedExecutionPool != null) {
+                this.forkedExecutionPool.close();
+            }
+            if (this.sequenceCompiler != null) {
+                try {
+                    this.sequenceCompiler.close();
+                } catch (IOException e) {
+                    logger.warning("Error closing sequence compiler: " + e);
                 }
-                // write test sequences to bad path test class file
-				if (classBadPathSeqCount > 0) {
-					try {
-						writeTestClass(className, badPathSeqIdMap, partition, true);
-					} catch (IOException e) {
-						logger.warning("Error writing bad path test class for " + className + ": " + e);
-					}
-				}
-            });
-
-            if (!classCTDCovInfo.isEmpty()) {
-                ctdCoverageInfo.put(partition, classCTDCovInfo);
             }
+            try {
+                this.junitExecutor.close();
+            } catch (IOException e) {
+                logger.warning("Error closing JEE unit test compiler: " + e);
+            }
+        }
+
+        if (restoreClasses) {
+            System.out.println("* restored " + this.restoredClassCount + " of " + testPlanClasses +
+                " classes from checkpoints");
+            this.extSummary.setCheckpointInfo(this.restoredClassCount, this.checkpointStore.getRejectedCheckpoints());
+        }
+        if (this.spillStore != null) {
+            this.extSummary.setSpillInfo(this.spillStore.getSpilledClasses(), this.spillStore.getSpilledSequences(),
+                this.spillStore.getSpilledBytes());
+        }
 
-		});
         double totalCovRate = (double)totalSeqCount * 100 / (double)totalTestPlanRows;
         System.out.println("* === total CTD test-plan coverage rate: "+
             String.format("%.2f", totalCovRate)+"% ("+totalSeqCount+"/"+totalTestPlanRows+")");
@@ -532,13 +827,22 @@ public class TestSequenceExtender {
 
         // write summary JSON file
 		try {
-            this.extSummary.writeSummaryFile(this.applicationName, this.seqIdMap, this.extTestSeq,
-            		this.execExtSeq, assertionCount);
+            this.extSummary.writeSummaryFile(this.applicationName, this.totalGeneratedSeqCount,
+            		this.totalExecutedSeqCount, this.extTestSeq, assertionCount);
             System.out.println("* wrote summary file for generation of CTD-amplified tests (JSON)");
         } catch (IOException fnfe) {
 		    logger.warning("Error writing summary JSON: "+fnfe);
         }
 
+        // add outcomes of JEE reruns of this run to those of earlier runs
+        if (this.jeeRerunHistory != null) {
+            try {
+                this.jeeRerunHistory.write();
+            } catch (IOException e) {
+                logger.warning("Error writing JEE rerun history: "+e);
+            }
+        }
+
 		// print summary to stdout
 //        this.extSummary.printSummaryInfo(this.seqIdMap, this.extTestSeq, this.execExtSeq,
 //            this.discardedExtSeq, assertionCount);
@@ -546,6 +850,442 @@ public class TestSequenceExtender {
         return this.extTestSeq;
 	}
 
+	// number of classes restored from checkpoints
+	private int restoredClassCount = 0;
+
+	/**
+	 * Creates the extension context for the given class test plan and, if requested, restores the
+	 * results for the class from its checkpoint (if the class inputs are unchanged).
+	 *
+	 * @param classTestPlan test plan for the class
+	 * @param bufferOutput whether to buffer progress messages for the class
+	 * @param restore whether to restore the class results from its checkpoint
+	 * @return extension context for the class
+	 */
+	private ClassExtensionContext createClassContext(TestPlanReader.ClassTestPlan classTestPlan, boolean bufferOutput,
+	                                                 boolean restore) {
+	    ClassExtensionContext ctx = new ClassExtensionContext(classTestPlan.partition, classTestPlan.className,
+	        classTestPlan.testPlan, bufferOutput);
+	    ctx.fingerprint = this.classFingerprinter.fingerprint(ctx);
+	    if (restore && this.checkpointStore.restore(ctx)) {
+	        this.restoredClassCount++;
+	    }
+	    return ctx;
+	}
+
+	/**
+	 * Returns the extender options that affect the results for a class
+	 */
+	private String getConfiguration() {
+	    return "jee=" + this.jeeSupport + ";diffAssertions=" + this.diffAssertions + ";badPath=" +
+	        this.generateBadPath + ";numExecutions=" + this.numSeqExecutions + ";interactionLevel=" +
+	        this.interactionLevel + ";outputDir=" + this.outputDir + ";stableExecutions=" + this.stableExecutions +
+	        ";escalatedExecutions=" + this.escalatedExecutions + ";adaptiveTimeout=" + this.adaptiveTimeout +
+	        ";captureBudget=" + this.captureBudget + ";prefixTrie=" + this.prefixTrieExecution +
+	        ";jeeRerunRules=" + (this.jeeRerunClassifier == null ? "none" : this.jeeRerunClassifier.getRules());
+	}
+
+	/**
+	 * Creates extended test sequences for all methods of the class in the given extension context.
+	 * The extended sequences are recorded in the context for execution in
+	 * {@link #executeClass(ClassExtensionContext)}.
+	 *
+	 * @param ctx extension context for the class
+	 * @param formattedMethodSigMap mapping from qualified method signatures to output-formatted method signatures
+	 */
+	private void extendClass(ClassExtensionContext ctx, Map<String, String> formattedMethodSigMap) {
+
+	    PhaseTimings.Stopwatch stopwatch = PhaseTimings.start();
+	    String className = ctx.className;
+	    ObjectNode classTestPlan = ctx.classTestPlan;
+
+	    ctx.out.println("* Processing class " + className);
+	    ctx.out.print("*   " + classTestPlan.size() + " methods ");
+
+	    // iterate over each method in class
+	    classTestPlan.fieldNames().forEachRemaining(methodSig -> {
+
+	        ctx.out.print(".");
+	        PhaseTimings.Stopwatch methodStopwatch = PhaseTimings.start();
+
+	        // get test plan rows for method
+	        ObjectNode methodTestPlan = (ObjectNode) classTestPlan.get(methodSig);
+	        ArrayNode methodTestPlanRows = (ArrayNode) methodTestPlan.get("test_plan");
+	        ctx.currTestPlanRows = new ArrayNode[methodTestPlanRows.size()];
+	        for (int i = 0; i < ctx.currTestPlanRows.length; i++) {
+	            ctx.currTestPlanRows[i] = (ArrayNode) methodTestPlanRows.get(i);
+	        }
+	        ctx.currModelDef = (ArrayNode) methodTestPlan.get("attributes");
+	        ctx.classTestPlanRows += ctx.currTestPlanRows.length;
+
+	        // method signature qualified with the class name
+	        String qualMethodSig = className + "::" + methodSig;
+
+	        // get initialized coverage info for proxy method
+	        String[] msigTokens = formattedMethodSigMap.get(qualMethodSig).split(" ");
+	        String methodSigCovFmt = (msigTokens.length == 1) ? msigTokens[0] : msigTokens[1];
+	        Map<String, Constants.TestPlanRowCoverage> methodCovInfo = getProxyMethodCovInfo(ctx,
+	            methodSigCovFmt, ctx.currTestPlanRows);
+
+	        // get target method signature in format needed for creating Randoop statements
+	        // create randoop's MethodCall object for target method or constructor
+	        String parseableMethodSig = qualMethodSig;
+	        TypedClassOperation tgtMethodCall;
+	        try {
+	            Pair<String, TypedClassOperation> methodSigTgtCallPair =
+	                getTargetMethodCall(className, formattedMethodSigMap.get(qualMethodSig));
+	            parseableMethodSig = methodSigTgtCallPair.a;
+	            tgtMethodCall = methodSigTgtCallPair.b;
+	        } catch (OperationParseException ope) {
+	            logger.warning("Error parsing: " + parseableMethodSig);
+	            ctx.summary.uncovTestPlanRows__excp += ctx.currTestPlanRows.length;
+	            ctx.summary.uncovTestPlanRows__excp__OperationParse += ctx.currTestPlanRows.length;
+	            for (int rowCtr = 1; rowCtr <= ctx.currTestPlanRows.length; rowCtr++) {
+	                methodCovInfo.put(getTestPlanRowId(rowCtr), Constants.TestPlanRowCoverage.UNCOVERED_EXCP);
+	            }
+	            return;
+	        } catch (NoClassDefFoundError ncdf) {
+	            String errmsg = "Error parsing: " + parseableMethodSig + "\n" + ncdf;
+	            logger.warning(errmsg);
+	            ctx.summary.uncovTestPlanRows__excp += ctx.currTestPlanRows.length;
+	            ctx.summary.uncovTestPlanRows__excp__ClassNotFound += ctx.currTestPlanRows.length;
+	            ctx.summary.classNotFoundTypes.add(ncdf.getMessage());
+	            for (int rowCtr = 1; rowCtr <= ctx.currTestPlanRows.length; rowCtr++) {
+	                methodCovInfo.put(getTestPlanRowId(rowCtr), Constants.TestPlanRowCoverage.UNCOVERED_EXCP);
+	            }
+	            return;
+	        }
+
+	        // if method is non-static/constructor and no test sequence exists for it in the
+	        // sequence pool (i.e., a sequence that creates the receiver object), skip method
+	        if (!tgtMethodCall.isStatic() && !tgtMethodCall.isConstructorCall()) {
+	            boolean hasInitSeq;
+	            synchronized (this.sequencePool) {
+	                hasInitSeq = this.sequencePool.methodTestSeqPool.containsKey(qualMethodSig)
+	                    || this.sequencePool.classTestSeqPool.containsKey(className);
+	            }
+	            if (!hasInitSeq) {
+	                logger.warning("No initial method/class sequence exists for target method " +
+	                    qualMethodSig + " skipping");
+	                ctx.summary.uncovTestPlanRows__noInitSeq += ctx.currTestPlanRows.length;
+	                for (int rowCtr = 1; rowCtr <= ctx.currTestPlanRows.length; rowCtr++) {
+	                    methodCovInfo.put(getTestPlanRowId(rowCtr),
+	                        Constants.TestPlanRowCoverage.UNCOVERED_NO_INIT_SEQ);
+	                }
+	                return;
+	            }
+	        }
+
+	        // create extended test sequences for method
+	        ClassExtensionContext.MethodExtension methodExt = new ClassExtensionContext.MethodExtension(methodSig,
+	            qualMethodSig, parseableMethodSig, ctx.currTestPlanRows,
+	            SequenceUtil.hasCompoundTypes(ctx.currModelDef), methodCovInfo);
+	        createExtendedSequencesForMethod(ctx, methodExt, tgtMethodCall);
+	        ctx.methodExtensions.add(methodExt);
+	        ctx.methodWallNanos.merge(qualMethodSig, methodStopwatch.getElapsedWallNanos(), Long::sum);
+	    });
+	    ctx.out.println("");
+	    ctx.timings.add(PhaseTimings.Phase.SEQUENCE_EXTENSION, stopwatch);
+	}
+
+	/**
+	 * Executes the extended sequences created for the class in the given extension context and
+	 * updates coverage information based on the execution results; runs failing sequences with JEE
+	 * support (if enabled, and not deferred to a batch of classes).
+	 *
+	 * @param ctx extension context for the class
+	 */
+	private void executeClass(ClassExtensionContext ctx) {
+
+	    for (ClassExtensionContext.MethodExtension methodExt : ctx.methodExtensions) {
+	        List<String> methodSeqIds = executeSequencesForMethod(ctx, methodExt);
+	        ctx.classSeqCount += methodSeqIds.size();
+	        ctx.classBadPathSeqCount += ctx.badPathSeqIds.containsKey(methodExt.methodSig) ?
+	            ctx.badPathSeqIds.get(methodExt.methodSig).size() : 0;
+	        ctx.methodSeqIds.put(methodExt.methodSig, methodSeqIds);
+	    }
+	    if (ctx.seqExecutor != null && ctx.seqExecutor.getCompiledBackend() != null) {
+	        ctx.summary.compiledSequences += ctx.seqExecutor.getCompiledBackend().getCompiledCount();
+	        ctx.summary.uncompilableSequences += ctx.seqExecutor.getCompiledBackend().getUncompilableCount();
+	    }
+
+	    ClassExtensionContext.JEEExecutionInfo classJEEExecInfo = ctx.jeeExecInfo;
+	    if (jeeSupport && !this.jeeBatching && !classJEEExecInfo.failedSeqIds.isEmpty()) {
+	        PhaseTimings.Stopwatch stopwatch = PhaseTimings.start();
+	        // discard stdout/stderr prints from compiling and running the tests
+	        JUnitExecutor.JEERerun rerun = createJEERerun(ctx);
+	        try (ThreadOutputRouter.Redirection redirection = ThreadOutputRouter.discard()) {
+	            recordJEERerunOutcomes(ctx, this.junitExecutor.runFailedwithJEESupport(
+	                Collections.singletonList(rerun)).get(rerun));
+	        }
+	        ctx.timings.add(PhaseTimings.Phase.JEE_RERUN, stopwatch);
+	    }
+	    ctx.executedSeqCount = ctx.execExtSeq.size();
+
+	    ctx.out.println("*   generated " + ctx.classSeqCount + " test sequences");
+	    if (ctx.classBadPathSeqCount > 0) {
+	        ctx.out.println("*   generated " + ctx.classBadPathSeqCount + " bad path test sequences");
+	    }
+	    ctx.out.print("*   -- class test-plan coverage rate: ");
+	    if (ctx.classTestPlanRows > 0) {
+	        ctx.out.print(String.format("%.2f",
+	            ((double) ctx.classSeqCount * 100) / ((double) ctx.classTestPlanRows)) + "% ");
+	    }
+	    ctx.out.println("(" + ctx.classSeqCount + "/" + ctx.classTestPlanRows + ")");
+	}
+
+	/**
+	 * Adds diff assertions (if option specified) to the passing and bad path sequences of the
+	 * class in the given extension context.
+	 *
+	 * @param ctx extension context for the class
+	 */
+	private void addClassAssertions(ClassExtensionContext ctx) {
+	    if (!this.diffAssertions) {
+	        return;
+	    }
+	    PhaseTimings.Stopwatch stopwatch = PhaseTimings.start();
+	    List<String> seqIds = ctx.methodSeqIds.values().stream()
+	        .flatMap(mseq -> mseq.stream())
+	        .collect(Collectors.toList());
+	    if (ctx.classBadPathSeqCount > 0) {
+	        logger.info("generating assertions for "+ctx.badPathSeqIds.size()+" bad path sequences");
+	        seqIds.addAll(ctx.badPathSeqIds.values().stream()
+	            .flatMap(mseq -> mseq.stream())
+	            .collect(Collectors.toList()));
+	    }
+	    ctx.assertionCount += addDiffAssertions(ctx, seqIds);
+	    ctx.timings.add(PhaseTimings.Phase.DIFF_ASSERTIONS, stopwatch);
+	}
+
+	/**
+	 * Writes the test class and bad path test class for the class in the given extension context.
+	 *
+	 * @param ctx extension context for the class
+	 */
+	private void writeClass(ClassExtensionContext ctx) {
+	    PhaseTimings.Stopwatch stopwatch = PhaseTimings.start();
+	    // write test sequences to test class file
+	    if (ctx.classSeqCount > 0) {
+	        try {
+	            writeTestClass(ctx, ctx.methodSeqIds, false);
+	        } catch (IOException e) {
+	            logger.warning("Error writing test class for " + ctx.className + ": " + e);
+	        }
+	    }
+	    // write test sequences to bad path test class file
+	    if (ctx.classBadPathSeqCount > 0) {
+	        try {
+	            writeTestClass(ctx, ctx.badPathSeqIds, true);
+	        } catch (IOException e) {
+	            logger.warning("Error writing bad path test class for " + ctx.className + ": " + e);
+	        }
+	    }
+	    ctx.timings.add(PhaseTimings.Phase.TEST_CLASS_WRITING, stopwatch);
+	}
+
+	// partition of the class whose results were merged last
+	private String lastMergedPartition = null;
+
+	/**
+	 * Merges the results recorded in the given class extension context into the run-wide results,
+	 * or, if JEE reruns are batched, merges the sequences of the class and adds the class to the
+	 * current batch, which is run and merged once it is full or the next class is of a different
+	 * partition. A class held in a batch keeps only what its JEE rerun needs: its failed sequences,
+	 * their JEE execution information, and its coverage and summary.
+	 *
+	 * @param ctx extension context for the class
+	 */
+	private void mergeClassResults(ClassExtensionContext ctx) {
+	    if (!this.jeeSupport || !this.jeeBatching) {
+	        mergeClassSequences(ctx);
+	        if (this.spillStore != null) {
+	            // only compact aggregates are kept for the summary
+	            releaseClassSequences(ctx, Collections.emptySet());
+	        }
+	        completeClassMerge(ctx);
+	        return;
+	    }
+	    if (!this.jeeBatch.isEmpty() && !this.jeeBatch.get(0).partition.equals(ctx.partition)) {
+	        runJEEBatch();
+	    }
+	    mergeClassSequences(ctx);
+	    // the JEE rerun of the class needs only its failed sequences
+	    releaseClassSequences(ctx, new HashSet<>(ctx.jeeExecInfo.failedSeqIds));
+	    this.jeeBatch.add(ctx);
+	    if (this.jeeBatchSize > 0 && this.jeeBatch.size() >= this.jeeBatchSize) {
+	        runJEEBatch();
+	    }
+	}
+
+	/**
+	 * Reruns the failing sequences of the classes of the current batch with JEE support, in one
+	 * batch, and merges the coverage and summaries of the classes in test plan order.
+	 */
+	private void runJEEBatch() {
+	    Map<JUnitExecutor.JEERerun, ClassExtensionContext> reruns = new LinkedHashMap<>();
+	    List<PhaseTimings> rerunTimings = new ArrayList<>();
+	    for (ClassExtensionContext ctx : this.jeeBatch) {
+	        if (!ctx.restored && !ctx.jeeExecInfo.failedSeqIds.isEmpty()) {
+	            reruns.put(createJEERerun(ctx), ctx);
+	            rerunTimings.add(ctx.timings);
+	        }
+	    }
+	    if (!reruns.isEmpty()) {
+	        PhaseTimings.Stopwatch stopwatch = PhaseTimings.start();
+	        // discard stdout/stderr prints from compiling and running the tests
+	        try (ThreadOutputRouter.Redirection redirection = ThreadOutputRouter.discard()) {
+	            Map<JUnitExecutor.JEERerun, Set<String>> rerunOutcomes =
+	                this.junitExecutor.runFailedwithJEESupport(new ArrayList<>(reruns.keySet()));
+	            reruns.forEach((rerun, ctx) -> recordJEERerunOutcomes(ctx, rerunOutcomes.get(rerun)));
+	        }
+	        PhaseTimings.addShared(PhaseTimings.Phase.JEE_RERUN, stopwatch, rerunTimings);
+	    }
+	    for (ClassExtensionContext ctx : this.jeeBatch) {
+	        completeClassMerge(ctx);
+	        ctx.seqIdMap.clear();
+	    }
+	    this.jeeBatch.clear();
+	}
+
+	/**
+	 * Returns the failed sequences of the class in the given extension context to rerun with JEE support
+	 */
+	private JUnitExecutor.JEERerun createJEERerun(ClassExtensionContext ctx) {
+	    ClassExtensionContext.JEEExecutionInfo classJEEExecInfo = ctx.jeeExecInfo;
+	    return new JUnitExecutor.JEERerun(classJEEExecInfo.failedSeqIds, ctx.partition, ctx.className,
+	        classJEEExecInfo.seqIdToPartial, classJEEExecInfo.seqIdToRowId, classJEEExecInfo.seqIdToCovInfo,
+	        ctx.seqIdMap, ctx.summary);
+	}
+
+	/**
+	 * Records the outcomes of the JEE rerun of the failed sequences of the class in the given extension
+	 * context in the class summary, per failure category
+	 *
+	 * @param ctx extension context for the class
+	 * @param recoveredSeqIds IDs of the failed sequences that passed, or null if the failed sequences
+	 * were not run (e.g., because their JUnit test class did not compile)
+	 */
+	private void recordJEERerunOutcomes(ClassExtensionContext ctx, Set<String> recoveredSeqIds) {
+	    if (recoveredSeqIds == null) {
+	        return;
+	    }
+	    ClassExtensionContext.JEEExecutionInfo classJEEExecInfo = ctx.jeeExecInfo;
+	    for (String seqId : classJEEExecInfo.failedSeqIds) {
+	        String category = classJEEExecInfo.seqIdToFailureCategory.get(seqId);
+	        ctx.summary.jeeReruns.merge(category, 1, Integer::sum);
+	        if (recoveredSeqIds.contains(seqId)) {
+	            ctx.summary.jeeRerunsRecovered.merge(category, 1, Integer::sum);
+	        }
+	    }
+	}
+
+	/**
+	 * Merges the sequences recorded in the given class extension context, their execution results
+	 * and code, and the sequences per target method into the run-wide results (or the spill store).
+	 * Classes must be merged in test plan order: class-local sequence IDs are renumbered on merge,
+	 * so that the resulting sequence IDs are the same as for a serial run.
+	 *
+	 * @param ctx extension context for the class
+	 */
+	private void mergeClassSequences(ClassExtensionContext ctx) {
+
+	    // map class-local sequence IDs to run-wide sequence IDs
+	    Map<String, String> seqIdRenaming = new HashMap<>();
+	    for (String localSeqId : ctx.seqIds) {
+	        seqIdRenaming.put(localSeqId, getSequenceID());
+	    }
+	    if (this.spillStore != null) {
+	        try {
+	            this.spillStore.write(ctx, seqIdRenaming);
+	        } catch (IOException e) {
+	            logger.warning("Error spilling sequences for class " + ctx.className + ": " + e);
+	        }
+	    } else {
+	        ctx.seqIdMap.forEach((seqId, seq) -> this.seqIdMap.put(seqIdRenaming.get(seqId), seq));
+	        ctx.seqTargetMap.forEach((seqId, tgt) -> this.seqTargetMap.put(seqIdRenaming.get(seqId), tgt));
+	        ctx.execExtSeq.forEach((seqId, res) -> this.execExtSeq.put(seqIdRenaming.get(seqId), res));
+	        ctx.extSeqStr.forEach((seqId, str) -> this.extSeqStr.put(seqIdRenaming.get(seqId), str));
+	    }
+
+	    Map<String, Set<String>> partitionTestSeq = this.extTestSeq.computeIfAbsent(ctx.partition,
+	        k -> new HashMap<>());
+	    ctx.extTestSeq.forEach((qualMethodSig, seqIds) -> partitionTestSeq
+	        .computeIfAbsent(qualMethodSig, k -> new HashSet<>())
+	        .addAll(seqIds.stream().map(seqIdRenaming::get).collect(Collectors.toList())));
+	}
+
+	/**
+	 * Releases the sequences recorded in the given class extension context, their execution results
+	 * and code, once they have been merged, except for the given sequences
+	 *
+	 * @param ctx extension context for the class
+	 * @param keptSeqIds class-local IDs of the sequences to keep
+	 */
+	private static void releaseClassSequences(ClassExtensionContext ctx, Set<String> keptSeqIds) {
+	    ctx.seqIdMap.keySet().retainAll(keptSeqIds);
+	    ctx.seqTargetMap.clear();
+	    ctx.execExtSeq.clear();
+	    ctx.extSeqStr.clear();
+	}
+
+	/**
+	 * Merges the coverage, summary and counters recorded in the given class extension context into
+	 * the run-wide results, after the sequences of the class have been merged (see
+	 * {@link #mergeClassSequences(ClassExtensionContext)}). A checkpoint is written for each merged
+	 * class that was not itself restored from a checkpoint and for which no processing stage failed.
+	 *
+	 * @param ctx extension context for the class
+	 */
+	private void completeClassMerge(ClassExtensionContext ctx) {
+
+	    if (!ctx.partition.equals(this.lastMergedPartition)) {
+	        this.stdout.println("* Partition: " + ctx.partition);
+	        this.lastMergedPartition = ctx.partition;
+	    }
+	    ctx.flushOutput(this.stdout);
+	    if (ctx.restored) {
+	        this.stdout.println("* Restored class " + ctx.className + " from checkpoint");
+	    }
+
+	    this.coverageInfo.computeIfAbsent(ctx.partition, k -> new HashMap<>())
+	        .computeIfAbsent(ctx.className, k -> new HashMap<>())
+	        .putAll(ctx.coverageInfo);
+
+	    if (!ctx.methodCTDCovInfo.isEmpty()) {
+	        this.ctdCoverageInfo.computeIfAbsent(ctx.partition, k -> new HashMap<>())
+	            .put(ctx.className, ctx.methodCTDCovInfo);
+	    }
+
+	    this.extSummary.add(ctx.summary);
+	    if (this.jeeRerunHistory != null && !ctx.restored) {
+	        this.jeeRerunHistory.add(ctx.summary);
+	    }
+	    this.totalTestPlanRows += ctx.classTestPlanRows;
+	    this.totalSeqCount += ctx.classSeqCount;
+	    this.totalBadPathSeqCount += ctx.classBadPathSeqCount;
+	    this.assertionCount += ctx.assertionCount;
+	    this.testClassCount += ctx.testClassCount;
+	    this.testMethodCount += ctx.testMethodCount;
+	    this.totalGeneratedSeqCount += ctx.seqIds.size();
+	    this.totalExecutedSeqCount += ctx.executedSeqCount;
+	    if (!ctx.restored) {
+	        ctx.timings.generatedSequences = ctx.seqIds.size();
+	        ctx.timings.executedSequences = ctx.executedSeqCount;
+	        this.extSummary.addClassTimings(ctx.partition, ctx.className, ctx.timings, ctx.methodWallNanos);
+	    }
+
+	    // the results of a class for which a processing stage failed are incomplete, and restoring
+	    // them in a later run would make them permanent
+	    if (!ctx.restored && ctx.stageFailure == null) {
+	        try {
+	            this.checkpointStore.write(ctx);
+	        } catch (IOException e) {
+	            logger.warning("Error writing checkpoint for class " + ctx.className + ": " + e);
+	        }
+	    }
+	}
+
 	private void writeCTDCoverage() throws JsonGenerationException, JsonMappingException, IOException {
 
 		if (ctdCoverageInfo.isEmpty()) {
@@ -584,156 +1324,226 @@ public class TestSequenceExtender {
 	}
 
     /**
-     * Creates extended test sequences for a given target method and adds them to test sequences
-     * for a partition. Records information about failed sequences for later JEE trial execution.
-     * Updates global coverage data.
+     * Creates extended test sequences for a given target method and records them, along with the
+     * test plan rows they cover, in the given method extension for later execution. Records
+     * information needed for JEE trial execution of sequences that fail.
      *
-     * @param partition
-     * @param qualMethodSig
-     * @param parseableMethodSig
+     * @param ctx
+     * @param methodExt
      * @param tgtMethodCall
-     * @param jeeExecInfo
-     * @param methodCovInfo
-     * @param methodCTDCovInfo
-     *
-     * @return List of IDs for extended sequences generated for method
      */
-	private List<String> createExtendedSequencesForMethod(String partition, String qualMethodSig,
-                                                          String parseableMethodSig,
-                                                          TypedClassOperation tgtMethodCall,
-                                                          JEEExecutionInfo jeeExecInfo,
-                                                          Map<String, List<String>> badPathMtdSeqMap,
-                                                          Map<String, Constants.TestPlanRowCoverage> methodCovInfo,
-                                                          Map<String, Pair<Double, Double>> methodCTDCovInfo) {
-
-        logger.info("=========>>> Generating " + currTestPlanRows.length
+	private void createExtendedSequencesForMethod(ClassExtensionContext ctx,
+                                                  ClassExtensionContext.MethodExtension methodExt,
+                                                  TypedClassOperation tgtMethodCall) {
+
+        String qualMethodSig = methodExt.qualMethodSig;
+        String parseableMethodSig = methodExt.parseableMethodSig;
+        Map<String, Constants.TestPlanRowCoverage> methodCovInfo = methodExt.methodCovInfo;
+        ClassExtensionContext.JEEExecutionInfo jeeExecInfo = ctx.jeeExecInfo;
+
+        logger.info("=========>>> Generating " + ctx.currTestPlanRows.length
             + " test cases for proxy method: " + qualMethodSig + " <<<=========");
-        List<String> methodSeqIds = new ArrayList<>();
 
         String className = qualMethodSig.split("::")[0];
         String methodSig = qualMethodSig.split("::")[1];
 
-        boolean[] usedExistingSeq = new boolean[currTestPlanRows.length];
-        boolean[] execSeqSuccess = new boolean[currTestPlanRows.length];
-
-        boolean hasCompoundTypes = SequenceUtil.hasCompoundTypes(currModelDef);
-
-        List<String> badPathSeqs = new ArrayList<>();
-
         // iterate over each row of test plan for method
         int rowCtr = 0;
-        for (ArrayNode row : currTestPlanRows) {
-            this.rowPartiallyCovered = false;
-            this.currTestPlanRowIndex = rowCtr;
+        for (ArrayNode row : ctx.currTestPlanRows) {
+            ctx.rowPartiallyCovered = false;
+            ctx.currTestPlanRowIndex = rowCtr;
             String testPlanRowId = getTestPlanRowId(++rowCtr);
 
             // select from the candidate sequences available for target method
             Pair<Sequence, Boolean> candidateSeqCovPair = getCandidateSequenceForRow(
-                className, qualMethodSig, tgtMethodCall, row
+                ctx, className, qualMethodSig, tgtMethodCall, row
             );
 
             // extend candidate sequence based on the parameter types specified in the test plan row
             Sequence extendedSeq;
             if (candidateSeqCovPair.b) {
                 extendedSeq = candidateSeqCovPair.a;
-                usedExistingSeq[rowCtr-1] = true;
+                methodExt.usedExistingSeq[rowCtr-1] = true;
             } else {
                 try {
-                    extendedSeq = extendSequence(candidateSeqCovPair.a, row,
+                    extendedSeq = extendSequence(ctx, candidateSeqCovPair.a, row,
                         parseableMethodSig, tgtMethodCall);
                 } catch (IllegalArgumentException e) {
                     logger.warning("Error creating extended sequence for row: " + row +
                         "\n" + e);
-                    this.extSummary.uncovTestPlanRows__excp++;
-                    this.extSummary.uncovTestPlanRows__excp__randoop__IllegalArgument++;
+                    ctx.summary.uncovTestPlanRows__excp++;
+                    ctx.summary.uncovTestPlanRows__excp__randoop__IllegalArgument++;
                     methodCovInfo.put(testPlanRowId, Constants.TestPlanRowCoverage.UNCOVERED_EXCP);
                     continue;
                 } catch (NonInstantiableTypeException nte) {
                     logger.warning(nte.getMessage());
-                    this.extSummary.uncovTestPlanRows__excp__NonInstantiableType++;
+                    ctx.summary.uncovTestPlanRows__excp__NonInstantiableType++;
                     methodCovInfo.put(testPlanRowId, Constants.TestPlanRowCoverage.UNCOVERED_NON_INST_TYPE);
                     continue;
                 } catch (RuntimeException re) {
                     logger.warning(re.getMessage());
-                    this.extSummary.uncovTestPlanRows__excp++;
+                    ctx.summary.uncovTestPlanRows__excp++;
                     methodCovInfo.put(testPlanRowId, Constants.TestPlanRowCoverage.UNCOVERED_EXCP);
                     continue;
                 }
             }
 
             // generate sequence ID and add id, sequence to map
-            String sequenceID = getSequenceID();
-            this.seqIdMap.put(sequenceID, extendedSeq);
+            String sequenceID = ctx.getSequenceID();
+            ctx.seqIdMap.put(sequenceID, extendedSeq);
             Object mtdOrCnstr = getMethodOrConstructor(className, methodSig, tgtMethodCall.isMethodCall());
             if (mtdOrCnstr != null) {
-            	this.seqTargetMap.put(sequenceID, mtdOrCnstr);
+            	ctx.seqTargetMap.put(sequenceID, mtdOrCnstr);
             } else {
             	logger.warning("Unable to locate "+(tgtMethodCall.isMethodCall()? "method" : "constructor ")+
             			" for signature "+parseableMethodSig);
             }
             jeeExecInfo.seqIdToRowId.put(sequenceID, testPlanRowId);
-            jeeExecInfo.seqIdToPartial.put(sequenceID, this.rowPartiallyCovered);
+            jeeExecInfo.seqIdToPartial.put(sequenceID, ctx.rowPartiallyCovered);
             jeeExecInfo.seqIdToCovInfo.put(sequenceID, methodCovInfo);
+            methodExt.seqIdToRowIndex.put(sequenceID, rowCtr-1);
+        }
+    }
+
+    /**
+     * Records the given failed sequence for a later JEE rerun, unless the JEE rerun classifier (if
+     * set) predicts from the cause of its failure that it cannot pass under JEE support
+     *
+     * @param ctx
+     * @param sequenceID
+     */
+    private void addJEERerun(ClassExtensionContext ctx, String sequenceID) {
+        ClassExtensionContext.JEEExecutionInfo jeeExecInfo = ctx.jeeExecInfo;
+        if (this.jeeSupport) {
+            JEERerunClassifier.Failure failure = JEERerunClassifier.Failure.of(ctx.seqIdMap.get(sequenceID),
+                ctx.execExtSeq.get(sequenceID));
+            if (this.jeeRerunClassifier != null) {
+                JEERerunClassifier.Rule rule = this.jeeRerunClassifier.match(failure);
+                if (rule != null && !rule.rerun) {
+                    ctx.summary.jeeRerunsAvoided.merge(failure.getCategory(), 1, Integer::sum);
+                    ctx.summary.jeeRerunsAvoidedByRule.merge(rule.toString(), 1, Integer::sum);
+                    return;
+                }
+            }
+            jeeExecInfo.seqIdToFailureCategory.put(sequenceID, failure.getCategory());
+        }
+        jeeExecInfo.failedSeqIds.add(sequenceID);
+    }
+
+    /**
+     * Executes the extended test sequences created for a target method and adds the passing
+     * sequences to test sequences for the class. Records information about failed sequences for
+     * later JEE trial execution. Updates coverage data for the method.
+     *
+     * @param ctx
+     * @param methodExt
+     *
+     * @return List of IDs for passing extended sequences generated for method
+     */
+	private List<String> executeSequencesForMethod(ClassExtensionContext ctx,
+                                                   ClassExtensionContext.MethodExtension methodExt) {
+
+        PhaseTimings.Stopwatch stopwatch = PhaseTimings.start();
+        String qualMethodSig = methodExt.qualMethodSig;
+        Map<String, Constants.TestPlanRowCoverage> methodCovInfo = methodExt.methodCovInfo;
+        ClassExtensionContext.JEEExecutionInfo jeeExecInfo = ctx.jeeExecInfo;
+
+        List<String> methodSeqIds = new ArrayList<>();
+        boolean[] execSeqSuccess = new boolean[methodExt.testPlanRows.length];
+        List<String> badPathSeqs = new ArrayList<>();
+
+        if (this.sequenceCompiler != null) {
+            // sequences of the method are compiled in one batch ahead of their executions
+            List<Sequence> methodSeqs = new ArrayList<>(methodExt.seqIdToRowIndex.size());
+            for (String sequenceID : methodExt.seqIdToRowIndex.keySet()) {
+                methodSeqs.add(ctx.seqIdMap.get(sequenceID));
+            }
+            getSequenceExecutor(ctx).compileSequences(methodSeqs);
+        }
+
+        if (this.forkedExecutionPool != null) {
+            // sequences of the method are sent to the worker JVMs in one batch ahead of their executions;
+            // sequences with reusable results, and duplicates of a sequence in the batch, are left out
+            Map<String, Sequence> methodSeqs = new LinkedHashMap<>();
+            Set<String> seqFingerprints = new HashSet<>();
+            for (String sequenceID : methodExt.seqIdToRowIndex.keySet()) {
+                Sequence extendedSeq = ctx.seqIdMap.get(sequenceID);
+                String seqFingerprint = SequenceUtil.getCanonicalFingerprint(extendedSeq);
+                if (!this.execResultCache.containsKey(seqFingerprint) && seqFingerprints.add(seqFingerprint)) {
+                    methodSeqs.put(sequenceID, extendedSeq);
+                }
+            }
+            getSequenceExecutor(ctx).executeForkedBatch(methodSeqs, numSeqExecutions);
+        }
+
+        for (Map.Entry<String, Integer> seqRow : methodExt.seqIdToRowIndex.entrySet()) {
+            String sequenceID = seqRow.getKey();
+            int rowIndex = seqRow.getValue();
+            String testPlanRowId = getTestPlanRowId(rowIndex+1);
+            Sequence extendedSeq = ctx.seqIdMap.get(sequenceID);
 
             // check whether extended sequence can be executed
             try {
-                if (executeSequence(sequenceID, badPathSeqs) == false) {
-                    jeeExecInfo.failedSeqIds.add(sequenceID);
-                    this.extSummary.uncovTestPlanRows__execFail++;
+                if (executeSequence(ctx, sequenceID, methodExt.methodSig, badPathSeqs) == false) {
+                    addJEERerun(ctx, sequenceID);
+                    ctx.summary.uncovTestPlanRows__execFail++;
                     methodCovInfo.put(testPlanRowId, Constants.TestPlanRowCoverage.UNCOVERED_EXEC_FAIL);
                     if (badPathSeqs.contains(sequenceID)) {
                     	// sequence execution failed, but it raised a declared exception, so we want to keep it for bad path testing
-                    	this.extSeqStr.put(sequenceID, getCodeString(extendedSeq));
+                    	ctx.extSeqStr.put(sequenceID, getCodeString(extendedSeq));
                     }
                     continue;
                 }
             } catch (RuntimeException re) {
                 logger.warning(re.getMessage());
-                this.extSummary.uncovTestPlanRows__excp++;
+                ctx.summary.uncovTestPlanRows__excp++;
                 methodCovInfo.put(testPlanRowId, Constants.TestPlanRowCoverage.UNCOVERED_EXCP);
                 continue;
             }
 
-            execSeqSuccess[rowCtr-1] = true;
+            execSeqSuccess[rowIndex] = true;
 
-            Map<String, Set<String>> partitionTestSeq = this.extTestSeq.get(partition);
-            if (!partitionTestSeq.containsKey(qualMethodSig)) {
-                partitionTestSeq.put(qualMethodSig, new HashSet<>());
+            if (!ctx.extTestSeq.containsKey(qualMethodSig)) {
+                ctx.extTestSeq.put(qualMethodSig, new HashSet<>());
             }
             // add extended sequence to sequence set, create code string representation of sequence
             // and mark test plan row as covered
-            partitionTestSeq.get(qualMethodSig).add(sequenceID);
+            ctx.extTestSeq.get(qualMethodSig).add(sequenceID);
             methodSeqIds.add(sequenceID);
-            this.extSeqStr.put(sequenceID, getCodeString(extendedSeq));
-            if (this.rowPartiallyCovered) {
+            ctx.extSeqStr.put(sequenceID, getCodeString(extendedSeq));
+            if (jeeExecInfo.seqIdToPartial.get(sequenceID)) {
                 methodCovInfo.put(testPlanRowId, Constants.TestPlanRowCoverage.PARTIAL);
-                this.extSummary.covTestPlanRows__partial++;
+                ctx.summary.covTestPlanRows__partial++;
             } else {
                 methodCovInfo.put(testPlanRowId, Constants.TestPlanRowCoverage.COVERED);
-                this.extSummary.covTestPlanRows__full++;
+                ctx.summary.covTestPlanRows__full++;
             }
         }
 
         // record bad path sequences
 
         if ( ! badPathSeqs.isEmpty()) {
-        	badPathMtdSeqMap.put(methodSig, badPathSeqs);
+        	ctx.badPathSeqIds.put(methodExt.methodSig, badPathSeqs);
         }
+        ctx.timings.add(PhaseTimings.Phase.SEQUENCE_EXECUTION, stopwatch);
+        ctx.methodWallNanos.merge(qualMethodSig, stopwatch.getElapsedWallNanos(), Long::sum);
 
-        if (interactionLevel > -1 && currTestPlanRows.length > 1 && ! hasCompoundTypes) {
-        	Pair<Double, Double> ctdCov = CTDCoverageComputer.calcCombinatorialCoverage(parseableMethodSig, currTestPlanRows,
-        			execSeqSuccess, usedExistingSeq, interactionLevel);
+        if (interactionLevel > -1 && methodExt.testPlanRows.length > 1 && ! methodExt.hasCompoundTypes) {
+        	PhaseTimings.Stopwatch ctdStopwatch = PhaseTimings.start();
+        	Pair<Double, Double> ctdCov = CTDCoverageComputer.calcCombinatorialCoverage(methodExt.parseableMethodSig,
+        			methodExt.testPlanRows, execSeqSuccess, methodExt.usedExistingSeq, interactionLevel);
         	if (ctdCov.a >= 0 && ctdCov.b >= 0) {
-        		this.extSummary.totalMethodsOverOneRow++;
-        		this.extSummary.totalCTDCov += ctdCov.a;
-        		this.extSummary.totalExistingCTDCov += ctdCov.b;
-        		methodCTDCovInfo.put(qualMethodSig.split("::")[1], ctdCov);
+        		ctx.summary.totalMethodsOverOneRow++;
+        		ctx.summary.totalCTDCov += ctdCov.a;
+        		ctx.summary.totalExistingCTDCov += ctdCov.b;
+        		ctx.methodCTDCovInfo.put(methodExt.methodSig, ctdCov);
         	}
+        	ctx.timings.add(PhaseTimings.Phase.CTD_COVERAGE, ctdStopwatch);
         }
 
         return methodSeqIds;
     }
-	
+
 	// returns sequence string ready for use as code after cleaning wildcard capture types
 	
 	private String getCodeString(Sequence seq) {
@@ -802,26 +1612,6 @@ public class TestSequenceExtender {
     	}
 	}
 
-	/**
-     * Created mapping from qualified method signatures to output-formatted method signatures
-     * @return
-     */
-    private Map<String, String> getQualifiedToFormattedMethodSignatureMap() {
-        Map<String, String> methodToCovMethod = new HashMap<>();
-        this.testPlan.fieldNames().forEachRemaining(partition -> {
-            ObjectNode partitionTestPlan = (ObjectNode) this.testPlan.get(partition);
-            partitionTestPlan.fieldNames().forEachRemaining(className -> {
-            	ObjectNode classTestPlan = (ObjectNode) partitionTestPlan.get(className);
-            	classTestPlan.fieldNames().forEachRemaining(methodSig -> {
-                	ObjectNode methodTestPlan = (ObjectNode) classTestPlan.get(methodSig);
-                    String qualMethodSig = className + "::" + methodSig;
-                    methodToCovMethod.put(qualMethodSig, methodTestPlan.get("formatted_signature").asText());
-                });
-            });
-        });
-        return methodToCovMethod;
-    }
-
     /**
      * Given a class name and method/constructor signature, creates an instance of Randoop
      * typed class operation object. Returns a pair consisting of Randoop-parseable method
@@ -849,15 +1639,15 @@ public class TestSequenceExtender {
     /**
      * Writes extended test sequences for the given class to a test class file.
      *
-     * @param clsName Class to write test sequences for
+     * @param ctx Extension context of the class to write test sequences for
      * @param methodTestSeqIdMap Map from method signature to list of sequences IDs for method
-     * @param partition Partition to which class belongs
      * @throws IOException
      */
-    private void writeTestClass(String clsName, Map<String, List<String>> methodTestSeqIdMap,
-                                String partition, boolean isBadPath) throws IOException {
+    private void writeTestClass(ClassExtensionContext ctx, Map<String, List<String>> methodTestSeqIdMap,
+                                boolean isBadPath) throws IOException {
+        String clsName = ctx.className;
         // create JUnit exporter for class
-        File outDir = new File(this.outputDir + File.separator + partition);
+        File outDir = new File(this.outputDir + File.separator + ctx.partition);
         JUnitTestExporter testExporter = new JUnitTestExporter(outDir, this.diffAssertions);
 
         Set<String> testImports = new HashSet<>();
@@ -875,15 +1665,16 @@ public class TestSequenceExtender {
         for (String methodSig : methodTestSeqIdMap.keySet()) {
             methodTestSeqStrMap.put(methodSig, methodTestSeqIdMap.get(methodSig)
                 .stream()
-                .map(seqid -> this.extSeqStr.get(seqid))
+                .map(seqid -> ctx.extSeqStr.get(seqid))
                 .collect(Collectors.toList()));
         }
-        testExporter.writeUnitTest(clsName, methodTestSeqStrMap, testImports, isBadPath);
+        File testFile = testExporter.writeUnitTest(clsName, methodTestSeqStrMap, testImports, isBadPath);
+        ctx.testFiles.add(testFile.getPath());
         int testMethodCount = methodTestSeqIdMap.values().stream().mapToInt(List::size).sum();
-        System.out.println("*   wrote"+(isBadPath? " bad path" : "")+" test class file for " + clsName + " to \"" + outDir +
+        ctx.out.println("*   wrote"+(isBadPath? " bad path" : "")+" test class file for " + clsName + " to \"" + outDir +
             "\" with " + testMethodCount+" test methods");
-        this.testClassCount++;
-        this.testMethodCount += testMethodCount;
+        ctx.testClassCount++;
+        ctx.testMethodCount += testMethodCount;
     }
 
 	/**
@@ -927,44 +1718,154 @@ public class TestSequenceExtender {
 
     /**
      * Add assertions to the given list of sequences.
+     * @param ctx
      * @param seqIds
      * @return
      */
-    private int addDiffAssertions(List<String> seqIds) {
+    private int addDiffAssertions(ClassExtensionContext ctx, List<String> seqIds) {
         DiffAssertionsGenerator diffAssertGen = new DiffAssertionsGenerator(applicationName);
         for (String seqId : seqIds) {
-            SequenceExecutor.SequenceResults seqRes = execExtSeq.get(seqId);
-            String seqWithAssertStr = diffAssertGen.addAssertions(this.extSeqStr.get(seqId), seqRes);
-            extSeqStr.put(seqId, seqWithAssertStr);
+            SequenceExecutor.SequenceResults seqRes = ctx.execExtSeq.get(seqId);
+            String seqWithAssertStr = diffAssertGen.addAssertions(ctx.extSeqStr.get(seqId), seqRes);
+            ctx.extSeqStr.put(seqId, seqWithAssertStr);
         }
         return diffAssertGen.getAssertCount();
     }
 
+	/**
+	 * Returns the sequence executor of the given class, creating it on first use
+	 */
+	private SequenceExecutor getSequenceExecutor(ClassExtensionContext ctx) {
+		if (ctx.seqExecutor == null) {
+			ctx.seqExecutor = new SequenceExecutor(true, this.executionService);
+			ctx.seqExecutor.setAdaptiveRepetition(this.stableExecutions, this.escalatedExecutions);
+			ctx.seqExecutor.setForkedExecutionPool(this.forkedExecutionPool);
+			ctx.seqExecutor.setLatencyTracker(this.latencyTracker);
+			ctx.seqExecutor.setCaptureBudget(this.captureBudget);
+			if (this.prefixTrieExecution) {
+				// sequences of all methods of the class share the trie, as they share receiver prefixes
+				ctx.seqExecutor.setPrefixTrie(new SequencePrefixTrie());
+			}
+			if (this.sequenceCompiler != null) {
+				// compiled sequences are released with the class
+				ctx.seqExecutor.setCompiledBackend(new CompiledSequenceBackend(this.sequenceCompiler));
+			}
+		}
+		return ctx.seqExecutor;
+	}
+
+	/**
+	 * Returns the statements of the given sequence whose object state is recorded when it is executed:
+	 * without diff assertions, object state is not used, and only pass/fail results and exceptions are
+	 * recorded; with diff assertions, the state of the objects on which assertions can be added (the
+	 * objects of variables declared in the code of the sequence, and the returned object or receiver
+	 * of the last statement) is recorded.
+	 *
+	 * @param seq extended sequence
+	 * @return demanded statements
+	 */
+	private StateCaptureDemand getCaptureDemand(Sequence seq) {
+		if (!this.diffAssertions) {
+			return StateCaptureDemand.NONE;
+		}
+		try {
+			return StateCaptureDemand.of(true, Collections.emptySet(),
+				DiffAssertionsGenerator.getAssertableVariables(getCodeString(seq)));
+		} catch (RuntimeException e) {
+			// the code is parsed again when assertions are added; until then, record all state
+			return StateCaptureDemand.ALL;
+		}
+	}
+
+	/**
+	 * Returns the execution results of the given sequence, reusing the results of a structurally
+	 * identical sequence if it has been executed, or is being executed by another class worker;
+	 * otherwise, executes the sequence and keeps its results for reuse if the executions completed
+	 *
+	 * @param ctx the context of the class being extended
+	 * @param seqExecutor the sequence executor for the class
+	 * @param sequenceID the id of the sequence
+	 * @param extendedSeq the sequence
+	 * @param methodSig the signature of the target method of the sequence
+	 * @return the execution results of the sequence, which can be updated by the caller
+	 */
+	private SequenceExecutor.SequenceResults getExecutionResults(ClassExtensionContext ctx,
+																 SequenceExecutor seqExecutor, String sequenceID,
+																 Sequence extendedSeq, String methodSig) {
+		String seqFingerprint = SequenceUtil.getCanonicalFingerprint(extendedSeq);
+		while (true) {
+			CompletableFuture<SequenceExecutor.SequenceResults> execution = new CompletableFuture<>();
+			CompletableFuture<SequenceExecutor.SequenceResults> cachedExecution =
+				this.execResultCache.computeIfAbsent(seqFingerprint, fingerprint -> execution);
+			if (cachedExecution != execution) {
+				SequenceExecutor.SequenceResults cachedResult;
+				try {
+					cachedResult = cachedExecution.join();
+				} catch (CompletionException e) {
+					// the execution failed, and was removed from the cache: the sequence is executed again
+					continue;
+				}
+				if (cachedResult == null) {
+					// the execution did not complete, and was removed from the cache
+					continue;
+				}
+				// results are copied, as they may be updated for the reusing sequence
+				ctx.summary.reusedSeqExecutionResults++;
+				return new SequenceExecutor.SequenceResults(cachedResult);
+			}
+			SequenceExecutor.SequenceResults execResult;
+			try {
+				execResult = seqExecutor.executeSequence(sequenceID, extendedSeq, numSeqExecutions, ctx.className,
+					methodSig, getCaptureDemand(extendedSeq));
+			} catch (RuntimeException | Error e) {
+				this.execResultCache.remove(seqFingerprint, execution);
+				execution.completeExceptionally(e);
+				throw e;
+			}
+			if (execResult.cutOffByAdaptiveLimit) {
+				ctx.summary.adaptiveTimeoutCutOffs++;
+			}
+			ctx.summary.stateCaptureTruncations += execResult.truncatedCaptures;
+			ctx.summary.prefixSkippedCaptures += execResult.skippedPrefixCaptures;
+			ctx.summary.seqExecutionRuns.merge(execResult.executions, 1, Integer::sum);
+			// sequences run on worker threads, whose CPU time is not included in the stage thread's
+			ctx.timings.addCpuNanos(PhaseTimings.Phase.SEQUENCE_EXECUTION, execResult.executionCpuNanos);
+			if (execResult.isComplete()) {
+				execution.complete(new SequenceExecutor.SequenceResults(execResult));
+			} else {
+				// results of timed-out or cut-off executions are not reused
+				this.execResultCache.remove(seqFingerprint, execution);
+				execution.complete(null);
+			}
+			return execResult;
+		}
+	}
+
 	/**
 	 * Executes the given (extended) sequence and checks whether execution failed.
 	 * If execution fails, records failed sequence.
 	 *
+	 * @param ctx Extension context of the class under test
 	 * @param sequenceID Sequence to be executed
+	 * @param methodSig Signature of the method targeted by the sequence
 	 * @return boolean indicating whether sequence executes successfully
 	 */
-	private boolean executeSequence(String sequenceID, List<String> badPathSeqs) {
-		SequenceExecutor seqExecutor = new SequenceExecutor(true);
+	private boolean executeSequence(ClassExtensionContext ctx, String sequenceID, String methodSig,
+									List<String> badPathSeqs) {
+		SequenceExecutor seqExecutor = getSequenceExecutor(ctx);
 		Set<String> errMsgs = new HashSet<>();
-		Sequence extendedSeq = this.seqIdMap.get(sequenceID);
-        PrintStream origSysOut = System.out;
-        PrintStream origSysErr = System.err;
-		try {
-		    // disable stdout/stderr prints from sequence executor, which can occur from the app code
-		    System.setOut(NullPrintStream.NULL_PRINT_STREAM);
-		    System.setErr(NullPrintStream.NULL_PRINT_STREAM);
-			SequenceExecutor.SequenceResults execResult = seqExecutor.executeSequence(sequenceID, extendedSeq,
-					numSeqExecutions);
-			this.execExtSeq.put(sequenceID, execResult);
+		Sequence extendedSeq = ctx.seqIdMap.get(sequenceID);
+        // discard stdout/stderr prints from sequence executor, which can occur from the app code; the
+        // redirection applies to the current thread and to the worker threads running the sequence
+		try (ThreadOutputRouter.Redirection redirection = ThreadOutputRouter.discard()) {
+			SequenceExecutor.SequenceResults execResult = getExecutionResults(ctx, seqExecutor, sequenceID,
+				extendedSeq, methodSig);
+			ctx.execExtSeq.put(sequenceID, execResult);
 			if (!execResult.passed) {
 				// find the exception that caused the sequence to fail and add to the summary
 				String excp = execResult.getException();
-				Integer count = this.extSummary.seqFailExcp.get(excp);
-				this.extSummary.seqFailExcp.put(excp, count == null? 1: count+1);
+				Integer count = ctx.summary.seqFailExcp.get(excp);
+				ctx.summary.seqFailExcp.put(excp, count == null? 1: count+1);
 				errMsgs.add("Error executing sequence");
 				errMsgs.addAll(
 						Arrays.stream(execResult.causeMessage).filter(str -> str != null).collect(Collectors.toSet()));
@@ -973,27 +1874,27 @@ public class TestSequenceExtender {
 
 				/* Create bad path tests for failures that caused target method declared exceptions */
 				if (generateBadPath && excp != null && execResult.failingIndex == extendedSeq.size()-1 &&
-						isDeclaredException(excp, this.seqTargetMap.get(sequenceID))) {
+						isDeclaredException(excp, ctx.seqTargetMap.get(sequenceID))) {
 					logger.info("Failed execution of "+sequenceID+" with declared exception "+excp);
 					badPathSeqs.add(sequenceID);
-					this.extSummary.uncovTestPlanRows__execFailBadPath++;
+					ctx.summary.uncovTestPlanRows__execFailBadPath++;
 				}
 			}
 			return execResult.passed;
 		} catch (RuntimeException re) {
 			Throwable cause = re.getCause();
 			if (cause instanceof InvocationTargetException) {
-				this.extSummary.uncovTestPlanRows__excp__exec__InvocationTarget++;
+				ctx.summary.uncovTestPlanRows__excp__exec__InvocationTarget++;
 			} else if (cause instanceof IllegalAccessException) {
-				this.extSummary.uncovTestPlanRows__excp__exec__IllegalAccess++;
+				ctx.summary.uncovTestPlanRows__excp__exec__IllegalAccess++;
 			} else if (cause instanceof IllegalArgumentException) {
-				this.extSummary.uncovTestPlanRows__excp__exec__IllegalArgument++;
+				ctx.summary.uncovTestPlanRows__excp__exec__IllegalArgument++;
 			} else {
-				this.extSummary.uncovTestPlanRows__excp__exec__Other++;
+				ctx.summary.uncovTestPlanRows__excp__exec__Other++;
 				if (cause == null) {
-					this.extSummary.seqExecExcpOther.add(re.getClass().getName());
+					ctx.summary.seqExecExcpOther.add(re.getClass().getName());
 				} else {
-					this.extSummary.seqExecExcpOther.add(cause.getClass().getName());
+					ctx.summary.seqExecExcpOther.add(cause.getClass().getName());
 					logger.warning("Root cause of runtime exception during sequence execution: "
 							+ cause.getClass().getName() + "\n" + cause.getStackTrace());
 				}
@@ -1001,14 +1902,9 @@ public class TestSequenceExtender {
 			throw new RuntimeException("Error executing sequence: " + re.getMessage() + "\n" + extendedSeq, cause);
 		} catch (Throwable e) {
 			logger.warning("Error executing sequence: " + e);
-			this.extSummary.uncovTestPlanRows__excp__exec__Error++;
+			ctx.summary.uncovTestPlanRows__excp__exec__Error++;
 			throw new RuntimeException(e);
 		}
-		finally {
-		    // restore stdout and stderr
-            System.setOut(origSysOut);
-            System.setErr(origSysErr);
-        }
 	}
 
     private boolean isDeclaredException(String excp, Object mtdOrCnstr) {
@@ -1041,42 +1937,46 @@ public class TestSequenceExtender {
      * actually covers the test plan row.
      * TODO: if not covering bb sequence exists for a virtual method call, return a list of all
      * candidate sequences that create the receiver object for the target method call
+     * @param ctx
      * @param clsName
      * @param qualMethodSig
      * @param tgtMethodCall
      * @param testPlanRow
      * @return
      */
-	private Pair<Sequence, Boolean> getCandidateSequenceForRow(String clsName, String qualMethodSig,
+	private Pair<Sequence, Boolean> getCandidateSequenceForRow(ClassExtensionContext ctx, String clsName,
+                                                               String qualMethodSig,
                                                                TypedClassOperation tgtMethodCall,
                                                                ArrayNode testPlanRow) {
         Sequence candidateSeq = new Sequence();
         boolean coveringInitialSequenceExists = false;
-        if (this.sequencePool.methodTestSeqPool.containsKey(qualMethodSig)) {
-            SortedSet<Sequence> candidateSequences = this.sequencePool.methodTestSeqPool.get(qualMethodSig);
-
-            // check whether any of the candidate sequences cover the test plan row
-            Sequence coveringSeq = getCoveringSequence(testPlanRow, candidateSequences);
-            if (coveringSeq != null) {
-                logger.info("Found covering initial sequence: " + coveringSeq);
-                coveringInitialSequenceExists = true;
-                candidateSeq = coveringSeq;
-                this.extSummary.covTestPlanRows__initSeq++;
-            } else {
-                // select a sequence from the set of candidate sequences and compute
-                // constructor subsequence for the selected sequence
-                candidateSeq = SequenceUtil.selectFromSequenceSet(candidateSequences);
-                candidateSeq = SequenceUtil.getConstructorSubsequence(candidateSeq);
+        synchronized (this.sequencePool) {
+            if (this.sequencePool.methodTestSeqPool.containsKey(qualMethodSig)) {
+                SortedSet<Sequence> candidateSequences = this.sequencePool.methodTestSeqPool.get(qualMethodSig);
+
+                // check whether any of the candidate sequences cover the test plan row
+                Sequence coveringSeq = getCoveringSequence(testPlanRow, candidateSequences);
+                if (coveringSeq != null) {
+                    logger.info("Found covering initial sequence: " + coveringSeq);
+                    coveringInitialSequenceExists = true;
+                    candidateSeq = coveringSeq;
+                    ctx.summary.covTestPlanRows__initSeq++;
+                } else {
+                    // select a sequence from the set of candidate sequences and compute
+                    // constructor subsequence for the selected sequence
+                    candidateSeq = SequenceUtil.selectFromSequenceSet(candidateSequences);
+                    candidateSeq = SequenceUtil.getConstructorSubsequence(candidateSeq);
+                }
             }
-        }
-        else {
-            // no bb sequence exists that covers the target method
-            // if the target method is a virtual call, check whether a sequence creating
-            // the receiver object exists in the class sequence pool; if it does, use it
-            // as the candidate sequence to be extended
-            if (!tgtMethodCall.isStatic() && !tgtMethodCall.isConstructorCall()) {
-                if (this.sequencePool.classTestSeqPool.containsKey(clsName)) {
-                    candidateSeq = SequenceUtil.selectFromSequenceSet(this.sequencePool.classTestSeqPool.get(clsName));
+            else {
+                // no bb sequence exists that covers the target method
+                // if the target method is a virtual call, check whether a sequence creating
+                // the receiver object exists in the class sequence pool; if it does, use it
+                // as the candidate sequence to be extended
+                if (!tgtMethodCall.isStatic() && !tgtMethodCall.isConstructorCall()) {
+                    if (this.sequencePool.classTestSeqPool.containsKey(clsName)) {
+                        candidateSeq = SequenceUtil.selectFromSequenceSet(this.sequencePool.classTestSeqPool.get(clsName));
+                    }
                 }
             }
         }
@@ -1105,13 +2005,11 @@ public class TestSequenceExtender {
 		return "ext_seq_" + seqIdCtr++;
 	}
 
-	// list to store variable indices while extending sequences
-	private static List<Integer> tgtMethodInputs = new ArrayList<>();
-
 	/**
 	 * Creates extended sequence from the given initial sequence for covering the
 	 * given test plan row.
 	 *
+	 * @param ctx           extension context of the class under test
 	 * @param initSeq       Initial sequence to extend (null if target method is
 	 *                      static)
 	 * @param testplanRow   test plan row to be covered
@@ -1119,11 +2017,11 @@ public class TestSequenceExtender {
 	 * @param tgtMethodCall MethodCall object for the target method
 	 * @return Sequence object for the extended (covering) sequence
 	 */
-	private Sequence extendSequence(Sequence initSeq, ArrayNode testplanRow, String tgtMethodSig,
+	private Sequence extendSequence(ClassExtensionContext ctx, Sequence initSeq, ArrayNode testplanRow, String tgtMethodSig,
 			TypedClassOperation tgtMethodCall) {
 
 		// reset target method input set
-		tgtMethodInputs.clear();
+		ctx.tgtMethodInputs.clear();
 
 		// initialize sequence to point to initial sequence (if non-null) or an empty sequence
 		Sequence seq = initSeq;
@@ -1131,14 +2029,14 @@ public class TestSequenceExtender {
 		// if method call is not static or constructor call, add last variable, which is the receiver
         // object for the target method call, to the target method input var list
 		if (!tgtMethodCall.isStatic() && !tgtMethodCall.isConstructorCall()) {
-			tgtMethodInputs.add(initSeq.getLastVariable().getDeclIndex());
+			ctx.tgtMethodInputs.add(initSeq.getLastVariable().getDeclIndex());
 		}
 
 		// synthesize randoop statements for each parameter according to the test plan and
 		// extend sequence with those statements
 		for (int i = 0; i < testplanRow.size(); i++) {
 			ObjectNode param = (ObjectNode) testplanRow.get(i);
-			this.currTestPlanRowParamIndex = i;
+			ctx.currTestPlanRowParamIndex = i;
             String paramType = param.get("type").asText();
             logger.info("Synthesizing statement object for type: " + paramType);
 
@@ -1151,7 +2049,7 @@ public class TestSequenceExtender {
                 if (randoopType.isArray()) {
                     logger.info("Creating array instantiation statement");
                     // process array type parameter based on types of objects to be added to array
-                    seq = processArrayType(paramType, (ObjectNode) param.get("list_types"), seq);
+                    seq = processArrayType(ctx, paramType, (ObjectNode) param.get("list_types"), seq);
                 }
 
                 // process collection creation
@@ -1167,7 +2065,7 @@ public class TestSequenceExtender {
                     ReferenceType typeArg = typeArgs.isEmpty() ? null : typeArgs.get(0);
 
                     // process collection type parameter and extend sequence
-                    seq = processCollectionType(paramType, (ObjectNode) param.get("list_types"), typeArg,
+                    seq = processCollectionType(ctx, paramType, (ObjectNode) param.get("list_types"), typeArg,
                         true, seq);
                 }
 
@@ -1189,45 +2087,45 @@ public class TestSequenceExtender {
 
                     // process map type parameter and extend sequence; the next element
                     // of the row gives the types of objects to be added to the map
-                    seq = processMapType(paramType, keyTypeArg, valTypeArg,
+                    seq = processMapType(ctx, paramType, keyTypeArg, valTypeArg,
                         (ObjectNode) param.get("key_types"),
                         (ObjectNode) param.get("value_types"), true, seq);
                 }
 
                 // default: process scalar type instantiation
                 else {
-                    seq = processScalarType(randoopType, true, seq);
+                    seq = processScalarType(ctx, randoopType, true, seq);
                 }
             } catch (ClassNotFoundException|NoClassDefFoundError cnfe) {
                 String errmsg = "Class not found for type: " + paramType + " in signature " +
                     tgtMethodSig + "\n" + cnfe;
                 logger.warning(errmsg);
-                this.extSummary.uncovTestPlanRows__excp__ClassNotFound++;
-                this.extSummary.classNotFoundTypes.add(cnfe.getMessage());
+                ctx.summary.uncovTestPlanRows__excp__ClassNotFound++;
+                ctx.summary.classNotFoundTypes.add(cnfe.getMessage());
                 throw new RuntimeException(errmsg, cnfe);
             } catch (OperationParseException ope) {
                 String errmsg = "Operation parse error for type: " + paramType + " in signature " +
                     tgtMethodSig + "\n" + ope;
                 logger.warning(errmsg);
-                this.extSummary.uncovTestPlanRows__excp__OperationParse++;
+                ctx.summary.uncovTestPlanRows__excp__OperationParse++;
                 throw new RuntimeException(errmsg, ope);
             } catch (NoSuchMethodException nsme) {
                 String errmsg = "Method/constructor not found for type: " + paramType + "in signature "
                     + tgtMethodSig + "\n" + nsme;
                 logger.warning(errmsg);
-                this.extSummary.uncovTestPlanRows__excp__NoSuchMethod++;
+                ctx.summary.uncovTestPlanRows__excp__NoSuchMethod++;
                 throw new RuntimeException(errmsg, nsme);
             } catch (NonInstantiableTypeException nite){ // todo - Exception should be revisited
                 String errmsg = "type " + paramType + " is not instantiable in signature "
                         + tgtMethodSig + "\n" + nite;
                 logger.warning(errmsg);
-                this.extSummary.uncovTestPlanRows__excp__NonInstantiableType++;
+                ctx.summary.uncovTestPlanRows__excp__NonInstantiableType++;
                 throw new RuntimeException(nite.getMessage(), nite);
             } catch (IllegalArgumentException iae){ // todo - Exception should be revisited
                 String errmsg = "argument is not legal for type: " + paramType + "in signature "
                         + tgtMethodSig + "\n" + iae;
                 logger.warning(errmsg);
-                this.extSummary.uncovTestPlanRows__excp__exec__IllegalArgument++;
+                ctx.summary.uncovTestPlanRows__excp__exec__IllegalArgument++;
                 throw new RuntimeException(iae.getMessage(), iae);
             }
 		}
@@ -1236,7 +2134,7 @@ public class TestSequenceExtender {
 		Sequence finalSeq = seq;
 
 		// build list of variables from the list of variable indexes
-		List<Variable> inputVars = tgtMethodInputs.stream()
+		List<Variable> inputVars = ctx.tgtMethodInputs.stream()
             .map(idx -> finalSeq.getVariable(idx))
             .collect(Collectors.toList());
 
@@ -1278,13 +2176,15 @@ public class TestSequenceExtender {
 	 * @param seq             Sequence to be extended
 	 * @return Extended sequence
 	 */
-	private Sequence processScalarType(Type scalarType, boolean isTgtMethodParm, Sequence seq)
+	private Sequence processScalarType(ClassExtensionContext ctx, Type scalarType, boolean isTgtMethodParm, Sequence seq)
         throws NonInstantiableTypeException, ClassNotFoundException, OperationParseException {
 //        String typeName = scalarType.getFqName();
 		String typeName = scalarType.getRawtype().getBinaryName();
 		if (scalarType.isPrimitive() || scalarType.isBoxedPrimitive() || scalarType.isString()) {
-			// process primitive types
-			seq = SequenceUtil.addPrimitiveAssignment(scalarType, seq, this.sequencePool);
+			// process primitive types; the value pool is shared by classes extended concurrently
+			synchronized (this.sequencePool) {
+				seq = SequenceUtil.addPrimitiveAssignment(scalarType, seq, this.sequencePool);
+			}
 		}
 		else if (scalarType.isEnum()) {
 		    // process enum types
@@ -1293,30 +2193,34 @@ public class TestSequenceExtender {
 		else {
 			logger.info("Creating instantiation statement for type: " + typeName);
 			Sequence typeInstSeq = null;
-			// check whether sequences for creating type instance exist in class sequence pool
-			if (this.sequencePool.classTestSeqPool.containsKey(typeName)) {
-				// select random sequence from pool
-				typeInstSeq = SequenceUtil.selectFromSequenceSet(this.sequencePool.classTestSeqPool.get(typeName));
-			} else {
-				// attempt to create a new sequence for instantiating this type
-				try {
-					typeInstSeq = ConstructorSequenceGenerator.createConstructorSequence(typeName, null,true,
-                        this.sequencePool, 0);
-				} catch (ClassNotFoundException | NoSuchMethodException cnfe) {
-					logger.warning("Error creating constructor sequence for " + typeName + ": " + cnfe);
-				}
-
-				// if a sequence is not created, check whether constructor sequences for a subtype
-				// of this type exist in the class sequence pool; if so, use a sequence for a subtype
-				if (typeInstSeq == null) {
-					SortedSet<Sequence> subtypeCtorSeqs = null;
+			// sequence pool is shared by classes extended concurrently, and is updated when new
+			// constructor sequences are created; only pool lookups and insertions hold its lock
+			synchronized (this.sequencePool) {
+				// check whether sequences for creating type instance exist in class sequence pool
+				if (this.sequencePool.classTestSeqPool.containsKey(typeName)) {
+					// select random sequence from pool
+					typeInstSeq = SequenceUtil.selectFromSequenceSet(this.sequencePool.classTestSeqPool.get(typeName));
+				} else {
+					// attempt to create a new sequence for instantiating this type
 					try {
-						subtypeCtorSeqs = getSubtypeConstructorSequences(typeName, isTgtMethodParm);
-						if (subtypeCtorSeqs != null) {
-							typeInstSeq = SequenceUtil.selectFromSequenceSet(subtypeCtorSeqs);
+						typeInstSeq = ConstructorSequenceGenerator.createConstructorSequence(typeName, null,true,
+	                        this.sequencePool, 0);
+					} catch (ClassNotFoundException | NoSuchMethodException cnfe) {
+						logger.warning("Error creating constructor sequence for " + typeName + ": " + cnfe);
+					}
+
+					// if a sequence is not created, check whether constructor sequences for a subtype
+					// of this type exist in the class sequence pool; if so, use a sequence for a subtype
+					if (typeInstSeq == null) {
+						SortedSet<Sequence> subtypeCtorSeqs = null;
+						try {
+							subtypeCtorSeqs = getSubtypeConstructorSequences(ctx, typeName, isTgtMethodParm);
+							if (subtypeCtorSeqs != null) {
+								typeInstSeq = SequenceUtil.selectFromSequenceSet(subtypeCtorSeqs);
+							}
+						} catch (ClassNotFoundException cnfe) {
+							logger.warning("Error getting subtype constructor sequence for " + typeName + ": " + cnfe);
 						}
-					} catch (ClassNotFoundException cnfe) {
-						logger.warning("Error getting subtype constructor sequence for " + typeName + ": " + cnfe);
 					}
 				}
 			}
@@ -1328,7 +2232,7 @@ public class TestSequenceExtender {
 				String errmsg = "No constructor sequence found for type " + typeName
 						+ " (or a subtype) in the class sequence pool; could not create new sequence";
 				logger.warning(errmsg);
-				this.extSummary.nonInstantiableTypes.add(typeName);
+				ctx.summary.nonInstantiableTypes.add(typeName);
 				if (isTgtMethodParm) {
 					// if type is a target method param, throw exception indicating non-instantiable type
 					throw new NonInstantiableTypeException(errmsg);
@@ -1346,7 +2250,7 @@ public class TestSequenceExtender {
 		// if type is target method parameter, add last var to list of target method param vars
 		Variable lastVar = seq.getLastVariable();
 		if (isTgtMethodParm) {
-			tgtMethodInputs.add(lastVar.getDeclIndex());
+			ctx.tgtMethodInputs.add(lastVar.getDeclIndex());
 		}
 		return seq;
 	}
@@ -1361,7 +2265,7 @@ public class TestSequenceExtender {
 	 * @return Extended sequence
 	 * @throws ClassNotFoundException
 	 */
-	private Sequence processArrayType(String arrType, ObjectNode arrElemSpec, Sequence seq)
+	private Sequence processArrayType(ClassExtensionContext ctx, String arrType, ObjectNode arrElemSpec, Sequence seq)
         throws ClassNotFoundException, NoSuchMethodException, OperationParseException {
 
 		// build list of types whose instances are to be added to the array
@@ -1387,7 +2291,7 @@ public class TestSequenceExtender {
                     .split(",")
                 );
             }
-            Pair<Sequence,Integer> extSeq = processElement(elemType, arrElemSpec, seq);
+            Pair<Sequence,Integer> extSeq = processElement(ctx, elemType, arrElemSpec, seq);
             // if the sequence was extended, add the generated var to the array element var list
 			if (extSeq.a.size() > seq.size()) {
 			    seq = extSeq.a;
@@ -1401,7 +2305,7 @@ public class TestSequenceExtender {
 		// type pool), raise an exception as the test plan row cannot be covered without
 		// creating new types
 		if (arrElemVarsIdx.isEmpty()) {
-			this.extSummary.uncovTestPlanRows__excp__NoArrayElementType++;
+			ctx.summary.uncovTestPlanRows__excp__NoArrayElementType++;
 			throw new RuntimeException("Sequence generation for array type with elements " + elemTypes
                 + " not found in class sequence pool");
 		}
@@ -1411,7 +2315,7 @@ public class TestSequenceExtender {
 		if (uncovElemTypes.size() > 0) {
 			logger.warning("Array type partially covered: " + uncovElemTypes.size() + "/" +
                 elemTypes.size() + " uncovered types: " + uncovElemTypes);
-			this.rowPartiallyCovered = true;
+			ctx.rowPartiallyCovered = true;
 		}
 
 		// create list of input vars for array elements
@@ -1442,7 +2346,7 @@ public class TestSequenceExtender {
 		seq = seq.extend(initArrInst, arrElemVars);
 
 		// add the variable index for array creation to target method inputs
-		tgtMethodInputs.add(seq.getLastVariable().getDeclIndex());
+		ctx.tgtMethodInputs.add(seq.getLastVariable().getDeclIndex());
 
 		return seq;
 	}
@@ -1460,7 +2364,7 @@ public class TestSequenceExtender {
 	 * @throws NoSuchMethodException
 	 * @throws ClassNotFoundException
 	 */
-	private Sequence processCollectionType(String colType, ObjectNode colElemSpec,
+	private Sequence processCollectionType(ClassExtensionContext ctx, String colType, ObjectNode colElemSpec,
                                            ReferenceType typeArgument, boolean isTgtMethodParm,
                                            Sequence seq)
         throws NoSuchMethodException, ClassNotFoundException, OperationParseException {
@@ -1492,7 +2396,7 @@ public class TestSequenceExtender {
 		for (String elemType : elemTypes) {
 //			Type rndElemType = getRandoopType(elemType);
 //			Sequence extSeq = processScalarType(rndElemType, false, seq);
-            Pair<Sequence,Integer> extSeq = processElement(elemType, colElemSpec, seq);
+            Pair<Sequence,Integer> extSeq = processElement(ctx, elemType, colElemSpec, seq);
 			if (extSeq.a.size() > seq.size()) {
 				// if the sequence was extended, extend it with call to add method of collection
 				// to add the created element
@@ -1514,7 +2418,7 @@ public class TestSequenceExtender {
 
 		// add the variable index for collection creation to target method inputs
         if (isTgtMethodParm) {
-            tgtMethodInputs.add(colInstVarIdx);
+            ctx.tgtMethodInputs.add(colInstVarIdx);
         }
 
 		// if uncovered element types exist, the coverage requirement is partially covered;
@@ -1522,7 +2426,7 @@ public class TestSequenceExtender {
 		if (uncovElemTypes.size() > 0) {
 			logger.warning("Collection type partially covered: " + uncovElemTypes.size() + "/" +
                 elemTypes.size() + " uncovered types: " + uncovElemTypes);
-			this.rowPartiallyCovered = true;
+			ctx.rowPartiallyCovered = true;
 		}
 
 		return seq;
@@ -1542,7 +2446,7 @@ public class TestSequenceExtender {
      * @throws NoSuchMethodException
      * @throws ClassNotFoundException
      */
-    private Sequence processMapType(String mapType, ReferenceType keyTypeArgument, ReferenceType valueTypeArgument,
+    private Sequence processMapType(ClassExtensionContext ctx, String mapType, ReferenceType keyTypeArgument, ReferenceType valueTypeArgument,
                                     ObjectNode keyElemSpec, ObjectNode valueElemSpec, boolean isTgtMethodParam,
                                     Sequence seq)
         throws NoSuchMethodException, ClassNotFoundException, OperationParseException {
@@ -1566,12 +2470,12 @@ public class TestSequenceExtender {
         List<String> uncovValueTypes = new ArrayList<>();
 
         // extend sequence with statements for adding elements to the instantiated map
-        seq = extendSequenceWithMapElements(keyElemSpec, valueElemSpec, seq, mapPutMethod, mapInstVarIdx,
+        seq = extendSequenceWithMapElements(ctx, keyElemSpec, valueElemSpec, seq, mapPutMethod, mapInstVarIdx,
             mapSubst, uncovKeyTypes, uncovValueTypes);
 
         // add the variable index for map creation to target method
         if (isTgtMethodParam) {
-            tgtMethodInputs.add(mapInstVarIdx);
+            ctx.tgtMethodInputs.add(mapInstVarIdx);
         }
 
         // if uncovered map key or value types exist, the coverage requirement is partially covered;
@@ -1579,7 +2483,7 @@ public class TestSequenceExtender {
         if (uncovKeyTypes.size() > 0 || uncovValueTypes.size() > 0) {
             logger.warning("Map type partially covered; uncovered key types: " + uncovKeyTypes +
                 "; uncovered value types: " + uncovValueTypes);
-            this.rowPartiallyCovered = true;
+            ctx.rowPartiallyCovered = true;
         }
 
         return seq;
@@ -1598,7 +2502,7 @@ public class TestSequenceExtender {
      * @return
      * @throws ClassNotFoundException
      */
-    private Sequence extendSequenceWithMapElements(ObjectNode keyElemSpec, ObjectNode valueElemSpec,
+    private Sequence extendSequenceWithMapElements(ClassExtensionContext ctx, ObjectNode keyElemSpec, ObjectNode valueElemSpec,
                                                    Sequence seq, Method mapPutMethod,
                                                    int mapInstVarIndex, Substitution mapSubst,
                                                    List<String> uncovKeyTypes, List<String> uncovValueTypes)
@@ -1611,7 +2515,7 @@ public class TestSequenceExtender {
         // create sequence for instantiating each key type
         List<Pair<Sequence, Integer>> keySequences = new ArrayList<>();
         for (String keyType : keyTypes) {
-            Pair<Sequence,Integer> keySeq = processElement(keyType, keyElemSpec, new Sequence());
+            Pair<Sequence,Integer> keySeq = processElement(ctx, keyType, keyElemSpec, new Sequence());
             if (keySeq.a.size() > 0) {
                 keySequences.add(keySeq);
             } else {
@@ -1622,7 +2526,7 @@ public class TestSequenceExtender {
         // create sequence for instantiating each value type
         List<Pair<Sequence, Integer>> valueSequences = new ArrayList<>();
         for (String valueType : valueTypes) {
-            Pair<Sequence,Integer> valueSeq = processElement(valueType, valueElemSpec, new Sequence());
+            Pair<Sequence,Integer> valueSeq = processElement(ctx, valueType, valueElemSpec, new Sequence());
             if (valueSeq.a.size() > 0) {
                 valueSequences.add(valueSeq);
             } else {
@@ -1679,7 +2583,7 @@ public class TestSequenceExtender {
      * @throws ClassNotFoundException
      * @throws NoSuchMethodException
      */
-    private Pair<Sequence, Integer> processElement(String elemType, ObjectNode elemSpec, Sequence seq)
+    private Pair<Sequence, Integer> processElement(ClassExtensionContext ctx, String elemType, ObjectNode elemSpec, Sequence seq)
         throws ClassNotFoundException, NoSuchMethodException, OperationParseException {
         String typeName = elemType;
         if (elemType.contains("<")) {
@@ -1709,7 +2613,7 @@ public class TestSequenceExtender {
             }
 
             // extend sequence with statements for creating and adding elements to collection
-            seq = processCollectionType(colType, (ObjectNode) elemSpec.get("list_types"), typeArgument,
+            seq = processCollectionType(ctx, colType, (ObjectNode) elemSpec.get("list_types"), typeArgument,
                 false, seq);
             return new Pair<>(seq, inputSeqSize);
         }
@@ -1737,7 +2641,7 @@ public class TestSequenceExtender {
             }
 
             // extend sequence with statements for creating and adding elements to map
-            seq = processMapType(mapType, keyTypeArgument, valueTypeArgument,
+            seq = processMapType(ctx, mapType, keyTypeArgument, valueTypeArgument,
                 (ObjectNode) elemSpec.get("key_types"),
                 (ObjectNode) elemSpec.get("value_types"), false, seq);
             return new Pair<>(seq, inputSeqSize);
@@ -1749,36 +2653,27 @@ public class TestSequenceExtender {
             logger.info("Processing nested array");
 
             // extend sequence with statements for creating and adding elements to array
-            seq = processArrayType(elemType, (ObjectNode) elemSpec.get("list_types"), seq);
+            seq = processArrayType(ctx, elemType, (ObjectNode) elemSpec.get("list_types"), seq);
             return new Pair<>(seq, seq.size()-1);
         }
 
         // map element is a scalar type
-        seq = processScalarType(rndElemType, false, seq);
+        seq = processScalarType(ctx, rndElemType, false, seq);
         return new Pair<>(seq, seq.size()-1);
     }
 
 	/**
-	 * Returns coverage map for the given partition, class, and method. Initializes
+	 * Returns coverage map for the given method of the class being extended. Initializes
 	 * coverage information for method to uncovered.
 	 *
-	 * @param partName     Name of partition
-	 * @param clsName      Name of class
+	 * @param ctx          Extension context of the class
 	 * @param methodSig    Signature of method
 	 * @param testPlanRows Test plan rows for the method
 	 * @return Map from test plan row to coverage constant string
 	 */
-	private Map<String, Constants.TestPlanRowCoverage> getProxyMethodCovInfo(String partName, String clsName,
+	private Map<String, Constants.TestPlanRowCoverage> getProxyMethodCovInfo(ClassExtensionContext ctx,
 			String methodSig, ArrayNode[] testPlanRows) {
-		if (!this.coverageInfo.containsKey(partName)) {
-			this.coverageInfo.put(partName, new HashMap<>());
-		}
-		Map<String, Map<String, Map<String, Constants.TestPlanRowCoverage>>> partCovInfo = this.coverageInfo
-				.get(partName);
-		if (!partCovInfo.containsKey(clsName)) {
-			partCovInfo.put(clsName, new HashMap<>());
-		}
-		Map<String, Map<String, Constants.TestPlanRowCoverage>> clsCovInfo = partCovInfo.get(clsName);
+		Map<String, Map<String, Constants.TestPlanRowCoverage>> clsCovInfo = ctx.coverageInfo;
 		if (!clsCovInfo.containsKey(methodSig)) {
 			clsCovInfo.put(methodSig, new HashMap<>());
 		}
@@ -1840,11 +2735,13 @@ public class TestSequenceExtender {
 	 * the given type name, if a subtype exists and is not specified as another
 	 * coverage goal for the current parameter, or null otherwise.
 	 *
+	 * @param ctx
 	 * @param typeName
 	 * @return
 	 * @throws ClassNotFoundException
 	 */
-	private SortedSet<Sequence> getSubtypeConstructorSequences(String typeName, boolean isTgtMethodParam)
+	private SortedSet<Sequence> getSubtypeConstructorSequences(ClassExtensionContext ctx, String typeName,
+			boolean isTgtMethodParam)
 			throws ClassNotFoundException {
 
 		// get all subtypes of the given type for which constructor sequences exist in the
@@ -1869,8 +2766,8 @@ public class TestSequenceExtender {
 		if (isTgtMethodParam) {
 			// for non array/collection type, iterate over test plan rows and get the specification
 			// for the current paramater
-			for (ArrayNode testPlanRow : currTestPlanRows) {
-				ObjectNode param = (ObjectNode) testPlanRow.get(currTestPlanRowParamIndex);
+			for (ArrayNode testPlanRow : ctx.currTestPlanRows) {
+				ObjectNode param = (ObjectNode) testPlanRow.get(ctx.currTestPlanRowParamIndex);
 				Iterator<String> iter = param.fieldNames();
 				while (iter.hasNext()) {
 					String key = iter.next();
@@ -1883,8 +2780,8 @@ public class TestSequenceExtender {
 			}
 		} else {
 			// for array/collection type, get all types in specification of the current test plan row
-			ArrayNode testPlanRow = currTestPlanRows[currTestPlanRowIndex];
-			ArrayNode colElemSpec = (ArrayNode) testPlanRow.get(currTestPlanRowParamIndex)
+			ArrayNode testPlanRow = ctx.currTestPlanRows[ctx.currTestPlanRowIndex];
+			ArrayNode colElemSpec = (ArrayNode) testPlanRow.get(ctx.currTestPlanRowParamIndex)
                 .get("list_types");
 			otherTypesForParam.addAll(mapper.convertValue(colElemSpec, new TypeReference<List<String>>(){}));
 		}
@@ -1942,6 +2839,23 @@ public class TestSequenceExtender {
 					.desc("Number of times to execute each sequence. Default is "+Constants.NUM_SEQUENCE_EXECUTION).type(Integer.class).build());
 
 
+		// options for adaptive repetition of sequence executions
+		options.addOption(Option.builder("se").longOpt("stable-executions").hasArg()
+					.desc("Stop executing a sequence once its recorded state is identical for this many consecutive "+
+						"executions (adaptive repetition). Default is 0, which executes each sequence --num-executions times")
+					.type(Integer.class).build());
+		options.addOption(Option.builder("ee").longOpt("escalated-executions").hasArg()
+					.desc("With adaptive repetition, number of executions for sequences whose recorded state changes "+
+						"between executions. Default is twice --num-executions").type(Integer.class).build());
+
+		// options for executing sequences in worker JVMs
+		options.addOption(Option.builder("fw").longOpt("forked-workers").hasArg()
+					.desc("Number of worker JVMs in which sequences are executed, isolated from the extender. "+
+						"Default is 0, which executes sequences in-process").type(Integer.class).build());
+		options.addOption(Option.builder("wr").longOpt("worker-restart-interval").hasArg()
+					.desc("Number of sequences executed by a worker JVM before it is restarted. Default is "+
+						ForkedSequenceExecutionPool.DEFAULT_RESTART_INTERVAL).type(Integer.class).build());
+
 		// option for output directory in which generated tests are written
 		options.addOption(Option.builder("od").longOpt("output-directory").hasArg()
 				.desc("Name of directory to which generate tests are written").type(String.class).build());
@@ -1954,6 +2868,100 @@ public class TestSequenceExtender {
 		options.addOption(Option.builder("bp").longOpt("bad-path")
 							.desc("Generating bad path test cases for failing sequences").build());
 
+		// option for number of worker threads for processing classes concurrently
+		options.addOption(Option.builder("nw").longOpt("num-workers").hasArg()
+				.desc("Number of worker threads in each stage of processing classes concurrently. Default is 1")
+				.type(Integer.class).build());
+
+		// option for number of worker threads in each stage of class processing
+		options.addOption(Option.builder("sw").longOpt("stage-workers").hasArg()
+				.desc("Comma-separated number of worker threads for the extension, execution, assertion, and export "+
+					"stages of class processing (e.g., 2,4,1,1); overrides --num-workers")
+				.type(String.class).build());
+
+		// option for maximum number of classes in flight
+		options.addOption(Option.builder("pc").longOpt("pipeline-capacity").hasArg()
+				.desc("Maximum number of classes processed concurrently. Default is twice the largest number "+
+					"of stage workers").type(Integer.class).build());
+
+		// option for reading the test plan one class at a time
+		options.addOption(Option.builder("st").longOpt("stream-test-plan")
+				.desc("Read the CTD test plan one class at a time instead of reading the entire test plan into memory")
+				.build());
+
+		// option for reusing the results of the previous run for unchanged classes
+		options.addOption(Option.builder("inc").longOpt("incremental")
+				.desc("Extend only classes whose inputs (test plan, building-block sequences, bytecode) changed "+
+					"since the previous run, reusing the test files and coverage of the other classes").build());
+
+		// option for resuming an interrupted run
+		options.addOption(Option.builder("rs").longOpt("resume")
+				.desc("Resume an interrupted run, skipping classes completed in that run and merging their "+
+					"results from checkpoints").build());
+
+		// option for adaptive time limits of sequence executions
+		options.addOption(Option.builder("at").longOpt("adaptive-timeout")
+				.desc("Derive time limits for sequence executions from the execution times observed for the target "+
+					"class and method, instead of a fixed limit of "+SequenceExecutor.SINGLE_EXECUTION_SEC_LIMIT+
+					" seconds").build());
+
+		// options for the budget for recording object state during sequence execution
+		options.addOption(Option.builder("cbf").longOpt("capture-max-fields").hasArg()
+				.desc("Maximum number of fields whose values are recorded per runtime object; objects with more "+
+					"fields are recorded by type only. Default is no limit").type(Integer.class).build());
+
+		options.addOption(Option.builder("cbb").longOpt("capture-max-bytes").hasArg()
+				.desc("Maximum size, in bytes, of the recorded state of a runtime object; objects with larger "+
+					"state are recorded by type only. Default is no limit").type(Integer.class).build());
+
+		options.addOption(Option.builder("cbt").longOpt("capture-time-budget").hasArg()
+				.desc("Maximum time, in milliseconds, spent recording object state per sequence execution; "+
+					"objects recorded after the budget is spent are recorded by type only. Default is no limit")
+				.type(Long.class).build());
+
+		// option for reusing the recorded results of shared sequence prefixes
+		options.addOption(Option.builder("pt").longOpt("prefix-trie")
+				.desc("Reuse the results recorded for a prefix shared by extended sequences of a class (e.g., the "+
+					"construction of the receiver object), instead of recording them for each sequence").build());
+
+		// option for executing sequences as compiled code
+		options.addOption(Option.builder("cx").longOpt("compiled-execution")
+				.desc("Compile extended sequences into classes and execute them as compiled code, instead of "+
+					"interpreting their statements reflectively; requires a JDK").build());
+
+		// option for compiling JEE unit tests in memory
+		options.addOption(Option.builder("jmc").longOpt("jee-memory-compilation")
+				.desc("Compile the JUnit tests with which failing sequences are rerun under JEE support in memory, "+
+					"writing them to the output directory only if some of their tests pass; requires a JDK").build());
+
+		// option for running JEE unit tests in persistent runner JVMs
+		options.addOption(Option.builder("jpr").longOpt("jee-persistent-runner").hasArg()
+				.desc("Run the JUnit tests with which failing sequences are rerun under JEE support in persistent "+
+					"runner JVMs, restarted after the given number of test classes, instead of in a JVM per class. "+
+					"Default restart interval is "+PersistentJUnitRunner.DEFAULT_RESTART_INTERVAL)
+				.type(Integer.class).build());
+
+		// option for batching JEE reruns across classes
+		options.addOption(Option.builder("jbs").longOpt("jee-batch-size").hasArg()
+				.desc("Rerun failing sequences under JEE support in batches of the given number of classes of a "+
+					"partition (0 for all classes of a partition), compiling and running the JUnit tests of a batch "+
+					"together, instead of class by class")
+				.type(Integer.class).build());
+
+		// options for rerunning only failed sequences predicted to pass under JEE support
+		options.addOption(Option.builder("jrc").longOpt("jee-rerun-classification")
+				.desc("Rerun under JEE support only failed sequences that are predicted to pass, based on the "+
+					"exception with which they failed; uses the default rules unless a rules file is given").build());
+		options.addOption(Option.builder("jrr").longOpt("jee-rerun-rules").hasArg()
+				.desc("File with rules, one per line, that predict from the exception with which a sequence failed "+
+					"whether to rerun it under JEE support (e.g., 'skip exception=java.lang.ClassCastException')")
+				.type(String.class).build());
+
+		// option for spilling the sequences of completed classes to disk
+		options.addOption(Option.builder("mb").longOpt("memory-bounded")
+				.desc("Spill the sequences of each class to disk once its test file is written, instead of keeping "+
+					"sequences and execution results of all classes in memory").build());
+
 		// help option
 		options.addOption(Option.builder("h").longOpt("help").desc("Print this help message").build());
 
@@ -2044,7 +3052,69 @@ public class TestSequenceExtender {
 		// create extended sequences
 		TestSequenceExtender testSeqExt = new TestSequenceExtender(appName, testPlanFilename,
             testSeqFilename, true,
-				outputDir, jee, numExecutions, addDiffAsserts, outputCoveredInteraction, badPath);
+				outputDir, jee, numExecutions, addDiffAsserts, outputCoveredInteraction, badPath,
+				cmd.hasOption("st"));
+		if (cmd.hasOption("nw")) {
+			testSeqExt.setNumWorkers(Integer.parseInt(cmd.getOptionValue("nw")));
+		}
+		if (cmd.hasOption("sw")) {
+			String[] stageWorkers = cmd.getOptionValue("sw").split(",");
+			if (stageWorkers.length != 4) {
+				throw new IllegalArgumentException("Expected worker counts for 4 stages: " + cmd.getOptionValue("sw"));
+			}
+			testSeqExt.setStageWorkers(Integer.parseInt(stageWorkers[0].trim()),
+				Integer.parseInt(stageWorkers[1].trim()), Integer.parseInt(stageWorkers[2].trim()),
+				Integer.parseInt(stageWorkers[3].trim()));
+		}
+		if (cmd.hasOption("se")) {
+			int escalatedExecutions = cmd.hasOption("ee") ? Integer.parseInt(cmd.getOptionValue("ee")) :
+				2 * numExecutions;
+			testSeqExt.setAdaptiveRepetition(Integer.parseInt(cmd.getOptionValue("se")), escalatedExecutions);
+		}
+		if (cmd.hasOption("fw")) {
+			int workerRestartInterval = cmd.hasOption("wr") ? Integer.parseInt(cmd.getOptionValue("wr")) :
+				ForkedSequenceExecutionPool.DEFAULT_RESTART_INTERVAL;
+			testSeqExt.setForkedExecution(Integer.parseInt(cmd.getOptionValue("fw")), workerRestartInterval);
+		}
+		if (cmd.hasOption("pc")) {
+			testSeqExt.setPipelineCapacity(Integer.parseInt(cmd.getOptionValue("pc")));
+		}
+		if (cmd.hasOption("rs")) {
+			testSeqExt.setResume(true);
+		}
+		if (cmd.hasOption("inc")) {
+			testSeqExt.setIncremental(true);
+		}
+		if (cmd.hasOption("mb")) {
+			testSeqExt.setMemoryBounded(true);
+		}
+		if (cmd.hasOption("at")) {
+			testSeqExt.setAdaptiveTimeout(true);
+		}
+		if (cmd.hasOption("pt")) {
+			testSeqExt.setPrefixTrieExecution(true);
+		}
+		if (cmd.hasOption("cx")) {
+			testSeqExt.setCompiledExecution(true);
+		}
+		if (cmd.hasOption("jmc")) {
+			testSeqExt.setJEEInMemoryCompilation(true);
+		}
+		if (cmd.hasOption("jpr")) {
+			testSeqExt.setJEEPersistentRunner(Integer.parseInt(cmd.getOptionValue("jpr")));
+		}
+		if (cmd.hasOption("jbs")) {
+			testSeqExt.setJEEBatching(Integer.parseInt(cmd.getOptionValue("jbs")));
+		}
+		if (cmd.hasOption("jrr")) {
+			testSeqExt.setJEERerunClassifier(JEERerunClassifier.fromFile(new File(cmd.getOptionValue("jrr"))));
+		} else if (cmd.hasOption("jrc")) {
+			testSeqExt.setJEERerunClassifier(new JEERerunClassifier());
+		}
+		if (cmd.hasOption("cbf") || cmd.hasOption("cbb") || cmd.hasOption("cbt")) {
+			testSeqExt.setCaptureBudget(new CaptureBudget(Integer.parseInt(cmd.getOptionValue("cbf", "0")),
+				Integer.parseInt(cmd.getOptionValue("cbb", "0")), Long.parseLong(cmd.getOptionValue("cbt", "0"))));
+		}
 		testSeqExt.createExtendedSequences();
 
 		// write test classes
@@ -2052,6 +3122,9 @@ public class TestSequenceExtender {
 
 		// write coverage file
         testSeqExt.writeTestCoverageFile(appName, coverageFilename);
+
+        // remove sequences spilled to disk, if any
+        testSeqExt.deleteSpilledSequences();
 	}
 
 	class NonInstantiableTypeException extends RuntimeException {
@@ -17,7 +17,6 @@
 package org.konveyor.tackle.testgen.model;
 
 import java.io.IOException;
-import java.io.PrintStream;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -27,6 +26,7 @@ import java.util.Map;
 import java.util.logging.Logger;
 
 import org.konveyor.tackle.testgen.util.TackleTestLogger;
+import org.konveyor.tackle.testgen.util.ThreadOutputRouter;
 import org.konveyor.tackle.testgen.util.Utils;
 
 import edu.uta.cse.fireeye.common.Parameter;
@@ -188,22 +188,12 @@ class CTDModeler {
 			// add this relation into the CTD model
 			methodModel.addRelation(r);
 
-            // disable stdout before calling test-plan generator
-            System.out.flush();
-            PrintStream origSysOut = System.out;
-
-            PrintStream nullPrintStream = new java.io.PrintStream(
-                new java.io.OutputStream() {
-                    public void write(int b) {}
-                }
-            );
-            System.setOut(nullPrintStream);
-
-            TestSet resultTestPlan = generatePlan(methodModel);
-
-            // restore stdout
-            System.out.flush();
-            System.setOut(origSysOut);
+            // disable stdout before calling test-plan generator (for the current thread only, so that
+            // models can be generated concurrently)
+            TestSet resultTestPlan;
+            try (ThreadOutputRouter.Redirection redirection = ThreadOutputRouter.discard()) {
+                resultTestPlan = generatePlan(methodModel);
+            }
 
 			return new CTDModelAndTestPlan(methodModel, resultTestPlan);
 		}
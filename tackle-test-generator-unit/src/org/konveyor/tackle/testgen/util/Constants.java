@@ -49,6 +49,16 @@ public class Constants {
 
     public static final String EXECUTOR_OUTFILE_SUFFIX = "sequences_results.json";
 
+    /** Suffix of directory to which the results of executing the sequences are written in shards, in the
+     * parallel batch mode of the sequence executor. The application name is added at the beginning of the directory name */
+
+    public static final String EXECUTOR_OUTDIR_SUFFIX = "sequences_results";
+
+    /** Suffix of file name to which the results of executing the sequences are written in the binary results format.
+     * The application name is added at the beginning of the file name */
+
+    public static final String EXECUTOR_BINARY_OUTFILE_SUFFIX = "sequences_results.bin";
+
     /** Suffix of file name to which the initial basic block sequences generated by the test generator are written.
      * The application name is added at the beginning of the file name */
 
@@ -91,6 +101,18 @@ public class Constants {
     /** Name of JSON file to which extender CTD coverage is written */
     public static final String CTD_COVERAGE_FILE_JSON_SUFFIX = "_ctd_coverage_report.json";
 
+    /** Suffix of directory to which the extender writes a checkpoint for each completed class,
+     * for resuming an interrupted run. The application name is added at the beginning of the directory name */
+    public static final String EXTENDER_CHECKPOINT_DIR_SUFFIX = "-extender-checkpoints";
+
+    /** Suffix of directory to which the extender spills the sequences of completed classes in
+     * memory-bounded mode. The application name is added at the beginning of the directory name */
+    public static final String EXTENDER_SPILL_DIR_SUFFIX = "-extender-spill";
+
+    /** Name of JSON file to which the extender writes the outcomes of JEE reruns of failed sequences
+     * over its runs, per category of failure */
+    public static final String JEE_RERUN_HISTORY_FILE_JSON_SUFFIX = "_jee_rerun_history.json";
+
     /** Name of JSON file to which information about sequence parse errors is written */
     public static final String SEQUENCE_PARSE_ERRORS_FILE_JSON_SUFFIX = "_base_sequence_parse_errors.json";
 
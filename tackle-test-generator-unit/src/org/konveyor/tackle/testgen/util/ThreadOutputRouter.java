@@ -0,0 +1,456 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Routes stdout and stderr output per thread. On first use, System.out and System.err are replaced,
+ * once, by streams that send the output of each thread to the sink selected for that thread, or to
+ * the original streams if no sink is selected. A redirection applies to the current thread and to
+ * threads it starts while the redirection is in effect, so that suppressing the output of application
+ * code is a thread-local toggle that is safe when application code runs concurrently on several threads:
+ * <pre>
+ * try (ThreadOutputRouter.Redirection redirection = ThreadOutputRouter.discard()) {
+ *     // output of the current thread is discarded
+ * }
+ * </pre>
+ * Output can be discarded, buffered in memory, or captured to a file.
+ * <p>
+ * Pool threads may be created under a redirection but outlive it, and run tasks for many callers;
+ * they are created through {@link #withoutRedirection(ThreadFactory)} or run their body through
+ * {@link #withoutRedirection(Runnable)}, so that they do not keep the redirection in effect when they
+ * were created, and tasks handed to them carry the redirection of the caller through
+ * {@link #withCurrentRedirection(Runnable)}.
+ */
+public final class ThreadOutputRouter {
+
+    /**
+     * Sink to which the output of a thread is sent
+     */
+    private static class Sink {
+
+        final PrintStream out;
+
+        final PrintStream err;
+
+        Sink(PrintStream out, PrintStream err) {
+            this.out = out;
+            this.err = err;
+        }
+    }
+
+    // sink of the current thread; null sends output to the original streams
+    private static final InheritableThreadLocal<Sink> currentSink = new InheritableThreadLocal<>();
+
+    private static final OutputStream DISCARD_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private static RoutingPrintStream routedOut = null;
+
+    private static RoutingPrintStream routedErr = null;
+
+    private ThreadOutputRouter() {
+    }
+
+    /**
+     * Redirection of the output of a thread, which is undone when the redirection is closed
+     */
+    public static class Redirection implements AutoCloseable {
+
+        private final Sink previous;
+
+        private final Sink sink;
+
+        private final ByteArrayOutputStream buffer;
+
+        // whether the sink streams are closed along with the redirection
+        private final boolean closeSink;
+
+        private boolean closed = false;
+
+        private Redirection(Sink sink, ByteArrayOutputStream buffer, boolean closeSink) {
+            this.previous = currentSink.get();
+            this.sink = sink;
+            this.buffer = buffer;
+            this.closeSink = closeSink;
+            currentSink.set(sink);
+        }
+
+        /**
+         * Returns the output buffered so far by a buffering redirection, or null for other redirections
+         */
+        public String getOutput() {
+            if (this.buffer == null) {
+                return null;
+            }
+            this.sink.out.flush();
+            try {
+                return this.buffer.toString(StandardCharsets.UTF_8.name());
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Restores the sink that was in effect for the current thread when the redirection was created.
+         * Must be called on the thread that created the redirection.
+         */
+        @Override
+        public void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            if (this.previous == null) {
+                currentSink.remove();
+            } else {
+                currentSink.set(this.previous);
+            }
+            if (this.closeSink) {
+                this.sink.out.close();
+                this.sink.err.close();
+            } else {
+                this.sink.out.flush();
+                this.sink.err.flush();
+            }
+        }
+    }
+
+    /**
+     * Discards stdout and stderr output of the current thread until the returned redirection is closed
+     */
+    public static Redirection discard() {
+        install();
+        // each redirection has its own streams, so that threads do not contend for a shared stream
+        PrintStream discardStream = new PrintStream(DISCARD_STREAM);
+        return new Redirection(new Sink(discardStream, discardStream), null, false);
+    }
+
+    /**
+     * Buffers stdout and stderr output of the current thread in memory until the returned redirection
+     * is closed; the output is available from {@link Redirection#getOutput()}
+     */
+    public static Redirection buffer() {
+        install();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream bufferStream = newPrintStream(buffer);
+        return new Redirection(new Sink(bufferStream, bufferStream), buffer, false);
+    }
+
+    /**
+     * Captures stdout and stderr output of the current thread to the given file until the returned
+     * redirection is closed; the file is closed along with the redirection
+     *
+     * @param file file to which output is written
+     * @param append whether to append to the file, instead of overwriting it
+     * @throws IOException if the file could not be opened
+     */
+    public static Redirection captureToFile(File file, boolean append) throws IOException {
+        install();
+        PrintStream fileStream = newPrintStream(new BufferedOutputStream(new FileOutputStream(file, append)));
+        return new Redirection(new Sink(fileStream, fileStream), null, true);
+    }
+
+    /**
+     * Returns a task that runs the given task with the sink of the current thread, for handing off
+     * work to other threads (e.g., worker pools) while keeping the output redirection of the caller
+     */
+    public static Runnable withCurrentRedirection(Runnable task) {
+        return withSink(currentSink.get(), task);
+    }
+
+    /**
+     * Returns a task that runs the given task with output sent to the original streams, whatever
+     * redirection the thread running it inherited from the thread that created it
+     */
+    public static Runnable withoutRedirection(Runnable task) {
+        return withSink(null, task);
+    }
+
+    /**
+     * Returns a factory of pool threads, created through the given factory, whose output is sent to the
+     * original streams except while they run tasks carrying a redirection (see
+     * {@link #withCurrentRedirection(Runnable)})
+     */
+    public static ThreadFactory withoutRedirection(ThreadFactory factory) {
+        return runnable -> factory.newThread(withoutRedirection(runnable));
+    }
+
+    private static Runnable withSink(Sink sink, Runnable task) {
+        return () -> {
+            Sink previous = currentSink.get();
+            if (sink == null) {
+                currentSink.remove();
+            } else {
+                currentSink.set(sink);
+            }
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    currentSink.remove();
+                } else {
+                    currentSink.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the stdout stream in effect when the router was installed, which is not subject to
+     * redirection (System.out if the router is not installed)
+     */
+    public static synchronized PrintStream getStdout() {
+        return routedOut != null && System.out == routedOut ? routedOut.original : System.out;
+    }
+
+    /**
+     * Returns the stderr stream in effect when the router was installed, which is not subject to
+     * redirection (System.err if the router is not installed)
+     */
+    public static synchronized PrintStream getStderr() {
+        return routedErr != null && System.err == routedErr ? routedErr.original : System.err;
+    }
+
+    /**
+     * Installs routing streams as System.out and System.err, unless already installed; streams set by
+     * other code after installation are wrapped by new routing streams
+     */
+    private static synchronized void install() {
+        if (System.out != routedOut) {
+            routedOut = new RoutingPrintStream(System.out, false);
+            System.setOut(routedOut);
+        }
+        if (System.err != routedErr) {
+            routedErr = new RoutingPrintStream(System.err, true);
+            System.setErr(routedErr);
+        }
+    }
+
+    private static PrintStream newPrintStream(OutputStream stream) {
+        try {
+            return new PrintStream(stream, false, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Print stream that forwards each call to the sink of the calling thread, or to the original stream
+     */
+    private static class RoutingPrintStream extends PrintStream {
+
+        final PrintStream original;
+
+        private final boolean isErr;
+
+        RoutingPrintStream(PrintStream original, boolean isErr) {
+            super(original);
+            this.original = original;
+            this.isErr = isErr;
+        }
+
+        private PrintStream target() {
+            Sink sink = currentSink.get();
+            if (sink == null) {
+                return this.original;
+            }
+            return this.isErr ? sink.err : sink.out;
+        }
+
+        @Override
+        public void write(int b) {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) {
+            target().write(buf, off, len);
+        }
+
+        @Override
+        public void flush() {
+            target().flush();
+        }
+
+        @Override
+        public void close() {
+            // the original streams stay open; sinks are closed with their redirections
+            target().flush();
+        }
+
+        @Override
+        public boolean checkError() {
+            return target().checkError();
+        }
+
+        @Override
+        public void print(boolean b) {
+            target().print(b);
+        }
+
+        @Override
+        public void print(char c) {
+            target().print(c);
+        }
+
+        @Override
+        public void print(int i) {
+            target().print(i);
+        }
+
+        @Override
+        public void print(long l) {
+            target().print(l);
+        }
+
+        @Override
+        public void print(float f) {
+            target().print(f);
+        }
+
+        @Override
+        public void print(double d) {
+            target().print(d);
+        }
+
+        @Override
+        public void print(char[] s) {
+            target().print(s);
+        }
+
+        @Override
+        public void print(String s) {
+            target().print(s);
+        }
+
+        @Override
+        public void print(Object obj) {
+            target().print(obj);
+        }
+
+        @Override
+        public void println() {
+            target().println();
+        }
+
+        @Override
+        public void println(boolean x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(char x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(int x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(long x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(float x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(double x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(char[] x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(String x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(Object x) {
+            target().println(x);
+        }
+
+        @Override
+        public PrintStream printf(String format, Object... args) {
+            target().printf(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream printf(Locale l, String format, Object... args) {
+            target().printf(l, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(String format, Object... args) {
+            target().format(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(Locale l, String format, Object... args) {
+            target().format(l, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq) {
+            target().append(csq);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq, int start, int end) {
+            target().append(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(char c) {
+            target().append(c);
+            return this;
+        }
+    }
+}
@@ -31,6 +31,7 @@ import java.util.stream.Stream;
 import org.konveyor.tackle.testgen.core.DiffAssertionsGenerator;
 import org.konveyor.tackle.testgen.core.EvoSuiteTestGenerator;
 import org.konveyor.tackle.testgen.core.RandoopTestGenerator;
+import org.konveyor.tackle.testgen.core.executor.SequenceExecutionBenchmark;
 import org.konveyor.tackle.testgen.core.executor.SequenceExecutor;
 import org.konveyor.tackle.testgen.core.extender.TestSequenceExtender;
 import org.konveyor.tackle.testgen.util.Constants;
@@ -71,6 +72,15 @@ public class TestUtils {
                                      Boolean allResults, Boolean jeeSupport, Boolean badPath,
                                      String resultsFile)
         throws IOException, InterruptedException {
+        launchProcess(testClassName, appName, appPath, appClasspathFileName, seqFile, testPlanFile,
+            allResults, jeeSupport, badPath, resultsFile, new ArrayList<>());
+    }
+
+    public static void launchProcess(String testClassName, String appName, String appPath,
+                                     String appClasspathFileName, String seqFile, String testPlanFile,
+                                     Boolean allResults, Boolean jeeSupport, Boolean badPath,
+                                     String resultsFile, List<String> extraArgs)
+        throws IOException, InterruptedException {
         String projectClasspath = "";
 
         File file = new File(appClasspathFileName);
@@ -106,6 +116,11 @@ public class TestUtils {
             processArgs.add("-all");
             processArgs.add(String.valueOf(allResults));
         }
+        else if (testClassName.equals(SequenceExecutionBenchmark.class.getSimpleName())) {
+            processArgs.add(SequenceExecutionBenchmark.class.getName());
+            processArgs.add(appName);
+            processArgs.add(seqFile);
+        }
         else if (testClassName.equals(DiffAssertionsGenerator.class.getSimpleName())) {
             processArgs.add(DiffAssertionsGenerator.class.getName());
             processArgs.add("-app");
@@ -131,6 +146,7 @@ public class TestUtils {
             }
             processArgs.add("-da");
         }
+        processArgs.addAll(extraArgs);
 
         ProcessBuilder processExecutorPB = new ProcessBuilder(processArgs);;
 //        processExecutorPB.inheritIO();
@@ -20,6 +20,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -103,6 +105,17 @@ public class DiffAssertionGeneratorTest {
 		});
 	}
 
+	@Test
+	public void testAssertableVariables() {
+
+		String code = "java.lang.String str0 = \"x\";" + System.lineSeparator() +
+			"java.lang.StringBuilder sb1 = new java.lang.StringBuilder(str0);" + System.lineSeparator() +
+			"sb1.append(1);" + System.lineSeparator();
+
+		// only declared variables can have diff assertions, hence only their state is demanded
+		assertEquals(new HashSet<String>(Arrays.asList("str0", "sb1")), DiffAssertionsGenerator.getAssertableVariables(code));
+	}
+
 	private int countMatches(String str, String findStr) {
 		int count = 0;
 		int lastIndex = 0;
@@ -0,0 +1,101 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ExecutionLatencyTrackerTest {
+
+    private static final String CLASS_NAME = "app.Service";
+
+    private static void recordMillis(ExecutionLatencyTracker tracker, String methodSig, long... millis) {
+        for (long sampleMillis : millis) {
+            tracker.record(CLASS_NAME, methodSig, TimeUnit.MILLISECONDS.toNanos(sampleMillis));
+        }
+    }
+
+    @Test
+    public void testPercentileOfSamples() {
+        ExecutionLatencyTracker tracker = new ExecutionLatencyTracker(0.5, 2, 0, 10, 4);
+        recordMillis(tracker, "run()", 4, 1, 3, 2);
+
+        // median of the samples, multiplied by the safety factor
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(4), tracker.getLimitNanos(CLASS_NAME, "run()"));
+
+        // the limit is derived again from the samples added since
+        recordMillis(tracker, "run()", 10, 10, 10, 10);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(8), tracker.getLimitNanos(CLASS_NAME, "run()"));
+    }
+
+    @Test
+    public void testMinimumSamples() {
+        ExecutionLatencyTracker tracker = new ExecutionLatencyTracker(1, 1, 0, 10, 4);
+
+        // the maximum limit applies until enough samples are available
+        assertEquals(TimeUnit.SECONDS.toNanos(10), tracker.getLimitNanos(CLASS_NAME, "run()"));
+        recordMillis(tracker, "run()", 1, 1, 1);
+        assertEquals(TimeUnit.SECONDS.toNanos(10), tracker.getLimitNanos(CLASS_NAME, "run()"));
+        recordMillis(tracker, "run()", 1);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), tracker.getLimitNanos(CLASS_NAME, "run()"));
+    }
+
+    @Test
+    public void testClassFallback() {
+        ExecutionLatencyTracker tracker = new ExecutionLatencyTracker(1, 1, 0, 10, 4);
+        recordMillis(tracker, "run()", 1, 1, 1);
+        recordMillis(tracker, "stop()", 5, 5);
+
+        // methods with too few samples get the limit derived from the samples of their class
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), tracker.getLimitNanos(CLASS_NAME, "run()"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), tracker.getLimitNanos(CLASS_NAME, "start()"));
+
+        // once a method has enough samples, its limit is derived from its own samples
+        recordMillis(tracker, "run()", 1);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), tracker.getLimitNanos(CLASS_NAME, "run()"));
+
+        // classes without enough samples get the maximum limit
+        assertEquals(TimeUnit.SECONDS.toNanos(10), tracker.getLimitNanos("app.Other", "run()"));
+    }
+
+    @Test
+    public void testLimitBounds() {
+        ExecutionLatencyTracker tracker = new ExecutionLatencyTracker(1, 10, 1, 5, 1);
+
+        // limits derived from short executions are raised to the minimum limit
+        recordMillis(tracker, "run()", 1);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), tracker.getLimitNanos(CLASS_NAME, "run()"));
+
+        // limits derived from long executions are capped at the maximum limit
+        recordMillis(tracker, "stop()", 2000);
+        assertEquals(TimeUnit.SECONDS.toNanos(5), tracker.getLimitNanos(CLASS_NAME, "stop()"));
+        assertEquals(TimeUnit.SECONDS.toNanos(5), tracker.getMaxLimitNanos());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new ExecutionLatencyTracker(0, 10, 1, 5, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBounds() {
+        new ExecutionLatencyTracker(0.99, 10, 5, 1, 1);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+public class JUnitTestRecorderTest {
+
+	public static class SampleTest {
+
+		@Test
+		public void test0() {
+		}
+
+		@Test
+		public void test1() {
+			throw new IllegalStateException();
+		}
+
+		@Test
+		public void test2() {
+		}
+	}
+
+	public static class FailingScaffoldingTest {
+
+		@BeforeClass
+		public static void beforeClass() {
+			throw new IllegalStateException();
+		}
+
+		@Test
+		public void test0() {
+		}
+	}
+
+	private static JUnitTestRecorder.RunResults run(Class<?> testClass) {
+		JUnitTestRecorder recorder = new JUnitTestRecorder();
+		JUnitCore junit = new JUnitCore();
+		junit.addListener(recorder);
+		junit.run(testClass);
+		return JUnitTestRecorder.readRecords(recorder.getRecords());
+	}
+
+	@Test
+	public void testRecordTestResults() {
+
+		JUnitTestRecorder.RunResults results = run(SampleTest.class);
+
+		assertTrue(results.completed);
+		assertNull(results.classFailure);
+		assertEquals(3, results.tests.size());
+		for (JUnitTestRecorder.TestRecord test : results.tests) {
+			assertEquals(test.index != 1, test.passed);
+			assertEquals(test.index == 1 ? IllegalStateException.class.getName() : null, test.exceptionType);
+		}
+
+		Set<Integer> failingTests = new HashSet<>();
+		assertEquals(new HashSet<>(Arrays.asList(0, 2)), results.getPassedTests(3, failingTests));
+		assertEquals(new HashSet<>(Arrays.asList(1)), failingTests);
+	}
+
+	@Test
+	public void testRecordClassFailure() {
+
+		JUnitTestRecorder.RunResults results = run(FailingScaffoldingTest.class);
+
+		assertTrue(results.completed);
+		assertEquals(IllegalStateException.class.getName(), results.classFailure);
+		assertTrue(results.getPassedTests(1, new HashSet<>()).isEmpty());
+	}
+
+	@Test
+	public void testIncompleteRun() {
+
+		JUnitTestRecorder.RunResults results = JUnitTestRecorder.readRecords(Arrays.asList("0 P - 5",
+			"Exception in thread \"main\" java.lang.OutOfMemoryError"));
+
+		assertFalse(results.completed);
+		assertEquals(1, results.tests.size());
+		assertTrue(results.getPassedTests(1, new HashSet<>()).isEmpty());
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ObjectStateAccessorsTest {
+
+    public static class Sample {
+        public static String STATIC_LABEL = "static";
+        private static int counter = 7;
+
+        public int count = 3;
+        public String label = "sample";
+        public Sample self;
+        private String name = "name";
+        private boolean active = true;
+        private int url = 80;
+        private int URL = 80;
+        private int broken = 0;
+        private int hidden = 5;
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean getActive() {
+            return active;
+        }
+
+        public int getURL() {
+            return url + URL;
+        }
+
+        public int getBroken() {
+            throw new IllegalStateException("not initialized");
+        }
+
+        public static int getCounter() {
+            return counter;
+        }
+
+        public void getNothing() {
+        }
+    }
+
+    public static class SubSample extends Sample {
+        private double ratio = 0.5;
+
+        public double getRatio() {
+            return ratio;
+        }
+    }
+
+    // not public: its members are not accessible via public lookup, and are read reflectively
+    static class PackagePrivateSample {
+        public long id = 42L;
+        private String title = "title";
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    /**
+     * Records the public fields and the getter values of the given object with reflective lookups on
+     * each call, as object state was recorded before accessors were cached
+     */
+    private static void getReflectiveState(Object object, Map<String, Object> publicState,
+                                           Map<String, Object> privateState) throws IllegalAccessException {
+        Set<String> publicFields = new HashSet<>();
+        for (Field field : object.getClass().getFields()) {
+            publicFields.add(field.getName());
+            if (field.getType().equals(object.getClass())) {
+                continue;
+            }
+            publicState.put(field.getName(), field.get(object));
+        }
+        Map<String, Method> allPublicGetters = new HashMap<>();
+        for (Method publicMethod : object.getClass().getMethods()) {
+            if (publicMethod.getName().startsWith("get") && publicMethod.getParameterCount() == 0 &&
+                !publicMethod.getReturnType().equals(Void.TYPE)) {
+                allPublicGetters.put(publicMethod.getName().toLowerCase(), publicMethod);
+            }
+        }
+        for (Field field : object.getClass().getDeclaredFields()) {
+            if (publicFields.contains(field.getName())) {
+                continue;
+            }
+            Method getterMethod = allPublicGetters.get("get" + field.getName().toLowerCase());
+            if (getterMethod != null) {
+                try {
+                    privateState.put(getterMethod.getName(), getterMethod.invoke(object));
+                } catch (InvocationTargetException e) {
+                    // skipped, as when recording object state
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the public fields and the getter values of the given object with its cached accessors
+     */
+    private static void getCachedState(Object object, Map<String, Object> publicState,
+                                       Map<String, Object> privateState) throws IllegalAccessException {
+        ObjectStateAccessors accessors = ObjectStateAccessors.forClass(object.getClass());
+        for (ObjectStateAccessors.Accessor field : accessors.publicFields) {
+            try {
+                publicState.put(field.name, field.get(object));
+            } catch (InvocationTargetException e) {
+                throw new AssertionError("Field read threw an exception", e);
+            }
+        }
+        for (ObjectStateAccessors.Accessor getter : accessors.getters) {
+            try {
+                privateState.put(getter.name, getter.get(object));
+            } catch (InvocationTargetException e) {
+                // skipped, as when recording object state
+            }
+        }
+    }
+
+    private static void assertSameState(Object object) throws IllegalAccessException {
+        Map<String, Object> reflectivePublicState = new HashMap<>();
+        Map<String, Object> reflectivePrivateState = new HashMap<>();
+        getReflectiveState(object, reflectivePublicState, reflectivePrivateState);
+        Map<String, Object> cachedPublicState = new HashMap<>();
+        Map<String, Object> cachedPrivateState = new HashMap<>();
+        getCachedState(object, cachedPublicState, cachedPrivateState);
+
+        String className = object.getClass().getName();
+        assertEquals(className, reflectivePublicState, cachedPublicState);
+        assertEquals(className, reflectivePrivateState, cachedPrivateState);
+    }
+
+    @Test
+    public void testSameStateAsReflectiveLookup() throws Exception {
+        assertSameState(new Sample());
+        assertSameState(new SubSample());
+        assertSameState(new PackagePrivateSample());
+        assertSameState(new AbstractMap.SimpleEntry<>("key", 1));
+        assertSameState(new StringBuilder("text"));
+    }
+
+    @Test
+    public void testRecordedAccessors() throws Exception {
+        Map<String, Object> publicState = new HashMap<>();
+        Map<String, Object> privateState = new HashMap<>();
+        getCachedState(new Sample(), publicState, privateState);
+
+        // public fields, including static ones, but not fields of the class type
+        assertEquals(3, publicState.get("count"));
+        assertEquals("sample", publicState.get("label"));
+        assertEquals("static", publicState.get("STATIC_LABEL"));
+        assertFalse(publicState.containsKey("self"));
+
+        // getters of non-public fields, including static ones; a getter matching several fields is
+        // recorded once, and a getter that throws is skipped
+        assertEquals("name", privateState.get("getName"));
+        assertEquals(true, privateState.get("getActive"));
+        assertEquals(160, privateState.get("getURL"));
+        assertEquals(7, privateState.get("getCounter"));
+        assertFalse(privateState.containsKey("getBroken"));
+        assertEquals(4, privateState.size());
+        assertEquals(5, ObjectStateAccessors.forClass(Sample.class).getters.size());
+
+        // members of a class that is not public are read reflectively
+        publicState.clear();
+        privateState.clear();
+        getCachedState(new PackagePrivateSample(), publicState, privateState);
+        assertEquals(42L, publicState.get("id"));
+        assertEquals("title", privateState.get("getTitle"));
+    }
+
+    @Test
+    public void testAccessorsCachedPerClass() {
+        ObjectStateAccessors accessors = ObjectStateAccessors.forClass(Sample.class);
+        assertSame(accessors, ObjectStateAccessors.forClass(Sample.class));
+        assertTrue(accessors != ObjectStateAccessors.forClass(SubSample.class));
+    }
+}
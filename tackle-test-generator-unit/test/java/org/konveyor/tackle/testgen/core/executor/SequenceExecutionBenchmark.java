@@ -0,0 +1,148 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.konveyor.tackle.testgen.core.SequenceParser;
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import randoop.sequence.Sequence;
+
+/**
+ * Benchmark of the reflective and compiled execution backends of {@link SequenceExecutor}: executes
+ * the sequences of an extended sequences file for a number of rounds on each backend, and writes the
+ * execution times of the backends, and the number of sequences whose pass/fail outcome agrees between
+ * the backends, to {@code <appName>_execution_benchmark.json}. Both backends run in the same JVM: they
+ * first run unmeasured warm-up rounds, and the measured rounds then alternate which backend runs first,
+ * so that neither backend's times include more of the class loading and JIT compilation of the
+ * executor and the application than the other's. Must be run with the classpath of the application
+ * under test; arguments are the application name, the extended sequences file, and optionally the
+ * number of rounds, the number of executions per sequence in each round, and the number of warm-up
+ * rounds.
+ */
+public class SequenceExecutionBenchmark {
+
+    public static final String OUTFILE_SUFFIX = "execution_benchmark.json";
+
+    public static void main(String[] args) throws Exception {
+
+        String appName = args[0];
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int numExecutions = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int warmupRounds = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        Map<String, SequenceExecutor.SequenceInfo> id2Info = new HashMap<>();
+        boolean addPackageDeclaration = SequenceExecutor.readSequences(new File(args[1]), id2Info);
+        Map<String, Sequence> id2Sequence = new LinkedHashMap<>();
+        for (Map.Entry<String, SequenceExecutor.SequenceInfo> entry : id2Info.entrySet()) {
+            SequenceExecutor.SequenceInfo info = entry.getValue();
+            id2Sequence.put(entry.getKey(), SequenceParser.codeToSequence(info.sequence, info.imports,
+                info.className, addPackageDeclaration, new ArrayList<Integer>()).a);
+        }
+
+        ObjectNode report = TackleTestJson.getObjectMapper().createObjectNode();
+        report.put("sequences", id2Sequence.size());
+        report.put("rounds", rounds);
+        report.put("warmup_rounds", warmupRounds);
+        report.put("executions_per_sequence", numExecutions);
+
+        Map<String, Boolean> reflectiveOutcomes = new HashMap<>();
+        Map<String, Boolean> compiledOutcomes = new HashMap<>();
+
+        try (InMemoryJavaCompiler compiler = new InMemoryJavaCompiler(System.getProperty("java.class.path"))) {
+            SequenceExecutor reflectiveExecutor = new SequenceExecutor(true);
+            CompiledSequenceBackend backend = new CompiledSequenceBackend(compiler);
+            SequenceExecutor compiledExecutor = new SequenceExecutor(true);
+            compiledExecutor.setCompiledBackend(backend);
+            long compileStartNanos = System.nanoTime();
+            compiledExecutor.compileSequences(id2Sequence.values());
+            long compileMillis = (System.nanoTime() - compileStartNanos) / 1_000_000;
+
+            for (int round = 0; round < warmupRounds; round++) {
+                runRound(reflectiveExecutor, id2Sequence, numExecutions, new HashMap<>());
+                runRound(compiledExecutor, id2Sequence, numExecutions, new HashMap<>());
+            }
+
+            List<Long> reflectiveMillis = new ArrayList<>();
+            List<Long> compiledMillis = new ArrayList<>();
+            for (int round = 0; round < rounds; round++) {
+                if (round % 2 == 0) {
+                    reflectiveMillis.add(runRound(reflectiveExecutor, id2Sequence, numExecutions, reflectiveOutcomes));
+                    compiledMillis.add(runRound(compiledExecutor, id2Sequence, numExecutions, compiledOutcomes));
+                } else {
+                    compiledMillis.add(runRound(compiledExecutor, id2Sequence, numExecutions, compiledOutcomes));
+                    reflectiveMillis.add(runRound(reflectiveExecutor, id2Sequence, numExecutions, reflectiveOutcomes));
+                }
+            }
+
+            report.set("reflective", getBackendReport(reflectiveMillis));
+            ObjectNode compiledReport = getBackendReport(compiledMillis);
+            compiledReport.put("compile_ms", compileMillis);
+            compiledReport.put("compiled_sequences", backend.getCompiledCount());
+            compiledReport.put("uncompilable_sequences", backend.getUncompilableCount());
+            report.set("compiled", compiledReport);
+        }
+
+        int agreeing = 0;
+        for (Map.Entry<String, Boolean> outcome : reflectiveOutcomes.entrySet()) {
+            if (outcome.getValue().equals(compiledOutcomes.get(outcome.getKey()))) {
+                agreeing++;
+            }
+        }
+        report.put("agreeing_outcomes", agreeing);
+
+        String reportStr = TackleTestJson.getObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        System.out.println(reportStr);
+        TackleTestJson.getObjectMapper().writeValue(new File(appName + "_" + OUTFILE_SUFFIX), report);
+    }
+
+    /**
+     * Executes all sequences once on the given executor, records their pass/fail outcomes, and returns
+     * the time taken in milliseconds
+     */
+    private static long runRound(SequenceExecutor executor, Map<String, Sequence> id2Sequence, int numExecutions,
+                                 Map<String, Boolean> outcomes) {
+        long startNanos = System.nanoTime();
+        for (Map.Entry<String, Sequence> entry : id2Sequence.entrySet()) {
+            try {
+                SequenceExecutor.SequenceResults results = executor.executeSequence(entry.getKey(),
+                    entry.getValue(), numExecutions);
+                outcomes.put(entry.getKey(), results.passed);
+            } catch (RuntimeException e) {
+                outcomes.put(entry.getKey(), Boolean.FALSE);
+            }
+        }
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static ObjectNode getBackendReport(List<Long> roundMillis) {
+        ObjectNode backendReport = TackleTestJson.getObjectMapper().createObjectNode();
+        backendReport.put("total_ms", roundMillis.stream().mapToLong(Long::longValue).sum());
+        backendReport.put("first_round_ms", roundMillis.get(0));
+        backendReport.put("last_round_ms", roundMillis.get(roundMillis.size() - 1));
+        backendReport.set("round_ms", TackleTestJson.getObjectMapper().valueToTree(roundMillis));
+        return backendReport;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.konveyor.tackle.testgen.core.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+public class SequenceExecutionServiceTest {
+
+    private static final long TIMEOUT_MS = 200;
+
+    /*
+     * Waits for the statistics of the given service to satisfy the given condition, and returns them
+     */
+    private static SequenceExecutionService.Statistics awaitStatistics(SequenceExecutionService service,
+        Predicate<SequenceExecutionService.Statistics> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        SequenceExecutionService.Statistics statistics = service.getStatistics();
+        while (!condition.test(statistics) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            statistics = service.getStatistics();
+        }
+        return statistics;
+    }
+
+    private static void busyWait(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            // keeps running, regardless of interrupts
+        }
+    }
+
+    @Test
+    public void testExecution() throws Exception {
+        try (SequenceExecutionService service = new SequenceExecutionService(1)) {
+            AtomicReference<Thread> worker = new AtomicReference<>();
+            service.execute(() -> worker.set(Thread.currentThread()), TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertNotSame(Thread.currentThread(), worker.get());
+
+            // the worker is reused for later executions
+            AtomicReference<Thread> laterWorker = new AtomicReference<>();
+            service.execute(() -> laterWorker.set(Thread.currentThread()), TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertSame(worker.get(), laterWorker.get());
+
+            SequenceExecutionService.Statistics statistics = service.getStatistics();
+            assertEquals(2, statistics.executions);
+            assertEquals(0, statistics.timedOutExecutions);
+            assertEquals(0, statistics.retiredWorkers);
+        }
+    }
+
+    @Test
+    public void testFailingExecution() throws Exception {
+        try (SequenceExecutionService service = new SequenceExecutionService(1)) {
+            try {
+                service.execute(() -> {
+                    throw new IllegalStateException("failed");
+                }, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                fail("Expected ExecutionException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            assertEquals(0, service.getStatistics().retiredWorkers);
+        }
+    }
+
+    @Test
+    public void testHangingExecution() throws Exception {
+        try (SequenceExecutionService service = new SequenceExecutionService(1)) {
+            AtomicReference<Thread> hungWorker = new AtomicReference<>();
+            try {
+                service.execute(() -> {
+                    hungWorker.set(Thread.currentThread());
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    } catch (InterruptedException e) {
+                        // the worker is interrupted when it is retired
+                    }
+                }, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                fail("Expected TimeoutException");
+            } catch (TimeoutException e) {
+                // expected
+            }
+
+            // the worker is retired, and replaced by a new worker
+            AtomicReference<Thread> worker = new AtomicReference<>();
+            service.execute(() -> worker.set(Thread.currentThread()), TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertNotSame(hungWorker.get(), worker.get());
+
+            // the interrupted worker terminates
+            SequenceExecutionService.Statistics statistics = awaitStatistics(service,
+                stats -> stats.recoveredWorkers == 1);
+            assertEquals(2, statistics.executions);
+            assertEquals(1, statistics.timedOutExecutions);
+            assertEquals(1, statistics.retiredWorkers);
+            assertEquals(1, statistics.recoveredWorkers);
+            assertEquals(0, statistics.leakedWorkers);
+        }
+    }
+
+    @Test
+    public void testNonInterruptibleExecution() throws Exception {
+        try (SequenceExecutionService service = new SequenceExecutionService(1)) {
+            CountDownLatch release = new CountDownLatch(1);
+            try {
+                service.execute(() -> {
+                    while (release.getCount() > 0) {
+                        busyWait(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                }, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                fail("Expected TimeoutException");
+            } catch (TimeoutException e) {
+                // expected
+            }
+
+            // the retired worker ignores the interrupt, and stays alive until the execution ends
+            SequenceExecutionService.Statistics statistics = service.getStatistics();
+            assertEquals(1, statistics.timedOutExecutions);
+            assertEquals(1, statistics.leakedWorkers);
+
+            release.countDown();
+            statistics = awaitStatistics(service, stats -> stats.leakedWorkers == 0);
+            assertEquals(0, statistics.leakedWorkers);
+            assertEquals(1, statistics.recoveredWorkers);
+        }
+    }
+
+    @Test
+    public void testExecutionsAtTimeLimit() throws Exception {
+        try (SequenceExecutionService service = new SequenceExecutionService(1)) {
+            // executions end around their time limit, within the period of the watchdog, so that some
+            // complete as the watchdog checks them; only cancelled executions are counted as timed out
+            int timeouts = 0;
+            for (int i = 0; i < 20; i++) {
+                long durationNanos = TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS + i * 5);
+                try {
+                    service.execute(() -> busyWait(durationNanos), TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    timeouts++;
+                }
+            }
+            SequenceExecutionService.Statistics statistics = service.getStatistics();
+            assertEquals(20, statistics.executions);
+            assertEquals(timeouts, statistics.timedOutExecutions);
+            assertEquals(timeouts, statistics.retiredWorkers);
+        }
+    }
+
+    @Test
+    public void testInterruptedCaller() throws Exception {
+        try (SequenceExecutionService service = new SequenceExecutionService(1)) {
+            CountDownLatch started = new CountDownLatch(1);
+            AtomicReference<Throwable> callerException = new AtomicReference<>();
+            Thread caller = new Thread(() -> {
+                try {
+                    service.execute(() -> {
+                        started.countDown();
+                        try {
+                            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                        } catch (InterruptedException e) {
+                            // the worker is interrupted when the execution is abandoned
+                        }
+                    }, 1, TimeUnit.MINUTES);
+                } catch (Throwable e) {
+                    callerException.set(e);
+                }
+            });
+            caller.start();
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            caller.interrupt();
+            caller.join(TimeUnit.SECONDS.toMillis(10));
+
+            // the abandoned execution is not a timeout, but its worker is retired and replaced
+            assertTrue(callerException.get() instanceof InterruptedException);
+            SequenceExecutionService.Statistics statistics = awaitStatistics(service,
+                stats -> stats.recoveredWorkers == 1);
+            assertEquals(0, statistics.timedOutExecutions);
+            assertEquals(1, statistics.retiredWorkers);
+            assertEquals(1, statistics.recoveredWorkers);
+            service.execute(() -> { }, TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -17,9 +17,16 @@
 package org.konveyor.tackle.testgen.core.executor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
@@ -36,10 +43,51 @@ import org.konveyor.tackle.testgen.util.TackleTestJson;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import randoop.operation.TypedOperation;
+import randoop.sequence.Sequence;
+import randoop.types.JavaTypes;
+
 public class SequenceExecutorTest {
 
+	/**
+	 * Object whose state is the same in every execution of a sequence that creates it
+	 */
+	public static class FixedState {
+
+		public int value;
+
+		public FixedState(int value) {
+			this.value = value;
+		}
+
+		public int add(int delta) {
+			this.value += delta;
+			return this.value;
+		}
+	}
+
+	/**
+	 * Object whose state changes between executions of a sequence that creates it
+	 */
+	public static class ChangingState {
+
+		private static int instances = 0;
+
+		public int instance;
+
+		public ChangingState(int value) {
+			this.instance = value + instances++;
+		}
+	}
+
 	private final File outputFile = new File("DayTrader_"+ Constants.EXECUTOR_OUTFILE_SUFFIX);
 
+	private final File outputDir = new File("DayTrader_"+ Constants.EXECUTOR_OUTDIR_SUFFIX);
+
+	private final File binaryOutputFile = new File("DayTrader_"+ Constants.EXECUTOR_BINARY_OUTFILE_SUFFIX);
+
+	private final File benchmarkFile = new File("DayTrader_"+ SequenceExecutionBenchmark.OUTFILE_SUFFIX);
+
 
 	@Before
 	/**
@@ -48,6 +96,133 @@ public class SequenceExecutorTest {
 	public void cleanUp() {
 
 		FileUtils.deleteQuietly(outputFile);
+		FileUtils.deleteQuietly(outputDir);
+		FileUtils.deleteQuietly(binaryOutputFile);
+		FileUtils.deleteQuietly(benchmarkFile);
+	}
+
+	/*
+	 * Returns a sequence that creates an int with the given value, and an object of the given class from it
+	 */
+	private static Sequence createSequence(Class<?> objectClass, int value) throws NoSuchMethodException {
+		Sequence seq = new Sequence().extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, value));
+		return seq.extend(TypedOperation.forConstructor(objectClass.getConstructor(int.class)),
+			Collections.singletonList(seq.getVariable(0)));
+	}
+
+	/*
+	 * Returns a sequence that creates a FixedState object with the given value, and adds the given delta to it
+	 */
+	private static Sequence createAddSequence(int value, int delta) throws NoSuchMethodException {
+		Sequence seq = createSequence(FixedState.class, value)
+			.extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, delta));
+		return seq.extend(TypedOperation.forMethod(FixedState.class.getMethod("add", int.class)),
+			Arrays.asList(seq.getVariable(1), seq.getVariable(2)));
+	}
+
+	@Test
+	public void testResultsCopy() {
+
+		SequenceExecutor.SequenceResults results = new SequenceExecutor.SequenceResults(1);
+		results.passed = true;
+		results.runtimePublicObjectState.set(0, new LinkedHashMap<>(Collections.singletonMap("value", "1")));
+		assertTrue(results.isComplete());
+
+		// the object states of a copy can be updated without updating those of the copied results
+		SequenceExecutor.SequenceResults copy = new SequenceExecutor.SequenceResults(results);
+		copy.runtimePublicObjectState.get(0).put("value", "2");
+		assertEquals("1", results.runtimePublicObjectState.get(0).get("value"));
+		assertNull(copy.runtimePrivateObjectState.get(0));
+
+		// results of timed-out and cut-off executions are not complete
+		copy.timedOut = true;
+		assertFalse(copy.isComplete());
+		copy = new SequenceExecutor.SequenceResults(results);
+		copy.cutOffByAdaptiveLimit = true;
+		assertFalse(copy.isComplete());
+		assertFalse(new SequenceExecutor.SequenceResults(1).isComplete());
+	}
+
+	@Test
+	public void testSharedPrefix() throws Exception {
+
+		SequenceExecutor trieExecutor = new SequenceExecutor(true);
+		trieExecutor.setPrefixTrie(new SequencePrefixTrie());
+		SequenceExecutor executor = new SequenceExecutor(true);
+
+		// the first sequence records the results of the shared prefix
+		SequenceExecutor.SequenceResults firstResults = trieExecutor.executeSequence("first",
+			createAddSequence(1, 2), 1);
+		assertTrue(firstResults.passed);
+		assertEquals(0, firstResults.skippedPrefixCaptures);
+
+		// the second sequence reuses them for the int and the object creation it shares with the first
+		SequenceExecutor.SequenceResults trieResults = trieExecutor.executeSequence("second",
+			createAddSequence(1, 3), 1);
+		assertEquals(2, trieResults.skippedPrefixCaptures);
+
+		// and has the same results as without the trie
+		SequenceExecutor.SequenceResults results = executor.executeSequence("second", createAddSequence(1, 3), 1);
+		assertEquals(0, results.skippedPrefixCaptures);
+		assertEquals(results.passed, trieResults.passed);
+		assertEquals(results.size(), trieResults.size());
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(results.normalTermination[i], trieResults.normalTermination[i]);
+			assertEquals(results.runtimeObjectName[i], trieResults.runtimeObjectName[i]);
+			assertEquals(results.runtimeObjectType[i], trieResults.runtimeObjectType[i]);
+			assertEquals(results.runtimePublicObjectState.get(i), trieResults.runtimePublicObjectState.get(i));
+			assertEquals(results.runtimePrivateObjectState.get(i), trieResults.runtimePrivateObjectState.get(i));
+		}
+		assertNotNull(trieResults.runtimeObjectName[1]);
+	}
+
+	@Test
+	public void testSharedPrefixWithoutRecordedState() throws Exception {
+
+		SequenceExecutor trieExecutor = new SequenceExecutor(true);
+		trieExecutor.setPrefixTrie(new SequencePrefixTrie());
+
+		// the first sequence executes the shared prefix without recording object state
+		trieExecutor.executeSequence("first", createAddSequence(1, 2), 1, null, null, StateCaptureDemand.NONE);
+
+		// so the second sequence records the state of the prefix objects itself
+		SequenceExecutor.SequenceResults trieResults = trieExecutor.executeSequence("second",
+			createAddSequence(1, 3), 1);
+		assertEquals(0, trieResults.skippedPrefixCaptures);
+		assertNotNull(trieResults.runtimeObjectName[0]);
+		assertNotNull(trieResults.runtimeObjectName[1]);
+
+		// state recorded for the prefix is not copied into the results of a sequence that does not demand it
+		SequenceExecutor.SequenceResults lastOnlyResults = trieExecutor.executeSequence("third",
+			createAddSequence(1, 4), 1, null, null,
+			StateCaptureDemand.of(true, Collections.emptySet(), Collections.emptySet()));
+		assertEquals(0, lastOnlyResults.skippedPrefixCaptures);
+		assertNull(lastOnlyResults.runtimeObjectName[1]);
+	}
+
+	@Test
+	public void testAdaptiveRepetition() throws Exception {
+
+		SequenceExecutor executor = new SequenceExecutor(true);
+		executor.setAdaptiveRepetition(2, 20);
+
+		// executions of a sequence with stable recorded state stop once it is stable for 2 executions
+		SequenceExecutor.SequenceResults fixedResults = executor.executeSequence("fixed",
+			createSequence(FixedState.class, 1), 10);
+		assertTrue(fixedResults.passed);
+		assertEquals(3, fixedResults.executions);
+		assertTrue(fixedResults.executions < 10);
+		assertNotNull(fixedResults.runtimeObjectName[1]);
+		assertEquals("1", fixedResults.runtimePublicObjectState.get(1).values().iterator().next());
+
+		// executions of a sequence whose recorded state changes are escalated beyond the given number of
+		// executions, until the remaining recorded state is stable
+		SequenceExecutor.SequenceResults changingResults = executor.executeSequence("changing",
+			createSequence(ChangingState.class, 1), 3);
+		assertTrue(changingResults.passed);
+		assertTrue(changingResults.executions > 3);
+		assertTrue(changingResults.executions <= 20);
+		assertNull(changingResults.runtimeObjectName[1]);
 	}
 
 	@Test
@@ -124,4 +299,192 @@ public class SequenceExecutorTest {
 
 		});
 	}
+
+	@Test
+	public void testExecuteSequencesInBatch() throws Exception {
+
+		TestUtils.launchProcess(SequenceExecutor.class.getSimpleName(),
+            "DayTrader",
+            "test/data/daytrader7/monolith/bin",
+            "test/data/daytrader7/daytrader7MonoClasspath.txt",
+            "test/data/daytrader7/DayTrader_extended_sequences.json",
+            null,
+            true,
+            null,
+            null,
+            null,
+            Arrays.asList("-nt", "4", "-ss", "50"));
+
+		assertTrue(outputDir.isDirectory());
+
+		ObjectNode standardObject = (ObjectNode) TackleTestJson.getObjectMapper().readTree(new File("test/data/daytrader7/DayTrader_extended_sequences_results.json"));
+
+		Set<String> seqStandardKeys = StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(standardObject.fieldNames(),
+						Spliterator.ORDERED), false)
+		  .collect(Collectors.toSet());
+
+		// results of all sequences are written to shards, with the same outcomes as in sequential execution
+		Set<String> seqKeys = new HashSet<String>();
+		for (File shard : SequenceResultsShards.getShardFiles(outputDir)) {
+			SequenceResultsShards.readShard(shard, (seqId, results) -> {
+				seqKeys.add(seqId);
+				assertEquals(standardObject.get(seqId).get("normal_termination").asBoolean(),
+					results.get("normal_termination").asBoolean());
+				assertEquals(standardObject.get(seqId).get("original_sequence_indices"),
+					results.get("original_sequence_indices"));
+			});
+		}
+
+		assertEquals(seqStandardKeys, seqKeys);
+	}
+
+	@Test
+	public void testExecuteSequencesBinaryFormat() throws Exception {
+
+		TestUtils.launchProcess(SequenceExecutor.class.getSimpleName(),
+            "DayTrader",
+            "test/data/daytrader7/monolith/bin",
+            "test/data/daytrader7/daytrader7MonoClasspath.txt",
+            "test/data/daytrader7/DayTrader_extended_sequences.json",
+            null,
+            true,
+            null,
+            null,
+            null,
+            Arrays.asList("-rf", "binary"));
+
+		assertTrue(SequenceResultsBinaryFormat.isBinaryResultsFile(binaryOutputFile));
+
+		ObjectNode standardObject = (ObjectNode) TackleTestJson.getObjectMapper().readTree(new File("test/data/daytrader7/DayTrader_extended_sequences_results.json"));
+
+		Set<String> seqStandardKeys = StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(standardObject.fieldNames(),
+						Spliterator.ORDERED), false)
+		  .collect(Collectors.toSet());
+
+		// the index of the binary file holds the results of all sequences
+		try (SequenceResultsBinaryFormat.Reader reader = new SequenceResultsBinaryFormat.Reader(binaryOutputFile)) {
+			assertEquals(seqStandardKeys, new HashSet<String>(reader.getSequenceIds()));
+		}
+	}
+
+	@Test
+	public void testBinaryFormatRoundTrip() throws Exception {
+
+		SequenceExecutor.SequenceResults results = new SequenceExecutor.SequenceResults(3);
+		results.passed = false;
+		results.failingIndex = 2;
+		results.normalTermination[0] = true;
+		results.runtimeObjectName[0] = "int0";
+		results.runtimeObjectType[0] = Integer.class;
+		results.runtimePublicObjectState.set(0, new LinkedHashMap<>(Collections.singletonMap("int0", "1")));
+		results.runtimePrivateObjectState.set(0, new LinkedHashMap<>());
+		// object recorded by type only, as its state exceeded the capture budget
+		results.normalTermination[1] = true;
+		results.runtimeObjectName[1] = "fixedState1";
+		results.runtimeObjectType[1] = FixedState.class;
+		results.runtimePublicObjectState.set(1, new LinkedHashMap<>());
+		results.runtimePrivateObjectState.set(1, new LinkedHashMap<>());
+		results.typeOnly[1] = true;
+		results.normalTermination[2] = false;
+		results.exception[2] = IllegalStateException.class.getName();
+		results.exceptionMessage[2] = "failed";
+
+		File resultsFile = File.createTempFile("results", ".bin");
+		try {
+			try (SequenceResultsBinaryFormat.Writer writer = new SequenceResultsBinaryFormat.Writer(resultsFile)) {
+				writer.write("seq", results, Arrays.asList(0, 1, 2));
+			}
+			SequenceExecutor.SequenceResults readResults;
+			try (SequenceResultsBinaryFormat.Reader reader = new SequenceResultsBinaryFormat.Reader(resultsFile)) {
+				readResults = reader.read("seq");
+			}
+			assertEquals(results.passed, readResults.passed);
+			assertEquals(results.failingIndex, readResults.failingIndex);
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals(results.normalTermination[i], readResults.normalTermination[i]);
+				assertEquals(results.runtimeObjectName[i], readResults.runtimeObjectName[i]);
+				assertEquals(results.runtimeObjectType[i], readResults.runtimeObjectType[i]);
+				assertEquals(results.typeOnly[i], readResults.typeOnly[i]);
+				assertEquals(results.runtimePublicObjectState.get(i), readResults.runtimePublicObjectState.get(i));
+				assertEquals(results.runtimePrivateObjectState.get(i), readResults.runtimePrivateObjectState.get(i));
+			}
+			assertTrue(readResults.typeOnly[1]);
+		} finally {
+			FileUtils.deleteQuietly(resultsFile);
+		}
+	}
+
+	@Test
+	public void testExecuteSequencesCompiled() throws Exception {
+
+		TestUtils.launchProcess(SequenceExecutor.class.getSimpleName(),
+            "DayTrader",
+            "test/data/daytrader7/monolith/bin",
+            "test/data/daytrader7/daytrader7MonoClasspath.txt",
+            "test/data/daytrader7/DayTrader_extended_sequences.json",
+            null,
+            true,
+            null,
+            null,
+            null,
+            Arrays.asList("-eb", "compiled"));
+
+		assertTrue(outputFile.exists());
+
+		ObjectNode mainObject = (ObjectNode) TackleTestJson.getObjectMapper().readTree(outputFile);
+		ObjectNode standardObject = (ObjectNode) TackleTestJson.getObjectMapper().readTree(new File("test/data/daytrader7/DayTrader_extended_sequences_results.json"));
+
+		// compiled sequences have the same outcomes, and record the same objects, as interpreted sequences
+		mainObject.fieldNames().forEachRemaining(key -> {
+
+			ObjectNode currentObject = (ObjectNode) mainObject.get(key);
+			ObjectNode currentStandardObject = (ObjectNode) standardObject.get(key);
+
+			assertEquals(currentStandardObject.get("normal_termination").asBoolean(), currentObject.get("normal_termination").asBoolean());
+
+			ArrayNode currentArray = (ArrayNode) currentObject.get("per_statement_results");
+			ArrayNode standardArray = (ArrayNode) currentStandardObject.get("per_statement_results");
+
+			assertEquals(standardArray.size(), currentArray.size());
+
+			for (int i=0; i<currentArray.size();i++) {
+				assertEquals(standardArray.get(i).get("statement_normal_termination"), currentArray.get(i).get("statement_normal_termination"));
+				assertEquals(standardArray.get(i).get("runtime_object_name"), currentArray.get(i).get("runtime_object_name"));
+			}
+		});
+
+		assertEquals(standardObject.size(), mainObject.size());
+	}
+
+	@Test
+	public void testExecutionBackendBenchmark() throws Exception {
+
+		TestUtils.launchProcess(SequenceExecutionBenchmark.class.getSimpleName(),
+            "DayTrader",
+            "test/data/daytrader7/monolith/bin",
+            "test/data/daytrader7/daytrader7MonoClasspath.txt",
+            "test/data/daytrader7/DayTrader_extended_sequences.json",
+            null,
+            true,
+            null,
+            null,
+            null,
+            Arrays.asList("3", "5"));
+
+		assertTrue(benchmarkFile.exists());
+
+		ObjectNode report = (ObjectNode) TackleTestJson.getObjectMapper().readTree(benchmarkFile);
+
+		// both backends executed all sequences with the same outcomes
+		assertEquals(report.get("sequences").asInt(), report.get("agreeing_outcomes").asInt());
+		assertTrue(report.get("compiled").get("compiled_sequences").asInt() > 0);
+		assertTrue(report.has("reflective"));
+
+		// the backends ran the same number of measured rounds, after a warm-up round
+		assertEquals(1, report.get("warmup_rounds").asInt());
+		assertEquals(3, report.get("reflective").get("round_ms").size());
+		assertEquals(3, report.get("compiled").get("round_ms").size());
+	}
 }
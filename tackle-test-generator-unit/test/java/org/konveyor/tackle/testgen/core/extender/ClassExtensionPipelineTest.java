@@ -0,0 +1,226 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ClassExtensionPipelineTest {
+
+    private static List<ClassExtensionContext> createContexts(String... classNames) {
+        List<ClassExtensionContext> contexts = new ArrayList<>();
+        for (String className : classNames) {
+            contexts.add(new ClassExtensionContext("partition", className, null, true));
+        }
+        return contexts;
+    }
+
+    @Test
+    public void testMergeInOrder() throws Exception {
+        List<ClassExtensionContext> contexts = createContexts("A", "B", "C", "D", "E");
+        List<String> merged = new ArrayList<>();
+
+        new ClassExtensionPipeline(2)
+            .addStage(ctx -> ctx.classSeqCount++, 3)
+            .addStage(ctx -> ctx.classSeqCount++, 2)
+            .run(contexts.iterator(), ctx -> merged.add(ctx.className + ctx.classSeqCount));
+
+        assertEquals(Arrays.asList("A2", "B2", "C2", "D2", "E2"), merged);
+    }
+
+    @Test
+    public void testMergeInOrderWhenLaterClassesCompleteFirst() throws Exception {
+        List<ClassExtensionContext> contexts = createContexts("A", "B", "C", "D");
+        List<String> completed = Collections.synchronizedList(new ArrayList<>());
+        List<String> merged = new ArrayList<>();
+        // the first class completes its stage only after all later classes have completed theirs
+        CountDownLatch laterClassesCompleted = new CountDownLatch(3);
+
+        new ClassExtensionPipeline(4)
+            .addStage(ctx -> {
+                if (ctx.className.equals("A")) {
+                    try {
+                        assertTrue(laterClassesCompleted.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                completed.add(ctx.className);
+                if (!ctx.className.equals("A")) {
+                    laterClassesCompleted.countDown();
+                }
+            }, 4)
+            .run(contexts.iterator(), ctx -> merged.add(ctx.className));
+
+        assertEquals("A", completed.get(3));
+        assertEquals(Arrays.asList("A", "B", "C", "D"), merged);
+    }
+
+    @Test
+    public void testCapacityBoundsClassesInFlight() throws Exception {
+        List<ClassExtensionContext> contexts = createContexts("A", "B", "C", "D", "E", "F", "G", "H");
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger inStage = new AtomicInteger();
+        AtomicInteger maxInStage = new AtomicInteger();
+
+        // classes are in flight from the time they are taken from the iterator until they are merged
+        Iterator<ClassExtensionContext> classContexts = contexts.iterator();
+        Iterator<ClassExtensionContext> countingContexts = new Iterator<ClassExtensionContext>() {
+            @Override
+            public boolean hasNext() {
+                return classContexts.hasNext();
+            }
+
+            @Override
+            public ClassExtensionContext next() {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return classContexts.next();
+            }
+        };
+
+        new ClassExtensionPipeline(2)
+            .addStage(ctx -> {
+                maxInStage.accumulateAndGet(inStage.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    inStage.decrementAndGet();
+                }
+            }, 4)
+            .run(countingContexts, ctx -> inFlight.decrementAndGet());
+
+        // the stage has more workers than the capacity, but runs at most capacity classes at a time
+        assertEquals(2, maxInFlight.get());
+        assertTrue(maxInStage.get() <= 2);
+        assertEquals(0, inFlight.get());
+    }
+
+    @Test
+    public void testRestoredClassesSkipStages() throws Exception {
+        List<ClassExtensionContext> contexts = createContexts("A", "B", "C");
+        contexts.get(1).restored = true;
+        List<String> merged = new ArrayList<>();
+
+        new ClassExtensionPipeline(2)
+            .addStage(ctx -> ctx.classSeqCount++, 2)
+            .run(contexts.iterator(), ctx -> merged.add(ctx.className + ctx.classSeqCount));
+
+        assertEquals(Arrays.asList("A1", "B0", "C1"), merged);
+    }
+
+    @Test
+    public void testStageFailureFailsRun() throws Exception {
+        List<ClassExtensionContext> contexts = createContexts("A", "B", "C");
+        List<String> merged = new ArrayList<>();
+        IllegalStateException stageException = new IllegalStateException("stage failed");
+
+        ClassExtensionPipeline pipeline = new ClassExtensionPipeline(3)
+            .addStage(ctx -> {
+                if (ctx.className.equals("B")) {
+                    throw stageException;
+                }
+            }, 2)
+            .addStage(ctx -> ctx.classSeqCount++, 1);
+        try {
+            pipeline.run(contexts.iterator(), ctx -> merged.add(ctx.className));
+            fail("Expected the stage failure to fail the run");
+        } catch (IllegalStateException e) {
+            // the run fails with the exception of the stage, as a serial run does
+            assertSame(stageException, e);
+        }
+
+        // classes before the failed class are merged; the failed class and later classes are not
+        assertEquals(Arrays.asList("A"), merged);
+        assertNull(contexts.get(0).stageFailure);
+        assertSame(stageException, contexts.get(1).stageFailure);
+        assertEquals(0, contexts.get(1).classSeqCount);
+    }
+
+    @Test
+    public void testStageFailureOfLaterClassAfterEarlierClassesMerged() throws Exception {
+        List<ClassExtensionContext> contexts = createContexts("A", "B", "C");
+        List<String> merged = new ArrayList<>();
+        IllegalStateException stageException = new IllegalStateException("stage failed");
+        // the later class fails before the earlier class completes
+        CountDownLatch laterClassFailed = new CountDownLatch(1);
+
+        ClassExtensionPipeline pipeline = new ClassExtensionPipeline(3)
+            .addStage(ctx -> {
+                if (ctx.className.equals("B")) {
+                    laterClassFailed.countDown();
+                    throw stageException;
+                }
+                try {
+                    assertTrue(laterClassFailed.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }, 3);
+        try {
+            pipeline.run(contexts.iterator(), ctx -> merged.add(ctx.className));
+            fail("Expected the stage failure to fail the run");
+        } catch (IllegalStateException e) {
+            assertSame(stageException, e);
+        }
+
+        // the earlier class is still merged before the failure propagates
+        assertEquals(Arrays.asList("A"), merged);
+        assertSame(stageException, contexts.get(1).stageFailure);
+        assertNull(contexts.get(2).stageFailure);
+    }
+
+    @Test
+    public void testStageErrorFailsRun() throws Exception {
+        List<ClassExtensionContext> contexts = createContexts("A", "B");
+        List<String> merged = new ArrayList<>();
+        OutOfMemoryError stageError = new OutOfMemoryError("stage failed");
+
+        ClassExtensionPipeline pipeline = new ClassExtensionPipeline(2)
+            .addStage(ctx -> {
+                if (ctx.className.equals("A")) {
+                    throw stageError;
+                }
+            }, 1);
+        try {
+            pipeline.run(contexts.iterator(), ctx -> merged.add(ctx.className));
+            fail("Expected the stage error to fail the run");
+        } catch (OutOfMemoryError e) {
+            // errors are propagated as is, not wrapped
+            assertSame(stageError, e);
+        }
+
+        assertEquals(Collections.emptyList(), merged);
+        assertSame(stageError, contexts.get(0).stageFailure);
+    }
+}
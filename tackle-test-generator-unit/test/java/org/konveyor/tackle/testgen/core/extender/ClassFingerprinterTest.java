@@ -0,0 +1,130 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.konveyor.tackle.testgen.util.TackleTestJson;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import randoop.operation.TypedOperation;
+import randoop.sequence.Sequence;
+import randoop.types.JavaTypes;
+
+public class ClassFingerprinterTest {
+
+    private static final String CLASS_NAME = "java.util.ArrayList";
+
+    private static final String PARAM_TYPE = "java.util.LinkedList";
+
+    private static final String CONFIGURATION = "jee=false;diffAssertions=true";
+
+    private static SequencePool createSequencePool() throws IOException {
+        return new SequencePool(Collections.emptyList(), Collections.emptySet(), "fingerprint");
+    }
+
+    private static Sequence createSequence(int size) {
+        Sequence seq = new Sequence();
+        for (int i = 0; i < size; i++) {
+            seq = seq.extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, i));
+        }
+        return seq;
+    }
+
+    private static void addSequence(SequencePool sequencePool, String className, int size) {
+        sequencePool.classTestSeqPool.computeIfAbsent(className,
+            k -> SequenceUtil.newSequenceSet(SequenceUtil.SequenceSetSort.SEQUENCE_SIZE)).add(createSequence(size));
+    }
+
+    private static ClassExtensionContext createContext(String paramType) {
+        ObjectNode testPlan = TackleTestJson.getObjectMapper().createObjectNode();
+        testPlan.putArray("addAll(java.util.Collection)").addArray().addObject().put("attr_1", paramType);
+        return new ClassExtensionContext("partition", CLASS_NAME, testPlan, true);
+    }
+
+    @Test
+    public void testUnchangedInputs() throws Exception {
+        SequencePool sequencePool = createSequencePool();
+        addSequence(sequencePool, CLASS_NAME, 1);
+        addSequence(sequencePool, PARAM_TYPE, 1);
+        String fingerprint = new ClassFingerprinter(sequencePool, CONFIGURATION).fingerprint(createContext(PARAM_TYPE));
+
+        // the fingerprint is the same in a later run with the same inputs
+        SequencePool laterSequencePool = createSequencePool();
+        addSequence(laterSequencePool, CLASS_NAME, 1);
+        addSequence(laterSequencePool, PARAM_TYPE, 1);
+        ClassFingerprinter laterFingerprinter = new ClassFingerprinter(laterSequencePool, CONFIGURATION);
+        assertEquals(fingerprint, laterFingerprinter.fingerprint(createContext(PARAM_TYPE)));
+
+        // sequences added to the pool while classes are extended do not change the fingerprint
+        addSequence(laterSequencePool, CLASS_NAME, 2);
+        assertEquals(fingerprint, laterFingerprinter.fingerprint(createContext(PARAM_TYPE)));
+
+        // sequences for types that are not referenced in the test plan do not change the fingerprint
+        SequencePool otherSequencePool = createSequencePool();
+        addSequence(otherSequencePool, CLASS_NAME, 1);
+        addSequence(otherSequencePool, PARAM_TYPE, 1);
+        addSequence(otherSequencePool, "java.util.HashMap", 1);
+        assertEquals(fingerprint,
+            new ClassFingerprinter(otherSequencePool, CONFIGURATION).fingerprint(createContext(PARAM_TYPE)));
+    }
+
+    @Test
+    public void testChangedInputs() throws Exception {
+        SequencePool sequencePool = createSequencePool();
+        addSequence(sequencePool, CLASS_NAME, 1);
+        addSequence(sequencePool, PARAM_TYPE, 1);
+        String fingerprint = new ClassFingerprinter(sequencePool, CONFIGURATION).fingerprint(createContext(PARAM_TYPE));
+
+        // changed test plan
+        assertNotEquals(fingerprint, new ClassFingerprinter(sequencePool, CONFIGURATION)
+            .fingerprint(createContext("java.util.Vector")));
+
+        // changed extender options
+        assertNotEquals(fingerprint, new ClassFingerprinter(sequencePool, CONFIGURATION + ";badPath=true")
+            .fingerprint(createContext(PARAM_TYPE)));
+
+        // changed building-block sequences for the class
+        SequencePool classSequencePool = createSequencePool();
+        addSequence(classSequencePool, CLASS_NAME, 2);
+        addSequence(classSequencePool, PARAM_TYPE, 1);
+        assertNotEquals(fingerprint,
+            new ClassFingerprinter(classSequencePool, CONFIGURATION).fingerprint(createContext(PARAM_TYPE)));
+
+        // changed building-block sequences for a type referenced in the test plan
+        SequencePool typeSequencePool = createSequencePool();
+        addSequence(typeSequencePool, CLASS_NAME, 1);
+        addSequence(typeSequencePool, PARAM_TYPE, 1);
+        addSequence(typeSequencePool, PARAM_TYPE, 2);
+        assertNotEquals(fingerprint,
+            new ClassFingerprinter(typeSequencePool, CONFIGURATION).fingerprint(createContext(PARAM_TYPE)));
+
+        // changed imports of the building-block test class
+        SequencePool importSequencePool = createSequencePool();
+        addSequence(importSequencePool, CLASS_NAME, 1);
+        addSequence(importSequencePool, PARAM_TYPE, 1);
+        importSequencePool.classImports.put(CLASS_NAME, Collections.singletonList("java.util.List"));
+        assertNotEquals(fingerprint,
+            new ClassFingerprinter(importSequencePool, CONFIGURATION).fingerprint(createContext(PARAM_TYPE)));
+    }
+}
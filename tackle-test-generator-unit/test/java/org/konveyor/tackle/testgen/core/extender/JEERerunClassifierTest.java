@@ -0,0 +1,93 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class JEERerunClassifierTest {
+
+    @Test
+    public void testDefaultRules() {
+        JEERerunClassifier classifier = new JEERerunClassifier();
+
+        // failures that JEE support cannot fix
+        assertFalse(classifier.isRecoverable(new JEERerunClassifier.Failure("java.lang.ClassCastException",
+            null, false, false)));
+        assertFalse(classifier.isRecoverable(new JEERerunClassifier.Failure("java.lang.IllegalArgumentException",
+            null, true, false)));
+        assertFalse(classifier.isRecoverable(new JEERerunClassifier.Failure("java.lang.NullPointerException",
+            null, true, true)));
+
+        // failures that may be caused by missing injection or scaffolding
+        assertTrue(classifier.isRecoverable(new JEERerunClassifier.Failure("java.lang.NullPointerException",
+            null, true, false)));
+        assertTrue(classifier.isRecoverable(new JEERerunClassifier.Failure("java.lang.IllegalArgumentException",
+            null, false, false)));
+        assertTrue(classifier.isRecoverable(new JEERerunClassifier.Failure("javax.naming.NoInitialContextException",
+            null, true, false)));
+        assertTrue(classifier.isRecoverable(new JEERerunClassifier.Failure(null, null, false, false)));
+    }
+
+    @Test
+    public void testFirstMatchingRuleDecides() {
+        JEERerunClassifier classifier = new JEERerunClassifier(Arrays.asList(
+            "rerun exception=EJBException cause=java.lang.NullPointerException",
+            "skip exception=javax.ejb.EJBException",
+            "skip cause=none position=prefix"));
+
+        JEERerunClassifier.Failure wrappedNPE = new JEERerunClassifier.Failure("javax.ejb.EJBException",
+            "java.lang.NullPointerException", true, false);
+        assertEquals("rerun exception=EJBException cause=java.lang.NullPointerException",
+            classifier.match(wrappedNPE).toString());
+        assertTrue(classifier.isRecoverable(wrappedNPE));
+
+        assertFalse(classifier.isRecoverable(new JEERerunClassifier.Failure("javax.ejb.EJBException",
+            "java.lang.IllegalStateException", true, false)));
+        assertFalse(classifier.isRecoverable(new JEERerunClassifier.Failure("java.lang.IllegalStateException",
+            null, false, false)));
+        assertNull(classifier.match(new JEERerunClassifier.Failure("java.lang.IllegalStateException",
+            null, true, false)));
+    }
+
+    @Test
+    public void testFailureCategory() {
+        assertEquals("java.lang.NullPointerException cause=none position=target nullInput=true",
+            new JEERerunClassifier.Failure("java.lang.NullPointerException", null, true, true).getCategory());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownVerdict() {
+        new JEERerunClassifier(Arrays.asList("ignore exception=java.lang.ClassCastException"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownCondition() {
+        new JEERerunClassifier(Arrays.asList("skip message=foo"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedPosition() {
+        new JEERerunClassifier(Arrays.asList("skip exception=java.lang.ClassCastException position=last"));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class PhaseTimingsTest {
+
+    private static final long SLEEP_MILLIS = 20;
+
+    private static void addSleep(PhaseTimings timings, PhaseTimings.Phase phase) throws InterruptedException {
+        PhaseTimings.Stopwatch stopwatch = PhaseTimings.start();
+        Thread.sleep(SLEEP_MILLIS);
+        timings.add(phase, stopwatch);
+    }
+
+    private static long sumOfPhases(PhaseTimings timings) {
+        long sum = 0;
+        for (PhaseTimings.Phase phase : PhaseTimings.Phase.values()) {
+            sum += timings.getWallNanos(phase);
+        }
+        return sum;
+    }
+
+    @Test
+    public void testTotalIsSumOfPhases() throws Exception {
+        PhaseTimings timings = new PhaseTimings();
+        addSleep(timings, PhaseTimings.Phase.SEQUENCE_EXTENSION);
+        addSleep(timings, PhaseTimings.Phase.SEQUENCE_EXECUTION);
+        addSleep(timings, PhaseTimings.Phase.SEQUENCE_EXECUTION);
+        addSleep(timings, PhaseTimings.Phase.TEST_CLASS_WRITING);
+
+        assertTrue(timings.getWallNanos(PhaseTimings.Phase.SEQUENCE_EXTENSION) >=
+            TimeUnit.MILLISECONDS.toNanos(SLEEP_MILLIS));
+        assertTrue(timings.getWallNanos(PhaseTimings.Phase.SEQUENCE_EXECUTION) >=
+            TimeUnit.MILLISECONDS.toNanos(2 * SLEEP_MILLIS));
+        assertEquals(0, timings.getWallNanos(PhaseTimings.Phase.DIFF_ASSERTIONS));
+        assertEquals(sumOfPhases(timings), timings.getTotalWallNanos());
+
+        // only phases with time are reported, and the reported total is that of the phases
+        ObjectNode timingJson = timings.toJson();
+        ObjectNode phasesJson = (ObjectNode) timingJson.get("phases");
+        assertEquals(3, phasesJson.size());
+        assertFalse(phasesJson.has(PhaseTimings.Phase.DIFF_ASSERTIONS.jsonName));
+        assertEquals(PhaseTimings.toMillis(timings.getTotalWallNanos()), timingJson.get("wall_ms").asLong());
+        long phasesMillis = 0;
+        for (PhaseTimings.Phase phase : PhaseTimings.Phase.values()) {
+            if (phasesJson.has(phase.jsonName)) {
+                assertEquals(PhaseTimings.toMillis(timings.getWallNanos(phase)),
+                    phasesJson.get(phase.jsonName).get("wall_ms").asLong());
+                phasesMillis += phasesJson.get(phase.jsonName).get("wall_ms").asLong();
+            }
+        }
+        // reported phase times are truncated to milliseconds, each by less than a millisecond
+        long totalMillis = timingJson.get("wall_ms").asLong();
+        assertTrue(phasesMillis <= totalMillis && totalMillis < phasesMillis + phasesJson.size());
+    }
+
+    @Test
+    public void testAddSumsPhasesAndSequences() throws Exception {
+        PhaseTimings classA = new PhaseTimings();
+        addSleep(classA, PhaseTimings.Phase.SEQUENCE_EXTENSION);
+        classA.generatedSequences = 3;
+        classA.executedSequences = 2;
+        PhaseTimings classB = new PhaseTimings();
+        addSleep(classB, PhaseTimings.Phase.SEQUENCE_EXTENSION);
+        addSleep(classB, PhaseTimings.Phase.DIFF_ASSERTIONS);
+        classB.generatedSequences = 4;
+        classB.executedSequences = 4;
+
+        PhaseTimings partition = new PhaseTimings();
+        partition.add(classA);
+        partition.add(classB);
+
+        for (PhaseTimings.Phase phase : PhaseTimings.Phase.values()) {
+            assertEquals(phase.jsonName, classA.getWallNanos(phase) + classB.getWallNanos(phase),
+                partition.getWallNanos(phase));
+        }
+        assertEquals(classA.getTotalWallNanos() + classB.getTotalWallNanos(), partition.getTotalWallNanos());
+        assertEquals(sumOfPhases(partition), partition.getTotalWallNanos());
+        assertEquals(7, partition.generatedSequences);
+        assertEquals(6, partition.executedSequences);
+    }
+
+    @Test
+    public void testAddSharedSplitsTimeEvenly() throws Exception {
+        List<PhaseTimings> classes = Arrays.asList(new PhaseTimings(), new PhaseTimings(), new PhaseTimings());
+        PhaseTimings.Stopwatch stopwatch = PhaseTimings.start();
+        Thread.sleep(3 * SLEEP_MILLIS);
+        long maxElapsedNanos = stopwatch.getElapsedWallNanos();
+        PhaseTimings.addShared(PhaseTimings.Phase.JEE_RERUN, stopwatch, classes);
+        long elapsedNanos = stopwatch.getElapsedWallNanos();
+
+        long share = classes.get(0).getWallNanos(PhaseTimings.Phase.JEE_RERUN);
+        for (PhaseTimings timings : classes) {
+            assertEquals(share, timings.getWallNanos(PhaseTimings.Phase.JEE_RERUN));
+            assertEquals(share, timings.getTotalWallNanos());
+        }
+        // the shares sum to the elapsed time, up to rounding
+        assertTrue(3 * share >= maxElapsedNanos - 3);
+        assertTrue(3 * share <= elapsedNanos);
+
+        // sharing among no timings is a no-op
+        PhaseTimings.addShared(PhaseTimings.Phase.JEE_RERUN, stopwatch, Arrays.asList());
+    }
+
+    @Test
+    public void testCpuTimeOfOtherThreadsDoesNotAddWallTime() {
+        PhaseTimings timings = new PhaseTimings();
+        timings.addCpuNanos(PhaseTimings.Phase.SEQUENCE_EXECUTION, TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(0, timings.getTotalWallNanos());
+        ObjectNode phaseJson = (ObjectNode) timings.toJson().get("phases")
+            .get(PhaseTimings.Phase.SEQUENCE_EXECUTION.jsonName);
+        assertEquals(0, phaseJson.get("wall_ms").asLong());
+        assertEquals(5, phaseJson.get("cpu_ms").asLong());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import randoop.operation.TypedOperation;
+import randoop.sequence.Sequence;
+import randoop.types.JavaTypes;
+
+public class SequenceUtilTest {
+
+    private static final Pattern VARIABLE_NAME = Pattern.compile("\\bvar(\\d+)\\b");
+
+    /*
+     * Returns a sequence that initializes two ints with the given values, and compares them in the given order
+     */
+    private static Sequence createCompareSequence(int first, int second, boolean swapInputs)
+        throws NoSuchMethodException {
+        Sequence seq = new Sequence()
+            .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, first))
+            .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, second));
+        TypedOperation compare = TypedOperation.forMethod(Integer.class.getMethod("compare", int.class, int.class));
+        return swapInputs ? seq.extend(compare, Arrays.asList(seq.getVariable(1), seq.getVariable(0))) :
+            seq.extend(compare, Arrays.asList(seq.getVariable(0), seq.getVariable(1)));
+    }
+
+    /*
+     * Returns the given sequence parsed from its parsable form, with its variables renamed in reverse order
+     */
+    private static Sequence renameVariables(Sequence seq) throws Exception {
+        Matcher matcher = VARIABLE_NAME.matcher(seq.toParsableString());
+        StringBuffer renamed = new StringBuffer();
+        while (matcher.find()) {
+            matcher.appendReplacement(renamed, "renamed" + (seq.size() - Integer.parseInt(matcher.group(1))));
+        }
+        matcher.appendTail(renamed);
+        return Sequence.parse(renamed.toString());
+    }
+
+    @Test
+    public void testFingerprintIndependentOfVariableNames() throws Exception {
+        Sequence seq = createCompareSequence(1, 2, false);
+        assertEquals(SequenceUtil.getCanonicalFingerprint(seq),
+            SequenceUtil.getCanonicalFingerprint(renameVariables(seq)));
+
+        // a sequence built the same way separately has the same fingerprint
+        assertEquals(SequenceUtil.getCanonicalFingerprint(seq),
+            SequenceUtil.getCanonicalFingerprint(createCompareSequence(1, 2, false)));
+    }
+
+    @Test
+    public void testFingerprintOfPrimitiveValues() throws Exception {
+        String fingerprint = SequenceUtil.getCanonicalFingerprint(createCompareSequence(1, 2, false));
+        assertNotEquals(fingerprint, SequenceUtil.getCanonicalFingerprint(createCompareSequence(1, 3, false)));
+        assertNotEquals(fingerprint, SequenceUtil.getCanonicalFingerprint(createCompareSequence(2, 1, false)));
+    }
+
+    @Test
+    public void testFingerprintOfInputWiring() throws Exception {
+        // the same statements, with the inputs of the comparison swapped
+        assertNotEquals(SequenceUtil.getCanonicalFingerprint(createCompareSequence(1, 2, false)),
+            SequenceUtil.getCanonicalFingerprint(createCompareSequence(1, 2, true)));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.konveyor.tackle.testgen.core.extender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+public class TestPlanReaderTest {
+
+    private static final String[] TEST_PLAN_FILES = {
+        "test/data/daytrader7/DayTrader_ctd_models_new_format.json",
+        "test/data/irs/irs_ctd_models_and_test_plans.json",
+        "test/data/4_rif/4_rif_ctd_models_and_test_plans.json"
+    };
+
+    @Test
+    public void testStreamingReaderMatchesTreeReader() throws IOException {
+        for (String testPlanFile : TEST_PLAN_FILES) {
+            TestPlanReader treeReader = new TestPlanReader(new File(testPlanFile), false);
+            TestPlanReader streamingReader = new TestPlanReader(new File(testPlanFile), true);
+
+            // same information about the test plan
+            assertTrue(testPlanFile, treeReader.getNumClasses() > 0);
+            assertEquals(testPlanFile, treeReader.getNumPartitions(), streamingReader.getNumPartitions());
+            assertEquals(testPlanFile, treeReader.getNumClasses(), streamingReader.getNumClasses());
+            assertEquals(testPlanFile, treeReader.getNumMethods(), streamingReader.getNumMethods());
+            assertEquals(testPlanFile, treeReader.getNumTestPlanRows(), streamingReader.getNumTestPlanRows());
+            assertEquals(testPlanFile, treeReader.getQualifiedMethodSignatures(),
+                streamingReader.getQualifiedMethodSignatures());
+            assertEquals(testPlanFile, treeReader.getFormattedMethodSignatures(),
+                streamingReader.getFormattedMethodSignatures());
+
+            // same class test plans, in the same order
+            Iterator<TestPlanReader.ClassTestPlan> treeClasses = treeReader.classIterator();
+            Iterator<TestPlanReader.ClassTestPlan> streamingClasses = streamingReader.classIterator();
+            while (treeClasses.hasNext()) {
+                assertTrue(testPlanFile, streamingClasses.hasNext());
+                TestPlanReader.ClassTestPlan treeClass = treeClasses.next();
+                TestPlanReader.ClassTestPlan streamingClass = streamingClasses.next();
+                assertEquals(testPlanFile, treeClass.partition, streamingClass.partition);
+                assertEquals(testPlanFile, treeClass.className, streamingClass.className);
+                assertEquals(testPlanFile + ": " + treeClass.className, treeClass.testPlan, streamingClass.testPlan);
+            }
+            assertFalse(testPlanFile, streamingClasses.hasNext());
+        }
+    }
+}
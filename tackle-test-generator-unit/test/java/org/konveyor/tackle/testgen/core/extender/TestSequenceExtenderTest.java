@@ -35,6 +35,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.konveyor.tackle.testgen.TestUtils;
 import org.konveyor.tackle.testgen.TestUtils.ExtenderAppUnderTest;
+import org.konveyor.tackle.testgen.util.Constants;
 import org.konveyor.tackle.testgen.util.TackleTestJson;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -97,6 +98,16 @@ public class TestSequenceExtenderTest {
         for (ExtenderAppUnderTest app : appsUnderTest) {
         	Files.deleteIfExists(Paths.get(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName)));
             Files.deleteIfExists(Paths.get(ExtenderAppUnderTest.getCoverageFileJsonName(app.appName)));
+            for (String dirSuffix : new String[] {Constants.EXTENDER_CHECKPOINT_DIR_SUFFIX,
+                Constants.EXTENDER_SPILL_DIR_SUFFIX}) {
+                Path dir = Paths.get(app.appName + dirSuffix);
+                if (Files.exists(dir)) {
+                    Files.walk(dir)
+                        .sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(File::delete);
+                }
+            }
         }
     }
 
@@ -208,6 +219,23 @@ public class TestSequenceExtenderTest {
 		}
 	}
 
+    /**
+     * Reads the coverage file of the given app into a map from test plan row (partition, class,
+     * method and row, separated by "::") to the coverage of the row
+     */
+    private Map<String, String> readRowCoverage(ExtenderAppUnderTest app) throws IOException {
+        JsonNode coverageInfo = TackleTestJson.getObjectMapper().readTree(
+            new File(ExtenderAppUnderTest.getCoverageFileJsonName(app.appName)));
+        Map<String, String> rowCoverage = new HashMap<>();
+        coverageInfo.fields().forEachRemaining(partition ->
+            partition.getValue().fields().forEachRemaining(cls ->
+                cls.getValue().fields().forEachRemaining(method ->
+                    method.getValue().fields().forEachRemaining(row ->
+                        rowCoverage.put(partition.getKey() + "::" + cls.getKey() + "::" + method.getKey() +
+                            "::" + row.getKey(), row.getValue().asText())))));
+        return rowCoverage;
+    }
+
     private void assertTestClassesDir(ExtenderAppUnderTest app) throws IOException {
         Path testClassesDir = Paths.get(app.appOutdir);
         assertTrue(app.appName, Files.exists(testClassesDir));
@@ -247,6 +275,149 @@ public class TestSequenceExtenderTest {
         }
     }
 
+    @Test
+    public void testGenerateTestsWithJEEInMemoryCompilation() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            // skip irs app for execution with JEE support (not an JEE app)
+            if (app.appName.equals("irs")) {
+                 continue;
+            }
+            System.out.println("Current app under test in testGenerateTestsWithJEEInMemoryCompilation: " + app.appName);
+
+            // generate test cases via process launcher, compiling JEE unit tests in memory
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, true, false, null, Arrays.asList("-jmc"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that JEE unit tests were compiled in memory only, and no class files were written
+            JsonNode jeeExecInfo = readSummaryInfo(app, "jee_execution_info");
+            assertTrue(app.appName, jeeExecInfo.get("compilations").asInt() > 0);
+            assertEquals(app.appName, jeeExecInfo.get("compilations").asInt(),
+                jeeExecInfo.get("in_memory_compilations").asInt());
+            assertEquals(app.appName, 0, Files.walk(Paths.get(app.appOutdir))
+                .filter(p -> p.toString().endsWith(".class"))
+                .count());
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithJEEPersistentRunner() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            // skip irs app for execution with JEE support (not an JEE app)
+            if (app.appName.equals("irs")) {
+                 continue;
+            }
+            System.out.println("Current app under test in testGenerateTestsWithJEEPersistentRunner: " + app.appName);
+
+            // generate test cases via process launcher, running JEE unit tests compiled in memory in a
+            // persistent runner JVM that is restarted every 5 test classes
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, true, false, null, Arrays.asList("-jmc", "-jpr", "5"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that test classes were run in persistent runners, each restarted at least once every
+            // 5 test classes
+            JsonNode jeeExecInfo = readSummaryInfo(app, "jee_execution_info");
+            int runners = jeeExecInfo.get("runners").asInt();
+            int runnerRuns = jeeExecInfo.get("runner_runs").asInt();
+            assertTrue(app.appName, runners > 0);
+            assertTrue(app.appName, runnerRuns > 0);
+            assertTrue(app.appName, 5 * jeeExecInfo.get("runner_restarts").asInt() >= runnerRuns - 4 * runners);
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithJEEBatching() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            // skip irs app for execution with JEE support (not an JEE app)
+            if (app.appName.equals("irs")) {
+                 continue;
+            }
+            System.out.println("Current app under test in testGenerateTestsWithJEEBatching: " + app.appName);
+
+            // generate test cases via process launcher, rerunning failing sequences of all classes of a
+            // partition in one batch, compiled in memory and run in a persistent runner JVM
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, true, false, null, Arrays.asList("-jmc", "-jpr", "5", "-jbs", "0"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that the test classes of each partition were compiled once, in one batch per partition
+            JsonNode jeeExecInfo = readSummaryInfo(app, "jee_execution_info");
+            int batches = jeeExecInfo.get("batches").asInt();
+            long partitions = readRowCoverage(app).keySet().stream()
+                .map(row -> row.substring(0, row.indexOf("::")))
+                .distinct()
+                .count();
+            assertTrue(app.appName, batches > 0);
+            assertTrue(app.appName, batches <= partitions);
+            assertTrue(app.appName, batches <= jeeExecInfo.get("test_classes").asInt());
+            assertEquals(app.appName, batches,
+                jeeExecInfo.get("compilations").asInt() - jeeExecInfo.get("recompilations").asInt());
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithJEERerunClassification() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            // skip irs app for execution with JEE support (not an JEE app)
+            if (app.appName.equals("irs")) {
+                 continue;
+            }
+            System.out.println("Current app under test in testGenerateTestsWithJEERerunClassification: " + app.appName);
+
+            // generate test cases via process launcher, rerunning with JEE support only failed sequences
+            // that the default rules predict to pass
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, true, false, null, Arrays.asList("-jrc"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that reruns avoided by the classifier rules are reported
+            ObjectNode summaryInfo = (ObjectNode) TackleTestJson.getObjectMapper().readTree(
+                new File(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName)));
+            assertTrue(app.appName, summaryInfo.get("jee_rerun_info").has("reruns_avoided_by_rule"));
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
     @Test
     public void testGenerateTestsWithoutJEESupport() throws Exception {
         for (ExtenderAppUnderTest app : appsUnderTest) {
@@ -272,6 +443,457 @@ public class TestSequenceExtenderTest {
         }
     }
     
+    @Test
+    public void testGenerateTestsWithMultipleWorkers() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsWithMultipleWorkers: " + app.appName);
+
+            // execute test cases serially, as the reference for the concurrent run
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null);
+            ObjectNode serialSummaryInfo = (ObjectNode) TackleTestJson.getObjectMapper().readTree(
+                new File(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName)));
+            Map<String, String> serialCoverage = readRowCoverage(app);
+            cleanUp();
+
+            // execute test cases via process launcher, extending classes concurrently
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-nw", "4"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that the summary matches that of the serial run; counters that depend on the
+            // primitive values picked at random for the sequences are not compared
+            ObjectNode summaryInfo = (ObjectNode) TackleTestJson.getObjectMapper().readTree(
+                new File(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName)));
+            for (String counter : new String[] {"extended_sequences_info/generated_sequences",
+                "test_plan_coverage_info/test_plan_rows", "test_plan_coverage_info/rows_covered_bb_sequences",
+                "uncovered_test_plan_rows_info/no_bb_sequence_for_target_method",
+                "uncovered_test_plan_rows_info/non_instantiable_param_type"}) {
+                assertEquals(app.appName + ": " + counter, serialSummaryInfo.at("/" + counter).asInt(),
+                    summaryInfo.at("/" + counter).asInt());
+            }
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert that the same test plan rows are reported as for the serial run, and that rows
+            // that are uncovered regardless of sequence execution are the same
+            Map<String, String> coverage = readRowCoverage(app);
+            assertEquals(app.appName, serialCoverage.keySet(), coverage.keySet());
+            for (Map.Entry<String, String> rowCoverage : serialCoverage.entrySet()) {
+                String serialRowCoverage = rowCoverage.getValue();
+                String rowCoverageWithWorkers = coverage.get(rowCoverage.getKey());
+                for (Constants.TestPlanRowCoverage executionIndependent : new Constants.TestPlanRowCoverage[] {
+                    Constants.TestPlanRowCoverage.UNCOVERED_NO_INIT_SEQ,
+                    Constants.TestPlanRowCoverage.UNCOVERED_NON_INST_TYPE}) {
+                    assertEquals(app.appName + ": " + rowCoverage.getKey(),
+                        serialRowCoverage.equals(executionIndependent.name()),
+                        rowCoverageWithWorkers.equals(executionIndependent.name()));
+                }
+            }
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithStreamingTestPlan() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsWithStreamingTestPlan: " + app.appName);
+
+            // execute test cases reading the entire test plan, as the reference for the streaming run
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null);
+            ObjectNode treeSummaryInfo = (ObjectNode) TackleTestJson.getObjectMapper().readTree(
+                new File(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName)));
+            Map<String, String> treeCoverage = readRowCoverage(app);
+            cleanUp();
+
+            // execute test cases via process launcher, reading the test plan one class at a time
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-st"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that the summary matches that of the run reading the entire test plan; counters
+            // that depend on the primitive values picked at random for the sequences are not compared
+            ObjectNode summaryInfo = (ObjectNode) TackleTestJson.getObjectMapper().readTree(
+                new File(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName)));
+            for (String counter : new String[] {"extended_sequences_info/generated_sequences",
+                "test_plan_coverage_info/test_plan_target_methods", "test_plan_coverage_info/test_plan_rows",
+                "test_plan_coverage_info/rows_covered_bb_sequences",
+                "uncovered_test_plan_rows_info/no_bb_sequence_for_target_method",
+                "uncovered_test_plan_rows_info/non_instantiable_param_type"}) {
+                assertEquals(app.appName + ": " + counter, treeSummaryInfo.at("/" + counter).asInt(),
+                    summaryInfo.at("/" + counter).asInt());
+            }
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert that the same test plan rows are reported as for the run reading the entire test plan
+            assertEquals(app.appName, treeCoverage.keySet(), readRowCoverage(app).keySet());
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsMemoryBounded() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsMemoryBounded: " + app.appName);
+
+            // execute test cases via process launcher, spilling sequences of completed classes to disk
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-mb"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that the sequences of the classes were spilled to disk, and removed at the end of the run
+            JsonNode spillInfo = readSummaryInfo(app, "spill_info");
+            assertTrue(app.appName, spillInfo.get("spilled_classes").asInt() > 0);
+            assertTrue(app.appName, spillInfo.get("spilled_sequences").asInt() >= spillInfo.get("spilled_classes").asInt());
+            assertTrue(app.appName, spillInfo.get("spilled_bytes").asLong() > 0);
+            assertTrue(app.appName, ! Files.exists(Paths.get(app.appName + Constants.EXTENDER_SPILL_DIR_SUFFIX)));
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithAdaptiveRepetition() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsWithAdaptiveRepetition: " + app.appName);
+
+            // execute test cases via process launcher, stopping executions of a sequence once its
+            // recorded state is stable for 3 consecutive executions
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-se", "3"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithAdaptiveTimeout() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsWithAdaptiveTimeout: " + app.appName);
+
+            // execute test cases via process launcher, deriving execution time limits from observed
+            // execution times
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-at"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // sequences cut off by an adaptive time limit are counted among the executed sequences
+            JsonNode extSeqInfo = TackleTestJson.getObjectMapper().readTree(
+                new File(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName))).get("extended_sequences_info");
+            assertTrue(app.appName, extSeqInfo.has("adaptive_timeout_cutoffs"));
+            int cutOffs = extSeqInfo.get("adaptive_timeout_cutoffs").asInt();
+            assertTrue(app.appName, cutOffs >= 0 && cutOffs <= extSeqInfo.get("executed_sequences").asInt());
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithCaptureBudget() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsWithCaptureBudget: " + app.appName);
+
+            // execute test cases via process launcher without a capture budget, for reference
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null);
+            int unboundedAssertions = readSummaryInfo(app, "extended_sequences_info").get("diff_assertions").asInt();
+            cleanUp();
+
+            // execute test cases via process launcher, bounding the cost of recording object state to
+            // one field per object; objects over budget are recorded by type only
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null,
+                Arrays.asList("-cbf", "1", "-cbb", "4096", "-cbt", "1000"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that objects were recorded by type only, which leaves them without state assertions
+            JsonNode extSeqInfo = readSummaryInfo(app, "extended_sequences_info");
+            assertTrue(app.appName, extSeqInfo.get("state_capture_truncations").asInt() > 0);
+            assertTrue(app.appName, extSeqInfo.get("diff_assertions").asInt() < unboundedAssertions);
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithPrefixTrie() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsWithPrefixTrie: " + app.appName);
+
+            // execute test cases via process launcher, reusing the recorded results of shared prefixes
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-pt"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithCompiledExecution() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsWithCompiledExecution: " + app.appName);
+
+            // execute test cases via process launcher, executing sequences as compiled code
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-cx"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that sequences were executed as compiled code
+            JsonNode extSeqInfo = readSummaryInfo(app, "extended_sequences_info");
+            assertTrue(app.appName, extSeqInfo.get("compiled_sequences").asInt() > 0);
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithForkedWorkers() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsWithForkedWorkers: " + app.appName);
+
+            // execute test cases via process launcher, executing sequences in two worker JVMs that are
+            // restarted every 100 sequences
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-fw", "2", "-wr", "100"));
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert that sequences are sent to the workers in batches, one per target method
+            ObjectNode summaryInfo = (ObjectNode) TackleTestJson.getObjectMapper().readTree(
+                new File(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName)));
+            JsonNode forkedExecInfo = summaryInfo.get("forked_execution_info");
+            assertTrue(app.appName, forkedExecInfo.get("batches").asLong() < forkedExecInfo.get("executions").asLong());
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+        }
+    }
+
+    @Test
+    public void testGenerateTestsWithResume() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsWithResume: " + app.appName);
+
+            // execute test cases via process launcher, then resume the completed run, which restores
+            // all classes from their checkpoints
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null);
+            List<File> checkpointFiles = getCheckpointFiles(app);
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-rs"));
+
+            // assert that all classes were restored
+            JsonNode checkpointInfo = readCheckpointInfo(app);
+            assertTrue(app.appName, checkpointFiles.size() > 0);
+            assertEquals(app.appName, checkpointFiles.size(), checkpointInfo.get("restored_classes").asInt());
+            assertEquals(app.appName, 0, checkpointInfo.get("rejected_checkpoints").asInt());
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+
+            // remove a test file of a checkpointed class, and resume again: the checkpoint of the
+            // class is rejected, and the class is processed again
+            File removedTestFile = null;
+            for (File checkpointFile : checkpointFiles) {
+                JsonNode testFiles = TackleTestJson.getObjectMapper().readTree(checkpointFile).get("test_files");
+                if (testFiles.size() > 0) {
+                    removedTestFile = new File(testFiles.get(0).asText());
+                    break;
+                }
+            }
+            assertTrue(app.appName, removedTestFile != null && removedTestFile.delete());
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-rs"));
+
+            checkpointInfo = readCheckpointInfo(app);
+            assertEquals(app.appName, 1, checkpointInfo.get("rejected_checkpoints").asInt());
+            assertEquals(app.appName, checkpointFiles.size() - 1, checkpointInfo.get("restored_classes").asInt());
+            assertTrue(app.appName, removedTestFile.isFile());
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert over coverage file
+            assertCoverageFile(app);
+        }
+    }
+
+    private List<File> getCheckpointFiles(ExtenderAppUnderTest app) {
+        File[] checkpointFiles = new File(app.appName + Constants.EXTENDER_CHECKPOINT_DIR_SUFFIX).listFiles(
+            (dir, name) -> name.endsWith(".json"));
+        return checkpointFiles == null ? Collections.emptyList() : Arrays.asList(checkpointFiles);
+    }
+
+    private JsonNode readCheckpointInfo(ExtenderAppUnderTest app) throws IOException {
+        JsonNode summaryInfo = TackleTestJson.getObjectMapper().readTree(
+            new File(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName)));
+        assertTrue(app.appName, summaryInfo.has("checkpoint_info"));
+        return summaryInfo.get("checkpoint_info");
+    }
+
+    private JsonNode readSummaryInfo(ExtenderAppUnderTest app, String section) throws IOException {
+        JsonNode summaryInfo = TackleTestJson.getObjectMapper().readTree(
+            new File(ExtenderAppUnderTest.getSummaryFileJsonName(app.appName)));
+        assertTrue(app.appName, summaryInfo.has(section));
+        return summaryInfo.get(section);
+    }
+
+    @Test
+    public void testGenerateTestsIncrementally() throws Exception {
+        for (ExtenderAppUnderTest app : appsUnderTest) {
+
+            System.out.println("Current app under test in testGenerateTestsIncrementally: " + app.appName);
+
+            // execute test cases via process launcher, then rerun incrementally with unchanged inputs,
+            // which reuses the results of all classes
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null);
+            List<File> checkpointFiles = getCheckpointFiles(app);
+            TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                app.testPlanFilename, null, false, false, null, Arrays.asList("-inc"));
+
+            // assert that the results of all classes were reused
+            JsonNode checkpointInfo = readCheckpointInfo(app);
+            assertTrue(app.appName, checkpointFiles.size() > 0);
+            assertEquals(app.appName, checkpointFiles.size(), checkpointInfo.get("restored_classes").asInt());
+            assertEquals(app.appName, 0, checkpointInfo.get("rejected_checkpoints").asInt());
+
+            // assert over summary file
+            assertSummaryFile(app);
+
+            // assert over coverage file
+            assertCoverageFile(app);
+
+            // assert over generated test classes dir
+            assertTestClassesDir(app);
+
+            // rerun incrementally with a test plan in which a row of one class is removed: that class is
+            // extended again, and the results of the other classes are reused
+            Path changedTestPlan = Files.createTempFile(app.appName, "_test_plan.json");
+            try {
+                ObjectNode testPlan = (ObjectNode) TackleTestJson.getObjectMapper().readTree(
+                    new File(app.testPlanFilename));
+                assertTrue(app.appName, removeTestPlanRow(testPlan));
+                TackleTestJson.getObjectMapper().writeValue(changedTestPlan.toFile(), testPlan);
+                TestUtils.launchProcess(TestSequenceExtender.class.getSimpleName(),
+                    app.appName, app.appPath, app.appClasspathFilename, app.testSeqFilename,
+                    changedTestPlan.toString(), null, false, false, null, Arrays.asList("-inc"));
+            } finally {
+                Files.deleteIfExists(changedTestPlan);
+            }
+
+            checkpointInfo = readCheckpointInfo(app);
+            assertEquals(app.appName, 1, checkpointInfo.get("rejected_checkpoints").asInt());
+            assertEquals(app.appName, checkpointFiles.size() - 1, checkpointInfo.get("restored_classes").asInt());
+        }
+    }
+
+    /**
+     * Removes the last row of the test plan of the first method, in the first class, that has more
+     * than one row; returns false if there is no such method
+     */
+    private boolean removeTestPlanRow(ObjectNode testPlan) {
+        for (JsonNode partitionPlan : testPlan.get("models_and_test_plans")) {
+            for (JsonNode classPlan : partitionPlan) {
+                for (JsonNode methodPlan : classPlan) {
+                    ArrayNode rows = (ArrayNode) methodPlan.get("test_plan");
+                    if (rows != null && rows.size() > 1) {
+                        rows.remove(rows.size() - 1);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     @Test
     public void testGenerateTestsWithBadPath() throws Exception {
     	
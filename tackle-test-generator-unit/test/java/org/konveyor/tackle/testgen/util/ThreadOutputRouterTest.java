@@ -0,0 +1,153 @@
+/*
+ * Copyright IBM Corporation 2021
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.konveyor.tackle.testgen.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ThreadOutputRouterTest {
+
+    private static final String NEWLINE = System.lineSeparator();
+
+    @Test
+    public void testDiscard() {
+        try (ThreadOutputRouter.Redirection buffer = ThreadOutputRouter.buffer()) {
+            try (ThreadOutputRouter.Redirection discard = ThreadOutputRouter.discard()) {
+                System.out.println("discarded");
+                System.err.println("discarded");
+                assertNull(discard.getOutput());
+            }
+            assertEquals("", buffer.getOutput());
+        }
+    }
+
+    @Test
+    public void testBuffer() {
+        try (ThreadOutputRouter.Redirection buffer = ThreadOutputRouter.buffer()) {
+            System.out.println("out");
+            System.err.print("err");
+            System.out.printf(" %d", 1);
+            assertEquals("out" + NEWLINE + "err 1", buffer.getOutput());
+        }
+    }
+
+    @Test
+    public void testCaptureToFile() throws Exception {
+        File file = File.createTempFile("output", ".txt");
+        try {
+            try (ThreadOutputRouter.Redirection redirection = ThreadOutputRouter.captureToFile(file, false)) {
+                System.out.println("first");
+            }
+            try (ThreadOutputRouter.Redirection redirection = ThreadOutputRouter.captureToFile(file, true)) {
+                System.err.println("second");
+            }
+            assertEquals("first" + NEWLINE + "second" + NEWLINE,
+                new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRestoreAfterClose() {
+        try (ThreadOutputRouter.Redirection outer = ThreadOutputRouter.buffer()) {
+            System.out.print("before ");
+            ThreadOutputRouter.Redirection inner = ThreadOutputRouter.buffer();
+            System.out.print("inner");
+            inner.close();
+            // closing again has no effect
+            inner.close();
+            System.out.print("after");
+            assertEquals("inner", inner.getOutput());
+            assertEquals("before after", outer.getOutput());
+        }
+        // a later redirection does not see output of closed ones
+        try (ThreadOutputRouter.Redirection buffer = ThreadOutputRouter.buffer()) {
+            assertEquals("", buffer.getOutput());
+        }
+    }
+
+    @Test
+    public void testConcurrentThreads() throws Exception {
+        int numThreads = 4;
+        CyclicBarrier barrier = new CyclicBarrier(numThreads);
+        ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<String>> outputs = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                String tag = "thread" + i + NEWLINE;
+                outputs.add(threadPool.submit(() -> {
+                    try (ThreadOutputRouter.Redirection buffer = ThreadOutputRouter.buffer()) {
+                        // threads print concurrently, each to its own buffer
+                        barrier.await();
+                        for (int j = 0; j < 100; j++) {
+                            System.out.print(tag);
+                        }
+                        return buffer.getOutput();
+                    }
+                }));
+            }
+            for (int i = 0; i < numThreads; i++) {
+                StringBuilder expected = new StringBuilder();
+                for (int j = 0; j < 100; j++) {
+                    expected.append("thread").append(i).append(NEWLINE);
+                }
+                assertEquals(expected.toString(), outputs.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            threadPool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testThreadsCreatedUnderRedirection() throws Exception {
+        ExecutorService threadPool = null;
+        try (ThreadOutputRouter.Redirection buffer = ThreadOutputRouter.buffer()) {
+            // threads started under a redirection, such as threads of application code, inherit it
+            Thread appThread = new Thread(() -> System.out.print("app"));
+            appThread.start();
+            appThread.join();
+            assertEquals("app", buffer.getOutput());
+
+            // pool threads created under a redirection do not keep it, but run tasks handed off with the
+            // redirection of the caller
+            threadPool = Executors.newSingleThreadExecutor(
+                ThreadOutputRouter.withoutRedirection(Executors.defaultThreadFactory()));
+            threadPool.submit(() -> System.out.print("[pool thread output]" + NEWLINE)).get();
+            threadPool.submit(ThreadOutputRouter.withCurrentRedirection(() -> System.out.print(" task"))).get();
+            assertEquals("app task", buffer.getOutput());
+        } finally {
+            if (threadPool != null) {
+                threadPool.shutdownNow();
+            }
+        }
+    }
+}